@@ -14,6 +14,13 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Export des schémas Room (versionnés dans app/schemas) pour valider les migrations
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
     }
 
     buildTypes {
@@ -22,6 +29,14 @@ android {
             proguardFiles(getDefaultProguardFile("proguard-android-optimize.txt"), "proguard-rules.pro")
         }
     }
+    buildFeatures {
+        // BuildConfig.DEBUG : journal réseau désactivé par défaut en release
+        buildConfig = true
+    }
+    sourceSets {
+        // Schémas exportés, relus par MigrationTestHelper dans les tests de migration
+        getByName("androidTest").assets.srcDir("$projectDir/schemas")
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_1_8
         targetCompatibility = JavaVersion.VERSION_1_8
@@ -38,7 +53,7 @@ dependencies {
     // Retrofit pour les appels API
     implementation("com.squareup.retrofit2:retrofit:2.9.0")
     implementation("com.squareup.retrofit2:converter-gson:2.9.0")
-    implementation("com.squareup.okhttp3:logging-interceptor:4.11.0")
+    implementation("com.squareup.okhttp3:okhttp:4.11.0")
 
     // GSON pour le parsing JSON
     implementation("com.google.code.gson:gson:2.10")
@@ -54,14 +69,22 @@ dependencies {
     implementation("com.google.zxing:core:3.5.1")
     implementation(libs.room.common.jvm)
     implementation(libs.room.runtime.android)
+    annotationProcessor(libs.room.compiler)
+
+    // Paging (listes paginées depuis Room, rafraîchies par RemoteMediator)
+    implementation("androidx.paging:paging-runtime:3.2.1")
+    implementation("androidx.paging:paging-guava:3.2.1")
+    implementation("androidx.room:room-paging:2.7.1")
 
     implementation(libs.engage.core)
 
 
     // Tests
     testImplementation("junit:junit:4.13.2")
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.11.0")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
+    androidTestImplementation("androidx.room:room-testing:2.7.1")
 
     //Notification
 
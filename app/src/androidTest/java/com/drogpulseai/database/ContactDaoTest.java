@@ -0,0 +1,113 @@
+package com.drogpulseai.database;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.drogpulseai.database.converter.ContactConverter;
+import com.drogpulseai.database.dao.ContactDao;
+import com.drogpulseai.database.entity.ContactEntity;
+import com.drogpulseai.models.Contact;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Recherche de contacts par téléphone : une partie du numéro suffit, quel que soit
+ * son format de saisie
+ */
+@RunWith(AndroidJUnit4.class)
+public class ContactDaoTest {
+
+    private static final int USER_ID = 3;
+
+    private AppDatabase database;
+    private ContactDao contactDao;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+        contactDao = database.contactDao();
+
+        insert(1, "Alaoui", "+212 6 12-34-56-78", USER_ID);
+        insert(2, "Bennani", "0534567812", USER_ID);
+        insert(3, "Chraibi", "0345612000", USER_ID);
+        insert(4, "Daoudi", "0612345678", USER_ID + 1);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void searchByPartialNumber_matchesAnyPartOfTheNumber() throws InterruptedException {
+        // "3456" : début de 345612000, milieu de 612345678 et de 534567812
+        assertEquals(names("Chraibi", "Alaoui", "Bennani"), namesOf(search("3456")));
+
+        // Fin du numéro
+        assertEquals(names("Bennani"), namesOf(search("7812")));
+    }
+
+    @Test
+    public void searchByPhone_normalizesQueryAndKeepsUserScope() throws InterruptedException {
+        // 612345678 de Daoudi appartient à un autre utilisateur
+        assertEquals(names("Alaoui"), namesOf(search("00212 6123")));
+        assertEquals(names("Alaoui"), namesOf(search("06 12 34")));
+        assertTrue(search("4242").isEmpty());
+    }
+
+    private void insert(int id, String nom, String telephone, int userId) {
+        Contact contact = new Contact(nom, "", telephone, "", "", 0, 0, userId);
+        contact.setId(id);
+        contactDao.insert(ContactConverter.toEntity(contact));
+    }
+
+    private List<ContactEntity> search(String query) throws InterruptedException {
+        return awaitValue(contactDao.searchContacts(USER_ID, query));
+    }
+
+    private static List<String> names(String... names) {
+        return Arrays.asList(names);
+    }
+
+    private static List<String> namesOf(List<ContactEntity> contacts) {
+        List<String> list = new ArrayList<>();
+        for (ContactEntity contact : contacts) {
+            list.add(contact.getNom());
+        }
+        return list;
+    }
+
+    // Première valeur émise par la requête (observée sur le thread principal)
+    private static <T> T awaitValue(LiveData<T> liveData) throws InterruptedException {
+        List<T> values = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        Observer<T> observer = new Observer<T>() {
+            @Override
+            public void onChanged(T value) {
+                values.add(value);
+                latch.countDown();
+                liveData.removeObserver(this);
+            }
+        };
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> liveData.observeForever(observer));
+        assertTrue("Aucun résultat de la requête", latch.await(2, TimeUnit.SECONDS));
+        return values.get(0);
+    }
+}
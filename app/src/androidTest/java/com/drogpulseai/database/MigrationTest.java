@@ -0,0 +1,128 @@
+package com.drogpulseai.database;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.drogpulseai.database.migration.Migrations;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Vérifie que les migrations conservent les données du cache local.
+ * Chaque ancienne version est créée à partir de son schéma exporté (app/schemas), puis ouverte
+ * avec AppDatabase : Room applique Migrations.ALL et valide le résultat avec son code généré,
+ * comme à l'ouverture dans l'application.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+    private static final int LATEST_VERSION = 10;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    @Test
+    public void migrateFromEveryVersion_passesRoomValidation() throws IOException {
+        for (int version = 1; version < LATEST_VERSION; version++) {
+            String name = TEST_DB + "-v" + version;
+            helper.createDatabase(name, version).close();
+
+            AppDatabase database = openWithRoom(name);
+            assertEquals(LATEST_VERSION, database.getOpenHelper().getWritableDatabase().getVersion());
+            database.close();
+        }
+    }
+
+    @Test
+    public void migrateFromV1_keepsContactsAndNormalizesThem() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1);
+        db.execSQL("INSERT INTO contacts (id, nom, prenom, telephone, email, notes, latitude, longitude, "
+                + "userId, isSynced, isDeleted) VALUES (5, 'Alaoui', 'Sara', '+212 6 12-34-56-78', '', '', "
+                + "0, 0, 1, 1, 0)");
+        db.close();
+
+        AppDatabase database = openWithRoom(TEST_DB);
+        db = database.getOpenHelper().getWritableDatabase();
+
+        try (Cursor cursor = db.query("SELECT nom, phoneNormalized FROM contacts WHERE id = 5")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("Alaoui", cursor.getString(0));
+            assertEquals("612345678", cursor.getString(1));
+        }
+        // Les contacts existants sont indexés en plein texte
+        assertEquals(1, count(db, "SELECT rowid FROM contacts_fts WHERE contacts_fts MATCH 'alaoui*'"));
+        assertEquals(0, count(db, "SELECT id FROM products"));
+        database.close();
+    }
+
+    @Test
+    public void migrateFromV2_keepsProductsAndIndexesThem() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 2);
+        db.execSQL("INSERT INTO products (id, reference, name, barcode, quantity, price, userId, "
+                + "coutDeRevientUnitaire, prixMinVente, prixVenteConseille, lastUpdated, isDirty) "
+                + "VALUES (42, 'REF-42', 'Doliprane', '6111000000042', 3, 12.5, 1, 0, 0, 0, 0, 1)");
+        db.close();
+
+        AppDatabase database = openWithRoom(TEST_DB);
+        db = database.getOpenHelper().getWritableDatabase();
+
+        assertEquals(1, count(db, "SELECT id FROM products WHERE barcode = '6111000000042' AND isDirty = 1"));
+        assertEquals(1, count(db, "SELECT rowid FROM products_fts WHERE products_fts MATCH 'doli*'"));
+        database.close();
+    }
+
+    @Test
+    public void migrateFromV8_keepsPendingOperationsRetryable() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 8);
+        db.execSQL("INSERT INTO sync_outbox (entityType, entityId, operation, payload, revision, "
+                + "attemptCount, nextAttemptAt, createdAt) VALUES ('product', -1, 'upsert', '{}', 2, 1, 0, 0)");
+        db.close();
+
+        AppDatabase database = openWithRoom(TEST_DB);
+        db = database.getOpenHelper().getWritableDatabase();
+
+        try (Cursor cursor = db.query("SELECT deadLetter, revision, changedFields FROM sync_outbox "
+                + "WHERE entityType = 'product' AND entityId = -1")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(0, cursor.getInt(0));
+            assertEquals(2, cursor.getInt(1));
+            // Pas de champs modifiés connus : l'entité entière sera envoyée
+            assertTrue(cursor.isNull(2));
+        }
+        database.close();
+    }
+
+    /**
+     * Ouvrir la base migrée comme le fait l'application : une migration manquante ou un schéma
+     * différent de celui des entités lève une IllegalStateException
+     */
+    private static AppDatabase openWithRoom(String name) {
+        AppDatabase database = Room.databaseBuilder(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                        AppDatabase.class,
+                        name)
+                .addMigrations(Migrations.ALL)
+                .build();
+        database.getOpenHelper().getWritableDatabase();
+        return database;
+    }
+
+    private static int count(SupportSQLiteDatabase db, String query) {
+        try (Cursor cursor = db.query(query)) {
+            return cursor.getCount();
+        }
+    }
+}
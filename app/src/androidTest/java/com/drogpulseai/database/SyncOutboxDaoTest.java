@@ -0,0 +1,144 @@
+package com.drogpulseai.database;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.drogpulseai.database.dao.SyncOutboxDao;
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Vérifie la file de synchronisation : pas de doublon par entité,
+ * et aucune modification perdue quand elle arrive pendant un envoi
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyncOutboxDaoTest {
+
+    private AppDatabase database;
+    private SyncOutboxDao outboxDao;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+        outboxDao = database.syncOutboxDao();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void enqueueSameEntityTwice_keepsOneEntryWithLatestPayload() {
+        outboxDao.enqueue(newEntry(-1, "{\"name\":\"A\"}"));
+        outboxDao.enqueue(newEntry(-1, "{\"name\":\"B\"}"));
+        outboxDao.enqueue(newEntry(7, null));
+
+        assertEquals(2, outboxDao.countPending(SyncOutboxEntity.TYPE_PRODUCT));
+        assertEquals(0, outboxDao.countPending(SyncOutboxEntity.TYPE_CONTACT));
+
+        SyncOutboxEntity entry = outboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, -1);
+        assertEquals("{\"name\":\"B\"}", entry.getPayload());
+        assertEquals(1, entry.getRevision());
+    }
+
+    @Test
+    public void successiveEdits_mergeChangedFieldsAndKeepFirstBase() {
+        SyncOutboxEntity first = newEntry(9, "v1");
+        first.setChangedFields("quantity");
+        first.setBaseUpdatedAt("2024-05-01 10:00:00");
+        outboxDao.enqueue(first);
+
+        SyncOutboxEntity second = newEntry(9, "v2");
+        second.setChangedFields("price");
+        second.setBaseUpdatedAt("2024-05-02 10:00:00");
+        outboxDao.enqueue(second);
+
+        SyncOutboxEntity entry = outboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, 9);
+        assertEquals("price,quantity", entry.getChangedFields());
+        assertEquals("2024-05-01 10:00:00", entry.getBaseUpdatedAt());
+
+        // Une modification sans champs connus renvoie l'entité entière
+        outboxDao.enqueue(newEntry(9, "v3"));
+        assertNull(outboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, 9).getChangedFields());
+    }
+
+    @Test
+    public void completeAfterConcurrentEdit_keepsEntry() {
+        outboxDao.enqueue(newEntry(3, "v1"));
+        SyncOutboxEntity sent = outboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, 3);
+
+        // Modification pendant l'envoi de v1
+        outboxDao.enqueue(newEntry(3, "v2"));
+
+        assertEquals(0, outboxDao.deleteIfUnchanged(sent.getOutboxId(), sent.getRevision()));
+        assertEquals("v2", outboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, 3).getPayload());
+
+        SyncOutboxEntity latest = outboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, 3);
+        assertEquals(1, outboxDao.deleteIfUnchanged(latest.getOutboxId(), latest.getRevision()));
+        assertEquals(0, outboxDao.countPending(SyncOutboxEntity.TYPE_PRODUCT));
+    }
+
+    @Test
+    public void recordFailure_incrementsAttempts() {
+        outboxDao.enqueue(newEntry(5, null));
+        SyncOutboxEntity entry = outboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, 5);
+
+        outboxDao.recordFailure(entry.getOutboxId(), entry.getRevision(), 1234L, "HTTP 500");
+
+        SyncOutboxEntity updated = outboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, 5);
+        assertEquals(1, updated.getAttemptCount());
+        assertEquals(1234L, updated.getNextAttemptAt());
+        assertEquals("HTTP 500", updated.getLastError());
+    }
+
+    @Test
+    public void dueIds_skipBackedOffAndDeadLetterEntries() {
+        outboxDao.enqueue(newEntry(1, null));
+        outboxDao.enqueue(newEntry(2, null));
+        outboxDao.enqueue(newEntry(3, null));
+        long now = System.currentTimeMillis() + 1_000L;
+
+        SyncOutboxEntity backedOff = outboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, 2);
+        outboxDao.recordFailure(backedOff.getOutboxId(), backedOff.getRevision(), now + 60_000L, "timeout");
+        SyncOutboxEntity poison = outboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, 3);
+        outboxDao.markDeadLetter(poison.getOutboxId(), poison.getRevision(), "HTTP 422");
+
+        assertEquals(Collections.singletonList(1), outboxDao.getDueIds(SyncOutboxEntity.TYPE_PRODUCT, now));
+        assertEquals(1, outboxDao.getDeadLetters().size());
+
+        // Une fois l'opération 1 envoyée, la prochaine tentative est celle de l'opération 2
+        outboxDao.delete(SyncOutboxEntity.TYPE_PRODUCT, 1);
+        assertEquals(Long.valueOf(now + 60_000L), outboxDao.getNextAttemptAt(SyncOutboxEntity.TYPE_PRODUCT));
+    }
+
+    @Test
+    public void newEditOfDeadLetter_requeuesIt() {
+        outboxDao.enqueue(newEntry(4, "v1"));
+        SyncOutboxEntity entry = outboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, 4);
+        outboxDao.markDeadLetter(entry.getOutboxId(), entry.getRevision(), "HTTP 422");
+
+        outboxDao.enqueue(newEntry(4, "v2"));
+
+        SyncOutboxEntity requeued = outboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, 4);
+        assertFalse(requeued.isDeadLetter());
+        assertEquals(0, requeued.getAttemptCount());
+        assertNull(requeued.getLastError());
+    }
+
+    private static SyncOutboxEntity newEntry(int productId, String payload) {
+        return new SyncOutboxEntity(SyncOutboxEntity.TYPE_PRODUCT, productId, SyncOutboxEntity.OP_UPSERT, payload);
+    }
+}
@@ -0,0 +1,139 @@
+package com.drogpulseai.repository;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.drogpulseai.database.AppDatabase;
+import com.drogpulseai.database.converter.ProductConverter;
+import com.drogpulseai.models.Product;
+import com.drogpulseai.utils.JsonArrayStreamer;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compare le chargement du catalogue à 1k, 10k et 50k produits :
+ * ancien chargement (liste complète via TypeToken), lecture en flux par lots,
+ * et première page lue depuis Room. Résultats dans logcat, tag "CatalogLoadBench"
+ * (temps jusqu'au premier élément, mémoire retenue au moment le plus chargé)
+ */
+@RunWith(AndroidJUnit4.class)
+public class CatalogLoadBenchmarkTest {
+
+    private static final String TAG = "CatalogLoadBench";
+    private static final int[] SIZES = {1_000, 10_000, 50_000};
+    private static final int CHUNK_SIZE = 500;
+    private static final int PAGE_SIZE = 50;
+    private static final int USER_ID = 1;
+
+    private final Gson gson = new Gson();
+    private AppDatabase database;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void compareCatalogLoads() throws Exception {
+        for (int size : SIZES) {
+            String json = buildCatalogJson(size);
+
+            // Avant : chaîne complète -> liste complète
+            long baseline = usedHeap();
+            long start = SystemClock.elapsedRealtimeNanos();
+            Type type = new TypeToken<List<Product>>(){}.getType();
+            List<Product> all = gson.fromJson(json, type);
+            long fullFirstItemMs = elapsedMs(start);
+            long fullPeakKb = (usedHeap() - baseline) / 1024;
+            assertEquals(size, all.size());
+            all = null;
+
+            // Après : lecture en flux, un seul lot en mémoire
+            baseline = usedHeap();
+            long[] firstChunkNanos = {0};
+            long[] streamPeak = {0};
+            long streamStart = SystemClock.elapsedRealtimeNanos();
+            int streamed = JsonArrayStreamer.stream(gson, new StringReader(json), Product.class, CHUNK_SIZE, chunk -> {
+                if (firstChunkNanos[0] == 0) {
+                    firstChunkNanos[0] = SystemClock.elapsedRealtimeNanos() - streamStart;
+                }
+                streamPeak[0] = Math.max(streamPeak[0], currentHeap());
+                database.productDao().upsertProducts(ProductConverter.fromProductList(chunk));
+            });
+            long streamPeakKb = (streamPeak[0] - baseline) / 1024;
+            assertEquals(size, streamed);
+
+            // Premier affichage depuis Room : une page triée
+            start = SystemClock.elapsedRealtimeNanos();
+            int rows;
+            try (Cursor cursor = database.query(new SimpleSQLiteQuery(
+                    "SELECT * FROM products WHERE userId = ? ORDER BY name LIMIT ?",
+                    new Object[]{USER_ID, PAGE_SIZE}))) {
+                rows = cursor.getCount();
+            }
+            long roomFirstPageMs = elapsedMs(start);
+            assertEquals(PAGE_SIZE, rows);
+
+            Log.i(TAG, size + " produits | liste complète : premier élément " + fullFirstItemMs
+                    + " ms, mémoire " + fullPeakKb + " Ko | flux : premier lot "
+                    + firstChunkNanos[0] / 1_000_000 + " ms, mémoire " + streamPeakKb
+                    + " Ko | Room : première page " + roomFirstPageMs + " ms");
+
+            database.productDao().deleteAllProducts();
+        }
+    }
+
+    private String buildCatalogJson(int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Product product = new Product();
+            product.setId(i);
+            product.setReference("REF-" + i);
+            product.setName("Produit " + i);
+            product.setPrice(10 + (i % 100));
+            product.setUserId(USER_ID);
+            products.add(product);
+        }
+        return gson.toJson(products);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long currentHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (SystemClock.elapsedRealtimeNanos() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,155 @@
+package com.drogpulseai.repository;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.drogpulseai.database.AppDatabase;
+import com.drogpulseai.database.converter.ContactConverter;
+import com.drogpulseai.database.dao.ContactDao;
+import com.drogpulseai.database.entity.ContactEntity;
+import com.drogpulseai.models.Contact;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Vérifie les écritures de ContactRepository sur une base en mémoire : regroupement des
+ * écritures différées, écriture immédiate des modifications locales, et mesure de
+ * 1000 modifications successives (résultats dans logcat, tag "WriteBehindBench")
+ */
+@RunWith(AndroidJUnit4.class)
+public class ContactRepositoryWriteBehindTest {
+
+    private static final String TAG = "WriteBehindBench";
+
+    private static final int TEST_USER_ID = 7;
+    private static final int FIRST_ID = 1000;
+    private static final int EDIT_COUNT = 1000;
+
+    private AppDatabase database;
+    private ContactDao contactDao;
+    private ContactRepository repository;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+        contactDao = database.contactDao();
+        repository = new ContactRepository(context, database);
+    }
+
+    @After
+    public void tearDown() {
+        repository.flush();
+        database.close();
+    }
+
+    @Test
+    public void editsOfSameContact_areCoalescedAndLastWins() {
+        for (int i = 0; i < 10; i++) {
+            repository.insertOrUpdateContact(newContact(FIRST_ID, "Version " + i, false));
+        }
+        repository.deleteContact(FIRST_ID + 1);
+
+        // La lecture voit la dernière écriture avant même qu'elle soit en base
+        Contact contact = repository.getContactById(FIRST_ID);
+        assertNotNull(contact);
+        assertEquals("Version 9", contact.getNom());
+
+        repository.flush();
+        assertEquals("Version 9", contactDao.getContactById(FIRST_ID).getNom());
+        assertEquals(1, contactDao.getContactsForUser(TEST_USER_ID).size());
+    }
+
+    @Test
+    public void deferredWrite_isInRoomAfterTheWindow() {
+        repository.insertOrUpdateContact(newContact(FIRST_ID, "Serveur", false));
+
+        // Sans vidage explicite : le vidage planifié suit la fenêtre de regroupement
+        long deadline = SystemClock.elapsedRealtime() + 5_000;
+        ContactEntity stored = null;
+        while (stored == null && SystemClock.elapsedRealtime() < deadline) {
+            SystemClock.sleep(50);
+            stored = contactDao.getContactById(FIRST_ID);
+        }
+
+        assertNotNull("Écriture différée absente de Room", stored);
+        assertEquals("Serveur", stored.getNom());
+        assertTrue(stored.isSynced());
+    }
+
+    @Test
+    public void localEdit_isInRoomBeforeReturning() {
+        repository.insertOrUpdateContact(newContact(-1, "Hors ligne", true));
+
+        // Aucun vidage : la modification doit déjà survivre à un arrêt du processus
+        ContactEntity stored = contactDao.getContactById(-1);
+        assertNotNull(stored);
+        assertEquals("Hors ligne", stored.getNom());
+        assertFalse(stored.isSynced());
+    }
+
+    @Test
+    public void localEdit_isNotOverwrittenByOlderDeferredWrite() {
+        repository.insertOrUpdateContact(newContact(FIRST_ID, "Serveur", false));
+        repository.insertOrUpdateContact(newContact(FIRST_ID, "Modifié", true));
+
+        repository.flush();
+        ContactEntity stored = contactDao.getContactById(FIRST_ID);
+        assertEquals("Modifié", stored.getNom());
+        assertFalse(stored.isSynced());
+        assertEquals(1, contactDao.getContactsForUser(TEST_USER_ID).size());
+    }
+
+    @Test
+    public void thousandSequentialEdits_writeBehindVsPerEditTransaction() {
+        // Avant : une transaction par modification
+        long start = SystemClock.elapsedRealtime();
+        for (int i = 0; i < EDIT_COUNT; i++) {
+            ContactEntity entity = ContactConverter.toEntity(newContact(FIRST_ID + i, "Direct " + i, false));
+            database.runInTransaction(() -> {
+                ContactEntity existing = contactDao.findContactByServerId(entity.getId());
+                if (existing != null) {
+                    entity.setRoomId(existing.getRoomId());
+                }
+                contactDao.insert(entity);
+            });
+        }
+        long perEditMs = SystemClock.elapsedRealtime() - start;
+
+        // Après : écritures différées, une transaction au point de durabilité
+        start = SystemClock.elapsedRealtime();
+        for (int i = 0; i < EDIT_COUNT; i++) {
+            repository.insertOrUpdateContact(newContact(FIRST_ID + i, "Différé " + i, false));
+        }
+        repository.flush();
+        long writeBehindMs = SystemClock.elapsedRealtime() - start;
+
+        Log.i(TAG, EDIT_COUNT + " modifications : " + perEditMs + " ms (une transaction chacune), "
+                + writeBehindMs + " ms (écritures différées)");
+
+        assertEquals(EDIT_COUNT, contactDao.getContactsForUser(TEST_USER_ID).size());
+        assertEquals("Différé " + (EDIT_COUNT - 1),
+                contactDao.getContactById(FIRST_ID + EDIT_COUNT - 1).getNom());
+    }
+
+    private static Contact newContact(int id, String nom, boolean dirty) {
+        Contact contact = new Contact();
+        contact.setId(id);
+        contact.setNom(nom);
+        contact.setPrenom("Test");
+        contact.setTelephone("0600000000");
+        contact.setUserId(TEST_USER_ID);
+        contact.setDirty(dirty);
+        return contact;
+    }
+}
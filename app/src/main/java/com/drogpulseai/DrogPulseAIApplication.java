@@ -4,6 +4,8 @@ import android.app.Application;
 import android.content.Context;
 import android.content.res.Configuration;
 
+import com.drogpulseai.api.ApiClient;
+import com.drogpulseai.repository.ContactRepository;
 import com.drogpulseai.sync.SyncManager;
 import com.drogpulseai.utils.Config;
 import com.drogpulseai.utils.LanguageManager;
@@ -22,8 +24,11 @@ public class DrogPulseAIApplication extends Application {
         // Initialiser la configuration
         Config.init(this);
 
-        // Initialiser le SyncManager
-        SyncManager.getInstance(this);
+        // Cache HTTP sur disque (listes revalidées par ETag / Last-Modified)
+        ApiClient.init(this);
+
+        // Initialiser le SyncManager et planifier la synchronisation périodique
+        SyncManager.getInstance(this).schedulePeriodicSync();
 
         // Initialiser la langue de l'application
         LanguageManager.initLanguage(this);
@@ -73,6 +78,19 @@ public class DrogPulseAIApplication extends Application {
         super.attachBaseContext(newContext);
     }
 
+    /**
+     * Cette méthode est appelée quand l'interface n'est plus visible (passage en arrière-plan)
+     * Les écritures différées sont vidées avant que le processus ne risque d'être arrêté
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            ContactRepository.requestFlush(this);
+        }
+    }
+
     @Override
     public void onTerminate() {
         super.onTerminate();
@@ -3,6 +3,7 @@ package com.drogpulseai.activities;
 import android.app.Application;
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.format.DateUtils;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
@@ -11,9 +12,13 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.paging.CombinedLoadStates;
+import androidx.paging.LoadState;
+import androidx.paging.PagingLiveData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
+import androidx.work.WorkInfo;
 
 import com.drogpulseai.R;
 import com.drogpulseai.activities.appuser.LoginActivity;
@@ -25,11 +30,13 @@ import com.drogpulseai.activities.products.ProductListActivity;
 
 
 import com.drogpulseai.adapters.ContactAdapter;
+import com.drogpulseai.adapters.ContactPagingAdapter;
 import com.drogpulseai.api.ApiClient;
 import com.drogpulseai.api.ApiService;
 import com.drogpulseai.models.Contact;
 import com.drogpulseai.models.User;
 import com.drogpulseai.sync.SyncManager;
+import com.drogpulseai.utils.AppExecutors;
 import com.drogpulseai.utils.CameraPermissionHelper;
 import com.drogpulseai.utils.Config;
 import com.drogpulseai.utils.SessionManager;
@@ -37,12 +44,7 @@ import com.drogpulseai.utils.NetworkUtils;
 import com.drogpulseai.repository.ContactRepository;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import kotlin.Unit;
 
 /**
  * Activité principale avec la liste des contacts
@@ -51,7 +53,7 @@ public class MainActivity extends AppCompatActivity implements ContactAdapter.On
 
     // UI Components
     private RecyclerView recyclerView;
-    private ContactAdapter adapter;
+    private ContactPagingAdapter adapter;
     private SwipeRefreshLayout swipeRefreshLayout;
     private ProgressBar progressBar;
     private FloatingActionButton fabAddContact;
@@ -62,9 +64,17 @@ public class MainActivity extends AppCompatActivity implements ContactAdapter.On
     private CameraPermissionHelper cameraPermissionHelper;
 
     // Données
-    private List<Contact> contacts;
+    private ContactRepository contactRepository;
     private User currentUser;
 
+    // Évite de répéter le message d'erreur tant que le rafraîchissement distant reste en échec
+    private boolean remoteErrorShown = false;
+
+    // Informations affichées en sous-titre de la barre d'action
+    private long lastRefreshedAt = 0;
+    private int pendingSyncCount = 0;
+    private String uploadProgress = null;
+
     // Constantes pour les actions nécessitant la caméra
     private static final int ACTION_NONE = 0;
     private static final int ACTION_SCAN_BARCODE = 1;
@@ -93,6 +103,7 @@ public class MainActivity extends AppCompatActivity implements ContactAdapter.On
         // Initialisation des utilitaires
         apiService = ApiClient.getApiService();
         sessionManager = new SessionManager(this);
+        contactRepository = ContactRepository.getInstance(this);
 
         // Vérifier si l'utilisateur est connecté
         if (!sessionManager.isLoggedIn()) {
@@ -114,10 +125,73 @@ public class MainActivity extends AppCompatActivity implements ContactAdapter.On
         // Configuration des listeners
         setupListeners();
 
+        // Date du dernier rafraîchissement et modifications en attente de synchronisation
+        observeSyncStatus();
+
         // Chargement des contacts
         loadContacts();
     }
 
+    /**
+     * Afficher dans la barre d'action la date du dernier rafraîchissement depuis le serveur
+     * et le nombre de modifications locales en attente d'envoi
+     */
+    private void observeSyncStatus() {
+        contactRepository.getLastRefreshed(currentUser.getId()).observe(this, timestamp -> {
+            lastRefreshedAt = timestamp != null ? timestamp : 0;
+            updateSyncSubtitle();
+        });
+
+        SyncManager.getInstance((Application) getApplicationContext())
+                .getPendingTotalCountLiveData()
+                .observe(this, count -> {
+                    pendingSyncCount = count != null ? count : 0;
+                    updateSyncSubtitle();
+                });
+
+        SyncManager.getInstance((Application) getApplicationContext())
+                .getSyncWorkInfoLiveData()
+                .observe(this, workInfos -> {
+                    uploadProgress = null;
+                    if (workInfos != null) {
+                        for (WorkInfo info : workInfos) {
+                            int total = info.getProgress().getInt(SyncManager.PROGRESS_TOTAL, 0);
+                            if (info.getState() == WorkInfo.State.RUNNING && total > 0) {
+                                uploadProgress = "Envoi " + info.getProgress().getInt(SyncManager.PROGRESS_DONE, 0)
+                                        + "/" + total;
+                            }
+                        }
+                    }
+                    updateSyncSubtitle();
+                });
+    }
+
+    private void updateSyncSubtitle() {
+        if (getSupportActionBar() == null) {
+            return;
+        }
+
+        StringBuilder subtitle = new StringBuilder();
+        if (lastRefreshedAt > 0) {
+            subtitle.append("Mis à jour ")
+                    .append(DateUtils.getRelativeTimeSpanString(lastRefreshedAt,
+                            System.currentTimeMillis(), DateUtils.MINUTE_IN_MILLIS));
+        }
+        if (uploadProgress != null) {
+            if (subtitle.length() > 0) {
+                subtitle.append(" · ");
+            }
+            subtitle.append(uploadProgress);
+        } else if (pendingSyncCount > 0) {
+            if (subtitle.length() > 0) {
+                subtitle.append(" · ");
+            }
+            subtitle.append(pendingSyncCount).append(" en attente de synchronisation");
+        }
+
+        getSupportActionBar().setSubtitle(subtitle.length() > 0 ? subtitle : null);
+    }
+
     /**
      * Initialisation des vues
      */
@@ -132,8 +206,11 @@ public class MainActivity extends AppCompatActivity implements ContactAdapter.On
      * Configuration du RecyclerView
      */
     private void setupRecyclerView() {
-        contacts = new ArrayList<>();
-        adapter = new ContactAdapter(this, contacts, this);
+        adapter = new ContactPagingAdapter(this, this);
+        adapter.addLoadStateListener(loadStates -> {
+            onLoadStatesChanged(loadStates);
+            return Unit.INSTANCE;
+        });
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
     }
@@ -142,8 +219,8 @@ public class MainActivity extends AppCompatActivity implements ContactAdapter.On
      * Configuration des écouteurs d'événements
      */
     private void setupListeners() {
-        // Swipe-to-refresh
-        swipeRefreshLayout.setOnRefreshListener(this::loadContacts);
+        // Swipe-to-refresh : relancer le rafraîchissement depuis le serveur
+        swipeRefreshLayout.setOnRefreshListener(() -> adapter.refresh());
 
         // Bouton d'ajout de contact
         fabAddContact.setOnClickListener(v -> {
@@ -155,77 +232,45 @@ public class MainActivity extends AppCompatActivity implements ContactAdapter.On
 
     /**
      * Chargement des contacts
+     * La liste est paginée depuis le cache local (affichage immédiat de la première page),
+     * puis rafraîchie en arrière-plan depuis le serveur
      */
     private void loadContacts() {
-        if (!swipeRefreshLayout.isRefreshing()) {
-            progressBar.setVisibility(View.VISIBLE);
-        }
-
-        // Vérifier s'il y a une connexion Internet
-        if (NetworkUtils.isNetworkAvailable(this)) {
-            // Mode en ligne - charger depuis l'API
-            apiService.getContacts(currentUser.getId()).enqueue(new Callback<List<Contact>>() {
-                @Override
-                public void onResponse(Call<List<Contact>> call, Response<List<Contact>> response) {
-                    progressBar.setVisibility(View.GONE);
-                    swipeRefreshLayout.setRefreshing(false);
-
-                    if (response.isSuccessful() && response.body() != null) {
-                        // Mettre à jour la liste des contacts
-                        contacts.clear();
-                        contacts.addAll(response.body());
-                        adapter.notifyDataSetChanged();
-
-                        // Mettre à jour le cache local
-                        ContactRepository repository = new ContactRepository(MainActivity.this);
-                        for (Contact contact : contacts) {
-                            repository.insertOrUpdateContact(contact);
-                        }
-
-                        // Afficher un message si aucun contact
-                        if (contacts.isEmpty()) {
-                            Toast.makeText(MainActivity.this, "Aucun contact trouvé", Toast.LENGTH_SHORT).show();
-                        }
-                    } else {
-                        Toast.makeText(MainActivity.this, "Erreur lors du chargement des contacts", Toast.LENGTH_LONG).show();
-                    }
-                }
-
-                @Override
-                public void onFailure(Call<List<Contact>> call, Throwable t) {
-                    progressBar.setVisibility(View.GONE);
-                    swipeRefreshLayout.setRefreshing(false);
-                    Toast.makeText(MainActivity.this, "Erreur réseau : " + t.getMessage(), Toast.LENGTH_LONG).show();
+        progressBar.setVisibility(View.VISIBLE);
 
-                    // En cas d'erreur réseau, charger depuis le cache local
-                    loadContactsFromLocalCache();
-                }
-            });
-        } else {
-            // Mode hors ligne - charger depuis le cache local
-            loadContactsFromLocalCache();
-        }
+        PagingLiveData.cachedIn(contactRepository.getPagedContacts(currentUser.getId(), apiService), getLifecycle())
+                .observe(this, pagingData -> adapter.submitData(getLifecycle(), pagingData));
     }
 
     /**
-     * Charger les contacts depuis le cache local
+     * Mettre à jour l'indicateur de chargement et signaler les échecs du rafraîchissement distant
      */
-    private void loadContactsFromLocalCache() {
-        ContactRepository repository = new ContactRepository(this);
-        List<Contact> cachedContacts = repository.getContactsForUser(currentUser.getId());
-
-        contacts.clear();
-        contacts.addAll(cachedContacts);
-        adapter.notifyDataSetChanged();
-
-        progressBar.setVisibility(View.GONE);
-        swipeRefreshLayout.setRefreshing(false);
-
-        // Afficher un message si aucun contact en cache
-        if (contacts.isEmpty()) {
-            Toast.makeText(this, "Aucun contact dans le cache", Toast.LENGTH_SHORT).show();
-        } else {
-            Toast.makeText(this, "Contacts chargés depuis le cache local", Toast.LENGTH_SHORT).show();
+    private void onLoadStatesChanged(CombinedLoadStates loadStates) {
+        LoadState remoteRefresh = loadStates.getMediator() != null ? loadStates.getMediator().getRefresh() : null;
+
+        // Le cache local est affiché dès qu'il est lu ; le rafraîchissement distant continue
+        // en arrière-plan, signalé par l'indicateur du swipe (barre centrale si la liste est vide)
+        boolean remoteLoading = remoteRefresh instanceof LoadState.Loading;
+        boolean hasItems = adapter.getItemCount() > 0;
+        boolean localLoading = loadStates.getSource().getRefresh() instanceof LoadState.Loading;
+
+        progressBar.setVisibility(localLoading || (remoteLoading && !hasItems) ? View.VISIBLE : View.GONE);
+        swipeRefreshLayout.setRefreshing(remoteLoading && hasItems);
+
+        if (remoteRefresh instanceof LoadState.Error) {
+            if (!remoteErrorShown) {
+                remoteErrorShown = true;
+
+                // En cas d'erreur réseau, la liste reste alimentée par le cache local
+                if (!NetworkUtils.isNetworkAvailable(this)) {
+                    Toast.makeText(this, "Contacts chargés depuis le cache local", Toast.LENGTH_SHORT).show();
+                } else {
+                    Throwable error = ((LoadState.Error) remoteRefresh).getError();
+                    Toast.makeText(this, "Erreur réseau : " + error.getMessage(), Toast.LENGTH_LONG).show();
+                }
+            }
+        } else if (remoteRefresh instanceof LoadState.NotLoading) {
+            remoteErrorShown = false;
         }
     }
 
@@ -233,11 +278,19 @@ public class MainActivity extends AppCompatActivity implements ContactAdapter.On
     private void checkPendingSynchronizations() {
         SyncManager syncManager = SyncManager.getInstance((Application) getApplicationContext());
 
-        // Si des contacts sont en attente de synchronisation et une connexion est disponible
-        if (syncManager.hasPendingContacts() && NetworkUtils.isNetworkAvailable(this)) {
-            syncManager.scheduleContactSyncNow();
-            Toast.makeText(this, "Synchronisation des contacts en cours...", Toast.LENGTH_SHORT).show();
+        if (!NetworkUtils.isNetworkAvailable(this)) {
+            return;
         }
+
+        // Si des contacts sont en attente de synchronisation (file lue hors du thread principal)
+        AppExecutors.getInstance().diskIO().execute(() -> {
+            if (!syncManager.hasPendingContacts()) {
+                return;
+            }
+            syncManager.scheduleSyncNow();
+            AppExecutors.getInstance().mainThread().execute(() -> Toast.makeText(this,
+                    "Synchronisation des contacts en cours...", Toast.LENGTH_SHORT).show());
+        });
     }
 
     @Override
@@ -399,8 +452,7 @@ public class MainActivity extends AppCompatActivity implements ContactAdapter.On
     @Override
     protected void onResume() {
         super.onResume();
-        // Rafraîchir les contacts à chaque retour à l'activité
-        loadContacts();
+        // La liste suit automatiquement les modifications locales (Room) : pas de rechargement complet ici
         // Vérifier les synchronisations en attente
         checkPendingSynchronizations();
     }
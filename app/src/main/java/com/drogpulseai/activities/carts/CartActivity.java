@@ -27,21 +27,28 @@ import com.drogpulseai.R;
 import com.drogpulseai.adapters.CartProductAdapter;
 import com.drogpulseai.api.ApiClient;
 import com.drogpulseai.api.ApiService;
+import com.drogpulseai.models.Cart;
+import com.drogpulseai.models.CartItem;
 import com.drogpulseai.models.Product;
 import com.drogpulseai.models.ProductCartItem;
 import com.drogpulseai.models.User;
+import com.drogpulseai.sync.SyncManager;
+import com.drogpulseai.utils.AppExecutors;
+import com.drogpulseai.utils.NetworkUtils;
 import com.drogpulseai.utils.SessionManager;
 import com.google.zxing.integration.android.IntentIntegrator;
 import com.google.zxing.integration.android.IntentResult;
 
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 
-import android.app.ProgressDialog;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -353,30 +360,39 @@ public class CartActivity extends AppCompatActivity implements CartProductAdapte
 
     /**
      * Méthode pour créer un panier avec les produits sélectionnés
+     * Le panier est enregistré dans l'historique local puis envoyé en arrière-plan :
+     * la création ne dépend pas du réseau et une nouvelle tentative ne crée pas de doublon
      */
     private void createCart(List<ProductCartItem> selectedItems) {
         Log.d(TAG, "Création du panier avec " + selectedItems.size() + " produits");
 
-        // Afficher un dialogue de progression
-        ProgressDialog progressDialog = new ProgressDialog(this);
-        progressDialog.setMessage("Création du panier en cours...");
-        progressDialog.setCancelable(false);
-        progressDialog.show();
-
         // Préparer les données pour l'API
         Map<String, Object> cartData = new HashMap<>();
         cartData.put("contact_id", contactId);
         cartData.put("user_id", currentUser.getId());
         cartData.put("notes", "Panier créé depuis l'application mobile");
 
+        // Copie locale du panier, affichée dans l'historique jusqu'à son envoi
+        String now = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US).format(new Date());
+        Cart localCart = new Cart();
+        localCart.setContactId(contactId);
+        localCart.setUserId(currentUser.getId());
+        localCart.setStatus("pending");
+        localCart.setNotes((String) cartData.get("notes"));
+        localCart.setContactNom(contactName);
+        localCart.setCreatedAt(now);
+        localCart.setUpdatedAt(now);
+
         // Préparer les articles du panier
         List<Map<String, Object>> items = new ArrayList<>();
+        List<CartItem> localItems = new ArrayList<>();
+        int totalQuantity = 0;
+        double totalAmount = 0;
 
         for (ProductCartItem item : selectedItems) {
             // Vérifier que le produit et son prix sont valides
             Product product = item.getProduct();
             if (product == null) {
-                progressDialog.dismiss();
                 Toast.makeText(this, "Erreur: produit invalide", Toast.LENGTH_SHORT).show();
                 return;
             }
@@ -393,106 +409,45 @@ public class CartActivity extends AppCompatActivity implements CartProductAdapte
             itemData.put("quantity", item.getQuantity());
             itemData.put("price", price);
             items.add(itemData);
+
+            CartItem localItem = new CartItem(product, item.getQuantity());
+            localItem.setPrice(price);
+            localItems.add(localItem);
+            totalQuantity += item.getQuantity();
+            totalAmount += price * item.getQuantity();
         }
 
         cartData.put("items", items);
+        localCart.setItems(localItems);
+        localCart.setTotalQuantity(totalQuantity);
+        localCart.setTotalAmount(totalAmount);
 
         // Log pour déboguer - Voir la structure exacte des données envoyées
         Log.d(TAG, "Données du panier: " + cartData.toString());
 
-        apiService.createCart(cartData).enqueue(new Callback<Map<String, Object>>() {
-            @Override
-            public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
-                progressDialog.dismiss();
-
-                if (response.isSuccessful() && response.body() != null) {
-                    try {
-                        // Débogage - afficher la réponse complète
-                        Log.d(TAG, "Réponse complète: " + response.body().toString());
-
-                        // Récupérer les champs importants
-                        boolean success = (boolean) response.body().get("success");
-                        String message = (String) response.body().get("message");
-
-                        if (success) {
-                            // Récupérer les données du panier
-                            Map<String, Object> data = (Map<String, Object>) response.body().get("cart");
-
-                            if (data != null) {
-                                // Extraire l'ID du panier - déboguer chaque étape
-                                Log.d(TAG, "Données du panier: " + data);
-
-                                // L'ID peut être sous forme de Double ou d'Integer selon la désérialisation
-                                Object rawId = data.get("id");
-                                Log.d(TAG, "ID brut: " + (rawId != null ? rawId.toString() : "null") +
-                                        ", Type: " + (rawId != null ? rawId.getClass().getName() : "unknown"));
-
-                                int cartId;
-                                if (rawId instanceof Double) {
-                                    cartId = ((Double) rawId).intValue();
-                                } else if (rawId instanceof Integer) {
-                                    cartId = (Integer) rawId;
-                                } else if (rawId instanceof String) {
-                                    cartId = Integer.parseInt((String) rawId);
-                                } else {
-                                    cartId = -1; // Valeur par défaut en cas d'erreur
-                                }
-
-                                Log.d(TAG, "ID du panier extrait: " + cartId);
-
-                                // Construire un message de succès
-                                String successMessage = String.format(
-                                        "Panier #%d créé avec succès!\n", cartId);
-
-                                // Ajouter d'autres informations si disponibles
-                                if (data.containsKey("contact_nom") && data.containsKey("contact_prenom")) {
-                                    String contactName = data.get("contact_prenom") + " " + data.get("contact_nom");
-                                    successMessage += "Contact: " + contactName + "\n";
-                                }
-
-                                // Afficher le dialogue avec l'option de voir les détails
-                                showSuccessDialogWithDetails("Panier créé", successMessage, cartId);
-                            } else {
-                                // Aucune donnée de panier dans la réponse
-                                showSuccessDialog("Panier créé", "Le panier a été créé avec succès mais aucun détail n'est disponible.");
-                            }
-                        } else {
-                            // La création a échoué
-                            Toast.makeText(CartActivity.this, message, Toast.LENGTH_LONG).show();
-                        }
-
-                        // Vider la sélection
-                        adapter.clearSelection();
-
-                    } catch (Exception e) {
-                        // Capturer toute exception lors du traitement de la réponse
-                        Log.e(TAG, "Erreur lors du traitement de la réponse", e);
-                        Toast.makeText(CartActivity.this,
-                                "Erreur lors du traitement de la réponse: " + e.getMessage(),
-                                Toast.LENGTH_LONG).show();
-                    }
-                } else {
-                    // Gérer les erreurs de réponse
-                    String errorMessage = "Erreur lors de la création du panier";
-                    if (response.errorBody() != null) {
-                        try {
-                            errorMessage += ": " + response.errorBody().string();
-                        } catch (Exception e) {
-                            Log.e(TAG, "Erreur lors de la lecture du corps d'erreur", e);
-                        }
-                    }
-                    Toast.makeText(CartActivity.this, errorMessage, Toast.LENGTH_LONG).show();
-                }
+        // Un contact ou des produits créés hors ligne (ID temporaire négatif) sont envoyés
+        // avant le panier, qui part ensuite avec leurs IDs serveur
+        // Écritures Room (panier et file d'envoi) : hors du thread principal
+        AppExecutors.getInstance().diskIO().execute(() -> {
+            try {
+                SyncManager.getInstance(getApplication()).addCartForSync(cartData, localCart);
+            } catch (Exception e) {
+                Log.e(TAG, "Erreur lors de l'enregistrement du panier", e);
+                runOnUiThread(() -> Toast.makeText(this,
+                        "Erreur lors de l'enregistrement du panier: " + e.getMessage(),
+                        Toast.LENGTH_LONG).show());
+                return;
             }
 
-            @Override
-            public void onFailure(Call<Map<String, Object>> call, Throwable t) {
-                progressDialog.dismiss();
-                Log.e(TAG, "Erreur réseau lors de la création du panier", t);
-                Toast.makeText(CartActivity.this,
-                        "Erreur réseau: " + t.getMessage(),
-                        Toast.LENGTH_LONG).show();
-            }
+            runOnUiThread(() -> {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                adapter.clearSelection();
+                showSuccessDialog("Panier enregistré", NetworkUtils.isNetworkAvailable(this)
+                        ? "Le panier a été enregistré et sera envoyé au serveur en arrière-plan."
+                        : "Le panier a été enregistré et sera envoyé dès le retour du réseau.");
+            });
         });
     }
 
@@ -509,25 +464,6 @@ public class CartActivity extends AppCompatActivity implements CartProductAdapte
                 .show();
     }
 
-    // Méthode pour afficher le dialogue avec l'option de voir les détails
-    private void showSuccessDialogWithDetails(String title, String message, int cartId) {
-        Log.d(TAG, "Affichage du dialogue de succès avec ID: " + cartId);
-
-        new AlertDialog.Builder(this)
-                .setTitle(title)
-                .setMessage(message)
-                .setPositiveButton("OK", (dialog, which) -> finish())
-                .setNeutralButton("Voir les détails", (dialog, which) -> {
-                    // Lancer CartDetailsActivity avec l'ID du panier créé
-                    Intent intent = new Intent(CartActivity.this, CartDetailsActivity.class);
-                    intent.putExtra("cart_id", cartId);
-                    Log.d(TAG, "Lancement de CartDetailsActivity avec cart_id=" + cartId);
-                    startActivity(intent);
-                    finish();
-                })
-                .setCancelable(false)
-                .show();
-    }
     @Override
     public boolean onOptionsItemSelected(@NonNull MenuItem item) {
         if (item.getItemId() == android.R.id.home) {
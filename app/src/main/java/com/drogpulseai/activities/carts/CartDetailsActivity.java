@@ -20,14 +20,13 @@ import com.drogpulseai.adapters.CartItemAdapter;
 import com.drogpulseai.api.ApiClient;
 import com.drogpulseai.api.ApiService;
 import com.drogpulseai.models.Cart;
-import com.drogpulseai.models.CartItem;
+import com.drogpulseai.models.CartDetailsResult;
 import com.drogpulseai.utils.NetworkResult;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -36,7 +35,6 @@ import retrofit2.Callback;
 import retrofit2.Response;
 
 
-import org.json.JSONArray;
 import org.json.JSONObject;
 import com.google.gson.Gson;
 
@@ -133,98 +131,34 @@ public class CartDetailsActivity extends AppCompatActivity {
     private void loadCartDetails() {
         progressBar.setVisibility(View.VISIBLE);
 
-        // Utiliser un type générique pour la réponse
-        Call<Object> call = apiService.getCartRaw(cartId);
-        call.enqueue(new Callback<Object>() {
+        // Réponse lue en une passe en Cart (ModelTypeAdapters), sur le thread d'OkHttp
+        apiService.getCartDetails(cartId).enqueue(new Callback<CartDetailsResult>() {
             @Override
-            public void onResponse(Call<Object> call, Response<Object> response) {
+            public void onResponse(Call<CartDetailsResult> call, Response<CartDetailsResult> response) {
                 progressBar.setVisibility(View.GONE);
 
                 if (response.isSuccessful() && response.body() != null) {
-                    try {
-                        // Convertir la réponse brute en chaîne JSON
-                        Gson gson = new Gson();
-                        String jsonStr = gson.toJson(response.body());
-                        Log.d(TAG, "Réponse JSON brute: " + jsonStr);
-
-                        // Analyser la réponse JSON manuellement
-                        JSONObject jsonResponse = new JSONObject(jsonStr);
-
-                        // Vérifier si la réponse contient un champ "success"
-                        if (jsonResponse.has("success") && jsonResponse.getBoolean("success")) {
-                            // Extraire les données du panier
-                            JSONObject cartData;
-
-                            // Vérifier si les données sont sous "data" puis "cart" ou directement sous "cart"
-                            if (jsonResponse.has("data") && jsonResponse.getJSONObject("data").has("cart")) {
-                                cartData = jsonResponse.getJSONObject("data").getJSONObject("cart");
-                            } else if (jsonResponse.has("cart")) {
-                                cartData = jsonResponse.getJSONObject("cart");
-                            } else {
-                                Toast.makeText(CartDetailsActivity.this, "Structure de données inattendue", Toast.LENGTH_SHORT).show();
-                                return;
-                            }
+                    CartDetailsResult result = response.body();
 
-                            // Créer un nouvel objet Cart à partir des données JSON
-                            Cart cartObj = new Cart();
-
-                            // Remplir les propriétés de base
-                            if (cartData.has("id")) cartObj.setId(cartData.getInt("id"));
-                            if (cartData.has("contact_id")) cartObj.setContactId(cartData.getInt("contact_id"));
-                            if (cartData.has("user_id")) cartObj.setUserId(cartData.getInt("user_id"));
-                            if (cartData.has("status")) cartObj.setStatus(cartData.getString("status"));
-                            if (cartData.has("notes")) cartObj.setNotes(cartData.optString("notes", null));
-                            if (cartData.has("created_at")) cartObj.setCreatedAt(cartData.getString("created_at"));
-                            if (cartData.has("updated_at")) cartObj.setUpdatedAt(cartData.getString("updated_at"));
-
-                            // Infos contact
-                            if (cartData.has("contact_nom")) cartObj.setContactNom(cartData.getString("contact_nom"));
-                            if (cartData.has("contact_prenom")) cartObj.setContactPrenom(cartData.getString("contact_prenom"));
-                            if (cartData.has("contact_telephone")) cartObj.setContactTelephone(cartData.getString("contact_telephone"));
-                            if (cartData.has("contact_email")) cartObj.setContactEmail(cartData.optString("contact_email", null));
-
-                            // Totaux
-                            if (cartData.has("total_quantity")) cartObj.setTotalQuantity(cartData.getInt("total_quantity"));
-                            if (cartData.has("total_amount")) cartObj.setTotalAmount(cartData.getDouble("total_amount"));
-
-                            // Articles
-                            if (cartData.has("items") && !cartData.isNull("items")) {
-                                JSONArray itemsArray = cartData.getJSONArray("items");
-                                List<CartItem> items = new ArrayList<>();
-
-                                for (int i = 0; i < itemsArray.length(); i++) {
-                                    JSONObject itemJson = itemsArray.getJSONObject(i);
-                                    CartItem item = new CartItem();
-
-                                    if (itemJson.has("id")) item.setId(itemJson.getInt("id"));
-                                    if (itemJson.has("cart_id")) item.setCartId(itemJson.getInt("cart_id"));
-                                    if (itemJson.has("product_id")) item.setProductId(itemJson.getInt("product_id"));
-                                    if (itemJson.has("quantity")) item.setQuantity(itemJson.getInt("quantity"));
-                                    if (itemJson.has("price")) item.setPrice(itemJson.getDouble("price"));
-                                    if (itemJson.has("product_reference")) item.setProductReference(itemJson.getString("product_reference"));
-                                    if (itemJson.has("product_name")) item.setProductName(itemJson.getString("product_name"));
-                                    if (itemJson.has("product_label")) item.setProductLabel(itemJson.getString("product_label"));
-
-                                    items.add(item);
-                                }
-
-                                cartObj.setItems(items);
-                            }
-
-                            // Utiliser l'objet Cart créé
-                            cart = cartObj;
+                    if (result.isSuccess()) {
+                        // Panier trouvé sous "data.cart" ou directement sous "cart"
+                        if (result.getCart() == null) {
+                            Toast.makeText(CartDetailsActivity.this, "Structure de données inattendue", Toast.LENGTH_SHORT).show();
+                            return;
+                        }
 
-                            // Afficher les détails
-                            displayCartDetails();
-                        } else {
-                            // Erreur dans la réponse
-                            String message = jsonResponse.optString("message", "Erreur lors du chargement des détails du panier");
-                            Toast.makeText(CartDetailsActivity.this, message, Toast.LENGTH_LONG).show();
-                            finish();
+                        cart = result.getCart();
+                        if (cart.getItems() == null) {
+                            cart.setItems(new ArrayList<>());
                         }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Erreur lors de l'analyse de la réponse JSON", e);
-                        Toast.makeText(CartDetailsActivity.this, "Erreur lors de l'analyse des données: " + e.getMessage(), Toast.LENGTH_LONG).show();
+
+                        // Afficher les détails
+                        displayCartDetails();
+                    } else {
+                        // Erreur dans la réponse
+                        String message = result.getMessage() != null && !result.getMessage().isEmpty()
+                                ? result.getMessage() : "Erreur lors du chargement des détails du panier";
+                        Toast.makeText(CartDetailsActivity.this, message, Toast.LENGTH_LONG).show();
                         finish();
                     }
                 } else {
@@ -241,7 +175,7 @@ public class CartDetailsActivity extends AppCompatActivity {
             }
 
             @Override
-            public void onFailure(Call<Object> call, Throwable t) {
+            public void onFailure(Call<CartDetailsResult> call, Throwable t) {
                 progressBar.setVisibility(View.GONE);
                 Log.e(TAG, "Erreur réseau", t);
                 Toast.makeText(CartDetailsActivity.this, "Erreur réseau: " + t.getMessage(), Toast.LENGTH_LONG).show();
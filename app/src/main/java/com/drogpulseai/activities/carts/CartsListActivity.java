@@ -19,11 +19,17 @@ import com.drogpulseai.R;
 import com.drogpulseai.adapters.CartAdapter;
 import com.drogpulseai.api.ApiClient;
 import com.drogpulseai.api.ApiService;
+import com.drogpulseai.database.AppDatabase;
+import com.drogpulseai.database.converter.CartConverter;
+import com.drogpulseai.database.entity.CartEntity;
+import com.drogpulseai.models.CartItem;
 import com.drogpulseai.models.User;
+import com.drogpulseai.utils.AppExecutors;
 import com.drogpulseai.utils.NetworkResult;
 import com.drogpulseai.utils.SessionManager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -139,6 +145,8 @@ public class CartsListActivity extends AppCompatActivity implements CartAdapter.
     private void loadCarts(boolean refresh) {
         if (refresh) {
             carts.clear();
+            // Paniers enregistrés hors ligne, en tête de liste jusqu'à leur envoi
+            addLocalCarts();
             adapter.notifyDataSetChanged();
         }
 
@@ -203,8 +211,51 @@ public class CartsListActivity extends AppCompatActivity implements CartAdapter.
         });
     }
 
+    /**
+     * Ajouter en tête de liste les paniers en attente d'envoi (ID temporaire négatif)
+     * La table est lue hors du thread principal ; la page serveur peut arriver avant
+     */
+    private void addLocalCarts() {
+        AppExecutors.getInstance().diskIO().execute(() -> {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            try {
+                List<CartEntity> localCarts = AppDatabase.getInstance(this).cartDao()
+                        .getLocalCartsForUser(currentUser.getId());
+                for (CartEntity cart : localCarts) {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("id", (double) cart.getId());
+                    row.put("contact_name", cart.getContactNom());
+                    row.put("created_at", cart.getCreatedAt());
+                    row.put("status", CartAdapter.STATUS_NOT_SENT);
+                    List<CartItem> items = CartConverter.toModel(cart).getItems();
+                    row.put("items_count", (double) (items != null ? items.size() : 0));
+                    row.put("total_quantity", (double) cart.getTotalQuantity());
+                    row.put("total_amount", cart.getTotalAmount());
+                    rows.add(row);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Erreur lors de la lecture des paniers locaux", e);
+            }
+
+            if (rows.isEmpty()) {
+                return;
+            }
+            runOnUiThread(() -> {
+                carts.addAll(0, rows);
+                adapter.notifyDataSetChanged();
+                tvNoData.setVisibility(View.GONE);
+            });
+        });
+    }
+
     @Override
     public void onCartClick(Map<String, Object> cart) {
+        if (((Double) cart.get("id")).intValue() < 0) {
+            Toast.makeText(this, "Ce panier sera consultable après son envoi au serveur",
+                    Toast.LENGTH_SHORT).show();
+            return;
+        }
+
         // Ouvrir les détails du panier
         Intent intent = new Intent(this, CartDetailsActivity.class);
         intent.putExtra("cart_id", ((Double) cart.get("id")).intValue());
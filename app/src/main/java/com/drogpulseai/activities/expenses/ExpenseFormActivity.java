@@ -25,6 +25,8 @@ import com.drogpulseai.api.ApiClient;
 import com.drogpulseai.api.ApiService;
 import com.drogpulseai.models.Expense;
 import com.drogpulseai.models.User;
+import com.drogpulseai.sync.SyncManager;
+import com.drogpulseai.utils.AppExecutors;
 import com.drogpulseai.utils.CameraPermissionHelper;
 import com.drogpulseai.utils.FileUtils;
 import com.drogpulseai.utils.ImageHelper;
@@ -33,6 +35,7 @@ import com.drogpulseai.utils.NetworkUtils;
 import com.drogpulseai.utils.SessionManager;
 
 import java.io.File;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Locale;
@@ -269,14 +272,13 @@ public class ExpenseFormActivity extends AppCompatActivity implements CameraPerm
             return;
         }
 
-        // Vérifier la connectivité réseau
-        if (!NetworkUtils.isNetworkAvailable(this)) {
+        // Hors ligne, un justificatif à envoyer bloque l'enregistrement (son URL vient du serveur)
+        boolean online = NetworkUtils.isNetworkAvailable(this);
+        if (!online && selectedImageUri != null) {
             Toast.makeText(this, R.string.error_network, Toast.LENGTH_SHORT).show();
             return;
         }
 
-        setLoading(true);
-
         // Préparer les données
         String type = etExpenseType.getText().toString().trim();
         double amount;
@@ -288,6 +290,13 @@ public class ExpenseFormActivity extends AppCompatActivity implements CameraPerm
         String date = dateFormat.format(calendar.getTime());
         String description = etDescription.getText().toString().trim();
 
+        if (!online) {
+            saveExpenseOffline(buildExpense(type, amount, date, description, receiptPhotoPath));
+            return;
+        }
+
+        setLoading(true);
+
         // Si nous avons une nouvelle image à télécharger, faire cela d'abord
         if (selectedImageUri != null) {
             uploadReceiptPhoto(selectedImageUri, type, amount, date, description);
@@ -339,7 +348,7 @@ public class ExpenseFormActivity extends AppCompatActivity implements CameraPerm
         });
     }
 
-    private void saveExpenseData(String type, double amount, String date, String description, String photoUrl) {
+    private Expense buildExpense(String type, double amount, String date, String description, String photoUrl) {
         // Créer ou mettre à jour l'objet de frais
         Expense expense = new Expense();
         if (MODE_EDIT.equals(mode) && currentExpense != null) {
@@ -351,6 +360,22 @@ public class ExpenseFormActivity extends AppCompatActivity implements CameraPerm
         expense.setDescription(description);
         expense.setReceiptPhotoUrl(photoUrl);
         expense.setUserId(currentUser.getId());
+        return expense;
+    }
+
+    /**
+     * Garder le frais localement : il part avec la prochaine synchronisation
+     */
+    private void saveExpenseOffline(Expense expense) {
+        // Écriture de la file d'envoi : hors du thread principal
+        AppExecutors.getInstance().diskIO().execute(() ->
+                SyncManager.getInstance(getApplication()).addExpenseForSync(expense));
+        Toast.makeText(this, R.string.expense_saved_offline, Toast.LENGTH_LONG).show();
+        finish();
+    }
+
+    private void saveExpenseData(String type, double amount, String date, String description, String photoUrl) {
+        Expense expense = buildExpense(type, amount, date, description, photoUrl);
 
         // Appel API approprié selon le mode
         Call<NetworkResult<Expense>> call;
@@ -379,6 +404,12 @@ public class ExpenseFormActivity extends AppCompatActivity implements CameraPerm
             @Override
             public void onFailure(@NonNull Call<NetworkResult<Expense>> call, @NonNull Throwable t) {
                 setLoading(false);
+
+                if (t instanceof IOException) {
+                    // Réseau perdu pendant l'envoi
+                    saveExpenseOffline(expense);
+                    return;
+                }
                 Toast.makeText(ExpenseFormActivity.this, R.string.error_network, Toast.LENGTH_LONG).show();
             }
         });
@@ -12,6 +12,9 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.paging.CombinedLoadStates;
+import androidx.paging.LoadState;
+import androidx.paging.PagingLiveData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
@@ -19,19 +22,16 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import com.drogpulseai.R;
 import com.drogpulseai.activities.appuser.LoginActivity;
 import com.drogpulseai.adapters.ProductAdapter;
+import com.drogpulseai.adapters.ProductPagingAdapter;
 import com.drogpulseai.api.ApiClient;
 import com.drogpulseai.api.ApiService;
 import com.drogpulseai.models.Product;
 import com.drogpulseai.models.User;
+import com.drogpulseai.repository.ProductRepository;
 import com.drogpulseai.utils.SessionManager;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import kotlin.Unit;
 
 /**
  * Activité principale pour la gestion des produits
@@ -42,7 +42,7 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
 
     // UI Components
     private RecyclerView recyclerView;
-    private ProductAdapter adapter;
+    private ProductPagingAdapter adapter;
     private SwipeRefreshLayout swipeRefreshLayout;
     private ProgressBar progressBar;
     private FloatingActionButton fabAddProduct;
@@ -53,9 +53,12 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
     private SessionManager sessionManager;
 
     // Données
-    private List<Product> products;
+    private ProductRepository productRepository;
     private User currentUser;
 
+    // Évite de répéter le message d'erreur tant que le rafraîchissement distant reste en échec
+    private boolean remoteErrorShown = false;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -70,6 +73,7 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
         // Initialisation des utilitaires
         apiService = ApiClient.getApiService();
         sessionManager = new SessionManager(this);
+        productRepository = ProductRepository.getInstance(this);
 
         // Vérifier si l'utilisateur est connecté
         if (!sessionManager.isLoggedIn()) {
@@ -119,8 +123,11 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
      * Configuration du RecyclerView
      */
     private void setupRecyclerView() {
-        products = new ArrayList<>();
-        adapter = new ProductAdapter(this, products, this);
+        adapter = new ProductPagingAdapter(this, this);
+        adapter.addLoadStateListener(loadStates -> {
+            onLoadStatesChanged(loadStates);
+            return Unit.INSTANCE;
+        });
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
     }
@@ -129,8 +136,8 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
      * Configuration des écouteurs d'événements
      */
     private void setupListeners() {
-        // Swipe-to-refresh
-        swipeRefreshLayout.setOnRefreshListener(this::loadProducts);
+        // Swipe-to-refresh : relancer le rafraîchissement depuis le serveur
+        swipeRefreshLayout.setOnRefreshListener(() -> adapter.refresh());
 
         // Bouton d'ajout de produit
         fabAddProduct.setOnClickListener(v -> {
@@ -149,76 +156,53 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
 
     /**
      * Chargement des produits
+     * La liste est paginée depuis le cache local (affichage immédiat de la première page),
+     * puis rafraîchie en arrière-plan depuis le serveur
      */
     private void loadProducts() {
-        if (!swipeRefreshLayout.isRefreshing()) {
-            progressBar.setVisibility(View.VISIBLE);
-        }
-
-        // Ajout d'une vérification pour éviter le crash
-        if (tvEmptyList != null) {
-            tvEmptyList.setVisibility(View.GONE);
-        } else {
-            Log.e(TAG, "tvEmptyList est null - référence manquante dans le layout");
-        }
+        progressBar.setVisibility(View.VISIBLE);
+        tvEmptyList.setVisibility(View.GONE);
 
         Log.d(TAG, "Chargement des produits pour l'utilisateur ID: " + currentUser.getId());
 
-        apiService.getProducts(currentUser.getId()).enqueue(new Callback<List<Product>>() {
-            @Override
-            public void onResponse(Call<List<Product>> call, Response<List<Product>> response) {
-                if (isFinishing()) {
-                    return; // Éviter les opérations sur une activité détruite
-                }
-
-                progressBar.setVisibility(View.GONE);
-                swipeRefreshLayout.setRefreshing(false);
-
-                if (response.isSuccessful() && response.body() != null) {
-                    products.clear();
-                    products.addAll(response.body());
-
-                    // Log pour vérifier si les prix sont présents
-                    for (Product product : products) {
-                        Log.d(TAG, "Produit: " + product.getId() + " - " + product.getName()
-                                + " - Prix: " + product.getPrice());
-                    }
-
-                    adapter.notifyDataSetChanged();
-
-                    // Afficher un message si aucun produit, avec vérification
-                    if (products.isEmpty()) {
-                        if (tvEmptyList != null) {
-                            tvEmptyList.setText(R.string.no_products_found);
-                            tvEmptyList.setVisibility(View.VISIBLE);
-                        }
-                        Log.d(TAG, "Aucun produit trouvé");
-                    } else {
-                        if (tvEmptyList != null) {
-                            tvEmptyList.setVisibility(View.GONE);
-                        }
-                    }
-                } else {
-                    Log.e(TAG, "Erreur lors du chargement des produits: "
-                            + (response.errorBody() != null ? response.errorBody().toString() : "Inconnu")
-                            + " - Code: " + response.code());
-                    Toast.makeText(ProductListActivity.this, "Erreur lors du chargement des produits", Toast.LENGTH_LONG).show();
-                }
+        PagingLiveData.cachedIn(productRepository.getPagedProducts(currentUser.getId(), apiService), getLifecycle())
+                .observe(this, pagingData -> adapter.submitData(getLifecycle(), pagingData));
+    }
+
+    /**
+     * Mettre à jour l'indicateur de chargement, le message de liste vide
+     * et signaler les échecs du rafraîchissement distant
+     */
+    private void onLoadStatesChanged(CombinedLoadStates loadStates) {
+        boolean refreshing = loadStates.getRefresh() instanceof LoadState.Loading;
+
+        if (!refreshing) {
+            progressBar.setVisibility(View.GONE);
+            swipeRefreshLayout.setRefreshing(false);
+
+            // Afficher un message si aucun produit
+            if (adapter.getItemCount() == 0) {
+                tvEmptyList.setText(R.string.no_products_found);
+                tvEmptyList.setVisibility(View.VISIBLE);
+            } else {
+                tvEmptyList.setVisibility(View.GONE);
             }
+        }
 
-            @Override
-            public void onFailure(Call<List<Product>> call, Throwable t) {
-                if (isFinishing()) {
-                    return; // Éviter les opérations sur une activité détruite
-                }
+        LoadState remoteRefresh = loadStates.getMediator() != null ? loadStates.getMediator().getRefresh() : null;
 
-                progressBar.setVisibility(View.GONE);
-                swipeRefreshLayout.setRefreshing(false);
-                Log.e(TAG, "Échec du chargement des produits: " + t.getMessage(), t);
-                Toast.makeText(ProductListActivity.this, "Erreur réseau : " + t.getMessage(), Toast.LENGTH_LONG).show();
+        if (remoteRefresh instanceof LoadState.Error) {
+            if (!remoteErrorShown) {
+                remoteErrorShown = true;
+                Throwable error = ((LoadState.Error) remoteRefresh).getError();
+                Log.e(TAG, "Échec du chargement des produits: " + error.getMessage(), error);
+                Toast.makeText(this, "Erreur réseau : " + error.getMessage(), Toast.LENGTH_LONG).show();
             }
-        });
+        } else if (remoteRefresh instanceof LoadState.NotLoading) {
+            remoteErrorShown = false;
+        }
     }
+
     @Override
     public void onProductClick(Product product) {
         Log.d(TAG, "Clic sur le produit ID: " + product.getId());
@@ -249,11 +233,4 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
 
         return super.onOptionsItemSelected(item);
     }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // Rafraîchir les produits à chaque retour à l'activité
-        loadProducts();
-    }
 }
\ No newline at end of file
@@ -2,17 +2,29 @@ package com.drogpulseai.activities.settings;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.format.Formatter;
 import android.view.MenuItem;
 import android.view.View;
+import android.widget.Button;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SwitchCompat;
 
 import com.drogpulseai.R;
+import com.drogpulseai.api.NetworkLog;
+import com.drogpulseai.api.RequestMetrics;
+import com.drogpulseai.sync.SyncRunStats;
+import com.drogpulseai.sync.SyncTelemetry;
 import com.drogpulseai.utils.LanguageManager;
 
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
 /**
  * Activité principale des paramètres de l'application
  */
@@ -20,6 +32,7 @@ public class SettingsActivity extends AppCompatActivity {
 
     private LinearLayout layoutLanguage;
     private TextView tvLanguageCurrent;
+    private TextView tvSyncRuns;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,6 +66,63 @@ public class SettingsActivity extends AppCompatActivity {
             Intent intent = new Intent(SettingsActivity.this, LanguageSettingsActivity.class);
             startActivity(intent);
         });
+
+        // Section diagnostic
+        tvSyncRuns = findViewById(R.id.tv_sync_runs);
+        Button btnExportDiagnostics = findViewById(R.id.btn_export_diagnostics);
+        btnExportDiagnostics.setOnClickListener(v -> exportDiagnostics());
+
+        // Le journal réseau peut être activé pour la session (le réglage n'est pas conservé)
+        SwitchCompat switchNetworkLog = findViewById(R.id.switch_network_log);
+        switchNetworkLog.setChecked(NetworkLog.getInstance().isEnabled());
+        switchNetworkLog.setOnCheckedChangeListener(
+                (buttonView, isChecked) -> NetworkLog.getInstance().setEnabled(isChecked));
+    }
+
+    /**
+     * Affiche les derniers passages de synchronisation, du plus récent au plus ancien
+     */
+    private void updateSyncRunsDisplay() {
+        // Durée des requêtes depuis le démarrage, connexion nouvelle ou réutilisée
+        RequestMetrics.Snapshot http = RequestMetrics.getInstance().snapshot();
+        StringBuilder text = new StringBuilder(getString(R.string.http_latency_summary,
+                http.coldRequests, http.coldAverageMs, http.warmRequests, http.warmAverageMs));
+        text.append("\n\n");
+
+        List<SyncRunStats> runs = SyncTelemetry.getInstance(this).getRecentRuns();
+        if (runs.isEmpty()) {
+            text.append(getString(R.string.sync_diagnostics_empty));
+            tvSyncRuns.setText(text);
+            return;
+        }
+
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM HH:mm", Locale.getDefault());
+        for (int i = 0; i < runs.size(); i++) {
+            SyncRunStats run = runs.get(i);
+            if (i > 0) {
+                text.append('\n');
+            }
+            text.append(getString(R.string.sync_diagnostics_run,
+                    dateFormat.format(new Date(run.getStartedAt())),
+                    run.getSucceeded(),
+                    run.getAttempted(),
+                    run.getRequests(),
+                    run.getWallTimeMs() / 1000.0,
+                    Formatter.formatShortFileSize(this, run.getBytesSent()),
+                    Formatter.formatShortFileSize(this, run.getBytesReceived())));
+        }
+        tvSyncRuns.setText(text);
+    }
+
+    /**
+     * Partage l'historique de synchronisation et le journal réseau en JSON (envoi au support)
+     */
+    private void exportDiagnostics() {
+        Intent intent = new Intent(Intent.ACTION_SEND);
+        intent.setType("application/json");
+        intent.putExtra(Intent.EXTRA_SUBJECT, getString(R.string.diagnostics));
+        intent.putExtra(Intent.EXTRA_TEXT, SyncTelemetry.getInstance(this).exportJson());
+        startActivity(Intent.createChooser(intent, getString(R.string.export_diagnostics_chooser)));
     }
 
     /**
@@ -76,6 +146,7 @@ public class SettingsActivity extends AppCompatActivity {
         super.onResume();
         // Mettre à jour l'affichage de la langue au retour de l'activité de sélection
         updateCurrentLanguageDisplay();
+        updateSyncRunsDisplay();
     }
 
     @Override
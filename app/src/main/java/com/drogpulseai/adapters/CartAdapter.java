@@ -20,6 +20,9 @@ import java.util.Map;
 
 public class CartAdapter extends RecyclerView.Adapter<CartAdapter.ViewHolder> {
 
+    // Panier enregistré sur l'appareil, pas encore envoyé au serveur
+    public static final String STATUS_NOT_SENT = "not_sent";
+
     private final List<Map<String, Object>> carts;
     private final Context context;
     private final OnCartClickListener listener;
@@ -110,6 +113,8 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.ViewHolder> {
 
     private String getStatusLabel(String status) {
         switch (status) {
+            case STATUS_NOT_SENT:
+                return "Non envoyé";
             case "pending":
                 return "En attente";
             case "confirmed":
@@ -123,6 +128,7 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.ViewHolder> {
 
     private int getStatusColor(String status) {
         switch (status) {
+            case STATUS_NOT_SENT:
             case "pending":
                 return context.getResources().getColor(R.color.warning);
             case "confirmed":
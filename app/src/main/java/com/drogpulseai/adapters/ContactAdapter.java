@@ -48,8 +48,13 @@ public class ContactAdapter extends RecyclerView.Adapter<ContactAdapter.ViewHold
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Contact contact = contacts.get(position);
+        bind(holder, contacts.get(position), listener);
+    }
 
+    /**
+     * Remplir un élément de la liste (partagé avec ContactPagingAdapter)
+     */
+    static void bind(@NonNull ViewHolder holder, Contact contact, OnContactClickListener listener) {
         // Afficher les informations du contact
         holder.tvName.setText(contact.getFullName());
         holder.tvPhone.setText(contact.getTelephone());
@@ -0,0 +1,61 @@
+package com.drogpulseai.adapters;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.drogpulseai.R;
+import com.drogpulseai.models.Contact;
+
+import java.util.Objects;
+
+/**
+ * Adaptateur paginé pour la liste des contacts (alimenté par Room via Paging)
+ * Réutilise le ViewHolder et l'affichage de ContactAdapter
+ */
+public class ContactPagingAdapter extends PagingDataAdapter<Contact, ContactAdapter.ViewHolder> {
+
+    private final ContactAdapter.OnContactClickListener listener;
+    private final LayoutInflater inflater;
+
+    private static final DiffUtil.ItemCallback<Contact> DIFF_CALLBACK = new DiffUtil.ItemCallback<Contact>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Contact oldItem, @NonNull Contact newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Contact oldItem, @NonNull Contact newItem) {
+            return Objects.equals(oldItem.getNom(), newItem.getNom())
+                    && Objects.equals(oldItem.getPrenom(), newItem.getPrenom())
+                    && Objects.equals(oldItem.getTelephone(), newItem.getTelephone())
+                    && Objects.equals(oldItem.getEmail(), newItem.getEmail());
+        }
+    };
+
+    public ContactPagingAdapter(Context context, ContactAdapter.OnContactClickListener listener) {
+        super(DIFF_CALLBACK);
+        this.listener = listener;
+        this.inflater = LayoutInflater.from(context);
+    }
+
+    @NonNull
+    @Override
+    public ContactAdapter.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = inflater.inflate(R.layout.item_contact, parent, false);
+        return new ContactAdapter.ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ContactAdapter.ViewHolder holder, int position) {
+        Contact contact = getItem(position);
+        if (contact != null) {
+            ContactAdapter.bind(holder, contact, listener);
+        }
+    }
+}
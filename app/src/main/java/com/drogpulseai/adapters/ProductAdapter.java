@@ -58,8 +58,13 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ViewHold
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Product product = products.get(position);
+        bind(context, holder, products.get(position), listener);
+    }
 
+    /**
+     * Remplir un élément de la liste (partagé avec ProductPagingAdapter)
+     */
+    static void bind(Context context, @NonNull ViewHolder holder, Product product, OnProductClickListener listener) {
         // Afficher les informations du produit
         holder.tvReference.setText(product.getReference());
         holder.tvName.setText(product.getName());
@@ -84,7 +89,7 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ViewHold
         }
 
         // Charger l'image avec une gestion améliorée
-        loadProductImage(holder.ivThumbnail, product);
+        loadProductImage(context, holder.ivThumbnail, product);
 
         // Configurer le clic sur l'élément
         holder.itemView.setOnClickListener(v -> {
@@ -97,7 +102,7 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ViewHold
     /**
      * Méthode améliorée pour charger l'image du produit
      */
-    private void loadProductImage(ImageView imageView, Product product) {
+    private static void loadProductImage(Context context, ImageView imageView, Product product) {
         String photoUrl = product.getPhotoUrl();
 
         // Définir une image par défaut
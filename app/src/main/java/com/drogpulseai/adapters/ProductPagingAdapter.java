@@ -0,0 +1,65 @@
+package com.drogpulseai.adapters;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.drogpulseai.R;
+import com.drogpulseai.models.Product;
+
+import java.util.Objects;
+
+/**
+ * Adaptateur paginé pour la liste des produits (alimenté par Room via Paging)
+ * Réutilise le ViewHolder et l'affichage de ProductAdapter
+ */
+public class ProductPagingAdapter extends PagingDataAdapter<Product, ProductAdapter.ViewHolder> {
+
+    private final Context context;
+    private final ProductAdapter.OnProductClickListener listener;
+    private final LayoutInflater inflater;
+
+    private static final DiffUtil.ItemCallback<Product> DIFF_CALLBACK = new DiffUtil.ItemCallback<Product>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            return Objects.equals(oldItem.getReference(), newItem.getReference())
+                    && Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getBarcode(), newItem.getBarcode())
+                    && Objects.equals(oldItem.getPhotoUrl(), newItem.getPhotoUrl())
+                    && oldItem.getQuantity() == newItem.getQuantity()
+                    && oldItem.getPrice() == newItem.getPrice();
+        }
+    };
+
+    public ProductPagingAdapter(Context context, ProductAdapter.OnProductClickListener listener) {
+        super(DIFF_CALLBACK);
+        this.context = context;
+        this.listener = listener;
+        this.inflater = LayoutInflater.from(context);
+    }
+
+    @NonNull
+    @Override
+    public ProductAdapter.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = inflater.inflate(R.layout.item_product, parent, false);
+        return new ProductAdapter.ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ProductAdapter.ViewHolder holder, int position) {
+        Product product = getItem(position);
+        if (product != null) {
+            ProductAdapter.bind(context, holder, product, listener);
+        }
+    }
+}
@@ -1,19 +1,24 @@
 package com.drogpulseai.api;
 
+import android.content.Context;
+
+import com.drogpulseai.BuildConfig;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.Cache;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
@@ -21,48 +26,140 @@ public class ApiClient {
     // Base URL will be retrieved from configuration
     private static String BASE_URL;
     private static Retrofit retrofit = null;
+    // Base URL the current Retrofit instance was built for
+    private static String retrofitBaseUrl;
     private static final int CONNECT_TIMEOUT = 30; // seconds
     private static final int READ_TIMEOUT = 30; // seconds
     private static final int WRITE_TIMEOUT = 30; // seconds
+    private static final int DEFAULT_MAX_REQUESTS_PER_HOST = 4;
+    private static final int DEFAULT_CACHE_SIZE_MB = 10;
+    private static final int DEFAULT_GZIP_MIN_BYTES = 1024;
+
+    // Shared by every client so the per-host limit holds across all callers
+    private static HostConcurrencyInterceptor hostLimiter;
+
+    // One OkHttp client and Gson for the whole process: the connection pool, TLS sessions,
+    // dispatcher threads and Gson's reflection caches survive across screens
+    private static OkHttpClient okHttpClient;
+    private static Gson gson;
+
+    // Disk cache for list responses (see ListCacheInterceptor), set up by init()
+    private static Cache cache;
+
+    // Retrofit services already created for the current base URL
+    private static final Map<Class<?>, Object> services = new HashMap<>();
 
     // Getter for base URL
     public static String getBaseUrl() {
         return BASE_URL;
     }
 
+    /**
+     * Set up the HTTP disk cache in the app's cache directory (http.cache_size_mb, 0 to disable).
+     * Must be called before the first request, from Application.onCreate
+     */
+    public static synchronized void init(Context context) {
+        if (cache != null || okHttpClient != null) {
+            return;
+        }
+        long sizeMb = com.drogpulseai.utils.Config.getIntProperty("http.cache_size_mb", DEFAULT_CACHE_SIZE_MB);
+        if (sizeMb > 0) {
+            cache = new Cache(new File(context.getApplicationContext().getCacheDir(), "http"),
+                    sizeMb * 1024 * 1024);
+        }
+    }
+
+    // Limit on concurrent requests to the same host (sync.max_requests_per_host)
+    private static synchronized HostConcurrencyInterceptor getHostLimiter() {
+        if (hostLimiter == null) {
+            hostLimiter = new HostConcurrencyInterceptor(com.drogpulseai.utils.Config.getIntProperty(
+                    "sync.max_requests_per_host", DEFAULT_MAX_REQUESTS_PER_HOST));
+        }
+        return hostLimiter;
+    }
+
+    /**
+     * Shared OkHttp client. Callers that need different settings should derive from it with
+     * newBuilder(), which keeps the same connection pool and dispatcher
+     */
+    public static synchronized OkHttpClient getOkHttpClient() {
+        if (okHttpClient == null) {
+            okHttpClient = createOkHttpClient();
+        }
+        return okHttpClient;
+    }
+
     // Create OkHttpClient with better configuration
     private static OkHttpClient createOkHttpClient() {
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+        NetworkLog networkLog = configureNetworkLog();
+
+        HostConcurrencyInterceptor limiter = getHostLimiter();
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(limiter.getMaxRequestsPerHost());
 
         OkHttpClient.Builder httpClient = new OkHttpClient.Builder()
                 .connectTimeout(CONNECT_TIMEOUT, TimeUnit.SECONDS)
                 .readTimeout(READ_TIMEOUT, TimeUnit.SECONDS)
                 .writeTimeout(WRITE_TIMEOUT, TimeUnit.SECONDS)
-                .addInterceptor(loggingInterceptor);
+                .dispatcher(dispatcher)
+                .addInterceptor(limiter)
+                // Sampled, truncated request log; one logcat line per request in debug builds only
+                .addInterceptor(new NetworkLoggingInterceptor(networkLog, BuildConfig.DEBUG))
+                // Lists are stored and always revalidated (If-None-Match / If-Modified-Since -> 304)
+                .addNetworkInterceptor(new ListCacheInterceptor())
+                // Cold vs warm request latency, and per-sync-run measurements (diagnostics)
+                .eventListenerFactory(RequestMetrics.eventListenerFactory());
 
-        // Add request interceptor for debugging
-        httpClient.addInterceptor(chain -> {
-            Request request = chain.request();
-            android.util.Log.d("ApiClient", "Making request to: " + request.url());
-            return chain.proceed(request);
-        });
+        // Opt-in gzip of large JSON bodies (http.gzip_requests), added after the log so it keeps
+        // the readable body; only used for servers that advertise gzip support
+        if (com.drogpulseai.utils.Config.getBooleanProperty("http.gzip_requests", false)) {
+            httpClient.addInterceptor(new GzipRequestInterceptor(com.drogpulseai.utils.Config.getIntProperty(
+                    "http.gzip_min_bytes", DEFAULT_GZIP_MIN_BYTES)));
+        }
+
+        if (cache != null) {
+            httpClient.cache(cache);
+        }
 
         return httpClient.build();
     }
 
+    // Network log settings (log.network_*): off by default in release builds
+    private static NetworkLog configureNetworkLog() {
+        NetworkLog networkLog = NetworkLog.getInstance();
+        networkLog.setEnabled(com.drogpulseai.utils.Config.getBooleanProperty(
+                "log.network_enabled", BuildConfig.DEBUG));
+        networkLog.setSamplePercent(com.drogpulseai.utils.Config.getIntProperty(
+                "log.network_sample_percent", 100));
+        networkLog.setMaxEntries(com.drogpulseai.utils.Config.getIntProperty(
+                "log.network_max_entries", NetworkLog.DEFAULT_MAX_ENTRIES));
+        networkLog.setMaxBodyChars(com.drogpulseai.utils.Config.getIntProperty(
+                "log.network_max_body_chars", NetworkLog.DEFAULT_MAX_BODY_CHARS));
+        return networkLog;
+    }
+
     // Configure Gson to handle incorrect response formats
-    private static Gson createGson() {
-        return new GsonBuilder()
-                .setLenient() // Be lenient with malformed JSON
-                .registerTypeAdapter(String.class, new StringAdapter())
-                .registerTypeAdapter(Integer.class, new SafeIntegerAdapter())
-                .registerTypeAdapter(Double.class, new SafeDoubleAdapter())
-                .registerTypeAdapter(Boolean.class, new SafeBooleanAdapter())
-                .create();
+    private static synchronized Gson getGson() {
+        if (gson == null) {
+            GsonBuilder builder = new GsonBuilder()
+                    .setLenient() // Be lenient with malformed JSON
+                    .registerTypeAdapter(String.class, new StringAdapter())
+                    .registerTypeAdapter(Integer.class, new SafeIntegerAdapter())
+                    .registerTypeAdapter(Double.class, new SafeDoubleAdapter())
+                    .registerTypeAdapter(Boolean.class, new SafeBooleanAdapter());
+            // Hand-written streaming adapters (no reflection, no boxing) for products, contacts,
+            // carts, cart items and expenses, with the same lenient coercion as the adapters below
+            gson = ModelTypeAdapters.register(builder).create();
+        }
+        return gson;
     }
 
-    public static <T> T createService(Class<T> serviceClass, String baseUrl) {
+    /**
+     * Service for the given base URL (or the configured one). Retrofit and the services are
+     * cached and only rebuilt when the base URL changes
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <T> T createService(Class<T> serviceClass, String baseUrl) {
         // Update base URL if provided
         if (baseUrl != null && !baseUrl.isEmpty()) {
             BASE_URL = baseUrl;
@@ -71,14 +168,22 @@ public class ApiClient {
             BASE_URL = com.drogpulseai.utils.Config.getApiBaseUrl();
         }
 
-        // Create Retrofit instance
-        retrofit = new Retrofit.Builder()
-                .baseUrl(BASE_URL)
-                .addConverterFactory(GsonConverterFactory.create(createGson()))
-                .client(createOkHttpClient())
-                .build();
+        if (retrofit == null || !BASE_URL.equals(retrofitBaseUrl)) {
+            retrofit = new Retrofit.Builder()
+                    .baseUrl(BASE_URL)
+                    .addConverterFactory(GsonConverterFactory.create(getGson()))
+                    .client(getOkHttpClient())
+                    .build();
+            retrofitBaseUrl = BASE_URL;
+            services.clear();
+        }
 
-        return retrofit.create(serviceClass);
+        T service = (T) services.get(serviceClass);
+        if (service == null) {
+            service = retrofit.create(serviceClass);
+            services.put(serviceClass, service);
+        }
+        return service;
     }
 
     public static <T> T createService(Class<T> serviceClass) {
@@ -94,17 +199,7 @@ public class ApiClient {
     private static class StringAdapter extends TypeAdapter<String> {
         @Override
         public String read(JsonReader reader) throws IOException {
-            if (reader.peek() == JsonToken.NULL) {
-                reader.nextNull();
-                return ""; // Return empty string instead of null
-            }
-            try {
-                return reader.nextString();
-            } catch (Exception e) {
-                // If we can't read as a string, skip the value
-                reader.skipValue();
-                return "";
-            }
+            return ModelTypeAdapters.nextString(reader);
         }
 
         @Override
@@ -121,28 +216,7 @@ public class ApiClient {
     private static class SafeIntegerAdapter extends TypeAdapter<Integer> {
         @Override
         public Integer read(JsonReader reader) throws IOException {
-            if (reader.peek() == JsonToken.NULL) {
-                reader.nextNull();
-                return 0;
-            }
-
-            try {
-                if (reader.peek() == JsonToken.NUMBER) {
-                    return (int) reader.nextDouble();
-                } else if (reader.peek() == JsonToken.STRING) {
-                    try {
-                        return Integer.parseInt(reader.nextString());
-                    } catch (NumberFormatException e) {
-                        return 0;
-                    }
-                } else {
-                    reader.skipValue();
-                    return 0;
-                }
-            } catch (Exception e) {
-                reader.skipValue();
-                return 0;
-            }
+            return ModelTypeAdapters.nextInt(reader);
         }
 
         @Override
@@ -159,28 +233,7 @@ public class ApiClient {
     private static class SafeDoubleAdapter extends TypeAdapter<Double> {
         @Override
         public Double read(JsonReader reader) throws IOException {
-            if (reader.peek() == JsonToken.NULL) {
-                reader.nextNull();
-                return 0.0;
-            }
-
-            try {
-                if (reader.peek() == JsonToken.NUMBER) {
-                    return reader.nextDouble();
-                } else if (reader.peek() == JsonToken.STRING) {
-                    try {
-                        return Double.parseDouble(reader.nextString());
-                    } catch (NumberFormatException e) {
-                        return 0.0;
-                    }
-                } else {
-                    reader.skipValue();
-                    return 0.0;
-                }
-            } catch (Exception e) {
-                reader.skipValue();
-                return 0.0;
-            }
+            return ModelTypeAdapters.nextDouble(reader);
         }
 
         @Override
@@ -197,27 +250,7 @@ public class ApiClient {
     private static class SafeBooleanAdapter extends TypeAdapter<Boolean> {
         @Override
         public Boolean read(JsonReader reader) throws IOException {
-            if (reader.peek() == JsonToken.NULL) {
-                reader.nextNull();
-                return false;
-            }
-
-            try {
-                if (reader.peek() == JsonToken.BOOLEAN) {
-                    return reader.nextBoolean();
-                } else if (reader.peek() == JsonToken.STRING) {
-                    String value = reader.nextString();
-                    return "true".equalsIgnoreCase(value) || "1".equals(value);
-                } else if (reader.peek() == JsonToken.NUMBER) {
-                    return reader.nextInt() == 1;
-                } else {
-                    reader.skipValue();
-                    return false;
-                }
-            } catch (Exception e) {
-                reader.skipValue();
-                return false;
-            }
+            return ModelTypeAdapters.nextBoolean(reader);
         }
 
         @Override
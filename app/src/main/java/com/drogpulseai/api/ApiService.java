@@ -1,9 +1,11 @@
 package com.drogpulseai.api;
 
 import com.drogpulseai.models.Cart;
+import com.drogpulseai.models.CartDetailsResult;
 import com.drogpulseai.models.Contact;
 import com.drogpulseai.models.Expense;
 import com.drogpulseai.models.Product;
+import com.drogpulseai.models.ProductBatchResult;
 import com.drogpulseai.models.User;
 import com.drogpulseai.utils.NetworkResult;
 
@@ -18,6 +20,7 @@ import retrofit2.http.DELETE;
 import retrofit2.http.Field;
 import retrofit2.http.FormUrlEncoded;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.Headers;
 import retrofit2.http.Multipart;
 import retrofit2.http.POST;
@@ -92,6 +95,12 @@ public interface ApiService {
     @PUT("contacts/update.php")
     Call<Map<String, Object>> updateContact(@Body Contact contact);
 
+    /**
+     * Mettre à jour un contact existant avec un corps libre (seuls les champs modifiés)
+     */
+    @PUT("contacts/update.php")
+    Call<Map<String, Object>> updateContactRaw(@Body Map<String, Object> contact);
+
     /**
      * Supprimer un contact
      */
@@ -107,6 +116,16 @@ public interface ApiService {
     @GET("products/list.php")
     Call<List<Product>> getProducts(@Query("user_id") int userId);
 
+    /**
+     * Get the products changed since a date (incremental sync)
+     * @param updatedSince server timestamp (updated_at) of the most recent product already received
+     */
+    @GET("products/list.php")
+    Call<List<Product>> getProductsUpdatedSince(
+            @Query("user_id") int userId,
+            @Query("updated_since") String updatedSince
+    );
+
     /**
      * Search products
      */
@@ -146,6 +165,14 @@ public interface ApiService {
     @PUT("products/update.php")
     Call<NetworkResult<Product>> updateProductRaw(@Body Map<String, Object> product);
 
+    /**
+     * Create or update several products in one request
+     * Body: {"products": [...]}; products with a negative (temporary) id are created.
+     * The response holds one result per product, keyed by the id that was sent
+     */
+    @POST("products/batch_sync.php")
+    Call<NetworkResult<List<ProductBatchResult>>> syncProductsBatch(@Body Map<String, Object> batch);
+
     /**
      * Delete product
      */
@@ -165,17 +192,23 @@ public interface ApiService {
 
     /**
      * Créer un nouveau panier
+     * La clé d'idempotence (aussi présente dans le corps) permet au serveur de renvoyer
+     * le panier déjà créé quand la même requête est répétée
      */
     @POST("carts/create.php")
-    Call<Map<String, Object>> createCart(@Body Map<String, Object> cartData);
+    Call<Map<String, Object>> createCart(@Header("Idempotency-Key") String idempotencyKey,
+                                         @Body Map<String, Object> cartData);
     /**
      * Récupérer un panier par son ID
      */
     @GET("carts/get.php")
     Call<NetworkResult<Map<String, Object>>> getCart(@Query("id") int cartId);
 
+    /**
+     * Détails d'un panier, lus en une passe (enveloppe "data.cart" ou "cart")
+     */
     @GET("carts/get.php")
-    Call<Object> getCartRaw(@Query("id") int cartId);
+    Call<CartDetailsResult> getCartDetails(@Query("id") int cartId);
 
     /**
      * Lister les paniers d'un utilisateur
@@ -187,6 +220,18 @@ public interface ApiService {
             @Query("limit") int limit
     );
 
+    /**
+     * Lister les paniers modifiés depuis une date (synchronisation incrémentale)
+     * @param updatedSince updated_at du panier le plus récent déjà reçu
+     */
+    @GET("carts/list.php")
+    Call<NetworkResult<Map<String, Object>>> getUserCartsUpdatedSince(
+            @Query("user_id") int userId,
+            @Query("updated_since") String updatedSince,
+            @Query("page") int page,
+            @Query("limit") int limit
+    );
+
     /**
      * Lister les paniers d'un contact
      */
@@ -212,6 +257,16 @@ public interface ApiService {
     @GET("expenses/list.php")
     Call<List<Expense>> getExpenses(@Query("user_id") int userId);
 
+    /**
+     * Récupérer les frais modifiés depuis une date (synchronisation incrémentale)
+     * @param updatedSince updated_at du frais le plus récent déjà reçu
+     */
+    @GET("expenses/list.php")
+    Call<List<Expense>> getExpensesUpdatedSince(
+            @Query("user_id") int userId,
+            @Query("updated_since") String updatedSince
+    );
+
     /**
      * Obtenir les détails d'un frais
      */
@@ -0,0 +1,145 @@
+package com.drogpulseai.api;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Compression gzip des gros corps de requête texte (JSON, formulaires)
+ *
+ * Un serveur n'est compressé qu'après avoir annoncé qu'il accepte gzip, par un en-tête
+ * Accept-Encoding dans l'une de ses réponses (RFC 7694). Si une requête compressée est refusée
+ * (400 ou 415), elle est renvoyée une fois sans compression ; si cet envoi passe, le serveur
+ * n'est plus compressé jusqu'au redémarrage de l'application.
+ * Les photos (multipart) et les corps sous le seuil partent tels quels
+ */
+public class GzipRequestInterceptor implements Interceptor {
+
+    // Au-delà, le corps n'est pas mis en mémoire pour être compressé
+    private static final long MAX_BUFFERED_BYTES = 4 * 1024 * 1024;
+
+    private final long minBytes;
+
+    // Support de gzip annoncé (true) ou refusé (false) par serveur ; absent tant qu'inconnu
+    private final Map<String, Boolean> hostSupport = new ConcurrentHashMap<>();
+
+    /**
+     * @param minBytes taille minimale d'un corps pour être compressé
+     */
+    public GzipRequestInterceptor(long minBytes) {
+        this.minBytes = minBytes;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        String host = request.url().host();
+        RequestBody body = request.body();
+
+        if (!Boolean.TRUE.equals(hostSupport.get(host)) || !isCompressible(request, body)) {
+            return learn(host, chain.proceed(request));
+        }
+
+        Buffer original = new Buffer();
+        body.writeTo(original);
+        Buffer compressed = gzip(original);
+        if (compressed.size() >= original.size()) {
+            return learn(host, chain.proceed(withBody(request, body.contentType(), original, false)));
+        }
+
+        long originalBytes = original.size();
+        long compressedBytes = compressed.size();
+        Response response = chain.proceed(withBody(request, body.contentType(), compressed, true));
+        if (response.code() != 400 && response.code() != 415) {
+            RequestMetrics.getInstance().recordCompression(originalBytes, compressedBytes);
+            return learn(host, response);
+        }
+
+        // Refus possible du corps compressé : nouvel envoi, sans compression
+        int rejectedCode = response.code();
+        response.close();
+        Response retry = chain.proceed(withBody(request, body.contentType(), original, false));
+        if (retry.code() != rejectedCode) {
+            hostSupport.put(host, false);
+        }
+        return retry;
+    }
+
+    /**
+     * Support de gzip connu pour ce serveur : true, false, ou null si inconnu
+     */
+    public Boolean getHostSupport(String host) {
+        return hostSupport.get(host);
+    }
+
+    // Retenir l'annonce du serveur ; un refus constaté n'est pas remis en cause
+    private Response learn(String host, Response response) {
+        if (hostSupport.get(host) == null && acceptsGzip(response.header("Accept-Encoding"))) {
+            hostSupport.putIfAbsent(host, true);
+        }
+        return response;
+    }
+
+    private boolean isCompressible(Request request, RequestBody body) throws IOException {
+        if (body == null || request.header("Content-Encoding") != null
+                || body instanceof MultipartBody || body.isOneShot() || !isText(body.contentType())) {
+            return false;
+        }
+        long length = body.contentLength();
+        return length >= minBytes && length <= MAX_BUFFERED_BYTES;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                // gzip;q=0 signifie refusé
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static boolean isText(MediaType contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String subtype = contentType.subtype();
+        return "text".equals(contentType.type()) || subtype.contains("json")
+                || subtype.contains("xml") || "x-www-form-urlencoded".equals(subtype);
+    }
+
+    private static Buffer gzip(Buffer source) throws IOException {
+        Buffer compressed = new Buffer();
+        BufferedSink sink = Okio.buffer(new GzipSink(compressed));
+        sink.write(source.clone(), source.size());
+        sink.close();
+        return compressed;
+    }
+
+    private static Request withBody(Request request, MediaType contentType, Buffer content, boolean gzipped) {
+        Request.Builder builder = request.newBuilder()
+                .method(request.method(), RequestBody.create(content.snapshot(), contentType));
+        if (gzipped) {
+            builder.header("Content-Encoding", "gzip");
+        }
+        return builder.build();
+    }
+}
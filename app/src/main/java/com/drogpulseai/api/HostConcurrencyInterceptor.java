@@ -0,0 +1,53 @@
+package com.drogpulseai.api;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Limite le nombre de requêtes simultanées vers un même hôte
+ * S'applique aussi aux appels synchrones (execute()), que le Dispatcher d'OkHttp ne limite pas ;
+ * une instance partagée par tous les clients borne l'ensemble des workers de synchronisation
+ */
+public class HostConcurrencyInterceptor implements Interceptor {
+
+    private final int maxRequestsPerHost;
+    private final ConcurrentMap<String, Semaphore> permitsByHost = new ConcurrentHashMap<>();
+
+    public HostConcurrencyInterceptor(int maxRequestsPerHost) {
+        this.maxRequestsPerHost = Math.max(1, maxRequestsPerHost);
+    }
+
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        String host = chain.request().url().host();
+        Semaphore permits = permitsByHost.computeIfAbsent(host, h -> new Semaphore(maxRequestsPerHost, true));
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Requête interrompue en attente de l'hôte " + host);
+        }
+
+        // Le permis est rendu quand la réponse est obtenue : le corps est lu ensuite
+        // par l'appelant, sans occuper de place dans la limite
+        try {
+            return chain.proceed(chain.request());
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.drogpulseai.api;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Mise en cache des listes (produits, contacts, frais, paniers) avec revalidation systématique
+ *
+ * Intercepteur réseau : une réponse de liste qui porte un validateur (ETag ou Last-Modified)
+ * est marquée "no-cache", même si le serveur l'a déclarée no-store (en-têtes par défaut des
+ * sessions PHP). Le cache d'OkHttp la conserve alors et ajoute If-None-Match / If-Modified-Since
+ * aux requêtes suivantes : une liste inchangée revient en 304, sans corps, et la copie du cache
+ * est servie. Une liste n'est jamais servie sans avoir été revalidée auprès du serveur.
+ */
+public class ListCacheInterceptor implements Interceptor {
+
+    private static final Set<String> LIST_PATHS = new HashSet<>(Arrays.asList(
+            "products/list.php", "contacts/list.php", "expenses/list.php", "carts/list.php"));
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+
+        if (!"GET".equals(request.method()) || response.code() != 200 || !isListPath(request)) {
+            return response;
+        }
+        if (response.header("ETag") == null && response.header("Last-Modified") == null) {
+            return response; // Rien pour revalider : la liste n'est pas mise en cache
+        }
+
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .removeHeader("Expires")
+                .header("Cache-Control", "no-cache")
+                .build();
+    }
+
+    static boolean isListPath(Request request) {
+        List<String> segments = request.url().pathSegments();
+        int size = segments.size();
+        return size >= 2 && LIST_PATHS.contains(segments.get(size - 2) + "/" + segments.get(size - 1));
+    }
+}
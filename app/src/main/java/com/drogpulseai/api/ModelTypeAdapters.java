@@ -0,0 +1,502 @@
+package com.drogpulseai.api;
+
+import com.drogpulseai.models.Cart;
+import com.drogpulseai.models.CartDetailsResult;
+import com.drogpulseai.models.CartItem;
+import com.drogpulseai.models.Contact;
+import com.drogpulseai.models.Expense;
+import com.drogpulseai.models.Product;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adaptateurs JSON écrits à la main pour les modèles échangés en masse avec l'API
+ * (produits, contacts, paniers, lignes de panier, frais)
+ *
+ * Lecture en flux, sans réflexion ni valeurs encapsulées (Integer, Double), avec la même
+ * tolérance que les adaptateurs de ApiClient : null donne 0, false ou "", les nombres envoyés
+ * en chaîne sont convertis, une valeur illisible donne 0 et les champs inconnus sont ignorés.
+ * Un champ absent garde la valeur du constructeur. L'écriture suit l'ordre des champs des
+ * modèles et omet les chaînes null, comme la sérialisation par réflexion
+ * Les réponses de carts/get.php (CartDetailsResult) sont lues de la même façon
+ */
+public final class ModelTypeAdapters {
+
+    private ModelTypeAdapters() {
+    }
+
+    /**
+     * Enregistrer les adaptateurs des modèles
+     */
+    public static GsonBuilder register(GsonBuilder builder) {
+        CartItemAdapter cartItemAdapter = new CartItemAdapter();
+        CartAdapter cartAdapter = new CartAdapter(cartItemAdapter);
+        return builder
+                .registerTypeAdapter(Product.class, new ProductAdapter())
+                .registerTypeAdapter(Contact.class, new ContactAdapter())
+                .registerTypeAdapter(CartItem.class, cartItemAdapter)
+                .registerTypeAdapter(Cart.class, cartAdapter)
+                .registerTypeAdapter(CartDetailsResult.class, new CartDetailsResultAdapter(cartAdapter))
+                .registerTypeAdapter(Expense.class, new ExpenseAdapter());
+    }
+
+    // Lectures tolérantes communes
+
+    static String nextString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+        } else {
+            reader.skipValue();
+        }
+        return "";
+    }
+
+    static int nextInt(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NUMBER:
+                return (int) reader.nextDouble();
+            case STRING:
+                try {
+                    return Integer.parseInt(reader.nextString());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            case NULL:
+                reader.nextNull();
+                return 0;
+            default:
+                reader.skipValue();
+                return 0;
+        }
+    }
+
+    static long nextLong(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NUMBER:
+                return (long) reader.nextDouble();
+            case STRING:
+                try {
+                    return Long.parseLong(reader.nextString());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            case NULL:
+                reader.nextNull();
+                return 0;
+            default:
+                reader.skipValue();
+                return 0;
+        }
+    }
+
+    static double nextDouble(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NUMBER:
+                return reader.nextDouble();
+            case STRING:
+                try {
+                    return Double.parseDouble(reader.nextString());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            case NULL:
+                reader.nextNull();
+                return 0;
+            default:
+                reader.skipValue();
+                return 0;
+        }
+    }
+
+    static boolean nextBoolean(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case STRING:
+                String value = reader.nextString();
+                return "true".equalsIgnoreCase(value) || "1".equals(value);
+            case NUMBER:
+                return reader.nextDouble() == 1;
+            case NULL:
+                reader.nextNull();
+                return false;
+            default:
+                reader.skipValue();
+                return false;
+        }
+    }
+
+    /**
+     * Début d'un objet ; false (valeur consommée) pour null ou tout ce qui n'est pas un objet
+     */
+    private static boolean beginObject(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.BEGIN_OBJECT) {
+            reader.beginObject();
+            return true;
+        }
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+        } else {
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    static class ProductAdapter extends TypeAdapter<Product> {
+        @Override
+        public Product read(JsonReader reader) throws IOException {
+            if (!beginObject(reader)) {
+                return null;
+            }
+            Product product = new Product();
+            // Un produit reçu n'est pas modifié localement : les setters ne le marquent pas
+            product.setLoading(true);
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id": product.setId(nextInt(reader)); break;
+                    case "reference": product.setReference(nextString(reader)); break;
+                    case "label": product.setLabel(nextString(reader)); break;
+                    case "name": product.setName(nextString(reader)); break;
+                    case "description": product.setDescription(nextString(reader)); break;
+                    case "photo_url": product.setPhotoUrl(nextString(reader)); break;
+                    case "barcode": product.setBarcode(nextString(reader)); break;
+                    case "quantity": product.setQuantity(nextInt(reader)); break;
+                    case "price": product.setPrice(nextDouble(reader)); break;
+                    case "user_id": product.setUserId(nextInt(reader)); break;
+                    case "created_at": product.setCreatedAt(nextString(reader)); break;
+                    case "updated_at": product.setUpdatedAt(nextString(reader)); break;
+                    case "cout_de_revient_unitaire": product.setCoutDeRevientUnitaire(nextDouble(reader)); break;
+                    case "prix_min_vente": product.setPrixMinVente(nextDouble(reader)); break;
+                    case "prix_vente_conseille": product.setPrixVenteConseille(nextDouble(reader)); break;
+                    default: reader.skipValue(); break;
+                }
+            }
+            reader.endObject();
+            product.setLoading(false);
+            return product;
+        }
+
+        @Override
+        public void write(JsonWriter writer, Product product) throws IOException {
+            if (product == null) {
+                writer.nullValue();
+                return;
+            }
+            writer.beginObject();
+            writer.name("id").value(product.getId());
+            writer.name("reference").value(product.getReference());
+            writer.name("label").value(product.getLabel());
+            writer.name("name").value(product.getName());
+            writer.name("description").value(product.getDescription());
+            writer.name("photo_url").value(product.getPhotoUrl());
+            writer.name("barcode").value(product.getBarcode());
+            writer.name("quantity").value(product.getQuantity());
+            writer.name("price").value(product.getPrice());
+            writer.name("user_id").value(product.getUserId());
+            writer.name("created_at").value(product.getCreatedAt());
+            writer.name("updated_at").value(product.getUpdatedAt());
+            writer.name("cout_de_revient_unitaire").value(product.getCoutDeRevientUnitaire());
+            writer.name("prix_min_vente").value(product.getPrixMinVente());
+            writer.name("prix_vente_conseille").value(product.getPrixVenteConseille());
+            writer.endObject();
+        }
+    }
+
+    static class ContactAdapter extends TypeAdapter<Contact> {
+        @Override
+        public Contact read(JsonReader reader) throws IOException {
+            if (!beginObject(reader)) {
+                return null;
+            }
+            Contact contact = new Contact();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id": contact.setId(nextInt(reader)); break;
+                    case "nom": contact.setNom(nextString(reader)); break;
+                    case "prenom": contact.setPrenom(nextString(reader)); break;
+                    case "telephone": contact.setTelephone(nextString(reader)); break;
+                    case "email": contact.setEmail(nextString(reader)); break;
+                    case "notes": contact.setNotes(nextString(reader)); break;
+                    case "latitude": contact.setLatitude(nextDouble(reader)); break;
+                    case "longitude": contact.setLongitude(nextDouble(reader)); break;
+                    case "user_id": contact.setUserId(nextInt(reader)); break;
+                    case "last_updated": contact.setLastUpdated(nextLong(reader)); break;
+                    case "is_dirty": contact.setDirty(nextBoolean(reader)); break;
+                    default: reader.skipValue(); break;
+                }
+            }
+            reader.endObject();
+            return contact;
+        }
+
+        @Override
+        public void write(JsonWriter writer, Contact contact) throws IOException {
+            if (contact == null) {
+                writer.nullValue();
+                return;
+            }
+            writer.beginObject();
+            writer.name("id").value(contact.getId());
+            writer.name("nom").value(contact.getNom());
+            writer.name("prenom").value(contact.getPrenom());
+            writer.name("telephone").value(contact.getTelephone());
+            writer.name("email").value(contact.getEmail());
+            writer.name("notes").value(contact.getNotes());
+            writer.name("latitude").value(contact.getLatitude());
+            writer.name("longitude").value(contact.getLongitude());
+            writer.name("user_id").value(contact.getUserId());
+            writer.name("last_updated").value(contact.getLastUpdated());
+            writer.name("is_dirty").value(contact.isDirty());
+            writer.endObject();
+        }
+    }
+
+    static class CartItemAdapter extends TypeAdapter<CartItem> {
+        @Override
+        public CartItem read(JsonReader reader) throws IOException {
+            if (!beginObject(reader)) {
+                return null;
+            }
+            CartItem item = new CartItem();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id": item.setId(nextInt(reader)); break;
+                    case "cart_id": item.setCartId(nextInt(reader)); break;
+                    case "product_id": item.setProductId(nextInt(reader)); break;
+                    case "quantity": item.setQuantity(nextInt(reader)); break;
+                    case "price": item.setPrice(nextDouble(reader)); break;
+                    case "created_at": item.setCreatedAt(nextString(reader)); break;
+                    case "updated_at": item.setUpdatedAt(nextString(reader)); break;
+                    case "product_reference": item.setProductReference(nextString(reader)); break;
+                    case "product_name": item.setProductName(nextString(reader)); break;
+                    case "product_label": item.setProductLabel(nextString(reader)); break;
+                    default: reader.skipValue(); break;
+                }
+            }
+            reader.endObject();
+            return item;
+        }
+
+        @Override
+        public void write(JsonWriter writer, CartItem item) throws IOException {
+            if (item == null) {
+                writer.nullValue();
+                return;
+            }
+            writer.beginObject();
+            writer.name("id").value(item.getId());
+            writer.name("cart_id").value(item.getCartId());
+            writer.name("product_id").value(item.getProductId());
+            writer.name("quantity").value(item.getQuantity());
+            writer.name("price").value(item.getPrice());
+            writer.name("created_at").value(item.getCreatedAt());
+            writer.name("updated_at").value(item.getUpdatedAt());
+            writer.name("product_reference").value(item.getProductReference());
+            writer.name("product_name").value(item.getProductName());
+            writer.name("product_label").value(item.getProductLabel());
+            writer.endObject();
+        }
+    }
+
+    static class CartAdapter extends TypeAdapter<Cart> {
+        private final CartItemAdapter itemAdapter;
+
+        CartAdapter(CartItemAdapter itemAdapter) {
+            this.itemAdapter = itemAdapter;
+        }
+
+        @Override
+        public Cart read(JsonReader reader) throws IOException {
+            if (!beginObject(reader)) {
+                return null;
+            }
+            Cart cart = new Cart();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id": cart.setId(nextInt(reader)); break;
+                    case "contact_id": cart.setContactId(nextInt(reader)); break;
+                    case "user_id": cart.setUserId(nextInt(reader)); break;
+                    case "status": cart.setStatus(nextString(reader)); break;
+                    case "notes": cart.setNotes(nextString(reader)); break;
+                    case "created_at": cart.setCreatedAt(nextString(reader)); break;
+                    case "updated_at": cart.setUpdatedAt(nextString(reader)); break;
+                    case "contact_nom": cart.setContactNom(nextString(reader)); break;
+                    case "contact_prenom": cart.setContactPrenom(nextString(reader)); break;
+                    case "contact_telephone": cart.setContactTelephone(nextString(reader)); break;
+                    case "contact_email": cart.setContactEmail(nextString(reader)); break;
+                    case "items": cart.setItems(readItems(reader)); break;
+                    case "total_quantity": cart.setTotalQuantity(nextInt(reader)); break;
+                    case "total_amount": cart.setTotalAmount(nextDouble(reader)); break;
+                    default: reader.skipValue(); break;
+                }
+            }
+            reader.endObject();
+            return cart;
+        }
+
+        // null si la liste est absente ou n'est pas un tableau ; les éléments null sont conservés
+        private List<CartItem> readItems(JsonReader reader) throws IOException {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                reader.skipValue();
+                return null;
+            }
+            List<CartItem> items = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                items.add(itemAdapter.read(reader));
+            }
+            reader.endArray();
+            return items;
+        }
+
+        @Override
+        public void write(JsonWriter writer, Cart cart) throws IOException {
+            if (cart == null) {
+                writer.nullValue();
+                return;
+            }
+            writer.beginObject();
+            writer.name("id").value(cart.getId());
+            writer.name("contact_id").value(cart.getContactId());
+            writer.name("user_id").value(cart.getUserId());
+            writer.name("status").value(cart.getStatus());
+            writer.name("notes").value(cart.getNotes());
+            writer.name("created_at").value(cart.getCreatedAt());
+            writer.name("updated_at").value(cart.getUpdatedAt());
+            writer.name("contact_nom").value(cart.getContactNom());
+            writer.name("contact_prenom").value(cart.getContactPrenom());
+            writer.name("contact_telephone").value(cart.getContactTelephone());
+            writer.name("contact_email").value(cart.getContactEmail());
+            List<CartItem> items = cart.getItems();
+            writer.name("items");
+            if (items == null) {
+                writer.nullValue();
+            } else {
+                writer.beginArray();
+                for (CartItem item : items) {
+                    itemAdapter.write(writer, item);
+                }
+                writer.endArray();
+            }
+            writer.name("total_quantity").value(cart.getTotalQuantity());
+            writer.name("total_amount").value(cart.getTotalAmount());
+            writer.endObject();
+        }
+    }
+
+    /**
+     * "data.cart" est préféré à "cart" quand les deux sont présents ; l'écriture suit
+     * les champs du modèle (success, message, cart)
+     */
+    static class CartDetailsResultAdapter extends TypeAdapter<CartDetailsResult> {
+        private final CartAdapter cartAdapter;
+
+        CartDetailsResultAdapter(CartAdapter cartAdapter) {
+            this.cartAdapter = cartAdapter;
+        }
+
+        @Override
+        public CartDetailsResult read(JsonReader reader) throws IOException {
+            if (!beginObject(reader)) {
+                return null;
+            }
+            boolean success = false;
+            String message = null;
+            Cart dataCart = null;
+            Cart cart = null;
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "success": success = nextBoolean(reader); break;
+                    case "message": message = nextString(reader); break;
+                    case "cart": cart = cartAdapter.read(reader); break;
+                    case "data":
+                        if (beginObject(reader)) {
+                            while (reader.hasNext()) {
+                                if ("cart".equals(reader.nextName())) {
+                                    dataCart = cartAdapter.read(reader);
+                                } else {
+                                    reader.skipValue();
+                                }
+                            }
+                            reader.endObject();
+                        }
+                        break;
+                    default: reader.skipValue(); break;
+                }
+            }
+            reader.endObject();
+            return new CartDetailsResult(success, message, dataCart != null ? dataCart : cart);
+        }
+
+        @Override
+        public void write(JsonWriter writer, CartDetailsResult result) throws IOException {
+            if (result == null) {
+                writer.nullValue();
+                return;
+            }
+            writer.beginObject();
+            writer.name("success").value(result.isSuccess());
+            writer.name("message").value(result.getMessage());
+            writer.name("cart");
+            cartAdapter.write(writer, result.getCart());
+            writer.endObject();
+        }
+    }
+
+    static class ExpenseAdapter extends TypeAdapter<Expense> {
+        @Override
+        public Expense read(JsonReader reader) throws IOException {
+            if (!beginObject(reader)) {
+                return null;
+            }
+            Expense expense = new Expense();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id": expense.setId(nextInt(reader)); break;
+                    case "type": expense.setType(nextString(reader)); break;
+                    case "amount": expense.setAmount(nextDouble(reader)); break;
+                    case "date": expense.setDate(nextString(reader)); break;
+                    case "description": expense.setDescription(nextString(reader)); break;
+                    case "receipt_photo_url": expense.setReceiptPhotoUrl(nextString(reader)); break;
+                    case "user_id": expense.setUserId(nextInt(reader)); break;
+                    case "created_at": expense.setCreatedAt(nextString(reader)); break;
+                    case "updated_at": expense.setUpdatedAt(nextString(reader)); break;
+                    default: reader.skipValue(); break;
+                }
+            }
+            reader.endObject();
+            return expense;
+        }
+
+        @Override
+        public void write(JsonWriter writer, Expense expense) throws IOException {
+            if (expense == null) {
+                writer.nullValue();
+                return;
+            }
+            writer.beginObject();
+            writer.name("id").value(expense.getId());
+            writer.name("type").value(expense.getType());
+            writer.name("amount").value(expense.getAmount());
+            writer.name("date").value(expense.getDate());
+            writer.name("description").value(expense.getDescription());
+            writer.name("receipt_photo_url").value(expense.getReceiptPhotoUrl());
+            writer.name("user_id").value(expense.getUserId());
+            writer.name("created_at").value(expense.getCreatedAt());
+            writer.name("updated_at").value(expense.getUpdatedAt());
+            writer.endObject();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.drogpulseai.api;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Journal des requêtes HTTP en mémoire, borné (tampon circulaire) et échantillonné
+ * Les corps sont tronqués ; les plus anciennes entrées sont oubliées au-delà de maxEntries.
+ * Désactivé par défaut dans les builds de production (voir ApiClient), activable à chaud
+ * depuis la section diagnostic des paramètres
+ */
+public final class NetworkLog {
+
+    public static final int DEFAULT_MAX_ENTRIES = 100;
+    public static final int DEFAULT_MAX_BODY_CHARS = 2048;
+
+    private static final NetworkLog INSTANCE = new NetworkLog();
+
+    private final Deque<Entry> entries = new ArrayDeque<>();
+
+    private volatile boolean enabled;
+    private volatile int samplePercent = 100;
+    private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+    private volatile int maxBodyChars = DEFAULT_MAX_BODY_CHARS;
+
+    NetworkLog() {
+    }
+
+    public static NetworkLog getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Part des requêtes journalisées, en pourcentage (0 à 100)
+     */
+    public void setSamplePercent(int samplePercent) {
+        this.samplePercent = Math.max(0, Math.min(100, samplePercent));
+    }
+
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        trim();
+    }
+
+    public int getMaxBodyChars() {
+        return maxBodyChars;
+    }
+
+    public void setMaxBodyChars(int maxBodyChars) {
+        this.maxBodyChars = Math.max(0, maxBodyChars);
+    }
+
+    /**
+     * Tirage de l'échantillon pour une requête ; false sans rien coûter si le journal est désactivé
+     */
+    public boolean shouldSample() {
+        if (!enabled) {
+            return false;
+        }
+        int percent = samplePercent;
+        return percent >= 100 || (percent > 0 && ThreadLocalRandom.current().nextInt(100) < percent);
+    }
+
+    public synchronized void add(Entry entry) {
+        entries.addLast(entry);
+        trim();
+    }
+
+    /**
+     * Entrées du journal, de la plus ancienne à la plus récente
+     */
+    public synchronized List<Entry> snapshot() {
+        return new ArrayList<>(entries);
+    }
+
+    /**
+     * Entrées à exporter hors de l'appareil : méthode, URL sans paramètres, code et durée
+     * Les corps (mots de passe, données clients) et les paramètres d'URL ne sont jamais exportés
+     */
+    public synchronized List<Entry> exportSnapshot() {
+        List<Entry> export = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            export.add(new Entry(entry.timestamp, entry.method, withoutQuery(entry.url), entry.code,
+                    entry.durationMs, null, null, null));
+        }
+        return export;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private void trim() {
+        while (entries.size() > maxEntries) {
+            entries.removeFirst();
+        }
+    }
+
+    static String withoutQuery(String url) {
+        if (url == null) {
+            return null;
+        }
+        int query = url.indexOf('?');
+        return query >= 0 ? url.substring(0, query) : url;
+    }
+
+    /**
+     * Tronquer un corps à maxChars caractères (null si absent)
+     */
+    public static String truncate(String text, int maxChars) {
+        if (text == null || text.length() <= maxChars) {
+            return text;
+        }
+        return text.substring(0, maxChars) + "… (" + text.length() + " caractères)";
+    }
+
+    /**
+     * Une requête journalisée
+     */
+    public static class Entry {
+        @SerializedName("at")
+        public final long timestamp;
+
+        @SerializedName("method")
+        public final String method;
+
+        @SerializedName("url")
+        public final String url;
+
+        // 0 si la requête a échoué sans réponse
+        @SerializedName("code")
+        public final int code;
+
+        @SerializedName("duration_ms")
+        public final long durationMs;
+
+        @SerializedName("request_body")
+        public final String requestBody;
+
+        @SerializedName("response_body")
+        public final String responseBody;
+
+        @SerializedName("error")
+        public final String error;
+
+        public Entry(long timestamp, String method, String url, int code, long durationMs,
+                     String requestBody, String responseBody, String error) {
+            this.timestamp = timestamp;
+            this.method = method;
+            this.url = url;
+            this.code = code;
+            this.durationMs = durationMs;
+            this.requestBody = requestBody;
+            this.responseBody = responseBody;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.drogpulseai.api;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+/**
+ * Journalisation des requêtes dans NetworkLog, pour la part échantillonnée des requêtes
+ * Seuls les débuts des corps texte (JSON, formulaires) sont lus : les photos et autres corps
+ * binaires ne sont ni copiés ni journalisés, et la réponse n'est jamais mise en mémoire en entier
+ */
+public class NetworkLoggingInterceptor implements Interceptor {
+    private static final String TAG = "ApiClient";
+
+    // Au-delà, un corps de requête texte n'est pas copié pour être journalisé
+    private static final long MAX_BUFFERED_REQUEST_BYTES = 64 * 1024;
+
+    private final NetworkLog log;
+    private final boolean logcat;
+
+    /**
+     * @param logcat true pour écrire aussi une ligne par requête dans logcat (builds de debug)
+     */
+    public NetworkLoggingInterceptor(NetworkLog log, boolean logcat) {
+        this.log = log;
+        this.logcat = logcat;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!log.shouldSample()) {
+            return chain.proceed(request);
+        }
+
+        int maxChars = log.getMaxBodyChars();
+        long startedAt = System.currentTimeMillis();
+        String requestBody = describeRequestBody(request.body(), maxChars);
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            long durationMs = System.currentTimeMillis() - startedAt;
+            log.add(new NetworkLog.Entry(startedAt, request.method(), request.url().toString(), 0,
+                    durationMs, requestBody, null, e.toString()));
+            if (logcat) {
+                Log.d(TAG, request.method() + " " + request.url() + " échec après " + durationMs + " ms: " + e);
+            }
+            throw e;
+        }
+
+        long durationMs = System.currentTimeMillis() - startedAt;
+        log.add(new NetworkLog.Entry(startedAt, request.method(), request.url().toString(), response.code(),
+                durationMs, requestBody, describeResponseBody(response, maxChars), null));
+        if (logcat) {
+            Log.d(TAG, request.method() + " " + request.url() + " -> " + response.code() + " (" + durationMs + " ms)");
+        }
+        return response;
+    }
+
+    private static String describeRequestBody(RequestBody body, int maxChars) throws IOException {
+        if (body == null) {
+            return null;
+        }
+
+        long length = body.contentLength();
+        if (body instanceof MultipartBody || body.isOneShot() || !isText(body.contentType())
+                || length < 0 || length > MAX_BUFFERED_REQUEST_BYTES) {
+            return summary(body.contentType(), length);
+        }
+
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        return NetworkLog.truncate(buffer.readUtf8(), maxChars);
+    }
+
+    private static String describeResponseBody(Response response, int maxChars) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null) {
+            return null;
+        }
+        if (!isText(body.contentType())) {
+            return summary(body.contentType(), body.contentLength());
+        }
+
+        // Lecture des premiers octets seulement ; le reste du corps n'est pas touché
+        String start = response.peekBody(maxChars + 1L).string();
+        if (start.length() > maxChars) {
+            long length = body.contentLength();
+            return start.substring(0, maxChars) + "… (" + (length >= 0 ? length + " octets" : "tronqué") + ")";
+        }
+        return start;
+    }
+
+    private static boolean isText(MediaType contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String subtype = contentType.subtype();
+        return "text".equals(contentType.type()) || subtype.contains("json")
+                || subtype.contains("xml") || "x-www-form-urlencoded".equals(subtype);
+    }
+
+    private static String summary(MediaType contentType, long length) {
+        return "<" + (contentType != null ? contentType.toString() : "?") + ", "
+                + (length >= 0 ? length + " octets" : "taille inconnue") + ">";
+    }
+}
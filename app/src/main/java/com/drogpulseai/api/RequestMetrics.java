@@ -0,0 +1,240 @@
+package com.drogpulseai.api;
+
+import androidx.annotation.NonNull;
+
+import com.drogpulseai.sync.SyncRunStats;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Durée des requêtes HTTP depuis le démarrage de l'application, selon qu'elles ont ouvert
+ * une nouvelle connexion (à froid : DNS, TCP, TLS) ou réutilisé une connexion du pool (à chaud)
+ * Les requêtes faites pendant un passage de synchronisation sont aussi comptées dans ce passage
+ * Compte aussi l'efficacité du cache HTTP des listes (voir ListCacheInterceptor) : réponses
+ * servies par le cache, le plus souvent après un 304, et octets de corps non téléchargés,
+ * ainsi que le gain de la compression des requêtes (voir GzipRequestInterceptor)
+ */
+public final class RequestMetrics {
+
+    private static final RequestMetrics INSTANCE = new RequestMetrics();
+
+    private long coldRequests;
+    private long coldTotalMs;
+    private long warmRequests;
+    private long warmTotalMs;
+    private long failedRequests;
+    private long cacheHits;
+    private long cacheMisses;
+    private long cacheBytesSaved;
+    private long gzipRequests;
+    private long gzipOriginalBytes;
+    private long gzipSentBytes;
+
+    private RequestMetrics() {
+    }
+
+    public static RequestMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    synchronized void record(boolean newConnection, long latencyMs, boolean failed) {
+        if (failed) {
+            failedRequests++;
+            return;
+        }
+        if (newConnection) {
+            coldRequests++;
+            coldTotalMs += latencyMs;
+        } else {
+            warmRequests++;
+            warmTotalMs += latencyMs;
+        }
+    }
+
+    synchronized void recordCacheHit(long bytesSaved) {
+        cacheHits++;
+        if (bytesSaved > 0) {
+            cacheBytesSaved += bytesSaved;
+        }
+    }
+
+    synchronized void recordCacheMiss() {
+        cacheMisses++;
+    }
+
+    synchronized void recordCompression(long originalBytes, long sentBytes) {
+        gzipRequests++;
+        gzipOriginalBytes += originalBytes;
+        gzipSentBytes += sentBytes;
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(coldRequests, coldRequests > 0 ? coldTotalMs / coldRequests : 0,
+                warmRequests, warmRequests > 0 ? warmTotalMs / warmRequests : 0, failedRequests,
+                cacheHits, cacheMisses, cacheBytesSaved, gzipRequests, gzipOriginalBytes, gzipSentBytes);
+    }
+
+    /**
+     * Compteurs à un instant donné (exportés avec le diagnostic)
+     */
+    public static class Snapshot {
+        @SerializedName("cold_requests")
+        public final long coldRequests;
+
+        @SerializedName("cold_avg_ms")
+        public final long coldAverageMs;
+
+        @SerializedName("warm_requests")
+        public final long warmRequests;
+
+        @SerializedName("warm_avg_ms")
+        public final long warmAverageMs;
+
+        @SerializedName("failed_requests")
+        public final long failedRequests;
+
+        @SerializedName("cache_hits")
+        public final long cacheHits;
+
+        @SerializedName("cache_misses")
+        public final long cacheMisses;
+
+        // Octets de corps servis par le cache au lieu du réseau (quand Content-Length est connu)
+        @SerializedName("cache_bytes_saved")
+        public final long cacheBytesSaved;
+
+        @SerializedName("gzip_requests")
+        public final long gzipRequests;
+
+        // Taille des corps compressés avant et après compression
+        @SerializedName("gzip_bytes_original")
+        public final long gzipOriginalBytes;
+
+        @SerializedName("gzip_bytes_sent")
+        public final long gzipSentBytes;
+
+        Snapshot(long coldRequests, long coldAverageMs, long warmRequests, long warmAverageMs,
+                 long failedRequests, long cacheHits, long cacheMisses, long cacheBytesSaved,
+                 long gzipRequests, long gzipOriginalBytes, long gzipSentBytes) {
+            this.coldRequests = coldRequests;
+            this.coldAverageMs = coldAverageMs;
+            this.warmRequests = warmRequests;
+            this.warmAverageMs = warmAverageMs;
+            this.failedRequests = failedRequests;
+            this.cacheHits = cacheHits;
+            this.cacheMisses = cacheMisses;
+            this.cacheBytesSaved = cacheBytesSaved;
+            this.gzipRequests = gzipRequests;
+            this.gzipOriginalBytes = gzipOriginalBytes;
+            this.gzipSentBytes = gzipSentBytes;
+        }
+
+        /**
+         * Part des requêtes mises en cache servies par le cache (0 à 1)
+         */
+        public double cacheHitRate() {
+            long total = cacheHits + cacheMisses;
+            return total > 0 ? (double) cacheHits / total : 0;
+        }
+
+        /**
+         * Taille envoyée rapportée à la taille d'origine pour les corps compressés (1 sans compression)
+         */
+        public double gzipRatio() {
+            return gzipOriginalBytes > 0 ? (double) gzipSentBytes / gzipOriginalBytes : 1;
+        }
+    }
+
+    /**
+     * Mesure de chaque appel : durée, connexion ouverte ou réutilisée, octets des corps
+     * L'appel est rattaché au passage de synchronisation du thread qui le crée
+     * (SyncRunStats.current), s'il y en a un
+     */
+    public static EventListener.Factory eventListenerFactory() {
+        return call -> new CallListener(SyncRunStats.current());
+    }
+
+    private static class CallListener extends EventListener {
+        private final SyncRunStats run;
+        private long startedAt;
+        private boolean newConnection;
+        private long bytesSent;
+        private long bytesReceived;
+        private boolean conditional;
+        private boolean cacheHit;
+
+        CallListener(SyncRunStats run) {
+            this.run = run;
+        }
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            startedAt = System.currentTimeMillis();
+        }
+
+        // Appelé seulement quand aucune connexion du pool ne convient
+        @Override
+        public void connectStart(@NonNull Call call, @NonNull InetSocketAddress address,
+                                 @NonNull Proxy proxy) {
+            newConnection = true;
+        }
+
+        // Réponse servie par le cache, directement ou après un 304 (corps non retéléchargé)
+        @Override
+        public void cacheHit(@NonNull Call call, @NonNull Response response) {
+            cacheHit = true;
+            ResponseBody body = response.body();
+            INSTANCE.recordCacheHit(body != null ? body.contentLength() : -1);
+        }
+
+        // Requête conditionnelle (If-None-Match / If-Modified-Since) : hit seulement si 304
+        @Override
+        public void cacheConditionalHit(@NonNull Call call, @NonNull Response cachedResponse) {
+            conditional = true;
+        }
+
+        @Override
+        public void cacheMiss(@NonNull Call call) {
+            INSTANCE.recordCacheMiss();
+        }
+
+        @Override
+        public void requestBodyEnd(@NonNull Call call, long byteCount) {
+            bytesSent += byteCount;
+        }
+
+        @Override
+        public void responseBodyEnd(@NonNull Call call, long byteCount) {
+            bytesReceived += byteCount;
+        }
+
+        @Override
+        public void callEnd(@NonNull Call call) {
+            finish(false);
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+            finish(true);
+        }
+
+        private void finish(boolean failed) {
+            long latencyMs = System.currentTimeMillis() - startedAt;
+            if (conditional && !cacheHit && !failed) {
+                INSTANCE.recordCacheMiss();
+            }
+            INSTANCE.record(newConnection, latencyMs, failed);
+            if (run != null) {
+                run.recordRequest(latencyMs, bytesSent, bytesReceived, failed);
+            }
+        }
+    }
+}
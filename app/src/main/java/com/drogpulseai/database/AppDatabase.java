@@ -1,24 +1,42 @@
 package com.drogpulseai.database;
 
-import androidx.room.Database;
-
 import android.content.Context;
 
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 
+import com.drogpulseai.database.dao.CartDao;
 import com.drogpulseai.database.dao.ContactDao;
+import com.drogpulseai.database.dao.ExpenseDao;
 import com.drogpulseai.database.dao.ProductDao;
+import com.drogpulseai.database.dao.SyncOutboxDao;
+import com.drogpulseai.database.entity.CartEntity;
 import com.drogpulseai.database.entity.ContactEntity;
+import com.drogpulseai.database.entity.ContactFts;
+import com.drogpulseai.database.entity.ExpenseEntity;
+import com.drogpulseai.database.entity.ProductFts;
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+import com.drogpulseai.database.migration.Migrations;
 
-@Database(entities = {ContactEntity.class}, version = 1, exportSchema = false)
+@Database(entities = {
+        ContactEntity.class,
+        ContactFts.class,
+        ProductEntity.class,
+        ProductFts.class,
+        SyncOutboxEntity.class,
+        ExpenseEntity.class,
+        CartEntity.class
+}, version = 10, exportSchema = true)
 public abstract class AppDatabase extends RoomDatabase {
     private static final String DATABASE_NAME = "drogpulse_db";
     private static AppDatabase instance;
 
     public abstract ContactDao contactDao();
     public abstract ProductDao productDao();
+    public abstract SyncOutboxDao syncOutboxDao();
+    public abstract ExpenseDao expenseDao();
+    public abstract CartDao cartDao();
 
     public static synchronized AppDatabase getInstance(Context context) {
         if (instance == null) {
@@ -26,7 +44,7 @@ public abstract class AppDatabase extends RoomDatabase {
                             context.getApplicationContext(),
                             AppDatabase.class,
                             DATABASE_NAME)
-                    .fallbackToDestructiveMigration()
+                    .addMigrations(Migrations.ALL)
                     .build();
         }
         return instance;
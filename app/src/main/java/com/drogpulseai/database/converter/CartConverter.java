@@ -0,0 +1,56 @@
+package com.drogpulseai.database.converter;
+
+import com.drogpulseai.database.entity.CartEntity;
+import com.drogpulseai.models.Cart;
+import com.drogpulseai.models.CartItem;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+public class CartConverter {
+
+    private static final Gson GSON = new Gson();
+    private static final Type ITEMS_TYPE = new TypeToken<List<CartItem>>(){}.getType();
+
+    public static CartEntity toEntity(Cart cart) {
+        CartEntity entity = new CartEntity();
+        entity.setId(cart.getId());
+        entity.setContactId(cart.getContactId());
+        entity.setUserId(cart.getUserId());
+        entity.setStatus(cart.getStatus());
+        entity.setNotes(cart.getNotes());
+        entity.setContactNom(cart.getContactNom());
+        entity.setContactPrenom(cart.getContactPrenom());
+        entity.setContactTelephone(cart.getContactTelephone());
+        entity.setContactEmail(cart.getContactEmail());
+        entity.setTotalQuantity(cart.getTotalQuantity());
+        entity.setTotalAmount(cart.getTotalAmount());
+        entity.setCreatedAt(cart.getCreatedAt());
+        entity.setUpdatedAt(cart.getUpdatedAt());
+        entity.setItemsJson(cart.getItems() != null ? GSON.toJson(cart.getItems(), ITEMS_TYPE) : null);
+        return entity;
+    }
+
+    public static Cart toModel(CartEntity entity) {
+        Cart cart = new Cart();
+        cart.setId(entity.getId());
+        cart.setContactId(entity.getContactId());
+        cart.setUserId(entity.getUserId());
+        cart.setStatus(entity.getStatus());
+        cart.setNotes(entity.getNotes());
+        cart.setContactNom(entity.getContactNom());
+        cart.setContactPrenom(entity.getContactPrenom());
+        cart.setContactTelephone(entity.getContactTelephone());
+        cart.setContactEmail(entity.getContactEmail());
+        cart.setTotalQuantity(entity.getTotalQuantity());
+        cart.setTotalAmount(entity.getTotalAmount());
+        cart.setCreatedAt(entity.getCreatedAt());
+        cart.setUpdatedAt(entity.getUpdatedAt());
+        if (entity.getItemsJson() != null) {
+            cart.setItems(GSON.fromJson(entity.getItemsJson(), ITEMS_TYPE));
+        }
+        return cart;
+    }
+}
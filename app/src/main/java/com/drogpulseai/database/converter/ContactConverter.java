@@ -2,6 +2,7 @@ package com.drogpulseai.database.converter;
 
 import com.drogpulseai.database.entity.ContactEntity;
 import com.drogpulseai.models.Contact;
+import com.drogpulseai.utils.SearchNormalizer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -9,7 +10,7 @@ import java.util.List;
 public class ContactConverter {
 
     public static ContactEntity toEntity(Contact contact) {
-        return new ContactEntity(
+        ContactEntity entity = new ContactEntity(
                 contact.getId(),
                 contact.getNom(),
                 contact.getPrenom(),
@@ -20,6 +21,12 @@ public class ContactConverter {
                 contact.getLongitude(),
                 contact.getUserId()
         );
+        entity.setSearchText(SearchNormalizer.buildSearchText(contact.getNom(), contact.getPrenom()));
+        entity.setPhoneNormalized(SearchNormalizer.normalizePhone(contact.getTelephone()));
+
+        // Une modification locale (contact "dirty") n'est pas encore synchronisée, même avec un ID serveur
+        entity.setSynced(contact.getId() > 0 && !contact.isDirty());
+        return entity;
     }
 
     public static Contact toModel(ContactEntity entity) {
@@ -34,9 +41,18 @@ public class ContactConverter {
                 entity.getUserId()
         );
         contact.setId(entity.getId());
+        contact.setDirty(!entity.isSynced());
         return contact;
     }
 
+    public static List<ContactEntity> toEntityList(List<Contact> contacts) {
+        List<ContactEntity> entities = new ArrayList<>();
+        for (Contact contact : contacts) {
+            entities.add(toEntity(contact));
+        }
+        return entities;
+    }
+
     public static List<Contact> toModelList(List<ContactEntity> entities) {
         List<Contact> contacts = new ArrayList<>();
         for (ContactEntity entity : entities) {
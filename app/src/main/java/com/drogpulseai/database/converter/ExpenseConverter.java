@@ -0,0 +1,55 @@
+package com.drogpulseai.database.converter;
+
+import com.drogpulseai.database.entity.ExpenseEntity;
+import com.drogpulseai.models.Expense;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ExpenseConverter {
+
+    public static ExpenseEntity toEntity(Expense expense) {
+        ExpenseEntity entity = new ExpenseEntity();
+        entity.setId(expense.getId());
+        entity.setType(expense.getType());
+        entity.setAmount(expense.getAmount());
+        entity.setDate(expense.getDate());
+        entity.setDescription(expense.getDescription());
+        entity.setReceiptPhotoUrl(expense.getReceiptPhotoUrl());
+        entity.setUserId(expense.getUserId());
+        entity.setCreatedAt(expense.getCreatedAt());
+        entity.setUpdatedAt(expense.getUpdatedAt());
+        return entity;
+    }
+
+    public static Expense toModel(ExpenseEntity entity) {
+        Expense expense = new Expense(
+                entity.getType(),
+                entity.getAmount(),
+                entity.getDate(),
+                entity.getDescription(),
+                entity.getReceiptPhotoUrl(),
+                entity.getUserId()
+        );
+        expense.setId(entity.getId());
+        expense.setCreatedAt(entity.getCreatedAt());
+        expense.setUpdatedAt(entity.getUpdatedAt());
+        return expense;
+    }
+
+    public static List<ExpenseEntity> toEntityList(List<Expense> expenses) {
+        List<ExpenseEntity> entities = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            entities.add(toEntity(expense));
+        }
+        return entities;
+    }
+
+    public static List<Expense> toModelList(List<ExpenseEntity> entities) {
+        List<Expense> expenses = new ArrayList<>(entities.size());
+        for (ExpenseEntity entity : entities) {
+            expenses.add(toModel(entity));
+        }
+        return expenses;
+    }
+}
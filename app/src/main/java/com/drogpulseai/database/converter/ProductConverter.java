@@ -2,6 +2,7 @@ package com.drogpulseai.database.converter;
 
 import com.drogpulseai.database.ProductEntity;
 import com.drogpulseai.models.Product;
+import com.drogpulseai.utils.SearchNormalizer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -22,8 +23,24 @@ public class ProductConverter {
                 product.getUserId()
         );
 
-        // Marquer comme "dirty" si c'est une nouvelle entité ou une modification locale
-        entity.setDirty(true);
+        entity.setCreatedAt(product.getCreatedAt());
+        entity.setUpdatedAt(product.getUpdatedAt());
+        entity.setCoutDeRevientUnitaire(product.getCoutDeRevientUnitaire());
+        entity.setPrixMinVente(product.getPrixMinVente());
+        entity.setPrixVenteConseille(product.getPrixVenteConseille());
+        entity.setSearchText(SearchNormalizer.buildSearchText(
+                product.getName(),
+                product.getLabel(),
+                product.getReference(),
+                product.getBarcode()
+        ));
+
+        // Conserver l'état "dirty" du modèle : vrai pour une création ou une modification locale,
+        // faux pour un produit reçu du serveur
+        entity.setDirty(product.isDirty());
+        if (product.getLastUpdated() > 0) {
+            entity.setLastUpdated(product.getLastUpdated());
+        }
         return entity;
     }
 
@@ -39,9 +56,26 @@ public class ProductConverter {
         product.setQuantity(entity.getQuantity());
         product.setPrice(entity.getPrice());
         product.setUserId(entity.getUserId());
+        product.setCreatedAt(entity.getCreatedAt());
+        product.setUpdatedAt(entity.getUpdatedAt());
+        product.setCoutDeRevientUnitaire(entity.getCoutDeRevientUnitaire());
+        product.setPrixMinVente(entity.getPrixMinVente());
+        product.setPrixVenteConseille(entity.getPrixVenteConseille());
+
+        // Les setters marquent le modèle comme modifié : restaurer l'état persisté
+        product.setDirty(entity.isDirty());
+        product.setLastUpdated(entity.getLastUpdated());
         return product;
     }
 
+    public static List<ProductEntity> fromProductList(List<Product> products) {
+        List<ProductEntity> entities = new ArrayList<>();
+        for (Product product : products) {
+            entities.add(fromProduct(product));
+        }
+        return entities;
+    }
+
     public static List<Product> toProductList(List<ProductEntity> entities) {
         List<Product> products = new ArrayList<>();
         for (ProductEntity entity : entities) {
@@ -0,0 +1,54 @@
+package com.drogpulseai.database.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Upsert;
+
+import com.drogpulseai.database.entity.CartEntity;
+
+import java.util.List;
+
+@Dao
+public interface CartDao {
+
+    @Upsert
+    void upsertCarts(List<CartEntity> carts);
+
+    @Upsert
+    void upsertCart(CartEntity cart);
+
+    @Query("SELECT * FROM carts WHERE userId = :userId ORDER BY updatedAt DESC")
+    LiveData<List<CartEntity>> observeCartsForUser(int userId);
+
+    @Query("SELECT * FROM carts WHERE userId = :userId ORDER BY updatedAt DESC")
+    List<CartEntity> getCartsForUser(int userId);
+
+    @Query("SELECT * FROM carts WHERE contactId = :contactId ORDER BY updatedAt DESC")
+    List<CartEntity> getCartsForContact(int contactId);
+
+    @Query("SELECT * FROM carts WHERE id = :id LIMIT 1")
+    CartEntity findCartById(int id);
+
+    // Paniers créés hors ligne, pas encore envoyés (ID temporaire négatif)
+    @Query("SELECT * FROM carts WHERE id < 0")
+    List<CartEntity> getLocalCarts();
+
+    @Query("SELECT * FROM carts WHERE userId = :userId AND id < 0 ORDER BY createdAt DESC")
+    List<CartEntity> getLocalCartsForUser(int userId);
+
+    @Query("SELECT MIN(id) FROM carts WHERE id < 0")
+    Integer getLowestLocalId();
+
+    @Query("UPDATE carts SET contactId = :serverId WHERE contactId = :localId")
+    int remapContactId(int localId, int serverId);
+
+    @Query("UPDATE carts SET itemsJson = :itemsJson WHERE id = :id")
+    int updateItemsJson(int id, String itemsJson);
+
+    @Query("DELETE FROM carts WHERE id = :id")
+    void deleteCartById(int id);
+
+    @Query("DELETE FROM carts")
+    void deleteAllCarts();
+}
@@ -1,22 +1,30 @@
 package com.drogpulseai.database.dao;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
-import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
 import com.drogpulseai.database.entity.ContactEntity;
+import com.drogpulseai.utils.SearchNormalizer;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Dao
 public interface ContactDao {
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    // Upsert plutôt que REPLACE pour que les triggers de l'index FTS voient les mises à jour
+    @Upsert
     long insert(ContactEntity contact);
 
+    @Insert
+    void insertAll(List<ContactEntity> contacts);
+
     @Update
     void update(ContactEntity contact);
 
@@ -26,9 +34,36 @@ public interface ContactDao {
     @Query("SELECT * FROM contacts WHERE userId = :userId AND isDeleted = 0 ORDER BY nom ASC")
     LiveData<List<ContactEntity>> getContactsByUserId(int userId);
 
+    @Query("SELECT * FROM contacts WHERE userId = :userId AND isDeleted = 0 ORDER BY nom ASC")
+    PagingSource<Integer, ContactEntity> pagingContactsByUserId(int userId);
+
     @Query("SELECT * FROM contacts WHERE id = :id AND isDeleted = 0")
     ContactEntity getContactById(int id);
 
+    @Query("SELECT * FROM contacts WHERE id = :id LIMIT 1")
+    ContactEntity findContactByServerId(int id);
+
+    @Query("SELECT * FROM contacts WHERE isDeleted = 0")
+    List<ContactEntity> getAllContacts();
+
+    @Query("SELECT * FROM contacts WHERE userId = :userId AND isDeleted = 0")
+    List<ContactEntity> getContactsForUser(int userId);
+
+    @Query("SELECT id FROM contacts WHERE userId = :userId AND isSynced = 0")
+    List<Integer> getUnsyncedContactIds(int userId);
+
+    @Query("SELECT MIN(id) FROM contacts WHERE id < 0")
+    Integer getLowestLocalId();
+
+    @Query("DELETE FROM contacts WHERE id = :id")
+    void deleteContactById(int id);
+
+    @Query("DELETE FROM contacts WHERE userId = :userId AND isSynced = 1")
+    void deleteSyncedContactsForUser(int userId);
+
+    @Query("DELETE FROM contacts")
+    void deleteAllContacts();
+
     @Query("SELECT * FROM contacts WHERE roomId = :roomId AND isDeleted = 0")
     ContactEntity getContactByRoomId(long roomId);
 
@@ -44,8 +79,46 @@ public interface ContactDao {
     @Query("UPDATE contacts SET id = :serverId WHERE roomId = :roomId")
     void updateServerId(long roomId, int serverId);
 
-    @Query("SELECT * FROM contacts WHERE userId = :userId AND isDeleted = 0 AND (nom LIKE '%' || :query || '%' OR prenom LIKE '%' || :query || '%' OR telephone LIKE '%' || :query || '%')")
-    LiveData<List<ContactEntity>> searchContacts(int userId, String query);
+    /**
+     * Recherche plein texte via l'index contacts_fts
+     * @param matchQuery expression MATCH sur searchText (nom, prénom) et/ou phoneNormalized
+     * @param prefixPattern motif LIKE du premier terme, pour classer en tête les correspondances en début de nom
+     */
+    @Query("SELECT contacts.* FROM contacts "
+            + "JOIN contacts_fts ON contacts.roomId = contacts_fts.rowid "
+            + "WHERE contacts_fts MATCH :matchQuery AND contacts.userId = :userId AND contacts.isDeleted = 0 "
+            + "ORDER BY CASE WHEN contacts.searchText LIKE :prefixPattern THEN 0 ELSE 1 END, contacts.nom ASC")
+    LiveData<List<ContactEntity>> searchContactsFts(int userId, String matchQuery, String prefixPattern);
+
+    /**
+     * Recherche d'une partie de numéro (début, milieu ou fin) dans phoneNormalized
+     * L'index FTS ne cherche que par préfixe ; le parcours est limité aux contacts de l'utilisateur
+     * @param containsPattern motif LIKE "%chiffres%"
+     * @param prefixPattern motif LIKE "chiffres%", pour classer en tête les numéros qui commencent ainsi
+     */
+    @Query("SELECT * FROM contacts "
+            + "WHERE userId = :userId AND isDeleted = 0 AND phoneNormalized LIKE :containsPattern "
+            + "ORDER BY CASE WHEN phoneNormalized LIKE :prefixPattern THEN 0 ELSE 1 END, nom ASC")
+    LiveData<List<ContactEntity>> searchContactsByPhone(int userId, String containsPattern, String prefixPattern);
+
+    /**
+     * Rechercher les contacts d'un utilisateur par nom, prénom ou téléphone
+     * Noms : recherche par préfixe, insensible à la casse et aux accents. Numéros : n'importe
+     * quelle partie du numéro, comparé sous forme normalisée (+212 6..., 00212 6... et 06...
+     * sont équivalents)
+     */
+    default LiveData<List<ContactEntity>> searchContacts(int userId, String query) {
+        if (SearchNormalizer.looksLikePhone(query)) {
+            String phone = SearchNormalizer.normalizePhone(query);
+            return searchContactsByPhone(userId, "%" + phone + "%", phone + "%");
+        }
+
+        String matchQuery = SearchNormalizer.toFtsQuery(query);
+        if (matchQuery == null) {
+            return new MutableLiveData<>(new ArrayList<>());
+        }
+        return searchContactsFts(userId, matchQuery, SearchNormalizer.toPrefixPattern(query));
+    }
 
     @Query("DELETE FROM contacts WHERE isDeleted = 1 AND isSynced = 1")
     void deleteAllSyncedAndDeletedContacts();
@@ -0,0 +1,38 @@
+package com.drogpulseai.database.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Upsert;
+
+import com.drogpulseai.database.entity.ExpenseEntity;
+
+import java.util.List;
+
+@Dao
+public interface ExpenseDao {
+
+    @Upsert
+    void upsertExpenses(List<ExpenseEntity> expenses);
+
+    @Upsert
+    void upsertExpense(ExpenseEntity expense);
+
+    @Query("SELECT * FROM expenses WHERE userId = :userId ORDER BY date DESC")
+    LiveData<List<ExpenseEntity>> observeExpensesForUser(int userId);
+
+    @Query("SELECT * FROM expenses WHERE userId = :userId ORDER BY date DESC")
+    List<ExpenseEntity> getExpensesForUser(int userId);
+
+    @Query("SELECT * FROM expenses WHERE id = :id LIMIT 1")
+    ExpenseEntity findExpenseById(int id);
+
+    @Query("SELECT MIN(id) FROM expenses WHERE id < 0")
+    Integer getLowestLocalId();
+
+    @Query("DELETE FROM expenses WHERE id = :id")
+    void deleteExpenseById(int id);
+
+    @Query("DELETE FROM expenses")
+    void deleteAllExpenses();
+}
@@ -1,22 +1,30 @@
 package com.drogpulseai.database.dao;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
-import androidx.room.Insert;
-import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
 import com.drogpulseai.database.ProductEntity;
+import com.drogpulseai.utils.SearchNormalizer;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Dao
 public interface ProductDao {
 
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    long insertProduct(ProductEntity product);
+    // Upsert (INSERT puis UPDATE en cas de conflit) plutôt que REPLACE : un REPLACE supprime
+    // la ligne sans déclencher les triggers de l'index FTS, qui garderait alors des entrées obsolètes
+    @Upsert
+    void upsertProduct(ProductEntity product);
+
+    @Upsert
+    void upsertProducts(List<ProductEntity> products);
 
     @Update
     int updateProduct(ProductEntity product);
@@ -27,12 +35,33 @@ public interface ProductDao {
     @Query("SELECT * FROM products WHERE userId = :userId")
     LiveData<List<ProductEntity>> getProductsByUserId(int userId);
 
+    @Query("SELECT * FROM products WHERE userId = :userId ORDER BY name")
+    PagingSource<Integer, ProductEntity> pagingProductsByUserId(int userId);
+
     @Query("SELECT * FROM products WHERE id = :id")
     LiveData<ProductEntity> getProductById(int id);
 
+    @Query("SELECT * FROM products WHERE id = :id LIMIT 1")
+    ProductEntity findProductById(int id);
+
+    @Query("SELECT * FROM products")
+    List<ProductEntity> getAllProducts();
+
+    @Query("SELECT * FROM products WHERE userId = :userId")
+    List<ProductEntity> getProductsForUser(int userId);
+
+    @Query("SELECT MIN(id) FROM products WHERE id < 0")
+    Integer getLowestLocalId();
+
+    @Query("DELETE FROM products")
+    void deleteAllProducts();
+
     @Query("SELECT * FROM products WHERE isDirty = 1")
     List<ProductEntity> getDirtyProducts();
 
+    @Query("SELECT id FROM products WHERE userId = :userId AND isDirty = 1")
+    List<Integer> getDirtyProductIds(int userId);
+
     @Query("SELECT * FROM products WHERE barcode = :barcode LIMIT 1")
     ProductEntity getProductByBarcode(String barcode);
 
@@ -42,6 +71,34 @@ public interface ProductDao {
     @Query("DELETE FROM products WHERE id = :id")
     void deleteProductById(int id);
 
-    @Query("SELECT * FROM products WHERE userId = :userId AND (name LIKE '%' || :query || '%' OR reference LIKE '%' || :query || '%' OR barcode LIKE '%' || :query || '%')")
-    LiveData<List<ProductEntity>> searchProducts(int userId, String query);
+    /**
+     * Recherche plein texte via l'index products_fts
+     * Les produits dont le texte indexé commence par le premier terme sont classés en tête
+     * @param matchQuery expression MATCH (voir SearchNormalizer.toFtsQuery)
+     * @param prefixPattern motif LIKE du premier terme (voir SearchNormalizer.toPrefixPattern)
+     */
+    @Query("SELECT products.* FROM products "
+            + "JOIN products_fts ON products.id = products_fts.rowid "
+            + "WHERE products_fts MATCH :matchQuery AND products.userId = :userId "
+            + "ORDER BY CASE WHEN products.searchText LIKE :prefixPattern THEN 0 ELSE 1 END, products.name "
+            + "LIMIT :limit")
+    List<ProductEntity> searchProductsFts(int userId, String matchQuery, String prefixPattern, int limit);
+
+    @Query("SELECT products.* FROM products "
+            + "JOIN products_fts ON products.id = products_fts.rowid "
+            + "WHERE products_fts MATCH :matchQuery AND products.userId = :userId "
+            + "ORDER BY CASE WHEN products.searchText LIKE :prefixPattern THEN 0 ELSE 1 END, products.name")
+    LiveData<List<ProductEntity>> observeProductsFts(int userId, String matchQuery, String prefixPattern);
+
+    /**
+     * Rechercher les produits d'un utilisateur (nom, libellé, référence, code-barres)
+     * Recherche par préfixe, insensible à la casse et aux accents
+     */
+    default LiveData<List<ProductEntity>> searchProducts(int userId, String query) {
+        String matchQuery = SearchNormalizer.toFtsQuery(query);
+        if (matchQuery == null) {
+            return new MutableLiveData<>(new ArrayList<>());
+        }
+        return observeProductsFts(userId, matchQuery, SearchNormalizer.toPrefixPattern(query));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.drogpulseai.database.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
+
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+
+import java.util.List;
+
+@Dao
+public interface SyncOutboxDao {
+
+    @Insert
+    long insert(SyncOutboxEntity entry);
+
+    @Update
+    void update(SyncOutboxEntity entry);
+
+    @Query("SELECT * FROM sync_outbox WHERE entityType = :entityType AND entityId = :entityId LIMIT 1")
+    SyncOutboxEntity find(String entityType, int entityId);
+
+    @Query("SELECT * FROM sync_outbox WHERE outboxId = :outboxId LIMIT 1")
+    SyncOutboxEntity findById(long outboxId);
+
+    @Query("SELECT entityId FROM sync_outbox WHERE entityType = :entityType ORDER BY outboxId")
+    List<Integer> getPendingIds(String entityType);
+
+    @Query("SELECT * FROM sync_outbox WHERE entityType = :entityType ORDER BY outboxId")
+    List<SyncOutboxEntity> getPendingEntries(String entityType);
+
+    /**
+     * Opérations à envoyer maintenant : ni en attente de leur délai de nouvelle tentative,
+     * ni en lettre morte
+     */
+    @Query("SELECT entityId FROM sync_outbox WHERE entityType = :entityType AND deadLetter = 0 "
+            + "AND nextAttemptAt <= :now ORDER BY outboxId")
+    List<Integer> getDueIds(String entityType, long now);
+
+    @Query("SELECT * FROM sync_outbox WHERE entityType = :entityType AND deadLetter = 0 "
+            + "AND nextAttemptAt <= :now ORDER BY outboxId")
+    List<SyncOutboxEntity> getDueEntries(String entityType, long now);
+
+    // Prochaine tentative prévue (null si aucune opération à retenter)
+    @Query("SELECT MIN(nextAttemptAt) FROM sync_outbox WHERE entityType = :entityType AND deadLetter = 0")
+    Long getNextAttemptAt(String entityType);
+
+    // ID temporaire le plus bas déjà attribué (null si aucun)
+    @Query("SELECT MIN(entityId) FROM sync_outbox WHERE entityType = :entityType AND entityId < 0")
+    Integer getLowestLocalId(String entityType);
+
+    @Query("SELECT COUNT(*) FROM sync_outbox WHERE entityType = :entityType")
+    int countPending(String entityType);
+
+    @Query("SELECT COUNT(*) FROM sync_outbox WHERE entityType = :entityType")
+    LiveData<Integer> observePendingCount(String entityType);
+
+    @Query("SELECT COUNT(*) FROM sync_outbox")
+    LiveData<Integer> observeTotalPendingCount();
+
+    @Query("DELETE FROM sync_outbox WHERE entityType = :entityType AND entityId = :entityId")
+    int delete(String entityType, int entityId);
+
+    // Ne retire l'opération que si l'entité n'a pas été modifiée pendant l'envoi
+    @Query("DELETE FROM sync_outbox WHERE outboxId = :outboxId AND revision = :revision")
+    int deleteIfUnchanged(long outboxId, int revision);
+
+    // La révision protège une modification faite pendant l'envoi : elle repart sans échec compté
+    @Query("UPDATE sync_outbox SET attemptCount = attemptCount + 1, nextAttemptAt = :nextAttemptAt, "
+            + "lastError = :error WHERE outboxId = :outboxId AND revision = :revision")
+    int recordFailure(long outboxId, int revision, long nextAttemptAt, String error);
+
+    @Query("UPDATE sync_outbox SET attemptCount = attemptCount + 1, deadLetter = 1, lastError = :error "
+            + "WHERE outboxId = :outboxId AND revision = :revision")
+    int markDeadLetter(long outboxId, int revision, String error);
+
+    // Attendre l'envoi d'une autre opération (dépendance), sans compter d'échec
+    @Query("UPDATE sync_outbox SET nextAttemptAt = :nextAttemptAt WHERE outboxId = :outboxId")
+    int deferUntil(long outboxId, long nextAttemptAt);
+
+    // Remplacer un ID temporaire par l'ID attribué par le serveur
+    @Query("UPDATE sync_outbox SET entityId = :serverId WHERE entityType = :entityType AND entityId = :localId")
+    int remapEntityId(String entityType, int localId, int serverId);
+
+    // Nouvelle version serveur de référence, après fusion avec une modification concurrente
+    @Query("UPDATE sync_outbox SET baseUpdatedAt = :baseUpdatedAt WHERE outboxId = :outboxId")
+    int updateBaseUpdatedAt(long outboxId, String baseUpdatedAt);
+
+    // Réécrire la copie JSON sans changer la révision (les références vers un ID temporaire)
+    @Query("UPDATE sync_outbox SET payload = :payload WHERE outboxId = :outboxId")
+    int updatePayload(long outboxId, String payload);
+
+    @Query("SELECT * FROM sync_outbox WHERE deadLetter = 1 ORDER BY outboxId")
+    List<SyncOutboxEntity> getDeadLetters();
+
+    @Query("SELECT COUNT(*) FROM sync_outbox WHERE deadLetter = 1")
+    LiveData<Integer> observeDeadLetterCount();
+
+    // Remettre les lettres mortes dans la file (nouvelle série de tentatives)
+    @Query("UPDATE sync_outbox SET deadLetter = 0, attemptCount = 0, nextAttemptAt = :now WHERE deadLetter = 1")
+    int requeueDeadLetters(long now);
+
+    /**
+     * Ajouter une opération, ou remplacer celle déjà en attente pour la même entité
+     * (une entité n'apparaît jamais deux fois dans la file)
+     */
+    @Transaction
+    default void enqueue(SyncOutboxEntity entry) {
+        SyncOutboxEntity existing = find(entry.getEntityType(), entry.getEntityId());
+
+        if (existing == null) {
+            insert(entry);
+            return;
+        }
+
+        existing.setOperation(entry.getOperation());
+        existing.setPayload(entry.getPayload());
+        // Les champs modifiés s'ajoutent ; la version serveur de référence reste celle de la
+        // première modification
+        existing.setChangedFields(SyncOutboxEntity.mergeChangedFields(
+                existing.getChangedFields(), entry.getChangedFields()));
+        if (existing.getBaseUpdatedAt() == null) {
+            existing.setBaseUpdatedAt(entry.getBaseUpdatedAt());
+        }
+        existing.setRevision(existing.getRevision() + 1);
+        existing.setAttemptCount(0);
+        existing.setNextAttemptAt(entry.getNextAttemptAt());
+        existing.setDeadLetter(false);
+        existing.setLastError(null);
+        update(existing);
+    }
+}
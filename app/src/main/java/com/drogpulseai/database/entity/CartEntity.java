@@ -0,0 +1,78 @@
+package com.drogpulseai.database.entity;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Panier reçu du serveur (copie locale alimentée par la synchronisation périodique)
+ * Les lignes du panier sont gardées telles quelles, en JSON
+ */
+@Entity(tableName = "carts",
+        indices = {
+                @Index({"userId", "updatedAt"}),
+                @Index("contactId")
+        })
+public class CartEntity {
+    @PrimaryKey
+    private int id;
+    private int contactId;
+    private int userId;
+    private String status;
+    private String notes;
+    private String contactNom;
+    private String contactPrenom;
+    private String contactTelephone;
+    private String contactEmail;
+    private int totalQuantity;
+    private double totalAmount;
+    private String createdAt;
+    private String updatedAt;
+    private String itemsJson; // Lignes du panier (null si la liste serveur ne les inclut pas)
+
+    public CartEntity() {
+    }
+
+    // Getters et Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public int getContactId() { return contactId; }
+    public void setContactId(int contactId) { this.contactId = contactId; }
+
+    public int getUserId() { return userId; }
+    public void setUserId(int userId) { this.userId = userId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public String getContactNom() { return contactNom; }
+    public void setContactNom(String contactNom) { this.contactNom = contactNom; }
+
+    public String getContactPrenom() { return contactPrenom; }
+    public void setContactPrenom(String contactPrenom) { this.contactPrenom = contactPrenom; }
+
+    public String getContactTelephone() { return contactTelephone; }
+    public void setContactTelephone(String contactTelephone) { this.contactTelephone = contactTelephone; }
+
+    public String getContactEmail() { return contactEmail; }
+    public void setContactEmail(String contactEmail) { this.contactEmail = contactEmail; }
+
+    public int getTotalQuantity() { return totalQuantity; }
+    public void setTotalQuantity(int totalQuantity) { this.totalQuantity = totalQuantity; }
+
+    public double getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
+
+    public String getCreatedAt() { return createdAt; }
+    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+
+    public String getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
+
+    public String getItemsJson() { return itemsJson; }
+    public void setItemsJson(String itemsJson) { this.itemsJson = itemsJson; }
+}
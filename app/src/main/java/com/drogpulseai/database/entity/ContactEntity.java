@@ -1,9 +1,14 @@
 package com.drogpulseai.database.entity;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "contacts")
+@Entity(tableName = "contacts",
+        indices = {
+                @Index("id"),
+                @Index({"userId", "nom"})
+        })
 public class ContactEntity {
     @PrimaryKey(autoGenerate = true)
     private long roomId; // ID local pour Room
@@ -17,6 +22,8 @@ public class ContactEntity {
     private double latitude;
     private double longitude;
     private int userId;
+    private String searchText; // Nom et prénom normalisés pour l'index FTS
+    private String phoneNormalized; // Téléphone sans indicatif ni séparateurs
     private boolean isSynced;
     private boolean isDeleted;
 
@@ -68,6 +75,12 @@ public class ContactEntity {
     public int getUserId() { return userId; }
     public void setUserId(int userId) { this.userId = userId; }
 
+    public String getSearchText() { return searchText; }
+    public void setSearchText(String searchText) { this.searchText = searchText; }
+
+    public String getPhoneNormalized() { return phoneNormalized; }
+    public void setPhoneNormalized(String phoneNormalized) { this.phoneNormalized = phoneNormalized; }
+
     public boolean isSynced() { return isSynced; }
     public void setSynced(boolean synced) { isSynced = synced; }
 
@@ -0,0 +1,27 @@
+package com.drogpulseai.database.entity;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Index plein texte des contacts (table FTS4 à contenu externe)
+ * Room crée les triggers qui maintiennent cet index synchronisé avec la table "contacts"
+ */
+@Fts4(contentEntity = ContactEntity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "contacts_fts")
+public class ContactFts {
+    private String searchText;
+    private String phoneNormalized;
+
+    public ContactFts(String searchText, String phoneNormalized) {
+        this.searchText = searchText;
+        this.phoneNormalized = phoneNormalized;
+    }
+
+    public String getSearchText() { return searchText; }
+    public void setSearchText(String searchText) { this.searchText = searchText; }
+
+    public String getPhoneNormalized() { return phoneNormalized; }
+    public void setPhoneNormalized(String phoneNormalized) { this.phoneNormalized = phoneNormalized; }
+}
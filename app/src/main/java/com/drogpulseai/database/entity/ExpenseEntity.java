@@ -0,0 +1,56 @@
+package com.drogpulseai.database.entity;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Frais reçu du serveur (copie locale alimentée par la synchronisation périodique)
+ */
+@Entity(tableName = "expenses",
+        indices = {
+                @Index({"userId", "date"})
+        })
+public class ExpenseEntity {
+    @PrimaryKey
+    private int id;
+    private String type;
+    private double amount;
+    private String date;
+    private String description;
+    private String receiptPhotoUrl;
+    private int userId;
+    private String createdAt;
+    private String updatedAt;
+
+    public ExpenseEntity() {
+    }
+
+    // Getters et Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public double getAmount() { return amount; }
+    public void setAmount(double amount) { this.amount = amount; }
+
+    public String getDate() { return date; }
+    public void setDate(String date) { this.date = date; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getReceiptPhotoUrl() { return receiptPhotoUrl; }
+    public void setReceiptPhotoUrl(String receiptPhotoUrl) { this.receiptPhotoUrl = receiptPhotoUrl; }
+
+    public int getUserId() { return userId; }
+    public void setUserId(int userId) { this.userId = userId; }
+
+    public String getCreatedAt() { return createdAt; }
+    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+
+    public String getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -2,9 +2,16 @@ package com.drogpulseai.database;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "products")
+@Entity(tableName = "products",
+        indices = {
+                @Index("userId"),
+                @Index({"userId", "name"}),
+                @Index("barcode"),
+                @Index("isDirty")
+        })
 public class ProductEntity {
     @PrimaryKey
     private int id;
@@ -17,7 +24,13 @@ public class ProductEntity {
     private int quantity;
     private double price;
     private int userId;
+    private String createdAt;
+    private String updatedAt;
+    private double coutDeRevientUnitaire;
+    private double prixMinVente;
+    private double prixVenteConseille;
     private long lastUpdated;
+    private String searchText; // Nom, libellé, référence et code-barres normalisés pour l'index FTS
     private boolean isDirty; // Indique si ce produit a des modifications locales non synchronisées
 
     // Constructeur
@@ -69,9 +82,27 @@ public class ProductEntity {
     public int getUserId() { return userId; }
     public void setUserId(int userId) { this.userId = userId; }
 
+    public String getCreatedAt() { return createdAt; }
+    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+
+    public String getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
+
+    public double getCoutDeRevientUnitaire() { return coutDeRevientUnitaire; }
+    public void setCoutDeRevientUnitaire(double coutDeRevientUnitaire) { this.coutDeRevientUnitaire = coutDeRevientUnitaire; }
+
+    public double getPrixMinVente() { return prixMinVente; }
+    public void setPrixMinVente(double prixMinVente) { this.prixMinVente = prixMinVente; }
+
+    public double getPrixVenteConseille() { return prixVenteConseille; }
+    public void setPrixVenteConseille(double prixVenteConseille) { this.prixVenteConseille = prixVenteConseille; }
+
     public long getLastUpdated() { return lastUpdated; }
     public void setLastUpdated(long lastUpdated) { this.lastUpdated = lastUpdated; }
 
+    public String getSearchText() { return searchText; }
+    public void setSearchText(String searchText) { this.searchText = searchText; }
+
     public boolean isDirty() { return isDirty; }
     public void setDirty(boolean dirty) { isDirty = dirty; }
 }
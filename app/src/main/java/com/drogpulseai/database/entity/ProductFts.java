@@ -0,0 +1,24 @@
+package com.drogpulseai.database.entity;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+import com.drogpulseai.database.ProductEntity;
+
+/**
+ * Index plein texte des produits (table FTS4 à contenu externe)
+ * Room crée les triggers qui maintiennent cet index synchronisé avec la table "products"
+ */
+@Fts4(contentEntity = ProductEntity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "products_fts")
+public class ProductFts {
+    private String searchText;
+
+    public ProductFts(String searchText) {
+        this.searchText = searchText;
+    }
+
+    public String getSearchText() { return searchText; }
+    public void setSearchText(String searchText) { this.searchText = searchText; }
+}
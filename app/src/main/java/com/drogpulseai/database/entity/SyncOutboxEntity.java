@@ -0,0 +1,127 @@
+package com.drogpulseai.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Opération locale en attente d'envoi au serveur (file "outbox" de synchronisation)
+ * Une seule ligne par entité : une nouvelle modification remplace la précédente
+ */
+@Entity(tableName = "sync_outbox",
+        indices = {
+                @Index(value = {"entityType", "entityId"}, unique = true),
+                @Index("nextAttemptAt")
+        })
+public class SyncOutboxEntity {
+
+    // Types d'entités synchronisées
+    public static final String TYPE_PRODUCT = "product";
+    public static final String TYPE_CONTACT = "contact";
+    public static final String TYPE_EXPENSE = "expense";
+    public static final String TYPE_CART = "cart";
+
+    // Opérations
+    public static final String OP_UPSERT = "upsert";
+    public static final String OP_DELETE = "delete";
+
+    @PrimaryKey(autoGenerate = true)
+    private long outboxId;
+
+    @NonNull
+    private String entityType = TYPE_PRODUCT;
+    private int entityId; // ID serveur, ou ID temporaire négatif
+    @NonNull
+    private String operation = OP_UPSERT;
+    private String payload; // Copie JSON de l'entité au moment de la modification
+    private int revision; // Incrémenté à chaque nouvelle modification de l'entité
+    private int attemptCount;
+    private long nextAttemptAt; // Timestamp (ms) avant lequel ne pas réessayer
+    private long createdAt;
+    @ColumnInfo(defaultValue = "0")
+    private boolean deadLetter; // Trop d'échecs : n'est plus retentée automatiquement
+    private String lastError;
+    // Champs JSON modifiés localement, séparés par des virgules (null : envoyer l'entité entière)
+    private String changedFields;
+    // updated_at du serveur sur lequel les modifications locales sont basées (détection de conflit)
+    private String baseUpdatedAt;
+
+    public SyncOutboxEntity() {
+    }
+
+    @Ignore
+    public SyncOutboxEntity(@NonNull String entityType, int entityId, @NonNull String operation, String payload) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.payload = payload;
+        this.createdAt = System.currentTimeMillis();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    // Getters et Setters
+    public long getOutboxId() { return outboxId; }
+    public void setOutboxId(long outboxId) { this.outboxId = outboxId; }
+
+    @NonNull
+    public String getEntityType() { return entityType; }
+    public void setEntityType(@NonNull String entityType) { this.entityType = entityType; }
+
+    public int getEntityId() { return entityId; }
+    public void setEntityId(int entityId) { this.entityId = entityId; }
+
+    @NonNull
+    public String getOperation() { return operation; }
+    public void setOperation(@NonNull String operation) { this.operation = operation; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public int getRevision() { return revision; }
+    public void setRevision(int revision) { this.revision = revision; }
+
+    public int getAttemptCount() { return attemptCount; }
+    public void setAttemptCount(int attemptCount) { this.attemptCount = attemptCount; }
+
+    public long getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(long nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+
+    public boolean isDeadLetter() { return deadLetter; }
+    public void setDeadLetter(boolean deadLetter) { this.deadLetter = deadLetter; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public String getChangedFields() { return changedFields; }
+    public void setChangedFields(String changedFields) { this.changedFields = changedFields; }
+
+    public String getBaseUpdatedAt() { return baseUpdatedAt; }
+    public void setBaseUpdatedAt(String baseUpdatedAt) { this.baseUpdatedAt = baseUpdatedAt; }
+
+    /**
+     * Réunir les champs modifiés de deux modifications successives
+     * @return null si l'une des deux envoie l'entité entière
+     */
+    public static String mergeChangedFields(String first, String second) {
+        if (first == null || second == null) {
+            return null;
+        }
+
+        Set<String> fields = new TreeSet<>();
+        for (String field : (first + "," + second).split(",")) {
+            if (!field.trim().isEmpty()) {
+                fields.add(field.trim());
+            }
+        }
+        return String.join(",", fields);
+    }
+}
@@ -0,0 +1,257 @@
+package com.drogpulseai.database.migration;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.drogpulseai.utils.SearchNormalizer;
+
+/**
+ * Migrations du schéma de la base locale
+ * Chaque montée de version doit conserver les données en cache : ne jamais
+ * revenir à fallbackToDestructiveMigration(), qui force un re-téléchargement complet
+ */
+public final class Migrations {
+
+    private Migrations() {
+    }
+
+    /**
+     * v1 -> v2 : ajout de la table des produits
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `products` ("
+                    + "`id` INTEGER NOT NULL, "
+                    + "`reference` TEXT, "
+                    + "`label` TEXT, "
+                    + "`name` TEXT, "
+                    + "`description` TEXT, "
+                    + "`photoUrl` TEXT, "
+                    + "`barcode` TEXT, "
+                    + "`quantity` INTEGER NOT NULL, "
+                    + "`price` REAL NOT NULL, "
+                    + "`userId` INTEGER NOT NULL, "
+                    + "`createdAt` TEXT, "
+                    + "`updatedAt` TEXT, "
+                    + "`coutDeRevientUnitaire` REAL NOT NULL, "
+                    + "`prixMinVente` REAL NOT NULL, "
+                    + "`prixVenteConseille` REAL NOT NULL, "
+                    + "`lastUpdated` INTEGER NOT NULL, "
+                    + "`isDirty` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`id`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_products_userId` ON `products` (`userId`)");
+        }
+    };
+
+    /**
+     * v2 -> v3 : index sur le code-barres et sur l'état de synchronisation des produits
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_products_barcode` ON `products` (`barcode`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_products_isDirty` ON `products` (`isDirty`)");
+        }
+    };
+
+    /**
+     * v3 -> v4 : index plein texte des produits (products_fts) et ses triggers de synchronisation
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `products` ADD COLUMN `searchText` TEXT");
+
+            // Calculer le texte normalisé des produits existants
+            try (Cursor cursor = db.query("SELECT `id`, `name`, `label`, `reference`, `barcode` FROM `products`")) {
+                ContentValues values = new ContentValues();
+                while (cursor.moveToNext()) {
+                    values.put("searchText", SearchNormalizer.buildSearchText(
+                            cursor.getString(1), cursor.getString(2), cursor.getString(3), cursor.getString(4)));
+                    db.update("products", SQLiteDatabase.CONFLICT_NONE, values,
+                            "id = ?", new Object[]{cursor.getInt(0)});
+                }
+            }
+
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `products_fts` USING FTS4("
+                    + "`searchText` TEXT, tokenize=unicode61, content=`products`)");
+            db.execSQL("INSERT INTO `products_fts`(`products_fts`) VALUES ('rebuild')");
+            createFtsContentSyncTriggers(db, "products_fts", "products", "searchText");
+        }
+    };
+
+    /**
+     * v4 -> v5 : index plein texte des contacts (contacts_fts) avec téléphone normalisé
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `contacts` ADD COLUMN `searchText` TEXT");
+            db.execSQL("ALTER TABLE `contacts` ADD COLUMN `phoneNormalized` TEXT");
+
+            // Calculer les champs normalisés des contacts existants
+            try (Cursor cursor = db.query("SELECT `roomId`, `nom`, `prenom`, `telephone` FROM `contacts`")) {
+                ContentValues values = new ContentValues();
+                while (cursor.moveToNext()) {
+                    values.put("searchText", SearchNormalizer.buildSearchText(cursor.getString(1), cursor.getString(2)));
+                    values.put("phoneNormalized", SearchNormalizer.normalizePhone(cursor.getString(3)));
+                    db.update("contacts", SQLiteDatabase.CONFLICT_NONE, values,
+                            "roomId = ?", new Object[]{cursor.getLong(0)});
+                }
+            }
+
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `contacts_fts` USING FTS4("
+                    + "`searchText` TEXT, `phoneNormalized` TEXT, tokenize=unicode61, content=`contacts`)");
+            db.execSQL("INSERT INTO `contacts_fts`(`contacts_fts`) VALUES ('rebuild')");
+            createFtsContentSyncTriggers(db, "contacts_fts", "contacts", "searchText", "phoneNormalized");
+        }
+    };
+
+    /**
+     * v5 -> v6 : index servant les listes paginées (tri par nom) et la recherche par ID serveur
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_contacts_id` ON `contacts` (`id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_contacts_userId_nom` ON `contacts` (`userId`, `nom`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_products_userId_name` ON `products` (`userId`, `name`)");
+        }
+    };
+
+    /**
+     * v6 -> v7 : file d'attente persistante des opérations de synchronisation (sync_outbox)
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sync_outbox` ("
+                    + "`outboxId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`entityType` TEXT NOT NULL, "
+                    + "`entityId` INTEGER NOT NULL, "
+                    + "`operation` TEXT NOT NULL, "
+                    + "`payload` TEXT, "
+                    + "`revision` INTEGER NOT NULL, "
+                    + "`attemptCount` INTEGER NOT NULL, "
+                    + "`nextAttemptAt` INTEGER NOT NULL, "
+                    + "`createdAt` INTEGER NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_sync_outbox_entityType_entityId` "
+                    + "ON `sync_outbox` (`entityType`, `entityId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sync_outbox_nextAttemptAt` "
+                    + "ON `sync_outbox` (`nextAttemptAt`)");
+        }
+    };
+
+    /**
+     * v7 -> v8 : copies locales des frais et des paniers (synchronisation périodique incrémentale)
+     */
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `expenses` ("
+                    + "`id` INTEGER NOT NULL, "
+                    + "`type` TEXT, "
+                    + "`amount` REAL NOT NULL, "
+                    + "`date` TEXT, "
+                    + "`description` TEXT, "
+                    + "`receiptPhotoUrl` TEXT, "
+                    + "`userId` INTEGER NOT NULL, "
+                    + "`createdAt` TEXT, "
+                    + "`updatedAt` TEXT, "
+                    + "PRIMARY KEY(`id`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_expenses_userId_date` "
+                    + "ON `expenses` (`userId`, `date`)");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `carts` ("
+                    + "`id` INTEGER NOT NULL, "
+                    + "`contactId` INTEGER NOT NULL, "
+                    + "`userId` INTEGER NOT NULL, "
+                    + "`status` TEXT, "
+                    + "`notes` TEXT, "
+                    + "`contactNom` TEXT, "
+                    + "`contactPrenom` TEXT, "
+                    + "`contactTelephone` TEXT, "
+                    + "`contactEmail` TEXT, "
+                    + "`totalQuantity` INTEGER NOT NULL, "
+                    + "`totalAmount` REAL NOT NULL, "
+                    + "`createdAt` TEXT, "
+                    + "`updatedAt` TEXT, "
+                    + "`itemsJson` TEXT, "
+                    + "PRIMARY KEY(`id`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_carts_userId_updatedAt` "
+                    + "ON `carts` (`userId`, `updatedAt`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_carts_contactId` ON `carts` (`contactId`)");
+        }
+    };
+
+    /**
+     * v8 -> v9 : état de nouvelle tentative par opération (lettre morte, dernière erreur)
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `sync_outbox` ADD COLUMN `deadLetter` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `sync_outbox` ADD COLUMN `lastError` TEXT");
+        }
+    };
+
+    /**
+     * v9 -> v10 : champs modifiés et version serveur de référence des opérations en file
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `sync_outbox` ADD COLUMN `changedFields` TEXT");
+            db.execSQL("ALTER TABLE `sync_outbox` ADD COLUMN `baseUpdatedAt` TEXT");
+        }
+    };
+
+    /**
+     * Toutes les migrations, dans l'ordre des versions
+     */
+    public static final Migration[] ALL = {
+            MIGRATION_1_2,
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10
+    };
+
+    /**
+     * Créer les triggers qui synchronisent une table FTS à contenu externe avec sa table source
+     * (même SQL que celui généré par Room pour les entités @Fts4(contentEntity = ...))
+     */
+    private static void createFtsContentSyncTriggers(SupportSQLiteDatabase db, String ftsTable,
+                                                     String contentTable, String... columns) {
+        StringBuilder columnList = new StringBuilder();
+        StringBuilder newValues = new StringBuilder();
+        for (String column : columns) {
+            columnList.append(", `").append(column).append('`');
+            newValues.append(", NEW.`").append(column).append('`');
+        }
+
+        String prefix = "room_fts_content_sync_" + ftsTable + "_";
+        String deleteOld = " BEGIN DELETE FROM `" + ftsTable + "` WHERE `docid`=OLD.`rowid`; END";
+        String insertNew = " BEGIN INSERT INTO `" + ftsTable + "`(`docid`" + columnList
+                + ") VALUES (NEW.`rowid`" + newValues + "); END";
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + prefix + "BEFORE_UPDATE BEFORE UPDATE ON `"
+                + contentTable + "`" + deleteOld);
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + prefix + "BEFORE_DELETE BEFORE DELETE ON `"
+                + contentTable + "`" + deleteOld);
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + prefix + "AFTER_UPDATE AFTER UPDATE ON `"
+                + contentTable + "`" + insertNew);
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + prefix + "AFTER_INSERT AFTER INSERT ON `"
+                + contentTable + "`" + insertNew);
+    }
+}
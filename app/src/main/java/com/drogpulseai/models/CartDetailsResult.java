@@ -0,0 +1,42 @@
+package com.drogpulseai.models;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Réponse de carts/get.php
+ * Le panier est envoyé sous "data.cart" ou directement sous "cart" selon la version du serveur ;
+ * les deux formes sont lues en une seule passe (voir ModelTypeAdapters)
+ */
+public class CartDetailsResult {
+
+    @SerializedName("success")
+    private boolean success;
+
+    @SerializedName("message")
+    private String message;
+
+    // Panier trouvé sous "data.cart" ou "cart", null si absent
+    @SerializedName("cart")
+    private Cart cart;
+
+    public CartDetailsResult() {
+    }
+
+    public CartDetailsResult(boolean success, String message, Cart cart) {
+        this.success = success;
+        this.message = message;
+        this.cart = cart;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Cart getCart() {
+        return cart;
+    }
+}
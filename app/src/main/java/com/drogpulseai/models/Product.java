@@ -55,6 +55,9 @@ public class Product implements Serializable {
     // Champs non sérialisés (pour le suivi local)
     private transient boolean dirty = false;
     private transient long lastUpdated = 0;
+    // Vrai pendant la lecture d'un produit reçu du serveur (ModelTypeAdapters) :
+    // les setters ne le marquent pas comme modifié
+    private transient boolean loading = false;
 
     // Constructeur par défaut
     public Product() {
@@ -68,8 +71,7 @@ public class Product implements Serializable {
 
     public void setId(int id) {
         this.id = id;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     public String getReference() {
@@ -78,8 +80,7 @@ public class Product implements Serializable {
 
     public void setReference(String reference) {
         this.reference = reference;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     public String getLabel() {
@@ -88,8 +89,7 @@ public class Product implements Serializable {
 
     public void setLabel(String label) {
         this.label = label;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     public String getName() {
@@ -98,8 +98,7 @@ public class Product implements Serializable {
 
     public void setName(String name) {
         this.name = name;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     public String getDescription() {
@@ -108,8 +107,7 @@ public class Product implements Serializable {
 
     public void setDescription(String description) {
         this.description = description;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     public String getPhotoUrl() {
@@ -118,8 +116,7 @@ public class Product implements Serializable {
 
     public void setPhotoUrl(String photoUrl) {
         this.photoUrl = photoUrl;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     public String getBarcode() {
@@ -128,8 +125,7 @@ public class Product implements Serializable {
 
     public void setBarcode(String barcode) {
         this.barcode = barcode;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     public int getQuantity() {
@@ -138,8 +134,7 @@ public class Product implements Serializable {
 
     public void setQuantity(int quantity) {
         this.quantity = quantity;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     public double getPrice() {
@@ -148,8 +143,7 @@ public class Product implements Serializable {
 
     public void setPrice(double price) {
         this.price = price;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     public int getUserId() {
@@ -158,8 +152,7 @@ public class Product implements Serializable {
 
     public void setUserId(int userId) {
         this.userId = userId;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     public String getCreatedAt() {
@@ -168,8 +161,7 @@ public class Product implements Serializable {
 
     public void setCreatedAt(String createdAt) {
         this.createdAt = createdAt;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     public String getUpdatedAt() {
@@ -178,8 +170,7 @@ public class Product implements Serializable {
 
     public void setUpdatedAt(String updatedAt) {
         this.updatedAt = updatedAt;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     // Getters et Setters pour les nouveaux champs
@@ -189,8 +180,7 @@ public class Product implements Serializable {
 
     public void setCoutDeRevientUnitaire(double coutDeRevientUnitaire) {
         this.coutDeRevientUnitaire = coutDeRevientUnitaire;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     public double getPrixMinVente() {
@@ -199,8 +189,7 @@ public class Product implements Serializable {
 
     public void setPrixMinVente(double prixMinVente) {
         this.prixMinVente = prixMinVente;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     public double getPrixVenteConseille() {
@@ -209,8 +198,7 @@ public class Product implements Serializable {
 
     public void setPrixVenteConseille(double prixVenteConseille) {
         this.prixVenteConseille = prixVenteConseille;
-        this.dirty = true;
-        this.lastUpdated = System.currentTimeMillis();
+        markDirty();
     }
 
     // Getter et Setter pour l'attribut dirty
@@ -239,6 +227,17 @@ public class Product implements Serializable {
         this.dirty = false;
     }
 
+    public void setLoading(boolean loading) {
+        this.loading = loading;
+    }
+
+    private void markDirty() {
+        if (!loading) {
+            this.dirty = true;
+            this.lastUpdated = System.currentTimeMillis();
+        }
+    }
+
     // Méthodes utilitaires
 
     /**
@@ -0,0 +1,49 @@
+package com.drogpulseai.models;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Résultat de l'envoi d'un produit dans un lot (products/batch_sync.php)
+ */
+public class ProductBatchResult {
+
+    // ID envoyé par l'application (ID temporaire négatif pour une création)
+    @SerializedName("client_id")
+    private int clientId;
+
+    @SerializedName("success")
+    private boolean success;
+
+    @SerializedName("message")
+    private String message;
+
+    // Produit tel qu'enregistré par le serveur (avec son ID serveur)
+    @SerializedName("product")
+    private Product product;
+
+    public ProductBatchResult() {
+    }
+
+    public ProductBatchResult(int clientId, boolean success, String message, Product product) {
+        this.clientId = clientId;
+        this.success = success;
+        this.message = message;
+        this.product = product;
+    }
+
+    public int getClientId() {
+        return clientId;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+}
@@ -4,105 +4,277 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.util.Log;
 
+import androidx.annotation.OptIn;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.ExperimentalPagingApi;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
+import androidx.paging.PagingLiveData;
+
+import com.drogpulseai.api.ApiService;
+import com.drogpulseai.database.AppDatabase;
+import com.drogpulseai.database.converter.ContactConverter;
+import com.drogpulseai.database.dao.ContactDao;
+import com.drogpulseai.database.entity.ContactEntity;
 import com.drogpulseai.models.Contact;
+import com.drogpulseai.repository.cache.EntityCache;
+import com.drogpulseai.repository.paging.ContactRemoteMediator;
+import com.drogpulseai.utils.AppExecutors;
+import com.drogpulseai.utils.JsonArrayStreamer;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Repository pour les données de contacts avec cache local
- * Implémentation simplifiée utilisant SharedPreferences avant l'implémentation complète de Room
+ * Basé sur la table Room "contacts" ; l'ancien cache JSON des SharedPreferences
+ * est migré dans Room à la première utilisation
+ *
+ * Les écritures des données du serveur sont différées (write-behind) : les modifications reçues
+ * pendant une courte fenêtre sont regroupées par ID de contact (la dernière l'emporte) puis
+ * appliquées dans une seule transaction. Les lectures de ce repository et
+ * {@link #flushPendingWrites(Context)} vident la file d'abord : ce sont les points de durabilité.
+ * Une modification locale (contact "dirty", en attente d'envoi) n'est jamais différée : elle est
+ * en base avant que son opération n'entre dans la file d'envoi, et survit à un arrêt du processus.
+ *
+ * Une seule instance est partagée par tout le processus (activités, ViewModels, workers).
+ * Un index mémoire (par ID et par utilisateur) est placé devant Room et mis à jour à chaque
+ * écriture ; seuls les utilisateurs consultés récemment y sont conservés.
  */
 public class ContactRepository {
 
     private static final String TAG = "ContactRepository";
     private static final String PREF_NAME = "contact_cache";
     private static final String KEY_CONTACTS = "contacts";
+    private static final String KEY_LAST_REFRESHED_PREFIX = "last_refreshed_";
+    private static final int PAGE_SIZE = 50;
+    private static final int IMPORT_CHUNK_SIZE = 500;
+    // Première page seulement : les premières lignes s'affichent avant la lecture du reste
+    private static final int INITIAL_LOAD_SIZE = PAGE_SIZE;
+
+    // Limites de l'index mémoire
+    private static final int MAX_CACHED_USERS = 3;
+    private static final int MAX_CACHED_CONTACTS_PER_USER = 5000;
+
+    private static ContactRepository instance;
+
+    // Fenêtre de regroupement des écritures différées
+    private static final long WRITE_BEHIND_WINDOW_MS = 250;
+
+    // Protège la migration unique de l'ancien cache JSON (partagée par toutes les instances)
+    private static final Object MIGRATION_LOCK = new Object();
+    private static volatile boolean legacyCacheMigrated = false;
 
     private final Context context;
     private final SharedPreferences sharedPreferences;
-    private final Gson gson;
+    private final AppDatabase database;
+    private final ContactDao contactDao;
     private final Executor executor;
 
-    public ContactRepository(Context context) {
+    // File des écritures en attente (clé : ID du contact, valeur : entité à enregistrer,
+    // ou null pour une suppression)
+    private final Object writeLock = new Object();
+    private final Object flushLock = new Object();
+    private final Map<Integer, ContactEntity> pendingWrites = new LinkedHashMap<>();
+    private final ScheduledExecutorService writeExecutor = Executors.newSingleThreadScheduledExecutor();
+    private boolean flushScheduled = false;
+
+    private final Map<Integer, MutableLiveData<Long>> lastRefreshedByUser = new HashMap<>();
+    private final EntityCache<ContactEntity> cache = new EntityCache<>(
+            ContactEntity::getId, ContactEntity::getUserId, MAX_CACHED_USERS, MAX_CACHED_CONTACTS_PER_USER);
+
+    public static synchronized ContactRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new ContactRepository(context);
+        }
+        return instance;
+    }
+
+    private ContactRepository(Context context) {
+        this(context, AppDatabase.getInstance(context));
+    }
+
+    // Base fournie par les tests (base en mémoire)
+    ContactRepository(Context context, AppDatabase database) {
         this.context = context.getApplicationContext();
         this.sharedPreferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        this.gson = new Gson();
+        this.database = database;
+        this.contactDao = database.contactDao();
         this.executor = Executors.newSingleThreadExecutor();
+
+        executor.execute(this::migrateLegacyCacheIfNeeded);
     }
 
     /**
      * Insérer ou mettre à jour un contact dans le cache local
+     * Contact venu du serveur : l'écriture est différée et regroupée avec les autres modifications
+     * de la fenêtre. Modification locale en attente d'envoi : écrite tout de suite (bloquant, ne
+     * pas appeler depuis le thread principal)
      */
     public void insertOrUpdateContact(Contact contact) {
         if (contact == null) {
             return;
         }
 
-        executor.execute(() -> {
-            try {
-                // Récupérer les contacts actuels
-                List<Contact> contacts = getAllContacts();
-
-                // Rechercher le contact existant
-                boolean found = false;
-                for (int i = 0; i < contacts.size(); i++) {
-                    if (contacts.get(i).getId() == contact.getId()) {
-                        contacts.set(i, contact);
-                        found = true;
-                        break;
-                    }
-                }
+        ContactEntity entity = ContactConverter.toEntity(contact);
+        if (entity.isDeleted()) {
+            cache.remove(entity.getId());
+        } else {
+            cache.put(entity);
+        }
+
+        if (entity.isSynced()) {
+            enqueueWrite(entity.getId(), entity);
+        } else {
+            writeNow(entity);
+        }
+    }
+
+    /**
+     * Supprimer un contact du cache local
+     * La suppression est différée comme les autres écritures
+     */
+    public void deleteContact(int contactId) {
+        cache.remove(contactId);
+        enqueueWrite(contactId, null);
+    }
 
-                // Ajouter si non trouvé
-                if (!found) {
-                    contacts.add(contact);
+    /**
+     * Écrire immédiatement toutes les modifications en attente
+     * À appeler avant de rendre la main au système (fin d'un worker, passage en arrière-plan)
+     */
+    public void flush() {
+        // Un seul vidage à la fois, pour que les lots soient appliqués dans l'ordre
+        synchronized (flushLock) {
+            Map<Integer, ContactEntity> batch;
+            synchronized (writeLock) {
+                flushScheduled = false;
+                if (pendingWrites.isEmpty()) {
+                    return;
                 }
+                batch = new LinkedHashMap<>(pendingWrites);
+                pendingWrites.clear();
+            }
 
-                // Sauvegarder la liste mise à jour
-                saveContacts(contacts);
+            try {
+                database.runInTransaction(() -> {
+                    for (Map.Entry<Integer, ContactEntity> write : batch.entrySet()) {
+                        if (write.getValue() == null) {
+                            contactDao.deleteContactById(write.getKey());
+                        } else {
+                            upsertByServerId(contactDao, write.getValue());
+                        }
+                    }
+                });
+                Log.d(TAG, batch.size() + " écritures de contacts appliquées");
             } catch (Exception e) {
-                Log.e(TAG, "Erreur lors de l'insertion du contact", e);
+                Log.e(TAG, "Erreur lors de l'écriture des contacts en attente", e);
+
+                // Remettre le lot en file sans écraser les modifications plus récentes
+                synchronized (writeLock) {
+                    for (Map.Entry<Integer, ContactEntity> write : batch.entrySet()) {
+                        if (!pendingWrites.containsKey(write.getKey())) {
+                            pendingWrites.put(write.getKey(), write.getValue());
+                        }
+                    }
+                }
             }
-        });
+        }
     }
 
     /**
-     * Supprimer un contact du cache local
+     * Écrire immédiatement toutes les modifications en attente, dans une seule transaction
+     * Bloquant : ne pas appeler depuis le thread principal si la file peut être longue
      */
-    public void deleteContact(int contactId) {
-        executor.execute(() -> {
-            try {
-                // Récupérer les contacts actuels
-                List<Contact> contacts = getAllContacts();
+    public static void flushPendingWrites(Context context) {
+        getInstance(context).flush();
+    }
 
-                // Supprimer le contact avec l'ID correspondant
-                contacts.removeIf(c -> c.getId() == contactId);
+    /**
+     * Demander l'écriture des modifications en attente sans attendre la fin de la fenêtre
+     * (utilisé lors du passage de l'application en arrière-plan)
+     */
+    public static void requestFlush(Context context) {
+        ContactRepository repository = getInstance(context);
+        repository.writeExecutor.execute(repository::flush);
+    }
 
-                // Sauvegarder la liste mise à jour
-                saveContacts(contacts);
+    /**
+     * Écrire une modification locale sans attendre la fenêtre : elle remplace l'écriture
+     * différée du même contact, plus ancienne
+     */
+    private void writeNow(ContactEntity entity) {
+        synchronized (flushLock) {
+            synchronized (writeLock) {
+                pendingWrites.remove(entity.getId());
+            }
+
+            try {
+                database.runInTransaction(() -> upsertByServerId(contactDao, entity));
             } catch (Exception e) {
-                Log.e(TAG, "Erreur lors de la suppression du contact", e);
+                Log.e(TAG, "Erreur lors de l'écriture du contact " + entity.getId() + ", écriture différée", e);
+                enqueueWrite(entity.getId(), entity);
             }
-        });
+        }
+    }
+
+    private void enqueueWrite(int contactId, ContactEntity entity) {
+        synchronized (writeLock) {
+            // Retirer puis réinsérer pour que l'ordre des écritures suive la dernière modification
+            pendingWrites.remove(contactId);
+            pendingWrites.put(contactId, entity);
+
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+
+        writeExecutor.schedule(this::flush, WRITE_BEHIND_WINDOW_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Oublier les entrées en mémoire après le remplacement d'un ID temporaire par l'ID serveur
+     * (lignes réécrites directement dans Room, voir TempIdRemapper)
+     */
+    public void onIdRemapped(int localId, int serverId) {
+        // La liste complète de l'utilisateur ne contient pas la ligne réécrite
+        cache.invalidateUserOf(localId);
+        cache.invalidateUserOf(serverId);
     }
 
     /**
      * Obtenir un contact par ID depuis le cache local
      */
     public Contact getContactById(int contactId) {
-        try {
-            List<Contact> contacts = getAllContacts();
+        migrateLegacyCacheIfNeeded();
 
-            for (Contact contact : contacts) {
-                if (contact.getId() == contactId) {
-                    return contact;
-                }
+        ContactEntity cached = cache.get(contactId);
+        if (cached != null) {
+            return ContactConverter.toModel(cached);
+        }
+
+        flush();
+
+        try {
+            long cacheVersion = cache.version();
+            ContactEntity entity = contactDao.getContactById(contactId);
+            if (entity != null) {
+                cache.putLoaded(entity, cacheVersion);
+                return ContactConverter.toModel(entity);
             }
         } catch (Exception e) {
             Log.e(TAG, "Erreur lors de la récupération du contact", e);
@@ -115,46 +287,142 @@ public class ContactRepository {
      * Obtenir tous les contacts depuis le cache local
      */
     public List<Contact> getAllContacts() {
-        String json = sharedPreferences.getString(KEY_CONTACTS, null);
-
-        if (json == null) {
-            return new ArrayList<>();
-        }
+        migrateLegacyCacheIfNeeded();
+        flush();
 
         try {
-            Type type = new TypeToken<List<Contact>>(){}.getType();
-            return gson.fromJson(json, type);
+            return ContactConverter.toModelList(contactDao.getAllContacts());
         } catch (Exception e) {
-            Log.e(TAG, "Erreur lors de l'analyse des contacts", e);
+            Log.e(TAG, "Erreur lors de la lecture des contacts", e);
             return new ArrayList<>();
         }
     }
 
     /**
-     * Obtenir les contacts pour un utilisateur spécifique
+     * Obtenir la liste paginée des contacts d'un utilisateur
+     * Les pages sont lues depuis Room (premier affichage immédiat) ; la table est
+     * rafraîchie en arrière-plan depuis le serveur par ContactRemoteMediator
      */
-    public List<Contact> getContactsForUser(int userId) {
-        List<Contact> allContacts = getAllContacts();
-        List<Contact> userContacts = new ArrayList<>();
+    @OptIn(markerClass = ExperimentalPagingApi.class)
+    public LiveData<PagingData<Contact>> getPagedContacts(int userId, ApiService apiService) {
+        Pager<Integer, ContactEntity> pager = new Pager<>(
+                new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, INITIAL_LOAD_SIZE),
+                null,
+                new ContactRemoteMediator(userId, apiService, database, AppExecutors.getInstance().networkIO(),
+                        () -> onRemoteRefreshed(userId)),
+                () -> contactDao.pagingContactsByUserId(userId));
 
-        for (Contact contact : allContacts) {
-            if (contact.getUserId() == userId) {
-                userContacts.add(contact);
+        return Transformations.map(PagingLiveData.getLiveData(pager),
+                pagingData -> PagingDataTransforms.map(pagingData, executor, ContactConverter::toModel));
+    }
+
+    /**
+     * Date (timestamp en ms) du dernier rafraîchissement réussi des contacts depuis le serveur
+     * La valeur vaut 0 si la liste n'a encore jamais été rafraîchie
+     */
+    public LiveData<Long> getLastRefreshed(int userId) {
+        return lastRefreshedLiveData(userId);
+    }
+
+    private MutableLiveData<Long> lastRefreshedLiveData(int userId) {
+        synchronized (lastRefreshedByUser) {
+            MutableLiveData<Long> lastRefreshed = lastRefreshedByUser.get(userId);
+            if (lastRefreshed == null) {
+                lastRefreshed = new MutableLiveData<>(
+                        sharedPreferences.getLong(KEY_LAST_REFRESHED_PREFIX + userId, 0L));
+                lastRefreshedByUser.put(userId, lastRefreshed);
             }
+            return lastRefreshed;
         }
+    }
 
-        return userContacts;
+    /**
+     * Appelé par ContactRemoteMediator après la fusion de la liste du serveur
+     */
+    private void onRemoteRefreshed(int userId) {
+        cache.invalidateUser(userId);
+
+        long now = System.currentTimeMillis();
+        sharedPreferences.edit().putLong(KEY_LAST_REFRESHED_PREFIX + userId, now).apply();
+        lastRefreshedLiveData(userId).postValue(now);
     }
 
     /**
-     * Sauvegarder les contacts dans SharedPreferences
+     * Obtenir les contacts pour un utilisateur spécifique
      */
-    private void saveContacts(List<Contact> contacts) {
+    public List<Contact> getContactsForUser(int userId) {
+        migrateLegacyCacheIfNeeded();
+
+        List<ContactEntity> cached = cache.getAllForUser(userId);
+        if (cached != null) {
+            return ContactConverter.toModelList(cached);
+        }
+
+        flush();
+
         try {
-            String json = gson.toJson(contacts);
-            sharedPreferences.edit().putString(KEY_CONTACTS, json).apply();
+            long cacheVersion = cache.version();
+            List<ContactEntity> entities = contactDao.getContactsForUser(userId);
+            cache.putAllLoaded(userId, entities, cacheVersion);
+            return ContactConverter.toModelList(entities);
         } catch (Exception e) {
-            Log.e(TAG, "Erreur lors de la sauvegarde des contacts", e);
+            Log.e(TAG, "Erreur lors de la lecture des contacts de l'utilisateur " + userId, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Insérer ou remplacer un contact identifié par son ID serveur (ou temporaire)
+     * Doit être appelé dans une transaction
+     */
+    private static void upsertByServerId(ContactDao dao, ContactEntity entity) {
+        ContactEntity existing = dao.findContactByServerId(entity.getId());
+        if (existing != null) {
+            entity.setRoomId(existing.getRoomId());
+        }
+        dao.insert(entity);
+    }
+
+    /**
+     * Importer dans Room les contacts stockés par les versions précédentes
+     * sous forme d'une chaîne JSON dans les SharedPreferences, puis supprimer cette chaîne
+     */
+    private void migrateLegacyCacheIfNeeded() {
+        if (legacyCacheMigrated) {
+            return;
+        }
+
+        synchronized (MIGRATION_LOCK) {
+            if (legacyCacheMigrated) {
+                return;
+            }
+
+            String json = sharedPreferences.getString(KEY_CONTACTS, null);
+
+            if (json != null) {
+                try {
+                    // Lecture en flux par lots, sans construire la liste complète en mémoire
+                    int count = database.runInTransaction(() -> {
+                        return JsonArrayStreamer.stream(new Gson(), new StringReader(json), Contact.class,
+                                IMPORT_CHUNK_SIZE, chunk -> {
+                                    for (ContactEntity entity : ContactConverter.toEntityList(chunk)) {
+                                        upsertByServerId(contactDao, entity);
+                                    }
+                                });
+                    });
+                    Log.d(TAG, count + " contacts migrés vers Room");
+
+                    // Suppression seulement après un import réussi ; commit() pour ne jamais
+                    // réimporter le JSON après un arrêt du processus
+                    sharedPreferences.edit().remove(KEY_CONTACTS).commit();
+                } catch (Exception e) {
+                    // Le JSON est conservé (contacts créés hors ligne compris) : nouvel essai plus tard
+                    Log.e(TAG, "Erreur lors de la migration de l'ancien cache des contacts, nouvel essai plus tard", e);
+                    return;
+                }
+            }
+
+            legacyCacheMigrated = true;
         }
     }
 
@@ -162,8 +430,15 @@ public class ContactRepository {
      * Effacer tous les contacts en cache
      */
     public void clearCache() {
+        // Les écritures en attente ne doivent pas recréer les contacts effacés
+        synchronized (writeLock) {
+            pendingWrites.clear();
+        }
+        cache.clear();
+
         executor.execute(() -> {
             sharedPreferences.edit().clear().apply();
+            contactDao.deleteAllContacts();
         });
     }
 
@@ -172,20 +447,12 @@ public class ContactRepository {
      * Note: Les IDs temporaires sont négatifs pour les distinguer des IDs serveur positifs
      */
     public int getLowestLocalId() {
-        List<Contact> contacts = getAllContacts();
-
-        int lowestId = -1; // Valeur par défaut si aucun ID temporaire n'existe encore
+        migrateLegacyCacheIfNeeded();
+        flush();
 
-        for (Contact contact : contacts) {
-            int contactId = contact.getId();
-
-            // Nous ne considérons que les IDs négatifs (locaux)
-            if (contactId < 0 && (contactId < lowestId || lowestId == -1)) {
-                lowestId = contactId;
-            }
-        }
+        Integer lowestId = contactDao.getLowestLocalId();
 
         // Si aucun ID local n'a été trouvé, retourner -1
-        return lowestId == -1 ? -1 : lowestId;
+        return lowestId == null ? -1 : lowestId;
     }
-}
\ No newline at end of file
+}
@@ -2,107 +2,208 @@ package com.drogpulseai.repository;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.os.Looper;
 import android.util.Log;
 
+import androidx.annotation.OptIn;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.ExperimentalPagingApi;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
+import androidx.paging.PagingLiveData;
+
+import com.drogpulseai.api.ApiService;
+import com.drogpulseai.database.AppDatabase;
+import com.drogpulseai.database.ProductEntity;
+import com.drogpulseai.database.converter.ProductConverter;
+import com.drogpulseai.database.dao.ProductDao;
+import com.drogpulseai.database.dao.SyncOutboxDao;
+import com.drogpulseai.database.entity.SyncOutboxEntity;
 import com.drogpulseai.models.Product;
+import com.drogpulseai.repository.cache.EntityCache;
+import com.drogpulseai.repository.paging.ProductRemoteMediator;
+import com.drogpulseai.sync.FieldDelta;
+import com.drogpulseai.utils.AppExecutors;
+import com.drogpulseai.utils.JsonArrayStreamer;
+import com.drogpulseai.utils.SearchNormalizer;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
 /**
  * Repository for Product data with local caching
- * A simplified implementation using SharedPreferences before full Room implementation
+ * Backed by the Room "products" table; the legacy SharedPreferences JSON cache
+ * is migrated into Room the first time the repository is used
+ *
+ * A single instance is shared by the whole process (activities, view models and
+ * workers). It keeps an in-memory index in front of Room: O(1) lookups by id and a
+ * per-user list, written through on every insert/update/delete. Only the most
+ * recently used users are kept in memory.
  */
 public class ProductRepository {
 
     private static final String TAG = "ProductRepository";
     private static final String PREF_NAME = "product_cache";
     private static final String KEY_PRODUCTS = "products";
+    private static final int PAGE_SIZE = 50;
+    private static final int IMPORT_CHUNK_SIZE = 500;
+    // First page only: the first rows are on screen before the rest is read
+    private static final int INITIAL_LOAD_SIZE = PAGE_SIZE;
+
+    // Bounds of the in-memory index
+    private static final int MAX_CACHED_USERS = 3;
+    private static final int MAX_CACHED_PRODUCTS_PER_USER = 5000;
+
+    private static ProductRepository instance;
+
+    // Guards the one-time migration of the legacy JSON cache (shared by all instances)
+    private static final Object MIGRATION_LOCK = new Object();
+    private static volatile boolean legacyCacheMigrated = false;
 
     private final Context context;
     private final SharedPreferences sharedPreferences;
-    private final Gson gson;
+    private final AppDatabase database;
+    private final ProductDao productDao;
+    private final SyncOutboxDao syncOutboxDao;
     private final Executor executor;
+    // Writes queued from the main thread and not yet applied, by product id
+    private final Map<Integer, ProductEntity> queuedWrites = new ConcurrentHashMap<>();
+    private final EntityCache<ProductEntity> cache = new EntityCache<>(
+            ProductEntity::getId, ProductEntity::getUserId, MAX_CACHED_USERS, MAX_CACHED_PRODUCTS_PER_USER);
+
+    public static synchronized ProductRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new ProductRepository(context);
+        }
+        return instance;
+    }
 
-    public ProductRepository(Context context) {
+    private ProductRepository(Context context) {
         this.context = context.getApplicationContext();
         this.sharedPreferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        this.gson = new Gson();
+        this.database = AppDatabase.getInstance(context);
+        this.productDao = database.productDao();
+        this.syncOutboxDao = database.syncOutboxDao();
         this.executor = Executors.newSingleThreadExecutor();
+
+        executor.execute(this::migrateLegacyCacheIfNeeded);
     }
 
     /**
      * Insert or update a product in the local cache
+     * Off the main thread the row is written before returning; from the main thread
+     * the write is queued on the repository executor
      */
     public void insertOrUpdateProduct(Product product) {
         if (product == null) {
             return;
         }
 
-        executor.execute(() -> {
+        ProductEntity entity = ProductConverter.fromProduct(product);
+
+        if (Looper.myLooper() != Looper.getMainLooper()) {
             try {
-                // Get current products
-                List<Product> products = getAllProducts();
-
-                // Find existing product
-                boolean found = false;
-                for (int i = 0; i < products.size(); i++) {
-                    if (products.get(i).getId() == product.getId()) {
-                        products.set(i, product);
-                        found = true;
-                        break;
-                    }
-                }
+                writeNow(entity);
+                cache.put(entity);
+            } catch (Exception e) {
+                Log.e(TAG, "Error inserting product", e);
+            }
+            return;
+        }
 
-                // Add if not found
-                if (!found) {
-                    products.add(product);
-                }
+        cache.put(entity);
+        queuedWrites.put(entity.getId(), entity);
 
-                // Save updated list
-                saveProducts(products);
+        executor.execute(() -> {
+            // Superseded by a later synchronous write of the same product
+            if (!queuedWrites.remove(entity.getId(), entity)) {
+                return;
+            }
+            try {
+                productDao.upsertProduct(entity);
             } catch (Exception e) {
                 Log.e(TAG, "Error inserting product", e);
             }
         });
     }
 
+    /**
+     * Write a product to Room on the caller's thread (never the main thread)
+     * Errors are thrown, so that a caller's transaction is rolled back with the write
+     * (see SyncManager.addProductForSync)
+     */
+    public void writeProduct(Product product) {
+        ProductEntity entity = ProductConverter.fromProduct(product);
+        // The transaction may still roll back: the next read goes to Room
+        cache.invalidateUser(entity.getUserId());
+        writeNow(entity);
+    }
+
+    private void writeNow(ProductEntity entity) {
+        // Not from inside a caller's transaction: the import takes MIGRATION_LOCK, which another
+        // thread may hold while waiting for the database
+        if (!database.inTransaction()) {
+            migrateLegacyCacheIfNeeded();
+        }
+
+        // A queued write of the same product is older than this one
+        queuedWrites.remove(entity.getId());
+        productDao.upsertProduct(entity);
+    }
+
     /**
      * Delete a product from the local cache
      */
     public void deleteProduct(int productId) {
+        cache.remove(productId);
+
         executor.execute(() -> {
             try {
-                // Get current products
-                List<Product> products = getAllProducts();
-
-                // Remove product with matching ID
-                products.removeIf(p -> p.getId() == productId);
-
-                // Save updated list
-                saveProducts(products);
+                productDao.deleteProductById(productId);
             } catch (Exception e) {
                 Log.e(TAG, "Error deleting product", e);
             }
         });
     }
 
+    /**
+     * Forget cached rows after a temporary id was replaced by the server id
+     * (the rows were rewritten directly in Room, see TempIdRemapper)
+     */
+    public void onIdRemapped(int localId, int serverId) {
+        // The user's complete list would miss the rewritten row: drop the whole user
+        cache.invalidateUserOf(localId);
+        cache.invalidateUserOf(serverId);
+    }
+
     /**
      * Get a product by ID from local cache
      */
     public Product getProductById(int productId) {
-        try {
-            List<Product> products = getAllProducts();
+        migrateLegacyCacheIfNeeded();
 
-            for (Product product : products) {
-                if (product.getId() == productId) {
-                    return product;
-                }
+        ProductEntity cached = cache.get(productId);
+        if (cached != null) {
+            return ProductConverter.toProduct(cached);
+        }
+
+        try {
+            long cacheVersion = cache.version();
+            ProductEntity entity = productDao.findProductById(productId);
+            if (entity != null) {
+                cache.putLoaded(entity, cacheVersion);
+                return ProductConverter.toProduct(entity);
             }
         } catch (Exception e) {
             Log.e(TAG, "Error getting product", e);
@@ -115,46 +216,176 @@ public class ProductRepository {
      * Get all products from local cache
      */
     public List<Product> getAllProducts() {
-        String json = sharedPreferences.getString(KEY_PRODUCTS, null);
+        migrateLegacyCacheIfNeeded();
 
-        if (json == null) {
+        try {
+            return ProductConverter.toProductList(productDao.getAllProducts());
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading products", e);
             return new ArrayList<>();
         }
+    }
+
+    /**
+     * Paged list of a user's products
+     * Pages are read from Room (immediate first render); the table is refreshed
+     * in the background from the server by ProductRemoteMediator
+     */
+    @OptIn(markerClass = ExperimentalPagingApi.class)
+    public LiveData<PagingData<Product>> getPagedProducts(int userId, ApiService apiService) {
+        Pager<Integer, ProductEntity> pager = new Pager<>(
+                new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, INITIAL_LOAD_SIZE),
+                null,
+                new ProductRemoteMediator(userId, apiService, database, AppExecutors.getInstance().networkIO(),
+                        () -> cache.invalidateUser(userId)),
+                () -> productDao.pagingProductsByUserId(userId));
+
+        return Transformations.map(PagingLiveData.getLiveData(pager),
+                pagingData -> PagingDataTransforms.map(pagingData, executor, ProductConverter::toProduct));
+    }
+
+    /**
+     * Get products for a specific user
+     */
+    public List<Product> getProductsForUser(int userId) {
+        migrateLegacyCacheIfNeeded();
+
+        List<ProductEntity> cached = cache.getAllForUser(userId);
+        if (cached != null) {
+            return ProductConverter.toProductList(cached);
+        }
 
         try {
-            Type type = new TypeToken<List<Product>>(){}.getType();
-            return gson.fromJson(json, type);
+            long cacheVersion = cache.version();
+            List<ProductEntity> entities = productDao.getProductsForUser(userId);
+            cache.putAllLoaded(userId, entities, cacheVersion);
+            return ProductConverter.toProductList(entities);
         } catch (Exception e) {
-            Log.e(TAG, "Error parsing products", e);
+            Log.e(TAG, "Error reading products for user " + userId, e);
             return new ArrayList<>();
         }
     }
 
     /**
-     * Get products for a specific user
+     * Store products changed on the server since the last sync (incremental pull)
+     * Runs on the caller's thread. Products with local edits waiting to be uploaded are
+     * left untouched: the upload will send them and the next pull brings the server version
+     * @return the number of products written
      */
-    public List<Product> getProductsForUser(int userId) {
-        List<Product> allProducts = getAllProducts();
-        List<Product> userProducts = new ArrayList<>();
+    public int applyServerChanges(int userId, List<Product> products) {
+        migrateLegacyCacheIfNeeded();
+
+        if (products == null || products.isEmpty()) {
+            return 0;
+        }
+
+        int written = database.runInTransaction(() -> {
+            Set<Integer> dirtyIds = new HashSet<>(productDao.getDirtyProductIds(userId));
 
-        for (Product product : allProducts) {
-            if (product.getUserId() == userId) {
-                userProducts.add(product);
+            List<ProductEntity> entities = new ArrayList<>(products.size());
+            for (Product product : products) {
+                if (!dirtyIds.contains(product.getId())) {
+                    product.resetDirty();
+                    entities.add(ProductConverter.fromProduct(product));
+                } else {
+                    ProductEntity rebased = rebaseLocalChanges(product);
+                    if (rebased != null) {
+                        entities.add(rebased);
+                    }
+                }
             }
+            productDao.upsertProducts(entities);
+            return entities.size();
+        });
+
+        cache.invalidateUser(userId);
+        return written;
+    }
+
+    /**
+     * A dirty product changed on the server since the version its pending edit is based on:
+     * keep the locally edited fields on top of the new server version, so the partial update
+     * is sent against it (see FieldDelta)
+     * @return the merged row, or null when there is nothing to merge
+     */
+    private ProductEntity rebaseLocalChanges(Product serverProduct) {
+        SyncOutboxEntity pending = syncOutboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, serverProduct.getId());
+        if (pending == null || pending.getChangedFields() == null || serverProduct.getUpdatedAt() == null
+                || serverProduct.getUpdatedAt().equals(pending.getBaseUpdatedAt())) {
+            return null;
         }
 
-        return userProducts;
+        ProductEntity local = productDao.findProductById(serverProduct.getId());
+        if (local == null) {
+            return null;
+        }
+
+        Product merged = FieldDelta.rebase(serverProduct, ProductConverter.toProduct(local),
+                FieldDelta.split(pending.getChangedFields()), Product.class);
+        merged.setDirty(true);
+        merged.setLastUpdated(local.getLastUpdated());
+        syncOutboxDao.updateBaseUpdatedAt(pending.getOutboxId(), serverProduct.getUpdatedAt());
+        return ProductConverter.fromProduct(merged);
     }
 
     /**
-     * Save products to SharedPreferences
+     * Full-text search in the local catalog (name, label, reference, barcode)
+     * Prefix, case- and accent-insensitive matching; best matches first
      */
-    private void saveProducts(List<Product> products) {
+    public List<Product> searchProducts(int userId, String query, int limit) {
+        migrateLegacyCacheIfNeeded();
+
+        String matchQuery = SearchNormalizer.toFtsQuery(query);
+        if (matchQuery == null) {
+            return new ArrayList<>();
+        }
+
         try {
-            String json = gson.toJson(products);
-            sharedPreferences.edit().putString(KEY_PRODUCTS, json).apply();
+            return ProductConverter.toProductList(productDao.searchProductsFts(
+                    userId, matchQuery, SearchNormalizer.toPrefixPattern(query), limit));
         } catch (Exception e) {
-            Log.e(TAG, "Error saving products", e);
+            Log.e(TAG, "Error searching products", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Move the products stored by previous versions as a single JSON string
+     * in SharedPreferences into the Room table, then drop the JSON string
+     */
+    private void migrateLegacyCacheIfNeeded() {
+        if (legacyCacheMigrated) {
+            return;
+        }
+
+        synchronized (MIGRATION_LOCK) {
+            if (legacyCacheMigrated) {
+                return;
+            }
+
+            String json = sharedPreferences.getString(KEY_PRODUCTS, null);
+
+            if (json != null) {
+                try {
+                    // Stream the array in chunks instead of materializing the whole list
+                    int count = database.runInTransaction(() -> {
+                        return JsonArrayStreamer.stream(new Gson(), new StringReader(json), Product.class,
+                                IMPORT_CHUNK_SIZE,
+                                chunk -> productDao.upsertProducts(ProductConverter.fromProductList(chunk)));
+                    });
+                    Log.d(TAG, "Migrated " + count + " cached products to Room");
+
+                    // Only drop the blob once the import is committed; commit() so it is
+                    // never imported twice after a process kill
+                    sharedPreferences.edit().remove(KEY_PRODUCTS).commit();
+                } catch (Exception e) {
+                    // Keep the blob (offline catalog) and retry on the next attempt
+                    Log.e(TAG, "Error migrating legacy product cache, will retry", e);
+                    return;
+                }
+            }
+
+            legacyCacheMigrated = true;
         }
     }
 
@@ -162,8 +393,11 @@ public class ProductRepository {
      * Clear all cached products
      */
     public void clearCache() {
+        cache.clear();
+
         executor.execute(() -> {
             sharedPreferences.edit().clear().apply();
+            productDao.deleteAllProducts();
         });
     }
 
@@ -173,20 +407,11 @@ public class ProductRepository {
      * @return L'ID local le plus bas, ou -1 si aucun ID local n'existe
      */
     public int getLowestLocalId() {
-        List<Product> products = getAllProducts();
-
-        int lowestId = -1; // Valeur par défaut si aucun ID temporaire n'existe encore
+        migrateLegacyCacheIfNeeded();
 
-        for (Product product : products) {
-            int productId = product.getId();
-
-            // Nous ne considérons que les IDs négatifs (locaux)
-            if (productId < 0 && (productId < lowestId || lowestId == -1)) {
-                lowestId = productId;
-            }
-        }
+        Integer lowestId = productDao.getLowestLocalId();
 
         // Si aucun ID local n'a été trouvé, retourner -1
-        return lowestId == -1 ? -1 : lowestId;
+        return lowestId == null ? -1 : lowestId;
     }
-}
\ No newline at end of file
+}
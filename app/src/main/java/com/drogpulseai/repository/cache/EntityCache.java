@@ -0,0 +1,220 @@
+package com.drogpulseai.repository.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cache mémoire des entités, indexé par ID et par utilisateur
+ * Recherche par ID en O(1) ; la liste complète d'un utilisateur est servie sans requête
+ * une fois chargée. La mémoire est bornée : seuls les utilisateurs les plus récemment
+ * consultés sont gardés (LRU) et chaque utilisateur est limité en nombre d'entités
+ *
+ * @param <E> type d'entité mise en cache
+ */
+public final class EntityCache<E> {
+
+    private final ToIntFunction<E> idOf;
+    private final ToIntFunction<E> userIdOf;
+    private final int maxUsers;
+    private final int maxEntitiesPerUser;
+
+    // Index secondaire : ID de l'entité -> ID de l'utilisateur propriétaire
+    private final Map<Integer, Integer> userIdById = new HashMap<>();
+
+    // Entités par utilisateur, dans l'ordre d'accès (le premier est le moins récemment utilisé)
+    private final LinkedHashMap<Integer, UserEntries<E>> entriesByUser = new LinkedHashMap<>(8, 0.75f, true);
+
+    // Incrémenté à chaque écriture : une lecture en base commencée avant une écriture
+    // ne doit pas remplacer la valeur écrite entre-temps
+    private long version;
+
+    public EntityCache(ToIntFunction<E> idOf, ToIntFunction<E> userIdOf,
+                       int maxUsers, int maxEntitiesPerUser) {
+        this.idOf = idOf;
+        this.userIdOf = userIdOf;
+        this.maxUsers = maxUsers;
+        this.maxEntitiesPerUser = maxEntitiesPerUser;
+    }
+
+    /**
+     * Version courante, à relever avant de lire en base (voir {@link #putLoaded})
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Obtenir une entité par ID
+     * @return l'entité, ou null si elle n'est pas en cache
+     */
+    public synchronized E get(int id) {
+        Integer userId = userIdById.get(id);
+        if (userId == null) {
+            return null;
+        }
+
+        UserEntries<E> entries = entriesByUser.get(userId);
+        return entries != null ? entries.byId.get(id) : null;
+    }
+
+    /**
+     * Obtenir toutes les entités d'un utilisateur
+     * @return une copie de la liste, ou null si la liste complète n'est pas en cache
+     */
+    public synchronized List<E> getAllForUser(int userId) {
+        UserEntries<E> entries = entriesByUser.get(userId);
+        if (entries == null || !entries.complete) {
+            return null;
+        }
+        return new ArrayList<>(entries.byId.values());
+    }
+
+    /**
+     * Enregistrer une entité (écriture traversante après une insertion ou une mise à jour)
+     */
+    public synchronized void put(E entity) {
+        version++;
+        store(entity);
+    }
+
+    /**
+     * Enregistrer une entité lue en base, sauf si le cache a été modifié depuis le début de la lecture
+     */
+    public synchronized void putLoaded(E entity, long loadVersion) {
+        if (loadVersion == version) {
+            store(entity);
+        }
+    }
+
+    /**
+     * Enregistrer la liste complète des entités d'un utilisateur lue en base,
+     * sauf si le cache a été modifié depuis le début de la lecture
+     */
+    public synchronized void putAllLoaded(int userId, List<E> entities, long loadVersion) {
+        if (loadVersion != version || entities.size() > maxEntitiesPerUser) {
+            // Lecture périmée, ou liste trop grande pour être gardée en mémoire
+            return;
+        }
+
+        dropUser(userId);
+        UserEntries<E> entries = entriesForUser(userId);
+        for (E entity : entities) {
+            int id = idOf.applyAsInt(entity);
+            Integer previousUserId = userIdById.get(id);
+            if (previousUserId != null && previousUserId != userId) {
+                removeFromUser(previousUserId, id);
+            }
+            entries.byId.put(id, entity);
+            userIdById.put(id, userId);
+        }
+        entries.complete = true;
+    }
+
+    /**
+     * Retirer une entité (après une suppression)
+     */
+    public synchronized void remove(int id) {
+        version++;
+        Integer userId = userIdById.get(id);
+        if (userId != null) {
+            removeFromUser(userId, id);
+        }
+    }
+
+    /**
+     * Oublier toutes les entités d'un utilisateur (après une modification en masse de la table)
+     */
+    public synchronized void invalidateUser(int userId) {
+        version++;
+        dropUser(userId);
+    }
+
+    /**
+     * Oublier toutes les entités de l'utilisateur propriétaire d'une entité
+     * (ligne réécrite directement en base : sa liste complète ne serait plus à jour)
+     */
+    public synchronized void invalidateUserOf(int id) {
+        version++;
+        Integer userId = userIdById.get(id);
+        if (userId != null) {
+            dropUser(userId);
+        }
+    }
+
+    /**
+     * Vider le cache
+     */
+    public synchronized void clear() {
+        version++;
+        entriesByUser.clear();
+        userIdById.clear();
+    }
+
+    private void store(E entity) {
+        int id = idOf.applyAsInt(entity);
+        int userId = userIdOf.applyAsInt(entity);
+
+        // L'entité a pu changer de propriétaire
+        Integer previousUserId = userIdById.get(id);
+        if (previousUserId != null && previousUserId != userId) {
+            removeFromUser(previousUserId, id);
+        }
+
+        UserEntries<E> entries = entriesForUser(userId);
+        entries.byId.put(id, entity);
+        userIdById.put(id, userId);
+
+        // Trop d'entités : la liste de l'utilisateur n'est plus complète
+        if (entries.byId.size() > maxEntitiesPerUser) {
+            Iterator<Integer> eldest = entries.byId.keySet().iterator();
+            userIdById.remove(eldest.next());
+            eldest.remove();
+            entries.complete = false;
+        }
+    }
+
+    private void dropUser(int userId) {
+        UserEntries<E> entries = entriesByUser.remove(userId);
+        if (entries != null) {
+            userIdById.keySet().removeAll(entries.byId.keySet());
+        }
+    }
+
+    private UserEntries<E> entriesForUser(int userId) {
+        UserEntries<E> entries = entriesByUser.get(userId);
+        if (entries != null) {
+            return entries;
+        }
+
+        // Libérer les utilisateurs inactifs avant d'en ajouter un nouveau
+        while (entriesByUser.size() >= maxUsers) {
+            dropUser(entriesByUser.keySet().iterator().next());
+        }
+
+        entries = new UserEntries<>();
+        entriesByUser.put(userId, entries);
+        return entries;
+    }
+
+    private void removeFromUser(int userId, int id) {
+        userIdById.remove(id);
+        UserEntries<E> entries = entriesByUser.get(userId);
+        if (entries != null) {
+            entries.byId.remove(id);
+        }
+    }
+
+    /**
+     * Entités d'un utilisateur
+     * complete indique que byId contient toutes ses entités présentes en base
+     */
+    private static final class UserEntries<E> {
+        final LinkedHashMap<Integer, E> byId = new LinkedHashMap<>();
+        boolean complete;
+    }
+}
@@ -0,0 +1,145 @@
+package com.drogpulseai.repository.paging;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
+import androidx.paging.ExperimentalPagingApi;
+import androidx.paging.ListenableFutureRemoteMediator;
+import androidx.paging.LoadType;
+import androidx.paging.PagingState;
+import androidx.paging.RemoteMediator;
+
+import com.drogpulseai.api.ApiService;
+import com.drogpulseai.database.AppDatabase;
+import com.drogpulseai.database.converter.ContactConverter;
+import com.drogpulseai.database.dao.ContactDao;
+import com.drogpulseai.database.entity.ContactEntity;
+import com.drogpulseai.models.Contact;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import retrofit2.Response;
+
+/**
+ * RemoteMediator de la liste des contacts
+ * L'affichage est paginé depuis Room ; cette classe rafraîchit la table depuis contacts/list.php.
+ * L'API renvoie la liste complète en une fois : seul le chargement REFRESH appelle le serveur,
+ * les pages suivantes sont lues localement
+ */
+@OptIn(markerClass = ExperimentalPagingApi.class)
+public class ContactRemoteMediator extends ListenableFutureRemoteMediator<Integer, ContactEntity> {
+
+    private final int userId;
+    private final ApiService apiService;
+    private final AppDatabase database;
+    private final ContactDao contactDao;
+    private final Executor networkExecutor;
+    private final Runnable onTableRefreshed;
+
+    /**
+     * @param onTableRefreshed appelé après un rafraîchissement réussi (copies en mémoire
+     *                         devenues périmées, date du dernier rafraîchissement)
+     */
+    public ContactRemoteMediator(int userId, ApiService apiService, AppDatabase database,
+                                 Executor networkExecutor, Runnable onTableRefreshed) {
+        this.userId = userId;
+        this.apiService = apiService;
+        this.database = database;
+        this.contactDao = database.contactDao();
+        this.networkExecutor = networkExecutor;
+        this.onTableRefreshed = onTableRefreshed;
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<MediatorResult> loadFuture(@NonNull LoadType loadType,
+                                                       @NonNull PagingState<Integer, ContactEntity> state) {
+        if (loadType != LoadType.REFRESH) {
+            // Tout est déjà en base après le rafraîchissement
+            return Futures.immediateFuture(new RemoteMediator.MediatorResult.Success(true));
+        }
+
+        ListenableFutureTask<MediatorResult> task = ListenableFutureTask.create(this::refresh);
+        networkExecutor.execute(task);
+        return task;
+    }
+
+    /**
+     * Télécharger les contacts et fusionner la liste avec les contacts synchronisés de l'utilisateur,
+     * sans toucher aux modifications locales en attente de synchronisation
+     * Seules les lignes réellement modifiées sont écrites : si rien n'a changé, la liste affichée
+     * n'est pas invalidée
+     */
+    private MediatorResult refresh() {
+        try {
+            Response<List<Contact>> response = apiService.getContacts(userId).execute();
+
+            if (!response.isSuccessful() || response.body() == null) {
+                return new RemoteMediator.MediatorResult.Error(
+                        new IOException("Erreur serveur: " + response.code()));
+            }
+
+            List<Contact> contacts = response.body();
+
+            database.runInTransaction(() -> {
+                Set<Integer> pendingIds = new HashSet<>(contactDao.getUnsyncedContactIds(userId));
+
+                Map<Integer, ContactEntity> localById = new HashMap<>();
+                for (ContactEntity local : contactDao.getContactsForUser(userId)) {
+                    localById.put(local.getId(), local);
+                }
+
+                Set<Integer> serverIds = new HashSet<>(contacts.size());
+                for (Contact contact : contacts) {
+                    serverIds.add(contact.getId());
+                    if (pendingIds.contains(contact.getId())) {
+                        continue;
+                    }
+
+                    ContactEntity remote = ContactConverter.toEntity(contact);
+                    ContactEntity local = localById.get(contact.getId());
+
+                    if (local == null) {
+                        contactDao.insert(remote);
+                    } else if (!hasSameContent(local, remote)) {
+                        remote.setRoomId(local.getRoomId());
+                        contactDao.insert(remote);
+                    }
+                }
+
+                // Contacts supprimés sur le serveur
+                for (ContactEntity local : localById.values()) {
+                    if (local.isSynced() && !serverIds.contains(local.getId())) {
+                        contactDao.deleteContactById(local.getId());
+                    }
+                }
+            });
+            onTableRefreshed.run();
+
+            return new RemoteMediator.MediatorResult.Success(true);
+        } catch (Exception e) {
+            return new RemoteMediator.MediatorResult.Error(e);
+        }
+    }
+
+    private static boolean hasSameContent(ContactEntity a, ContactEntity b) {
+        return a.isSynced() == b.isSynced()
+                && a.getUserId() == b.getUserId()
+                && Double.compare(a.getLatitude(), b.getLatitude()) == 0
+                && Double.compare(a.getLongitude(), b.getLongitude()) == 0
+                && Objects.equals(a.getNom(), b.getNom())
+                && Objects.equals(a.getPrenom(), b.getPrenom())
+                && Objects.equals(a.getTelephone(), b.getTelephone())
+                && Objects.equals(a.getEmail(), b.getEmail())
+                && Objects.equals(a.getNotes(), b.getNotes());
+    }
+}
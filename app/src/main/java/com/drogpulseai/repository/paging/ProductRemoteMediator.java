@@ -0,0 +1,151 @@
+package com.drogpulseai.repository.paging;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
+import androidx.paging.ExperimentalPagingApi;
+import androidx.paging.ListenableFutureRemoteMediator;
+import androidx.paging.LoadType;
+import androidx.paging.PagingState;
+import androidx.paging.RemoteMediator;
+
+import com.drogpulseai.api.ApiService;
+import com.drogpulseai.database.AppDatabase;
+import com.drogpulseai.database.ProductEntity;
+import com.drogpulseai.database.converter.ProductConverter;
+import com.drogpulseai.database.dao.ProductDao;
+import com.drogpulseai.models.Product;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import retrofit2.Response;
+
+/**
+ * RemoteMediator of the product list
+ * The list is paged from Room; this class refreshes the table from products/list.php.
+ * The API returns the whole list at once, so only REFRESH hits the server and
+ * further pages are read locally
+ */
+@OptIn(markerClass = ExperimentalPagingApi.class)
+public class ProductRemoteMediator extends ListenableFutureRemoteMediator<Integer, ProductEntity> {
+
+    private final int userId;
+    private final ApiService apiService;
+    private final AppDatabase database;
+    private final ProductDao productDao;
+    private final Executor networkExecutor;
+    private final Runnable onTableRefreshed;
+
+    /**
+     * @param onTableRefreshed called after the user's rows were refreshed, to drop stale in-memory copies
+     */
+    public ProductRemoteMediator(int userId, ApiService apiService, AppDatabase database,
+                                 Executor networkExecutor, Runnable onTableRefreshed) {
+        this.userId = userId;
+        this.apiService = apiService;
+        this.database = database;
+        this.productDao = database.productDao();
+        this.networkExecutor = networkExecutor;
+        this.onTableRefreshed = onTableRefreshed;
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<MediatorResult> loadFuture(@NonNull LoadType loadType,
+                                                       @NonNull PagingState<Integer, ProductEntity> state) {
+        if (loadType != LoadType.REFRESH) {
+            // Everything is already in the table after the refresh
+            return Futures.immediateFuture(new RemoteMediator.MediatorResult.Success(true));
+        }
+
+        ListenableFutureTask<MediatorResult> task = ListenableFutureTask.create(this::refresh);
+        networkExecutor.execute(task);
+        return task;
+    }
+
+    /**
+     * Download the products and merge them into the user's synced rows,
+     * keeping local edits that are still waiting to be uploaded
+     * Only new or changed rows are written and only products the server no longer returns
+     * are deleted: when nothing changed, the displayed list is not invalidated
+     */
+    private MediatorResult refresh() {
+        try {
+            Response<List<Product>> response = apiService.getProducts(userId).execute();
+
+            if (!response.isSuccessful() || response.body() == null) {
+                return new RemoteMediator.MediatorResult.Error(
+                        new IOException("Server error: " + response.code()));
+            }
+
+            List<Product> products = response.body();
+
+            database.runInTransaction(() -> {
+                Map<Integer, ProductEntity> localById = new HashMap<>();
+                for (ProductEntity local : productDao.getProductsForUser(userId)) {
+                    localById.put(local.getId(), local);
+                }
+
+                Set<Integer> serverIds = new HashSet<>(products.size());
+                List<ProductEntity> changed = new ArrayList<>();
+                for (Product product : products) {
+                    serverIds.add(product.getId());
+
+                    ProductEntity local = localById.get(product.getId());
+                    if (local != null && local.isDirty()) {
+                        continue;
+                    }
+
+                    ProductEntity remote = ProductConverter.fromProduct(product);
+                    if (local == null || !hasSameContent(local, remote)) {
+                        changed.add(remote);
+                    }
+                }
+                if (!changed.isEmpty()) {
+                    productDao.upsertProducts(changed);
+                }
+
+                // Products deleted on the server
+                for (ProductEntity local : localById.values()) {
+                    if (!local.isDirty() && !serverIds.contains(local.getId())) {
+                        productDao.deleteProductById(local.getId());
+                    }
+                }
+            });
+            onTableRefreshed.run();
+
+            return new RemoteMediator.MediatorResult.Success(true);
+        } catch (Exception e) {
+            return new RemoteMediator.MediatorResult.Error(e);
+        }
+    }
+
+    // lastUpdated is the local write time and searchText is derived from the other fields
+    private static boolean hasSameContent(ProductEntity a, ProductEntity b) {
+        return a.isDirty() == b.isDirty()
+                && a.getUserId() == b.getUserId()
+                && a.getQuantity() == b.getQuantity()
+                && Double.compare(a.getPrice(), b.getPrice()) == 0
+                && Double.compare(a.getCoutDeRevientUnitaire(), b.getCoutDeRevientUnitaire()) == 0
+                && Double.compare(a.getPrixMinVente(), b.getPrixMinVente()) == 0
+                && Double.compare(a.getPrixVenteConseille(), b.getPrixVenteConseille()) == 0
+                && Objects.equals(a.getReference(), b.getReference())
+                && Objects.equals(a.getLabel(), b.getLabel())
+                && Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getPhotoUrl(), b.getPhotoUrl())
+                && Objects.equals(a.getBarcode(), b.getBarcode())
+                && Objects.equals(a.getCreatedAt(), b.getCreatedAt())
+                && Objects.equals(a.getUpdatedAt(), b.getUpdatedAt());
+    }
+}
@@ -0,0 +1,142 @@
+package com.drogpulseai.sync;
+
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Références d'un panier en file vers ses contact et produits
+ *
+ * La copie JSON d'un panier est le corps envoyé à carts/create.php :
+ * {"contact_id": ..., "user_id": ..., "notes": ..., "items": [{"product_id": ..., ...}]}.
+ * Les articles enregistrés localement (carts.itemsJson) utilisent aussi "product_id".
+ * La copie porte aussi la clé d'idempotence du panier ("idempotency_key").
+ */
+public final class CartPayload {
+
+    public static final String KEY_CONTACT_ID = "contact_id";
+    public static final String KEY_ITEMS = "items";
+    public static final String KEY_PRODUCT_ID = "product_id";
+    // Clé générée à la mise en file, identique pour toutes les tentatives d'envoi du panier
+    public static final String KEY_IDEMPOTENCY_KEY = "idempotency_key";
+
+    private CartPayload() {
+    }
+
+    /**
+     * Contact et produits créés hors ligne (ID temporaire) référencés par le panier
+     */
+    public static List<SyncEngine.Ref> temporaryRefs(String payload) {
+        List<SyncEngine.Ref> refs = new ArrayList<>();
+        JsonObject cart = parseObject(payload);
+        if (cart == null) {
+            return refs;
+        }
+
+        int contactId = intOf(cart.get(KEY_CONTACT_ID));
+        if (contactId < 0) {
+            refs.add(new SyncEngine.Ref(SyncOutboxEntity.TYPE_CONTACT, contactId));
+        }
+
+        JsonElement items = cart.get(KEY_ITEMS);
+        if (items != null && items.isJsonArray()) {
+            for (JsonElement item : items.getAsJsonArray()) {
+                if (!item.isJsonObject()) {
+                    continue;
+                }
+                int productId = intOf(item.getAsJsonObject().get(KEY_PRODUCT_ID));
+                SyncEngine.Ref ref = new SyncEngine.Ref(SyncOutboxEntity.TYPE_PRODUCT, productId);
+                if (productId < 0 && !refs.contains(ref)) {
+                    refs.add(ref);
+                }
+            }
+        }
+        return refs;
+    }
+
+    /**
+     * Remplacer un ID temporaire de contact ou de produit dans la copie JSON d'un panier
+     * @return la copie réécrite, ou null si le panier ne référence pas cet ID
+     */
+    public static String remap(String payload, String entityType, int localId, int serverId) {
+        JsonObject cart = parseObject(payload);
+        if (cart == null) {
+            return null;
+        }
+
+        boolean changed = false;
+        if (SyncOutboxEntity.TYPE_CONTACT.equals(entityType)) {
+            if (intOf(cart.get(KEY_CONTACT_ID)) == localId) {
+                cart.addProperty(KEY_CONTACT_ID, serverId);
+                changed = true;
+            }
+        } else if (SyncOutboxEntity.TYPE_PRODUCT.equals(entityType)) {
+            JsonElement items = cart.get(KEY_ITEMS);
+            if (items != null && items.isJsonArray()) {
+                changed = remapProductIds(items.getAsJsonArray(), localId, serverId);
+            }
+        }
+        return changed ? cart.toString() : null;
+    }
+
+    /**
+     * Remplacer un ID temporaire de produit dans une liste d'articles JSON
+     * @return la liste réécrite, ou null si aucun article ne référence cet ID
+     */
+    public static String remapItems(String itemsJson, int localId, int serverId) {
+        if (itemsJson == null) {
+            return null;
+        }
+        try {
+            JsonElement items = JsonParser.parseString(itemsJson);
+            if (items.isJsonArray() && remapProductIds(items.getAsJsonArray(), localId, serverId)) {
+                return items.toString();
+            }
+        } catch (RuntimeException e) {
+            // Liste illisible : laissée telle quelle
+        }
+        return null;
+    }
+
+    private static boolean remapProductIds(JsonArray items, int localId, int serverId) {
+        boolean changed = false;
+        for (JsonElement item : items) {
+            if (item.isJsonObject() && intOf(item.getAsJsonObject().get(KEY_PRODUCT_ID)) == localId) {
+                item.getAsJsonObject().addProperty(KEY_PRODUCT_ID, serverId);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private static JsonObject parseObject(String payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            JsonElement element = JsonParser.parseString(payload);
+            return element.isJsonObject() ? element.getAsJsonObject() : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Les nombres relus depuis une Map Gson peuvent être des doubles (12.0) ou des chaînes
+    private static int intOf(JsonElement element) {
+        if (element == null || !element.isJsonPrimitive()) {
+            return 0;
+        }
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        try {
+            return (int) (primitive.isNumber() ? primitive.getAsDouble() : Double.parseDouble(primitive.getAsString()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
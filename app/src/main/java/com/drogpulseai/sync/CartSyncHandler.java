@@ -0,0 +1,123 @@
+package com.drogpulseai.sync;
+
+import android.util.Log;
+
+import com.drogpulseai.api.ApiService;
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.ToNumberPolicy;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Response;
+
+/**
+ * Création sur le serveur des paniers en file, avec leur clé d'idempotence
+ * La copie JSON du panier est le corps de carts/create.php ; ses références vers un contact
+ * ou des produits créés hors ligne sont des dépendances (voir CartPayload)
+ */
+public class CartSyncHandler implements SyncEngine.Handler {
+    private static final String TAG = "CartSyncHandler";
+    private static final int HTTP_CONFLICT = 409;
+
+    private static final Type CART_DATA_TYPE = new TypeToken<Map<String, Object>>(){}.getType();
+
+    private final ApiService apiService;
+    private final TempIdRemapper remapper;
+
+    // Les IDs restent des entiers (12 et non 12.0) dans le corps renvoyé au serveur
+    private final Gson gson = new GsonBuilder()
+            .setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE)
+            .create();
+
+    public CartSyncHandler(ApiService apiService, TempIdRemapper remapper) {
+        this.apiService = apiService;
+        this.remapper = remapper;
+    }
+
+    @Override
+    public String getEntityType() {
+        return SyncOutboxEntity.TYPE_CART;
+    }
+
+    @Override
+    public List<SyncEngine.Ref> parentsOf(SyncOutboxEntity entry) {
+        return CartPayload.temporaryRefs(entry.getPayload());
+    }
+
+    @Override
+    public Object laneKey(SyncOutboxEntity entry) {
+        return null;
+    }
+
+    @Override
+    public boolean push(SyncOutboxEntity entry) throws Exception {
+        Map<String, Object> cartData = entry.getPayload() != null
+                ? gson.fromJson(entry.getPayload(), CART_DATA_TYPE) : null;
+
+        if (cartData == null || entry.getEntityId() > 0) {
+            // Rien à envoyer (un panier ne part qu'à sa création)
+            remapper.complete(entry);
+            return true;
+        }
+
+        // Même clé à chaque tentative : si une réponse s'est perdue, le serveur renvoie le panier
+        // déjà créé au lieu d'en créer un second
+        Object idempotencyKey = cartData.get(CartPayload.KEY_IDEMPOTENCY_KEY);
+        Response<Map<String, Object>> response = apiService.createCart(
+                idempotencyKey instanceof String ? (String) idempotencyKey : null, cartData).execute();
+        Map<String, Object> body = response.isSuccessful() ? response.body() : null;
+        String errorText = !response.isSuccessful() && response.errorBody() != null
+                ? response.errorBody().string() : null;
+
+        if (response.code() == HTTP_CONFLICT && errorText != null) {
+            // Clé déjà utilisée : le corps d'erreur décrit le panier existant
+            try {
+                body = gson.fromJson(errorText, CART_DATA_TYPE);
+            } catch (JsonSyntaxException e) {
+                Log.e(TAG, "Réponse 409 illisible pour le panier " + entry.getEntityId(), e);
+            }
+        }
+
+        if (body != null && (Boolean.TRUE.equals(body.get("success")) || response.code() == HTTP_CONFLICT)) {
+            Object cart = body.get("cart");
+            int serverId = cart instanceof Map ? idOf(((Map<?, ?>) cart).get("id")) : 0;
+            if (serverId <= 0) {
+                // Conservé en file : le renvoi avec la même clé d'idempotence retrouve le panier existant
+                Log.e(TAG, "Panier " + entry.getEntityId() + " sans ID dans la réponse: " + body);
+                return false;
+            }
+
+            if (!remapper.applyCart(entry, serverId)) {
+                Log.d(TAG, "Panier " + entry.getEntityId() + " modifié pendant l'envoi, conservé en file");
+            }
+            Log.d(TAG, "Panier créé sur le serveur: " + serverId);
+            return true;
+        }
+
+        Log.e(TAG, "Erreur lors de la création du panier sur le serveur: " +
+                (errorText != null ? errorText
+                        : body != null ? body.get("message") : "Erreur inconnue"));
+        return false;
+    }
+
+    // L'ID peut être désérialisé en Double, Integer ou String (aussi utilisé par ContactSyncHandler)
+    static int idOf(Object rawId) {
+        if (rawId instanceof Number) {
+            return ((Number) rawId).intValue();
+        }
+        if (rawId instanceof String) {
+            try {
+                return Integer.parseInt((String) rawId);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+}
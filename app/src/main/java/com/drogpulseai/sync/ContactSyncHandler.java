@@ -0,0 +1,115 @@
+package com.drogpulseai.sync;
+
+import android.util.Log;
+
+import com.drogpulseai.api.ApiService;
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+import com.drogpulseai.models.Contact;
+import com.drogpulseai.repository.ContactRepository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Envoi des contacts en file : création (ID temporaire négatif) ou mise à jour
+ */
+public class ContactSyncHandler implements SyncEngine.Handler {
+    private static final String TAG = "ContactSyncHandler";
+
+    private final ContactRepository repository;
+    private final ApiService apiService;
+    private final TempIdRemapper remapper;
+
+    public ContactSyncHandler(ContactRepository repository, ApiService apiService, TempIdRemapper remapper) {
+        this.repository = repository;
+        this.apiService = apiService;
+        this.remapper = remapper;
+    }
+
+    @Override
+    public String getEntityType() {
+        return SyncOutboxEntity.TYPE_CONTACT;
+    }
+
+    @Override
+    public List<SyncEngine.Ref> parentsOf(SyncOutboxEntity entry) {
+        return Collections.emptyList();
+    }
+
+    // Les contacts sont indépendants les uns des autres
+    @Override
+    public Object laneKey(SyncOutboxEntity entry) {
+        return null;
+    }
+
+    @Override
+    public boolean push(SyncOutboxEntity entry) throws Exception {
+        int contactId = entry.getEntityId();
+
+        // Récupérer le contact depuis le repository local
+        Contact contact = repository.getContactById(contactId);
+
+        if (contact == null) {
+            Log.e(TAG, "Contact introuvable dans le cache local: " + contactId);
+            remapper.complete(entry);
+            return true; // Considéré comme un succès pour retirer de la liste
+        }
+
+        // Un ID temporaire (négatif) désigne un contact créé localement
+        boolean isLocalOnly = contactId < 0;
+        if (isLocalOnly) {
+            contact.setId(0); // L'API générera un nouvel ID
+        }
+        contact.setDirty(false);
+
+        // Mise à jour dont les champs modifiés sont connus : envoi partiel
+        Map<String, Object> patch = null;
+        if (!isLocalOnly && entry.getChangedFields() != null) {
+            Set<String> fields = FieldDelta.split(entry.getChangedFields());
+            if (fields.isEmpty()) {
+                // Enregistré sans changement : rien à envoyer
+                remapper.applyContact(entry, contactId);
+                return true;
+            }
+            patch = FieldDelta.patch(contact, fields, contactId, null);
+        }
+
+        // Appel synchrone à l'API (nous sommes déjà dans un thread secondaire)
+        Call<Map<String, Object>> call = isLocalOnly
+                ? apiService.createContact(contact)
+                : patch != null
+                        ? apiService.updateContactRaw(patch)
+                        : apiService.updateContact(contact);
+        Response<Map<String, Object>> response = call.execute();
+
+        if (response.isSuccessful() && response.body() != null && Boolean.TRUE.equals(response.body().get("success"))) {
+            int serverId = contactId;
+            if (isLocalOnly) {
+                // Récupérer l'ID serveur du contact créé
+                Object created = response.body().get("contact");
+                serverId = created instanceof Map ? CartSyncHandler.idOf(((Map<?, ?>) created).get("id")) : 0;
+                if (serverId <= 0) {
+                    Log.e(TAG, "Contact " + contactId + " créé sans ID dans la réponse: " + response.body());
+                    return false;
+                }
+            }
+
+            // Le contact créé passe à son ID serveur (références des paniers en file comprises)
+            if (!remapper.applyContact(entry, serverId)) {
+                Log.d(TAG, "Contact " + contactId + " modifié pendant l'envoi, conservé en file");
+            }
+
+            Log.d(TAG, "Contact synchronisé avec le serveur: " + serverId);
+            return true;
+        }
+
+        Log.e(TAG, "Erreur lors de l'envoi du contact au serveur: " +
+                (response.errorBody() != null ? response.errorBody().string() : "Erreur inconnue"));
+        return false;
+    }
+}
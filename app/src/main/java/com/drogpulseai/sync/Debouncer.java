@@ -0,0 +1,41 @@
+package com.drogpulseai.sync;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regroupe des déclenchements rapprochés en une seule exécution
+ * L'action n'est exécutée qu'après windowMs sans nouveau déclenchement
+ */
+public class Debouncer {
+
+    private final ScheduledExecutorService executor;
+    private final long windowMs;
+    private final Runnable action;
+    private ScheduledFuture<?> pending;
+
+    public Debouncer(ScheduledExecutorService executor, long windowMs, Runnable action) {
+        this.executor = executor;
+        this.windowMs = Math.max(0, windowMs);
+        this.action = action;
+    }
+
+    /**
+     * (Re)démarrer la fenêtre : un déclenchement déjà en attente est remplacé
+     */
+    public synchronized void trigger() {
+        cancel();
+        pending = executor.schedule(action, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Annuler le déclenchement en attente
+     */
+    public synchronized void cancel() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.drogpulseai.sync;
+
+import android.util.Log;
+
+import com.drogpulseai.api.ApiService;
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+import com.drogpulseai.models.Expense;
+import com.drogpulseai.utils.NetworkResult;
+import com.google.gson.Gson;
+
+import java.util.Collections;
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Envoi des frais en file : création (ID temporaire négatif) ou mise à jour
+ * Le frais envoyé est la copie JSON enregistrée dans la file au moment de la modification
+ */
+public class ExpenseSyncHandler implements SyncEngine.Handler {
+    private static final String TAG = "ExpenseSyncHandler";
+
+    private final ApiService apiService;
+    private final TempIdRemapper remapper;
+    private final Gson gson = new Gson();
+
+    public ExpenseSyncHandler(ApiService apiService, TempIdRemapper remapper) {
+        this.apiService = apiService;
+        this.remapper = remapper;
+    }
+
+    @Override
+    public String getEntityType() {
+        return SyncOutboxEntity.TYPE_EXPENSE;
+    }
+
+    @Override
+    public List<SyncEngine.Ref> parentsOf(SyncOutboxEntity entry) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Object laneKey(SyncOutboxEntity entry) {
+        return null;
+    }
+
+    @Override
+    public boolean push(SyncOutboxEntity entry) throws Exception {
+        Expense expense = entry.getPayload() != null ? gson.fromJson(entry.getPayload(), Expense.class) : null;
+
+        if (expense == null) {
+            Log.e(TAG, "Frais sans contenu dans la file: " + entry.getEntityId());
+            remapper.complete(entry);
+            return true; // Rien à envoyer
+        }
+
+        boolean isLocalOnly = entry.getEntityId() < 0;
+        expense.setId(isLocalOnly ? 0 : entry.getEntityId());
+
+        Call<NetworkResult<Expense>> call = isLocalOnly
+                ? apiService.createExpense(expense)
+                : apiService.updateExpense(expense);
+        Response<NetworkResult<Expense>> response = call.execute();
+
+        if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+            // Une mise à jour peut ne pas renvoyer le frais : la copie envoyée fait foi
+            Expense serverExpense = response.body().getData() != null ? response.body().getData() : expense;
+            if (serverExpense.getId() <= 0) {
+                Log.e(TAG, "Frais créé sans ID serveur dans la réponse");
+                return false;
+            }
+
+            if (!remapper.applyExpense(entry, serverExpense)) {
+                Log.d(TAG, "Frais " + entry.getEntityId() + " modifié pendant l'envoi, conservé en file");
+            }
+            return true;
+        }
+
+        Log.e(TAG, "Erreur lors de l'envoi du frais au serveur: " +
+                (response.errorBody() != null ? response.errorBody().string() : "Erreur inconnue"));
+        return false;
+    }
+}
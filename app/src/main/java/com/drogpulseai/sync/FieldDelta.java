@@ -0,0 +1,116 @@
+package com.drogpulseai.sync;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.ToNumberPolicy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Suivi des champs modifiés d'une entité et envois partiels
+ * Les champs sont désignés par leur nom JSON (@SerializedName) : c'est ce que reçoit le serveur
+ */
+public final class FieldDelta {
+
+    // Champs gérés par le serveur ou par l'application, jamais envoyés comme modification
+    private static final Set<String> IGNORED_FIELDS = new HashSet<>(Arrays.asList(
+            "id", "user_id", "created_at", "updated_at", "last_updated", "is_dirty"));
+
+    /** Version serveur sur laquelle porte la modification (le serveur répond 409 si elle a changé) */
+    public static final String BASE_UPDATED_AT = "base_updated_at";
+
+    // Les entiers restent des entiers (12 et non 12.0) dans le corps envoyé
+    private static final Gson GSON = new GsonBuilder()
+            .setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE)
+            .create();
+
+    private FieldDelta() {
+    }
+
+    /**
+     * Champs dont la valeur diffère entre deux versions d'une entité
+     */
+    public static Set<String> changedFields(Object before, Object after) {
+        JsonObject oldJson = GSON.toJsonTree(before).getAsJsonObject();
+        JsonObject newJson = GSON.toJsonTree(after).getAsJsonObject();
+
+        Set<String> names = new TreeSet<>(oldJson.keySet());
+        names.addAll(newJson.keySet());
+
+        Set<String> changed = new TreeSet<>();
+        for (String name : names) {
+            if (!IGNORED_FIELDS.contains(name) && !valueOf(oldJson, name).equals(valueOf(newJson, name))) {
+                changed.add(name);
+            }
+        }
+        return changed;
+    }
+
+    public static String join(Set<String> fields) {
+        return String.join(",", new TreeSet<>(fields));
+    }
+
+    public static Set<String> split(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> result = new TreeSet<>();
+        for (String field : fields.split(",")) {
+            if (!field.trim().isEmpty()) {
+                result.add(field.trim());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Corps partiel d'une mise à jour : l'ID et les seuls champs modifiés
+     * @return null si un champ a été vidé (les valeurs nulles ne sont pas sérialisées :
+     *         l'entité doit alors partir entière)
+     */
+    public static Map<String, Object> patch(Object current, Set<String> fields, int id, String baseUpdatedAt) {
+        JsonObject json = GSON.toJsonTree(current).getAsJsonObject();
+
+        Map<String, Object> patch = new LinkedHashMap<>();
+        patch.put("id", id);
+        for (String field : fields) {
+            JsonElement value = valueOf(json, field);
+            if (value.isJsonNull()) {
+                return null;
+            }
+            patch.put(field, GSON.fromJson(value, Object.class));
+        }
+        if (baseUpdatedAt != null) {
+            patch.put(BASE_UPDATED_AT, baseUpdatedAt);
+        }
+        return patch;
+    }
+
+    /**
+     * Version serveur à laquelle sont réappliqués les champs modifiés localement
+     */
+    public static <T> T rebase(T server, T local, Set<String> localFields, Class<T> type) {
+        JsonObject merged = GSON.toJsonTree(server).getAsJsonObject();
+        JsonObject localJson = GSON.toJsonTree(local).getAsJsonObject();
+
+        for (String field : localFields) {
+            merged.add(field, valueOf(localJson, field));
+        }
+        return GSON.fromJson(merged, type);
+    }
+
+    private static JsonElement valueOf(JsonObject json, String name) {
+        JsonElement value = json.get(name);
+        return value != null ? value : JsonNull.INSTANCE;
+    }
+}
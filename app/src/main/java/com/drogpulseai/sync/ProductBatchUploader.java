@@ -0,0 +1,123 @@
+package com.drogpulseai.sync;
+
+import com.drogpulseai.api.ApiService;
+import com.drogpulseai.models.Product;
+import com.drogpulseai.models.ProductBatchResult;
+import com.drogpulseai.utils.NetworkResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Response;
+
+/**
+ * Envoi des produits modifiés au serveur par lots (products/batch_sync.php)
+ * Chaque produit reçoit son propre résultat : un échec n'oblige à renvoyer que les produits concernés
+ * Une mise à jour dont les champs modifiés sont connus part sous forme partielle (voir FieldDelta.patch) :
+ * ID, champs modifiés et base_updated_at, que le serveur refuse si le produit a changé depuis
+ */
+public class ProductBatchUploader {
+
+    /**
+     * Reçoit le résultat de chaque produit envoyé
+     */
+    public interface Callback {
+        /**
+         * @param clientId ID envoyé (ID temporaire négatif pour une création)
+         * @param serverProduct produit enregistré par le serveur, avec son ID serveur
+         */
+        void onProductSynced(int clientId, Product serverProduct);
+
+        void onProductFailed(int clientId, String reason);
+    }
+
+    private final ApiService apiService;
+    private final int chunkSize;
+
+    public ProductBatchUploader(ApiService apiService, int chunkSize) {
+        this.apiService = apiService;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Envoyer les produits par lots de chunkSize
+     * Après une erreur réseau, les lots restants ne sont pas envoyés et sont signalés en échec
+     * @return le nombre de produits synchronisés
+     */
+    public int upload(List<Product> products, Callback callback) {
+        return upload(products, Collections.emptyMap(), callback);
+    }
+
+    /**
+     * Envoyer les produits par lots de chunkSize
+     * @param patches corps partiels par ID de produit ; les produits absents partent entiers
+     * @return le nombre de produits synchronisés
+     */
+    public int upload(List<Product> products, Map<Integer, Map<String, Object>> patches, Callback callback) {
+        int synced = 0;
+
+        for (int start = 0; start < products.size(); start += chunkSize) {
+            List<Product> chunk = products.subList(start, Math.min(start + chunkSize, products.size()));
+
+            try {
+                synced += uploadChunk(chunk, patches, callback);
+            } catch (IOException e) {
+                failAll(products.subList(start, products.size()), "Erreur réseau: " + e.getMessage(), callback);
+                break;
+            }
+        }
+
+        return synced;
+    }
+
+    private int uploadChunk(List<Product> chunk, Map<Integer, Map<String, Object>> patches,
+                            Callback callback) throws IOException {
+        List<Object> items = new ArrayList<>(chunk.size());
+        for (Product product : chunk) {
+            Map<String, Object> patch = patches.get(product.getId());
+            items.add(patch != null ? patch : product);
+        }
+
+        Map<String, Object> batch = new HashMap<>();
+        batch.put("products", items);
+
+        Response<NetworkResult<List<ProductBatchResult>>> response = apiService.syncProductsBatch(batch).execute();
+
+        if (!response.isSuccessful() || response.body() == null || response.body().getData() == null) {
+            String reason = response.isSuccessful() && response.body() != null
+                    ? response.body().getMessage()
+                    : "Erreur serveur: " + response.code();
+            failAll(chunk, reason, callback);
+            return 0;
+        }
+
+        Map<Integer, ProductBatchResult> resultsByClientId = new HashMap<>();
+        for (ProductBatchResult result : response.body().getData()) {
+            resultsByClientId.put(result.getClientId(), result);
+        }
+
+        int synced = 0;
+        for (Product product : chunk) {
+            ProductBatchResult result = resultsByClientId.get(product.getId());
+
+            if (result != null && result.isSuccess() && result.getProduct() != null) {
+                callback.onProductSynced(product.getId(), result.getProduct());
+                synced++;
+            } else {
+                callback.onProductFailed(product.getId(),
+                        result != null ? result.getMessage() : "Produit absent de la réponse");
+            }
+        }
+        return synced;
+    }
+
+    private static void failAll(List<Product> products, String reason, Callback callback) {
+        for (Product product : products) {
+            callback.onProductFailed(product.getId(), reason);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.drogpulseai.sync;
+
+import android.util.Log;
+
+import com.drogpulseai.api.ApiService;
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+import com.drogpulseai.models.Product;
+import com.drogpulseai.repository.ProductRepository;
+import com.drogpulseai.utils.NetworkResult;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Envoi des produits en file : création (ID temporaire négatif) ou mise à jour
+ */
+public class ProductSyncHandler implements SyncEngine.Handler {
+    private static final String TAG = "ProductSyncHandler";
+    private static final int HTTP_CONFLICT = 409;
+
+    private final ProductRepository repository;
+    private final ApiService apiService;
+    private final TempIdRemapper remapper;
+
+    public ProductSyncHandler(ProductRepository repository, ApiService apiService, TempIdRemapper remapper) {
+        this.repository = repository;
+        this.apiService = apiService;
+        this.remapper = remapper;
+    }
+
+    @Override
+    public String getEntityType() {
+        return SyncOutboxEntity.TYPE_PRODUCT;
+    }
+
+    @Override
+    public List<SyncEngine.Ref> parentsOf(SyncOutboxEntity entry) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Deux produits de même référence partent dans l'ordre de la file :
+     * le contrôle d'unicité du serveur les voit dans l'ordre des modifications
+     */
+    @Override
+    public Object laneKey(SyncOutboxEntity entry) {
+        Product product = repository.getProductById(entry.getEntityId());
+        if (product == null || product.getReference() == null || product.getReference().trim().isEmpty()) {
+            return null;
+        }
+        return product.getReference().trim();
+    }
+
+    @Override
+    public boolean push(SyncOutboxEntity entry) throws Exception {
+        int productId = entry.getEntityId();
+
+        // Récupérer le produit depuis le repository local
+        Product product = repository.getProductById(productId);
+
+        if (product == null) {
+            Log.e(TAG, "Produit introuvable dans le cache local: " + productId);
+            remapper.complete(entry);
+            return true; // Considéré comme un succès pour retirer de la liste
+        }
+
+        // Un ID temporaire (négatif) désigne un produit créé localement
+        boolean isLocalOnly = productId < 0;
+        if (isLocalOnly) {
+            product.setId(0); // L'API génèrera un nouvel ID
+        }
+        product.setDirty(false);
+
+        // Mise à jour dont les champs modifiés sont connus : envoi partiel
+        Set<String> fields = FieldDelta.split(entry.getChangedFields());
+        if (!isLocalOnly && entry.getChangedFields() != null) {
+            if (fields.isEmpty()) {
+                // Enregistré sans changement : rien à envoyer
+                remapper.applyProduct(entry, product);
+                return true;
+            }
+
+            Map<String, Object> patch = FieldDelta.patch(product, fields, productId, entry.getBaseUpdatedAt());
+            if (patch != null) {
+                return pushChanges(entry, product, fields, patch);
+            }
+        }
+
+        // Appel synchrone à l'API (nous sommes déjà dans un thread secondaire)
+        Call<NetworkResult<Product>> call = isLocalOnly
+                ? apiService.createProduct(product)
+                : apiService.updateProduct(product);
+        Response<NetworkResult<Product>> response = call.execute();
+
+        if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+            Product serverProduct = response.body().getData();
+
+            // Enregistrer la version du serveur ; un produit créé passe à son ID serveur
+            // (références des paniers en file comprises)
+            if (!remapper.applyProduct(entry, serverProduct)) {
+                Log.d(TAG, "Produit " + productId + " modifié pendant l'envoi, conservé en file");
+            }
+
+            Log.d(TAG, "Produit synchronisé avec le serveur: " + serverProduct.getId());
+            return true;
+        }
+
+        Log.e(TAG, "Erreur lors de l'envoi du produit au serveur: " +
+                (response.errorBody() != null ? response.errorBody().string() : "Erreur inconnue"));
+        return false;
+    }
+
+    /**
+     * Envoyer les seuls champs modifiés (updateProductRaw)
+     * Si le produit a changé sur le serveur depuis la version de référence (409), les champs
+     * modifiés localement sont renvoyés une fois sur la version actuelle du serveur
+     * Le produit enregistré ensuite porte la version serveur (updated_at), base de la modification suivante
+     */
+    private boolean pushChanges(SyncOutboxEntity entry, Product product, Set<String> fields,
+                                Map<String, Object> patch) throws Exception {
+        Response<NetworkResult<Product>> response = apiService.updateProductRaw(patch).execute();
+
+        // Version serveur lue lors d'un conflit
+        Product conflictVersion = null;
+        if (response.code() == HTTP_CONFLICT) {
+            Product serverProduct = apiService.getProductDetails(product.getId()).execute().body();
+            if (serverProduct == null) {
+                Log.e(TAG, "Conflit sur le produit " + product.getId() + " : version serveur introuvable");
+                return false;
+            }
+
+            Log.d(TAG, "Conflit sur le produit " + product.getId() + " : champs " + fields
+                    + " réappliqués sur la version " + serverProduct.getUpdatedAt());
+            patch.put(FieldDelta.BASE_UPDATED_AT, serverProduct.getUpdatedAt());
+            response = apiService.updateProductRaw(patch).execute();
+            conflictVersion = serverProduct;
+        }
+
+        if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+            Product serverProduct = response.body().getData();
+            if (serverProduct == null) {
+                // Sans produit dans la réponse : champs envoyés sur la version serveur lue au conflit,
+                // sinon relire le produit pour obtenir sa nouvelle version
+                serverProduct = conflictVersion != null
+                        ? FieldDelta.rebase(conflictVersion, product, fields, Product.class)
+                        : fetchServerVersion(product);
+            }
+
+            if (!remapper.applyProduct(entry, serverProduct)) {
+                Log.d(TAG, "Produit " + product.getId() + " modifié pendant l'envoi, conservé en file");
+            }
+
+            Log.d(TAG, "Produit synchronisé avec le serveur (champs " + fields + ")");
+            return true;
+        }
+
+        Log.e(TAG, "Erreur lors de l'envoi des modifications du produit: " +
+                (response.errorBody() != null ? response.errorBody().string() : "Erreur inconnue"));
+        return false;
+    }
+
+    /**
+     * Version serveur d'un produit qui vient d'être mis à jour
+     * Si elle ne peut pas être lue, la version locale envoyée est gardée : la modification suivante
+     * recevra alors un conflit et relira le produit
+     */
+    private Product fetchServerVersion(Product product) {
+        try {
+            Product serverProduct = apiService.getProductDetails(product.getId()).execute().body();
+            if (serverProduct != null) {
+                return serverProduct;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Produit " + product.getId() + " : relecture impossible après la mise à jour", e);
+        }
+        return product;
+    }
+}
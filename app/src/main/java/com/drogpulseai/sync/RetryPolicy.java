@@ -0,0 +1,55 @@
+package com.drogpulseai.sync;
+
+import java.util.Random;
+
+/**
+ * Délai avant la prochaine tentative d'envoi d'une opération en échec
+ * Backoff exponentiel par opération (base × 2^(échecs - 1), plafonné), avec une part
+ * aléatoire ("jitter") pour que les opérations en échec ne repartent pas toutes ensemble.
+ * Après maxAttempts échecs, l'opération passe en "lettre morte" et n'est plus retentée
+ * automatiquement.
+ */
+public class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Random random;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this(maxAttempts, baseDelayMs, maxDelayMs, new Random());
+    }
+
+    RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs, Random random) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = Math.max(1, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+        this.random = random;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param failedAttempts nombre d'échecs, celui qui vient d'avoir lieu compris
+     * @return true si l'opération ne doit plus être retentée automatiquement
+     */
+    public boolean isExhausted(int failedAttempts) {
+        return failedAttempts >= maxAttempts;
+    }
+
+    /**
+     * Délai avant la prochaine tentative, entre la moitié et la totalité du délai exponentiel
+     * @param failedAttempts nombre d'échecs, celui qui vient d'avoir lieu compris
+     */
+    public long delayMs(int failedAttempts) {
+        int exponent = Math.min(Math.max(0, failedAttempts - 1), 30);
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << exponent);
+        long half = ceiling / 2;
+
+        synchronized (random) {
+            return half + (long) (random.nextDouble() * (ceiling - half));
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.drogpulseai.sync;
+
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moteur de synchronisation unique pour toutes les opérations de la file (contacts, produits,
+ * frais, paniers)
+ *
+ * Une opération peut faire référence à une entité créée hors ligne et encore en file (ID
+ * temporaire négatif) : un panier référence son contact et ses produits. Le moteur construit
+ * le graphe de ces dépendances et envoie les opérations par niveaux : les parents d'abord,
+ * puis les opérations qui en dépendent. Après la création d'un parent, son handler remplace
+ * l'ID temporaire par l'ID serveur partout en base (voir TempIdRemapper) : les opérations du
+ * niveau suivant sont relues et partent avec l'ID serveur, dans le même passage.
+ *
+ * Une opération dont un parent n'a pas pu être envoyé attend la prochaine tentative de ce
+ * parent (ou passe en lettre morte avec lui), sans compter d'échec.
+ */
+public class SyncEngine {
+
+    /**
+     * Référence vers une entité en file
+     */
+    public static final class Ref {
+        public final String entityType;
+        public final int entityId;
+
+        public Ref(String entityType, int entityId) {
+            this.entityType = entityType;
+            this.entityId = entityId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Ref)) {
+                return false;
+            }
+            Ref other = (Ref) o;
+            return entityId == other.entityId && entityType.equals(other.entityType);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * entityType.hashCode() + entityId;
+        }
+
+        @Override
+        public String toString() {
+            return entityType + " " + entityId;
+        }
+    }
+
+    /**
+     * Envoi des opérations d'un type d'entité
+     */
+    public interface Handler {
+        String getEntityType();
+
+        /**
+         * Entités créées hors ligne (ID temporaire) dont l'opération a besoin
+         */
+        List<Ref> parentsOf(SyncOutboxEntity entry);
+
+        /**
+         * Clé de dépendance entre opérations de même type (voir UploadPipeline), ou null
+         */
+        Object laneKey(SyncOutboxEntity entry);
+
+        /**
+         * Envoyer l'opération et enregistrer le résultat localement, retrait de la file compris
+         * Appelé depuis un thread du pipeline
+         * @return false si l'opération doit rester en file
+         */
+        boolean push(SyncOutboxEntity entry) throws Exception;
+    }
+
+    /**
+     * Accès à la file des opérations en attente
+     */
+    public interface Outbox {
+        List<SyncOutboxEntity> getDueEntries(String entityType);
+
+        /**
+         * @return l'opération en attente pour l'entité, ou null
+         */
+        SyncOutboxEntity findPending(String entityType, int entityId);
+
+        /**
+         * Relire une opération (sa copie JSON a pu être réécrite par un remplacement d'ID)
+         * @return l'opération, ou null si elle n'est plus en file
+         */
+        SyncOutboxEntity reloadPending(SyncOutboxEntity entry);
+
+        void recordSyncFailure(SyncOutboxEntity entry, String error);
+
+        void deferSync(SyncOutboxEntity entry, long nextAttemptAt);
+
+        void abandonSync(SyncOutboxEntity entry, String error);
+    }
+
+    private final Outbox outbox;
+    private final UploadPipeline pipeline;
+    private final Map<String, Handler> handlers = new LinkedHashMap<>();
+
+    public SyncEngine(Outbox outbox, UploadPipeline pipeline, List<Handler> handlers) {
+        this.outbox = outbox;
+        this.pipeline = pipeline;
+        for (Handler handler : handlers) {
+            this.handlers.put(handler.getEntityType(), handler);
+        }
+    }
+
+    /**
+     * Types d'entités pris en charge, dans l'ordre des handlers
+     */
+    public Set<String> getEntityTypes() {
+        return Collections.unmodifiableSet(handlers.keySet());
+    }
+
+    /**
+     * Envoyer toutes les opérations dues, parents d'abord
+     * @return les opérations non envoyées (en échec, ou en attente d'un parent)
+     */
+    public List<SyncOutboxEntity> run(UploadPipeline.ProgressListener listener) {
+        Map<Ref, SyncOutboxEntity> nodes = new LinkedHashMap<>();
+        for (Handler handler : handlers.values()) {
+            for (SyncOutboxEntity entry : outbox.getDueEntries(handler.getEntityType())) {
+                nodes.put(refOf(entry), entry);
+            }
+        }
+
+        List<SyncOutboxEntity> notSent = new ArrayList<>();
+        if (nodes.isEmpty()) {
+            return notSent;
+        }
+
+        // Graphe des dépendances entre opérations dues
+        Map<Ref, List<Ref>> parents = new HashMap<>();
+        Map<Ref, List<Ref>> children = new HashMap<>();
+        Set<Ref> held = new HashSet<>();
+
+        for (Map.Entry<Ref, SyncOutboxEntity> node : nodes.entrySet()) {
+            List<Ref> nodeParents = new ArrayList<>();
+            for (Ref parent : handlers.get(node.getKey().entityType).parentsOf(node.getValue())) {
+                if (parent.equals(node.getKey()) || nodeParents.contains(parent)) {
+                    continue;
+                }
+                if (nodes.containsKey(parent)) {
+                    nodeParents.add(parent);
+                    children.computeIfAbsent(parent, k -> new ArrayList<>()).add(node.getKey());
+                } else if (!held.contains(node.getKey())) {
+                    // Parent en file mais pas dû (délai de nouvelle tentative), ou introuvable
+                    holdBack(node.getValue(), parent, outbox.findPending(parent.entityType, parent.entityId));
+                    held.add(node.getKey());
+                }
+            }
+            parents.put(node.getKey(), nodeParents);
+        }
+
+        int total = nodes.size();
+        AtomicInteger done = new AtomicInteger();
+
+        // Les descendants d'une opération retenue sont retenus avec elle
+        List<Ref> blocked = new ArrayList<>(held);
+        while (!blocked.isEmpty()) {
+            Ref ref = blocked.remove(blocked.size() - 1);
+            for (Ref child : children.getOrDefault(ref, Collections.emptyList())) {
+                if (held.add(child)) {
+                    holdBack(nodes.get(child), ref, outbox.reloadPending(nodes.get(ref)));
+                    blocked.add(child);
+                }
+            }
+        }
+        for (Ref ref : held) {
+            notSent.add(nodes.get(ref));
+            report(listener, done.incrementAndGet(), total);
+        }
+
+        // Envoi par niveaux (tri topologique) : un niveau ne part qu'une fois ses parents envoyés
+        Map<Ref, Integer> remainingParents = new HashMap<>();
+        List<SyncOutboxEntity> level = new ArrayList<>();
+        for (Map.Entry<Ref, SyncOutboxEntity> node : nodes.entrySet()) {
+            if (held.contains(node.getKey())) {
+                continue;
+            }
+            int count = 0;
+            for (Ref parent : parents.get(node.getKey())) {
+                if (!held.contains(parent)) {
+                    count++;
+                }
+            }
+            remainingParents.put(node.getKey(), count);
+            if (count == 0) {
+                level.add(node.getValue());
+            }
+        }
+
+        while (!level.isEmpty()) {
+            int levelStart = done.get();
+            List<SyncOutboxEntity> failed = pipeline.run(level, this::laneKey, this::pushEntry,
+                    (levelDone, levelTotal) -> {
+                        done.set(levelStart + levelDone);
+                        report(listener, levelStart + levelDone, total);
+                    });
+            done.set(levelStart + level.size());
+
+            Set<Ref> failedRefs = new HashSet<>();
+            for (SyncOutboxEntity entry : failed) {
+                failedRefs.add(refOf(entry));
+                notSent.add(entry);
+            }
+
+            List<SyncOutboxEntity> next = new ArrayList<>();
+            for (SyncOutboxEntity entry : level) {
+                Ref ref = refOf(entry);
+                for (Ref child : children.getOrDefault(ref, Collections.emptyList())) {
+                    if (held.contains(child)) {
+                        continue;
+                    }
+                    if (failedRefs.contains(ref)) {
+                        // Le parent n'a pas été envoyé : l'enfant et ses descendants attendent
+                        for (Ref blockedRef : holdSubtree(child, ref, entry, nodes, children, held)) {
+                            notSent.add(nodes.get(blockedRef));
+                            report(listener, done.incrementAndGet(), total);
+                        }
+                        continue;
+                    }
+                    int count = remainingParents.merge(child, -1, Integer::sum);
+                    if (count == 0) {
+                        next.add(nodes.get(child));
+                    }
+                }
+            }
+            level = next;
+        }
+
+        // Opérations jamais atteintes : dépendance circulaire
+        for (Map.Entry<Ref, Integer> node : remainingParents.entrySet()) {
+            if (node.getValue() > 0 && !held.contains(node.getKey())) {
+                SyncOutboxEntity entry = nodes.get(node.getKey());
+                outbox.recordSyncFailure(entry, "Dépendance circulaire");
+                notSent.add(entry);
+            }
+        }
+
+        return notSent;
+    }
+
+    /**
+     * Retenir une opération et ses descendants derrière un parent qui n'a pas été envoyé
+     * @return les opérations retenues
+     */
+    private List<Ref> holdSubtree(Ref child, Ref parentRef, SyncOutboxEntity parentEntry,
+                                  Map<Ref, SyncOutboxEntity> nodes, Map<Ref, List<Ref>> children,
+                                  Set<Ref> held) {
+        List<Ref> result = new ArrayList<>();
+        if (!held.add(child)) {
+            return result;
+        }
+        holdBack(nodes.get(child), parentRef, outbox.reloadPending(parentEntry));
+        result.add(child);
+
+        for (Ref grandChild : children.getOrDefault(child, Collections.emptyList())) {
+            result.addAll(holdSubtree(grandChild, child, nodes.get(child), nodes, children, held));
+        }
+        return result;
+    }
+
+    /**
+     * Reporter une opération à la prochaine tentative de son parent
+     * @param parent état actuel du parent en file (null s'il n'y est plus)
+     */
+    private void holdBack(SyncOutboxEntity entry, Ref parentRef, SyncOutboxEntity parent) {
+        if (parent == null) {
+            // L'entité référencée n'est plus en file sans que son ID ait été remplacé
+            // (supprimée localement) : échec ordinaire, l'opération finira en lettre morte
+            outbox.recordSyncFailure(entry, "Dépendance introuvable: " + parentRef);
+        } else if (parent.isDeadLetter()) {
+            outbox.abandonSync(entry, "Dépendance abandonnée: " + parentRef);
+        } else {
+            outbox.deferSync(entry, parent.getNextAttemptAt());
+        }
+    }
+
+    private Object laneKey(SyncOutboxEntity entry) {
+        Object key = handlers.get(entry.getEntityType()).laneKey(entry);
+        return key == null ? null : entry.getEntityType() + ":" + key;
+    }
+
+    private boolean pushEntry(SyncOutboxEntity queued) {
+        // Relire l'opération : elle a pu être envoyée par un autre passage, ou ses références
+        // réécrites par le remplacement de l'ID temporaire d'un parent
+        SyncOutboxEntity entry = outbox.reloadPending(queued);
+        if (entry == null) {
+            return true;
+        }
+
+        String error = "Réponse du serveur en erreur";
+        try {
+            if (handlers.get(entry.getEntityType()).push(entry)) {
+                return true;
+            }
+        } catch (Exception e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+
+        // Garder l'opération pour une nouvelle tentative, après un délai qui lui est propre
+        outbox.recordSyncFailure(entry, error);
+        return false;
+    }
+
+    private static void report(UploadPipeline.ProgressListener listener, int done, int total) {
+        if (listener != null) {
+            listener.onProgress(done, total);
+        }
+    }
+
+    private static Ref refOf(SyncOutboxEntity entry) {
+        return new Ref(entry.getEntityType(), entry.getEntityId());
+    }
+}
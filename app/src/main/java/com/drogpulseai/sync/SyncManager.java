@@ -1,42 +1,101 @@
 package com.drogpulseai.sync;
 
 import android.app.Application;
-import android.content.BroadcastReceiver;
 import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.SharedPreferences;
 import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
 import androidx.work.Constraints;
 import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
 import androidx.work.ExistingWorkPolicy;
 import androidx.work.NetworkType;
 import androidx.work.OneTimeWorkRequest;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkInfo;
 import androidx.work.WorkManager;
 
+import com.drogpulseai.database.AppDatabase;
+import com.drogpulseai.database.converter.CartConverter;
+import com.drogpulseai.database.converter.ExpenseConverter;
+import com.drogpulseai.database.dao.SyncOutboxDao;
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+import com.drogpulseai.models.Cart;
+import com.drogpulseai.models.Contact;
+import com.drogpulseai.models.Expense;
+import com.drogpulseai.models.Product;
+import com.drogpulseai.repository.ContactRepository;
+import com.drogpulseai.repository.ProductRepository;
+import com.drogpulseai.utils.Config;
 import com.drogpulseai.utils.NetworkUtils;
-import com.drogpulseai.workers.ProductSyncWorker;
-import com.drogpulseai.workers.ContactSyncWorker;
+import com.drogpulseai.workers.BatchProductSyncWorker;
+import com.drogpulseai.workers.PeriodicSyncWorker;
+import com.drogpulseai.workers.SyncWorker;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
 import java.lang.reflect.Type;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Gestionnaire de synchronisation pour les produits
- * Singleton qui détecte les changements de connectivité et synchronise les produits en attente
+ * Gestionnaire de synchronisation
+ * Singleton qui détecte les changements de connectivité et synchronise les opérations en attente
+ * (contacts, produits, frais, paniers)
+ *
+ * Les opérations en attente sont conservées dans la table Room "sync_outbox" (une ligne par
+ * entité, avec une copie JSON de l'entité), ce qui survit à l'arrêt du processus. Elles sont
+ * envoyées par un seul travail (SyncWorker), dans l'ordre de leurs dépendances (SyncEngine)
  */
-public class SyncManager {
+public class SyncManager implements SyncEngine.Outbox {
     private static final String TAG = "SyncManager";
 
     // Nom des préférences partagées
     private static final String PREF_NAME = "sync_manager";
     private static final String KEY_PENDING_PRODUCTS = "pending_products";
     private static final String KEY_PENDING_CONTACTS = "pending_contacts";
+    private static final String KEY_PERIODIC_INTERVAL = "periodic_interval_minutes";
+    private static final String KEY_PERIODIC_UNMETERED = "periodic_unmetered_only";
+
+    // Progression publiée par les workers d'envoi (setProgressAsync)
+    public static final String PROGRESS_DONE = "progress_done";
+    public static final String PROGRESS_TOTAL = "progress_total";
+
+    // Noms des travaux uniques d'envoi
+    public static final String SYNC_WORK = "sync_work";
+    public static final String PRODUCT_BATCH_SYNC_WORK = "product_batch_sync_work";
+
+    // Travaux d'envoi par type des versions précédentes (remplacés par SYNC_WORK)
+    private static final String[] LEGACY_SYNC_WORKS = {"product_sync_work", "contact_sync_work"};
+
+    // Types d'entités envoyés par SyncWorker, dans l'ordre des handlers
+    private static final List<String> SYNC_ENTITY_TYPES = Arrays.asList(
+            SyncOutboxEntity.TYPE_CONTACT,
+            SyncOutboxEntity.TYPE_PRODUCT,
+            SyncOutboxEntity.TYPE_EXPENSE,
+            SyncOutboxEntity.TYPE_CART);
+
+    // Nouvelles tentatives par opération
+    private static final int DEFAULT_MAX_ATTEMPTS = 8;
+    private static final int DEFAULT_RETRY_BASE_SECONDS = 30;
+    private static final int DEFAULT_RETRY_MAX_MINUTES = 360;
+
+    // Fenêtre de regroupement des changements de réseau
+    private static final int DEFAULT_NETWORK_DEBOUNCE_MS = 3000;
 
     // Instance singleton
     private static SyncManager instance;
@@ -44,14 +103,34 @@ public class SyncManager {
     // Contexte de l'application
     private final Application application;
 
-    // Préférences partagées
+    // Préférences partagées (anciennes listes d'IDs en attente, importées dans la table sync_outbox)
     private final SharedPreferences preferences;
 
+    // File des opérations en attente
+    private final SyncOutboxDao outboxDao;
+
     // Gson pour sérialisation/désérialisation
     private final Gson gson;
 
-    // Récepteur de broadcast pour les changements de connectivité
-    private final BroadcastReceiver connectivityReceiver;
+    // Délai entre les tentatives d'une opération en échec
+    private final RetryPolicy retryPolicy;
+
+    // Suivi du réseau par défaut (remplace le broadcast CONNECTIVITY_ACTION)
+    private final ConnectivityManager connectivityManager;
+    private final ConnectivityManager.NetworkCallback networkCallback;
+
+    // Les changements de réseau rapprochés ne déclenchent qu'une synchronisation
+    // (thread aussi utilisé pour lire la file lors des demandes de synchronisation)
+    private final ScheduledExecutorService triggerExecutor = Executors.newSingleThreadScheduledExecutor();
+    private final Debouncer networkDebouncer;
+
+    // État du réseau par défaut (accès Internet vérifié, facturé à l'usage)
+    private volatile boolean networkValidated = false;
+    private volatile boolean networkMetered = true;
+
+    // Envois en cours : un nouveau déclenchement est regroupé avec eux au lieu de les annuler
+    private final AtomicBoolean syncRunning = new AtomicBoolean(false);
+    private final AtomicBoolean productSyncRunning = new AtomicBoolean(false);
 
     /**
      * Obtenir l'instance singleton
@@ -70,34 +149,92 @@ public class SyncManager {
         this.application = application;
         this.preferences = application.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
         this.gson = new Gson();
-
-        // Initialiser le récepteur de broadcast
-        this.connectivityReceiver = new BroadcastReceiver() {
+        this.outboxDao = AppDatabase.getInstance(application).syncOutboxDao();
+        this.retryPolicy = new RetryPolicy(
+                Config.getIntProperty("sync.max_attempts", DEFAULT_MAX_ATTEMPTS),
+                TimeUnit.SECONDS.toMillis(Config.getIntProperty("sync.retry_base_seconds", DEFAULT_RETRY_BASE_SECONDS)),
+                TimeUnit.MINUTES.toMillis(Config.getIntProperty("sync.retry_max_minutes", DEFAULT_RETRY_MAX_MINUTES)));
+
+        // Écritures Room : hors du thread principal (instance créée au démarrage de l'application)
+        triggerExecutor.execute(this::importLegacyPendingSets);
+        cancelLegacyWork();
+
+        // Suivre le réseau par défaut ; la synchronisation part une fois le réseau stable
+        this.networkDebouncer = new Debouncer(triggerExecutor,
+                Config.getIntProperty("sync.network_debounce_ms", DEFAULT_NETWORK_DEBOUNCE_MS),
+                this::onNetworkSettled);
+        this.connectivityManager = (ConnectivityManager) application.getSystemService(Context.CONNECTIVITY_SERVICE);
+        this.networkCallback = new ConnectivityManager.NetworkCallback() {
             @Override
-            public void onReceive(Context context, Intent intent) {
-                if (ConnectivityManager.CONNECTIVITY_ACTION.equals(intent.getAction())) {
-                    boolean isConnected = NetworkUtils.isNetworkAvailable(context);
-
-                    if (isConnected && hasPendingProducts()) {
-                        Log.d(TAG, "Connectivité rétablie. Démarrage de la synchronisation...");
-                        scheduleSyncNow();
-                    }
+            public void onCapabilitiesChanged(@NonNull Network network, @NonNull NetworkCapabilities capabilities) {
+                boolean validated = capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+                boolean metered = !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+
+                // Ce rappel est fréquent (force du signal...) : ne réagir qu'à l'arrivée d'un accès
+                // Internet vérifié, ou au passage d'un réseau facturé à un réseau non facturé
+                boolean becameUsable = validated && !networkValidated;
+                boolean becameUnmetered = validated && !metered && networkMetered;
+
+                networkValidated = validated;
+                networkMetered = metered;
+
+                if (becameUsable || becameUnmetered) {
+                    networkDebouncer.trigger();
                 }
             }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                networkValidated = false;
+                networkMetered = true;
+                networkDebouncer.cancel();
+            }
         };
 
-        // Enregistrer le récepteur de broadcast
-        IntentFilter filter = new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION);
-        application.registerReceiver(connectivityReceiver, filter);
+        try {
+            connectivityManager.registerDefaultNetworkCallback(networkCallback);
+        } catch (Exception e) {
+            Log.e(TAG, "Impossible de suivre les changements de réseau", e);
+        }
+    }
+
+    /**
+     * Réseau stable depuis la fenêtre d'attente : lancer les envois en attente
+     */
+    private void onNetworkSettled() {
+        if (networkMetered && !uploadsAllowedOnMetered()) {
+            Log.d(TAG, "Réseau facturé à l'usage : synchronisation reportée à un réseau non facturé");
+            return;
+        }
+
+        Log.d(TAG, "Connectivité rétablie. Démarrage de la synchronisation...");
+        scheduleSyncNow();
+    }
+
+    /**
+     * Réseau par défaut facturé à l'usage (données mobiles, partage de connexion...)
+     */
+    public boolean isNetworkMetered() {
+        return networkMetered;
+    }
+
+    private static boolean uploadsAllowedOnMetered() {
+        return Config.getBooleanProperty("sync.upload_on_metered", true);
+    }
+
+    /**
+     * Type de réseau requis par les workers d'envoi
+     */
+    private static NetworkType uploadNetworkType() {
+        return uploadsAllowedOnMetered() ? NetworkType.CONNECTED : NetworkType.UNMETERED;
     }
 
     /**
      * Ajouter un produit à la liste des produits en attente de synchronisation
      */
     public void addProductForSync(int productId) {
-        Set<Integer> pendingProducts = getPendingProducts();
-        pendingProducts.add(productId);
-        savePendingProducts(pendingProducts);
+        Product product = ProductRepository.getInstance(application).getProductById(productId);
+        enqueue(SyncOutboxEntity.TYPE_PRODUCT, productId, product != null ? gson.toJson(product) : null);
 
         // Si une connexion est disponible, démarrer la synchronisation immédiatement
         if (NetworkUtils.isNetworkAvailable(application)) {
@@ -105,103 +242,260 @@ public class SyncManager {
         }
     }
 
+    /**
+     * Enregistrer un produit créé ou modifié hors ligne et l'ajouter à la file, dans une même transaction
+     * Un produit nouveau (ID 0) reçoit un ID temporaire négatif, remplacé à l'envoi par l'ID serveur.
+     * Pour la modification d'un produit existant, seuls les champs changés depuis {@code before}
+     * seront envoyés, sur la base de sa version serveur (updated_at)
+     * À appeler hors du thread principal
+     * @param before Le produit avant modification (null : envoyer le produit entier)
+     * @return l'ID du produit (temporaire pour un nouveau produit)
+     */
+    public int addProductForSync(Product product, Product before) {
+        ProductRepository repository = ProductRepository.getInstance(application);
+        AppDatabase database = AppDatabase.getInstance(application);
+
+        int productId = database.runInTransaction(() -> {
+            if (product.getId() == 0) {
+                product.setId(nextLocalId(SyncOutboxEntity.TYPE_PRODUCT, database.productDao().getLowestLocalId()));
+            }
+            repository.writeProduct(product);
+
+            SyncOutboxEntity entry = new SyncOutboxEntity(SyncOutboxEntity.TYPE_PRODUCT, product.getId(),
+                    SyncOutboxEntity.OP_UPSERT, gson.toJson(product));
+            if (before != null && product.getId() > 0) {
+                entry.setChangedFields(FieldDelta.join(FieldDelta.changedFields(before, product)));
+                entry.setBaseUpdatedAt(before.getUpdatedAt());
+            }
+            outboxDao.enqueue(entry);
+            return product.getId();
+        });
+
+        // Si une connexion est disponible, démarrer la synchronisation immédiatement
+        if (NetworkUtils.isNetworkAvailable(application)) {
+            scheduleSyncNow();
+        }
+        return productId;
+    }
+
     /**
      * Retirer un produit de la liste des produits en attente de synchronisation
      */
     public void removeProductFromSync(int productId) {
-        Set<Integer> pendingProducts = getPendingProducts();
-        pendingProducts.remove(productId);
-        savePendingProducts(pendingProducts);
+        outboxDao.delete(SyncOutboxEntity.TYPE_PRODUCT, productId);
     }
 
     /**
      * Vérifier s'il y a des produits en attente de synchronisation
      */
     public boolean hasPendingProducts() {
-        return !getPendingProducts().isEmpty();
+        return getPendingCount() > 0;
     }
 
     /**
      * Obtenir le nombre de produits en attente de synchronisation
      */
     public int getPendingCount() {
-        return getPendingProducts().size();
+        return outboxDao.countPending(SyncOutboxEntity.TYPE_PRODUCT);
+    }
+
+    /**
+     * Nombre de produits en attente, observable (badges de l'interface)
+     */
+    public LiveData<Integer> getPendingProductCountLiveData() {
+        return outboxDao.observePendingCount(SyncOutboxEntity.TYPE_PRODUCT);
     }
 
     /**
      * Obtenir la liste des produits en attente de synchronisation
      */
     public Set<Integer> getPendingProducts() {
-        String json = preferences.getString(KEY_PENDING_PRODUCTS, null);
+        return new LinkedHashSet<>(outboxDao.getPendingIds(SyncOutboxEntity.TYPE_PRODUCT));
+    }
+
+    /**
+     * Obtenir l'opération en attente pour un produit
+     * @return l'opération, ou null si le produit n'est pas en attente
+     */
+    public SyncOutboxEntity getPendingProduct(int productId) {
+        return outboxDao.find(SyncOutboxEntity.TYPE_PRODUCT, productId);
+    }
+
+    /**
+     * Produits dont l'envoi est à faire maintenant (hors délai de nouvelle tentative et lettres mortes)
+     */
+    public List<Integer> getDueProducts() {
+        return outboxDao.getDueIds(SyncOutboxEntity.TYPE_PRODUCT, System.currentTimeMillis());
+    }
+
+    /**
+     * Planifier une synchronisation immédiate
+     * Le worker relit la file : seules les opérations encore en attente sont envoyées
+     * Appelable depuis le thread principal : la file est lue sur le thread de déclenchement
+     */
+    public void scheduleSyncNow() {
+        triggerExecutor.execute(this::scheduleQueuedSyncNow);
+    }
 
-        if (json == null) {
-            return new HashSet<>();
+    private void scheduleQueuedSyncNow() {
+        if (isBatchProductSyncEnabled()) {
+            scheduleBatchProductSyncNow();
         }
 
-        try {
-            Type type = new TypeToken<Set<Integer>>(){}.getType();
-            return gson.fromJson(json, type);
-        } catch (Exception e) {
-            Log.e(TAG, "Erreur lors de la récupération des produits en attente", e);
-            return new HashSet<>();
+        if (syncRunning.get()) {
+            // Le passage en cours planifie lui-même la suite à sa fin, nouvelles opérations comprises
+            Log.d(TAG, "Synchronisation déjà en cours, demande regroupée");
+            return;
+        }
+        if (getNextAttemptAt(getSyncEntityTypes()) == null) {
+            return;
         }
+        // Aucun envoi en cours : remplacer un éventuel passage différé (délai de nouvelle tentative)
+        scheduleSync(0, ExistingWorkPolicy.REPLACE);
     }
 
     /**
-     * Sauvegarder la liste des produits en attente de synchronisation
+     * Types d'entités envoyés par SyncWorker
+     * Les produits en sont exclus quand ils partent par lots (BatchProductSyncWorker)
      */
-    private void savePendingProducts(Set<Integer> pendingProducts) {
-        try {
-            String json = gson.toJson(pendingProducts);
-            preferences.edit().putString(KEY_PENDING_PRODUCTS, json).apply();
-        } catch (Exception e) {
-            Log.e(TAG, "Erreur lors de la sauvegarde des produits en attente", e);
+    public List<String> getSyncEntityTypes() {
+        List<String> types = new ArrayList<>(SYNC_ENTITY_TYPES);
+        if (isBatchProductSyncEnabled()) {
+            types.remove(SyncOutboxEntity.TYPE_PRODUCT);
         }
+        return types;
+    }
+
+    /**
+     * Envoi des produits par lots si le serveur expose products/batch_sync.php
+     */
+    public static boolean isBatchProductSyncEnabled() {
+        return Config.getBooleanProperty("sync.batch_enabled", false);
     }
 
+    /**
+     * Début d'un passage de SyncWorker
+     */
+    public void beginSync() {
+        syncRunning.set(true);
+    }
 
     /**
-     * Planifier une synchronisation immédiate
+     * Fin d'un passage de SyncWorker : planifier le suivant s'il reste des opérations
+     * L'indicateur est levé avant de relire la file, pour qu'aucune demande ne soit perdue
      */
-    public void scheduleSyncNow() {
-        if (!hasPendingProducts()) {
+    public void endSync() {
+        syncRunning.set(false);
+        scheduleNextAttempt();
+    }
+
+    /**
+     * Planifier le passage suivant pour les opérations encore en file, à la date de la prochaine
+     * tentative prévue. Appelé à la fin d'un passage : le travail est chaîné après le passage
+     * en cours au lieu de l'annuler
+     */
+    private void scheduleNextAttempt() {
+        Long nextAttemptAt = getNextAttemptAt(getSyncEntityTypes());
+        if (nextAttemptAt == null) {
             return;
         }
+        scheduleSync(Math.max(0, nextAttemptAt - System.currentTimeMillis()),
+                ExistingWorkPolicy.APPEND_OR_REPLACE);
+    }
 
-        Set<Integer> productIds = getPendingProducts();
-
-        // Convertir l'ensemble en tableau
-        int[] productIdsArray = new int[productIds.size()];
-        int i = 0;
-        for (Integer id : productIds) {
-            productIdsArray[i++] = id;
+    private Long getNextAttemptAt(List<String> entityTypes) {
+        Long next = null;
+        for (String entityType : entityTypes) {
+            Long typeNext = outboxDao.getNextAttemptAt(entityType);
+            if (typeNext != null && (next == null || typeNext < next)) {
+                next = typeNext;
+            }
         }
+        return next;
+    }
 
-        // Créer les données d'entrée pour le Worker
-        Data inputData = new Data.Builder()
-                .putIntArray("product_ids", productIdsArray)
+    private void scheduleSync(long delayMs, ExistingWorkPolicy policy) {
+        // Définir les contraintes du Worker
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(uploadNetworkType())
+                .build();
+
+        OneTimeWorkRequest syncRequest = new OneTimeWorkRequest.Builder(SyncWorker.class)
+                .setConstraints(constraints)
+                .setInitialDelay(delayMs, TimeUnit.MILLISECONDS)
                 .build();
 
+        WorkManager.getInstance(application)
+                .enqueueUniqueWork(
+                        SYNC_WORK,
+                        policy,
+                        syncRequest
+                );
+
+        Log.d(TAG, "Synchronisation planifiée dans " + delayMs / 1000 + " s");
+    }
+
+    /**
+     * Planifier l'envoi immédiat des produits par lots (voir scheduleSyncNow)
+     */
+    private void scheduleBatchProductSyncNow() {
+        if (productSyncRunning.get()) {
+            Log.d(TAG, "Synchronisation des produits déjà en cours, demande regroupée");
+            return;
+        }
+        if (outboxDao.getNextAttemptAt(SyncOutboxEntity.TYPE_PRODUCT) == null) {
+            return;
+        }
+        scheduleBatchProductSync(0, ExistingWorkPolicy.REPLACE);
+    }
+
+    /**
+     * Début d'un passage d'envoi des produits par lots (appelé par BatchProductSyncWorker)
+     */
+    public void beginProductSync() {
+        productSyncRunning.set(true);
+    }
+
+    /**
+     * Fin d'un passage d'envoi des produits par lots (voir endSync)
+     */
+    public void endProductSync() {
+        productSyncRunning.set(false);
+        scheduleNextProductAttempt();
+    }
+
+    private void scheduleNextProductAttempt() {
+        Long nextAttemptAt = outboxDao.getNextAttemptAt(SyncOutboxEntity.TYPE_PRODUCT);
+        if (nextAttemptAt == null) {
+            return;
+        }
+        scheduleBatchProductSync(Math.max(0, nextAttemptAt - System.currentTimeMillis()),
+                ExistingWorkPolicy.APPEND_OR_REPLACE);
+    }
+
+    private void scheduleBatchProductSync(long delayMs, ExistingWorkPolicy policy) {
         // Définir les contraintes du Worker
         Constraints constraints = new Constraints.Builder()
-                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .setRequiredNetworkType(uploadNetworkType())
                 .build();
 
-        // Créer la requête de travail
-        OneTimeWorkRequest syncRequest = new OneTimeWorkRequest.Builder(ProductSyncWorker.class)
+        OneTimeWorkRequest syncRequest = new OneTimeWorkRequest.Builder(BatchProductSyncWorker.class)
+                .setInputData(new Data.Builder()
+                        .putInt(BatchProductSyncWorker.KEY_CHUNK_SIZE, Config.getIntProperty(
+                                "sync.batch_size", BatchProductSyncWorker.DEFAULT_CHUNK_SIZE))
+                        .build())
                 .setConstraints(constraints)
-                .setInputData(inputData)
+                .setInitialDelay(delayMs, TimeUnit.MILLISECONDS)
                 .build();
 
-        // Planifier le travail unique, en remplaçant tout travail existant
         WorkManager.getInstance(application)
                 .enqueueUniqueWork(
-                        "product_sync_work",
-                        ExistingWorkPolicy.REPLACE,
+                        PRODUCT_BATCH_SYNC_WORK,
+                        policy,
                         syncRequest
                 );
 
-        Log.d(TAG, "Synchronisation planifiée pour " + productIds.size() + " produits");
+        Log.d(TAG, "Synchronisation des produits par lots planifiée dans " + delayMs / 1000 + " s");
     }
 
 
@@ -209,13 +503,26 @@ public class SyncManager {
      * Ajouter un contact à la liste des contacts en attente de synchronisation
      */
     public void addContactForSync(int contactId) {
-        Set<Integer> pendingContacts = getPendingContacts();
-        pendingContacts.add(contactId);
-        savePendingContacts(pendingContacts);
+        addContactForSync(contactId, null);
+    }
+
+    /**
+     * Ajouter la modification d'un contact existant : seuls les champs changés depuis
+     * {@code before} seront envoyés
+     * @param before Le contact avant modification (null : envoyer le contact entier)
+     */
+    public void addContactForSync(int contactId, Contact before) {
+        Contact contact = ContactRepository.getInstance(application).getContactById(contactId);
+        SyncOutboxEntity entry = new SyncOutboxEntity(SyncOutboxEntity.TYPE_CONTACT, contactId,
+                SyncOutboxEntity.OP_UPSERT, contact != null ? gson.toJson(contact) : null);
+        if (before != null && contact != null && contactId > 0) {
+            entry.setChangedFields(FieldDelta.join(FieldDelta.changedFields(before, contact)));
+        }
+        enqueue(entry);
 
         // Si une connexion est disponible, démarrer la synchronisation immédiatement
         if (NetworkUtils.isNetworkAvailable(application)) {
-            scheduleContactSyncNow();
+            scheduleSyncNow();
         }
     }
 
@@ -223,106 +530,346 @@ public class SyncManager {
      * Retirer un contact de la liste des contacts en attente de synchronisation
      */
     public void removeContactFromSync(int contactId) {
-        Set<Integer> pendingContacts = getPendingContacts();
-        pendingContacts.remove(contactId);
-        savePendingContacts(pendingContacts);
+        outboxDao.delete(SyncOutboxEntity.TYPE_CONTACT, contactId);
     }
 
     /**
      * Vérifier s'il y a des contacts en attente de synchronisation
      */
     public boolean hasPendingContacts() {
-        return !getPendingContacts().isEmpty();
+        return getPendingContactCount() > 0;
     }
 
     /**
      * Obtenir le nombre de contacts en attente de synchronisation
      */
     public int getPendingContactCount() {
-        return getPendingContacts().size();
+        return outboxDao.countPending(SyncOutboxEntity.TYPE_CONTACT);
+    }
+
+    /**
+     * Nombre de contacts en attente, observable (badges de l'interface)
+     */
+    public LiveData<Integer> getPendingContactCountLiveData() {
+        return outboxDao.observePendingCount(SyncOutboxEntity.TYPE_CONTACT);
+    }
+
+    /**
+     * Nombre total d'opérations en attente, observable
+     */
+    public LiveData<Integer> getPendingTotalCountLiveData() {
+        return outboxDao.observeTotalPendingCount();
+    }
+
+    /**
+     * Données de progression d'un worker d'envoi
+     */
+    public static Data progressData(int done, int total) {
+        return new Data.Builder()
+                .putInt(PROGRESS_DONE, done)
+                .putInt(PROGRESS_TOTAL, total)
+                .build();
     }
 
     /**
      * Obtenir la liste des contacts en attente de synchronisation
      */
     public Set<Integer> getPendingContacts() {
-        String json = preferences.getString(KEY_PENDING_CONTACTS, null);
+        return new LinkedHashSet<>(outboxDao.getPendingIds(SyncOutboxEntity.TYPE_CONTACT));
+    }
+
+    /**
+     * Retirer une opération envoyée avec succès
+     * L'opération reste en file si l'entité a été modifiée pendant l'envoi
+     * @return true si l'opération a été retirée
+     */
+    public boolean completeSync(SyncOutboxEntity entry) {
+        return outboxDao.deleteIfUnchanged(entry.getOutboxId(), entry.getRevision()) > 0;
+    }
 
-        if (json == null) {
-            return new HashSet<>();
+    /**
+     * Enregistrer l'échec d'une tentative d'envoi
+     */
+    public void recordSyncFailure(SyncOutboxEntity entry) {
+        recordSyncFailure(entry, null);
+    }
+
+    /**
+     * Enregistrer l'échec d'une tentative d'envoi : l'opération est retentée après un délai
+     * croissant, puis passe en lettre morte après sync.max_attempts échecs
+     * Sans effet si l'entité a été modifiée pendant l'envoi (la nouvelle version repart de zéro)
+     */
+    @Override
+    public void recordSyncFailure(SyncOutboxEntity entry, String error) {
+        int failedAttempts = entry.getAttemptCount() + 1;
+
+        if (retryPolicy.isExhausted(failedAttempts)) {
+            outboxDao.markDeadLetter(entry.getOutboxId(), entry.getRevision(), error);
+            Log.w(TAG, "Abandon de l'envoi " + entry.getEntityType() + " " + entry.getEntityId()
+                    + " après " + failedAttempts + " échecs: " + error);
+            return;
         }
 
-        try {
-            Type type = new TypeToken<Set<Integer>>(){}.getType();
-            return gson.fromJson(json, type);
-        } catch (Exception e) {
-            Log.e(TAG, "Erreur lors de la récupération des contacts en attente", e);
-            return new HashSet<>();
+        long delayMs = retryPolicy.delayMs(failedAttempts);
+        outboxDao.recordFailure(entry.getOutboxId(), entry.getRevision(),
+                System.currentTimeMillis() + delayMs, error);
+    }
+
+    /**
+     * Nombre d'opérations abandonnées après trop d'échecs, observable
+     */
+    public LiveData<Integer> getDeadLetterCountLiveData() {
+        return outboxDao.observeDeadLetterCount();
+    }
+
+    /**
+     * Opérations abandonnées après trop d'échecs
+     */
+    public List<SyncOutboxEntity> getDeadLetters() {
+        return outboxDao.getDeadLetters();
+    }
+
+    /**
+     * Remettre en file les opérations abandonnées et relancer les envois
+     */
+    public void retryDeadLetters() {
+        if (outboxDao.requeueDeadLetters(System.currentTimeMillis()) > 0) {
+            scheduleSyncNow();
         }
     }
 
     /**
-     * Sauvegarder la liste des contacts en attente de synchronisation
+     * Enregistrer un frais créé ou modifié hors ligne et l'ajouter à la file
+     * Un frais nouveau (ID 0) reçoit un ID temporaire négatif, remplacé à l'envoi par l'ID serveur
+     * @return l'ID du frais (temporaire pour un nouveau frais)
      */
-    private void savePendingContacts(Set<Integer> pendingContacts) {
+    public int addExpenseForSync(Expense expense) {
+        if (expense.getId() == 0) {
+            expense.setId(nextLocalId(SyncOutboxEntity.TYPE_EXPENSE,
+                    AppDatabase.getInstance(application).expenseDao().getLowestLocalId()));
+        }
+
         try {
-            String json = gson.toJson(pendingContacts);
-            preferences.edit().putString(KEY_PENDING_CONTACTS, json).apply();
+            AppDatabase.getInstance(application).expenseDao().upsertExpense(ExpenseConverter.toEntity(expense));
         } catch (Exception e) {
-            Log.e(TAG, "Erreur lors de la sauvegarde des contacts en attente", e);
+            Log.e(TAG, "Erreur lors de l'enregistrement local du frais", e);
         }
+        enqueue(SyncOutboxEntity.TYPE_EXPENSE, expense.getId(), gson.toJson(expense));
+
+        if (NetworkUtils.isNetworkAvailable(application)) {
+            scheduleSyncNow();
+        }
+        return expense.getId();
     }
 
     /**
-     * Planifier une synchronisation immédiate des contacts
+     * Enregistrer un panier dans l'historique local et ajouter sa création à la file
+     * (corps de carts/create.php)
+     * Le panier reçoit une clé d'idempotence, envoyée à chaque tentative : une requête répétée
+     * après une coupure ne crée pas de doublon sur le serveur. Il peut référencer un contact ou
+     * des produits créés hors ligne : il est envoyé après eux, avec leurs IDs serveur (voir SyncEngine)
+     * @param localCart Le panier tel qu'affiché dans l'historique (contact, lignes, totaux)
+     * @return l'ID temporaire (négatif) du panier
      */
-    public void scheduleContactSyncNow() {
-        if (!hasPendingContacts()) {
-            return;
+    public int addCartForSync(Map<String, Object> cartData, Cart localCart) {
+        if (!(cartData.get(CartPayload.KEY_IDEMPOTENCY_KEY) instanceof String)) {
+            cartData.put(CartPayload.KEY_IDEMPOTENCY_KEY, UUID.randomUUID().toString());
         }
 
-        Set<Integer> contactIds = getPendingContacts();
+        AppDatabase database = AppDatabase.getInstance(application);
+        int cartId = database.runInTransaction(() -> {
+            int localId = nextLocalId(SyncOutboxEntity.TYPE_CART, database.cartDao().getLowestLocalId());
+            localCart.setId(localId);
+            database.cartDao().upsertCart(CartConverter.toEntity(localCart));
+            outboxDao.enqueue(new SyncOutboxEntity(SyncOutboxEntity.TYPE_CART, localId,
+                    SyncOutboxEntity.OP_UPSERT, gson.toJson(cartData)));
+            return localId;
+        });
 
-        // Convertir l'ensemble en tableau
-        int[] contactIdsArray = new int[contactIds.size()];
-        int i = 0;
-        for (Integer id : contactIds) {
-            contactIdsArray[i++] = id;
+        if (NetworkUtils.isNetworkAvailable(application)) {
+            scheduleSyncNow();
         }
+        return cartId;
+    }
 
-        // Créer les données d'entrée pour le Worker
-        Data inputData = new Data.Builder()
-                .putIntArray("contact_ids", contactIdsArray)
-                .build();
+    /**
+     * ID temporaire suivant, plus bas que ceux de la table locale et de la file
+     */
+    private int nextLocalId(String entityType, Integer lowestStoredId) {
+        Integer lowestQueuedId = outboxDao.getLowestLocalId(entityType);
+        int lowest = Math.min(lowestStoredId != null ? lowestStoredId : 0,
+                lowestQueuedId != null ? lowestQueuedId : 0);
+        return lowest - 1;
+    }
+
+    /**
+     * État du travail d'envoi, avec sa progression (PROGRESS_DONE / PROGRESS_TOTAL)
+     */
+    public LiveData<List<WorkInfo>> getSyncWorkInfoLiveData() {
+        return WorkManager.getInstance(application).getWorkInfosForUniqueWorkLiveData(SYNC_WORK);
+    }
+
+    // File des opérations, vue par SyncEngine
+
+    @Override
+    public List<SyncOutboxEntity> getDueEntries(String entityType) {
+        return outboxDao.getDueEntries(entityType, System.currentTimeMillis());
+    }
+
+    @Override
+    public SyncOutboxEntity findPending(String entityType, int entityId) {
+        return outboxDao.find(entityType, entityId);
+    }
+
+    @Override
+    public SyncOutboxEntity reloadPending(SyncOutboxEntity entry) {
+        return outboxDao.findById(entry.getOutboxId());
+    }
+
+    /**
+     * Reporter une opération qui attend l'envoi d'une autre (sans compter d'échec)
+     * Le report est d'au moins un premier délai de nouvelle tentative : l'opération attendue
+     * peut être en cours d'envoi par un autre travail (envoi des produits par lots)
+     */
+    @Override
+    public void deferSync(SyncOutboxEntity entry, long nextAttemptAt) {
+        long earliest = System.currentTimeMillis() + retryPolicy.delayMs(1);
+        outboxDao.deferUntil(entry.getOutboxId(), Math.max(nextAttemptAt, earliest));
+    }
+
+    /**
+     * Passer une opération en lettre morte sans nouvelle tentative (dépendance abandonnée)
+     */
+    @Override
+    public void abandonSync(SyncOutboxEntity entry, String error) {
+        outboxDao.markDeadLetter(entry.getOutboxId(), entry.getRevision(), error);
+        Log.w(TAG, "Abandon de l'envoi " + entry.getEntityType() + " " + entry.getEntityId() + ": " + error);
+    }
+
+    /**
+     * Planifier la synchronisation périodique incrémentale (serveur -> local)
+     * Intervalle et type de réseau lus dans config.properties ; le travail déjà planifié
+     * est conservé (son compteur n'est pas remis à zéro à chaque lancement de l'application)
+     * sauf si la configuration a changé
+     */
+    public void schedulePeriodicSync() {
+        long intervalMinutes = Math.max(
+                TimeUnit.MILLISECONDS.toMinutes(PeriodicWorkRequest.MIN_PERIODIC_INTERVAL_MILLIS),
+                Config.getIntProperty("sync.periodic_interval_minutes", PeriodicSyncWorker.DEFAULT_INTERVAL_MINUTES));
+        boolean unmeteredOnly = Config.getBooleanProperty("sync.periodic_unmetered_only", false);
 
-        // Définir les contraintes du Worker
         Constraints constraints = new Constraints.Builder()
-                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .setRequiredNetworkType(unmeteredOnly ? NetworkType.UNMETERED : NetworkType.CONNECTED)
+                .setRequiresBatteryNotLow(true)
                 .build();
 
-        // Créer la requête de travail
-        OneTimeWorkRequest syncRequest = new OneTimeWorkRequest.Builder(ContactSyncWorker.class)
+        PeriodicWorkRequest periodicRequest = new PeriodicWorkRequest.Builder(
+                PeriodicSyncWorker.class, intervalMinutes, TimeUnit.MINUTES)
                 .setConstraints(constraints)
-                .setInputData(inputData)
                 .build();
 
-        // Planifier le travail unique, en remplaçant tout travail existant
+        boolean configChanged = preferences.getLong(KEY_PERIODIC_INTERVAL, -1) != intervalMinutes
+                || preferences.getBoolean(KEY_PERIODIC_UNMETERED, false) != unmeteredOnly;
+
         WorkManager.getInstance(application)
-                .enqueueUniqueWork(
-                        "contact_sync_work",
-                        ExistingWorkPolicy.REPLACE,
-                        syncRequest
+                .enqueueUniquePeriodicWork(
+                        PeriodicSyncWorker.WORK_NAME,
+                        configChanged ? ExistingPeriodicWorkPolicy.REPLACE : ExistingPeriodicWorkPolicy.KEEP,
+                        periodicRequest
                 );
 
-        Log.d(TAG, "Synchronisation des contacts planifiée pour " + contactIds.size() + " contacts");
+        if (configChanged) {
+            preferences.edit()
+                    .putLong(KEY_PERIODIC_INTERVAL, intervalMinutes)
+                    .putBoolean(KEY_PERIODIC_UNMETERED, unmeteredOnly)
+                    .apply();
+        }
+
+        Log.d(TAG, "Synchronisation périodique planifiée toutes les " + intervalMinutes + " minutes");
+    }
+
+    /**
+     * Ajouter une modification à la file (remplace l'opération déjà en attente pour la même entité)
+     * @return false si l'opération n'a pas pu être enregistrée
+     */
+    private boolean enqueue(String entityType, int entityId, String payload) {
+        return enqueue(new SyncOutboxEntity(entityType, entityId, SyncOutboxEntity.OP_UPSERT, payload));
+    }
+
+    private boolean enqueue(SyncOutboxEntity entry) {
+        try {
+            outboxDao.enqueue(entry);
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "Erreur lors de l'ajout à la file de synchronisation", e);
+            return false;
+        }
+    }
+
+    /**
+     * Importer dans la table sync_outbox les listes d'IDs en attente enregistrées
+     * par les versions précédentes dans les SharedPreferences
+     * L'import se fait en une transaction ; les listes ne sont supprimées qu'après son succès,
+     * sinon elles sont conservées et l'import est repris au prochain démarrage
+     */
+    private void importLegacyPendingSets() {
+        if (!preferences.contains(KEY_PENDING_PRODUCTS) && !preferences.contains(KEY_PENDING_CONTACTS)) {
+            return;
+        }
+
+        Type type = new TypeToken<Set<Integer>>(){}.getType();
+        try {
+            Set<Integer> productIds = gson.fromJson(preferences.getString(KEY_PENDING_PRODUCTS, null), type);
+            Set<Integer> contactIds = gson.fromJson(preferences.getString(KEY_PENDING_CONTACTS, null), type);
+
+            AppDatabase.getInstance(application).runInTransaction(() -> {
+                enqueueLegacySet(SyncOutboxEntity.TYPE_PRODUCT, productIds);
+                enqueueLegacySet(SyncOutboxEntity.TYPE_CONTACT, contactIds);
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Erreur lors de l'import des anciennes listes en attente, nouvel essai au prochain démarrage", e);
+            return;
+        }
+
+        // commit() pour ne jamais réimporter ces listes après un arrêt du processus
+        preferences.edit().remove(KEY_PENDING_PRODUCTS).remove(KEY_PENDING_CONTACTS).commit();
+    }
+
+    private void enqueueLegacySet(String entityType, Set<Integer> entityIds) {
+        if (entityIds == null) {
+            return;
+        }
+        for (Integer entityId : entityIds) {
+            // Une seule opération non enregistrée annule tout l'import
+            if (entityId != null && !enqueue(entityType, entityId, null)) {
+                throw new IllegalStateException("Opération " + entityType + " " + entityId + " non importée");
+            }
+        }
+    }
+
+    /**
+     * Annuler les travaux d'envoi par type des versions précédentes : leurs workers n'existent
+     * plus, les opérations en file sont reprises par SyncWorker
+     */
+    private void cancelLegacyWork() {
+        try {
+            for (String workName : LEGACY_SYNC_WORKS) {
+                WorkManager.getInstance(application).cancelUniqueWork(workName);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Erreur lors de l'annulation des anciens travaux d'envoi", e);
+        }
     }
 
     /**
      * Nettoyer lors de la destruction de l'application
      */
     public void cleanup() {
+        networkDebouncer.cancel();
+        triggerExecutor.shutdown();
+
         try {
-            application.unregisterReceiver(connectivityReceiver);
+            connectivityManager.unregisterNetworkCallback(networkCallback);
         } catch (Exception e) {
             Log.e(TAG, "Erreur lors du nettoyage du SyncManager", e);
         }
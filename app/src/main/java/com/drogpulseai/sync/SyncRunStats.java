@@ -0,0 +1,173 @@
+package com.drogpulseai.sync;
+
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Mesures d'un passage de synchronisation : opérations tentées et réussies, octets échangés,
+ * histogramme des latences des requêtes et durée totale
+ * Les compteurs sont alimentés depuis les threads du pipeline (méthodes synchronisées)
+ */
+public class SyncRunStats {
+
+    // Passage en cours sur le thread qui envoie une opération (voir instrument)
+    private static final ThreadLocal<SyncRunStats> CURRENT = new ThreadLocal<>();
+
+    /** Bornes supérieures (exclues) des classes de latence, en ms ; la dernière classe est ouverte */
+    public static final long[] LATENCY_BUCKETS_MS = {100, 250, 500, 1000, 2500, 5000};
+
+    @SerializedName("started_at")
+    private long startedAt;
+
+    @SerializedName("wall_time_ms")
+    private long wallTimeMs;
+
+    @SerializedName("attempted")
+    private int attempted;
+
+    @SerializedName("succeeded")
+    private int succeeded;
+
+    @SerializedName("requests")
+    private int requests;
+
+    @SerializedName("failed_requests")
+    private int failedRequests;
+
+    @SerializedName("bytes_sent")
+    private long bytesSent;
+
+    @SerializedName("bytes_received")
+    private long bytesReceived;
+
+    // latency_histogram[i] : requêtes de durée < LATENCY_BUCKETS_MS[i] (et >= la borne précédente)
+    @SerializedName("latency_histogram")
+    private int[] latencyHistogram = new int[LATENCY_BUCKETS_MS.length + 1];
+
+    public SyncRunStats() {
+    }
+
+    public static SyncRunStats start() {
+        SyncRunStats stats = new SyncRunStats();
+        stats.startedAt = System.currentTimeMillis();
+        return stats;
+    }
+
+    public synchronized void finish() {
+        wallTimeMs = System.currentTimeMillis() - startedAt;
+    }
+
+    /**
+     * Résultat de l'envoi d'une opération de la file
+     */
+    public synchronized void recordOperation(boolean success) {
+        attempted++;
+        if (success) {
+            succeeded++;
+        }
+    }
+
+    /**
+     * Requête HTTP terminée (ou en échec) pendant le passage
+     */
+    public synchronized void recordRequest(long latencyMs, long sent, long received, boolean failed) {
+        requests++;
+        if (failed) {
+            failedRequests++;
+        }
+        bytesSent += Math.max(0, sent);
+        bytesReceived += Math.max(0, received);
+        latencyHistogram[bucketOf(latencyMs)]++;
+    }
+
+    /**
+     * Passage auquel rattacher les requêtes faites par le thread courant, ou null
+     */
+    public static SyncRunStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Compter les opérations envoyées par un handler ; pendant l'envoi, les requêtes du thread
+     * sont rattachées à ce passage
+     */
+    public SyncEngine.Handler instrument(SyncEngine.Handler handler) {
+        return new SyncEngine.Handler() {
+            @Override
+            public String getEntityType() {
+                return handler.getEntityType();
+            }
+
+            @Override
+            public List<SyncEngine.Ref> parentsOf(SyncOutboxEntity entry) {
+                return handler.parentsOf(entry);
+            }
+
+            @Override
+            public Object laneKey(SyncOutboxEntity entry) {
+                return handler.laneKey(entry);
+            }
+
+            @Override
+            public boolean push(SyncOutboxEntity entry) throws Exception {
+                SyncRunStats previous = CURRENT.get();
+                CURRENT.set(SyncRunStats.this);
+                boolean success = false;
+                try {
+                    success = handler.push(entry);
+                    return success;
+                } finally {
+                    recordOperation(success);
+                    restore(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Rattacher à ce passage les requêtes faites par le thread courant pendant action
+     * (envois hors SyncEngine : les opérations sont alors comptées par l'appelant)
+     */
+    public <T> T attach(Supplier<T> action) {
+        SyncRunStats previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private static void restore(SyncRunStats previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    static int bucketOf(long latencyMs) {
+        for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+            if (latencyMs < LATENCY_BUCKETS_MS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BUCKETS_MS.length;
+    }
+
+    public synchronized long getStartedAt() { return startedAt; }
+    public synchronized long getWallTimeMs() { return wallTimeMs; }
+    public synchronized int getAttempted() { return attempted; }
+    public synchronized int getSucceeded() { return succeeded; }
+    public synchronized int getRequests() { return requests; }
+    public synchronized int getFailedRequests() { return failedRequests; }
+    public synchronized long getBytesSent() { return bytesSent; }
+    public synchronized long getBytesReceived() { return bytesReceived; }
+
+    public synchronized int[] getLatencyHistogram() {
+        return latencyHistogram.clone();
+    }
+}
@@ -0,0 +1,117 @@
+package com.drogpulseai.sync;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Log;
+
+import com.drogpulseai.api.NetworkLog;
+import com.drogpulseai.api.RequestMetrics;
+import com.drogpulseai.utils.Config;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Historique local des derniers passages de synchronisation (tampon circulaire)
+ * Affiché dans les paramètres (section diagnostic) et exportable en JSON pour le support
+ */
+public class SyncTelemetry {
+    private static final String TAG = "SyncTelemetry";
+
+    private static final String PREF_NAME = "sync_telemetry";
+    private static final String KEY_RUNS = "runs";
+    private static final int DEFAULT_MAX_RUNS = 20;
+
+    private static final Type RUNS_TYPE = new TypeToken<List<SyncRunStats>>(){}.getType();
+
+    private static volatile SyncTelemetry instance;
+
+    private final SharedPreferences preferences;
+    private final Gson gson = new Gson();
+    private final int maxRuns;
+
+    private SyncTelemetry(Context context) {
+        preferences = context.getApplicationContext().getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        maxRuns = Math.max(1, Config.getIntProperty("sync.telemetry_max_runs", DEFAULT_MAX_RUNS));
+    }
+
+    public static SyncTelemetry getInstance(Context context) {
+        if (instance == null) {
+            synchronized (SyncTelemetry.class) {
+                if (instance == null) {
+                    instance = new SyncTelemetry(context);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Enregistrer un passage terminé ; les plus anciens sont oubliés au-delà de maxRuns
+     */
+    public synchronized void record(SyncRunStats run) {
+        List<SyncRunStats> runs = readRuns();
+        runs.add(run);
+        while (runs.size() > maxRuns) {
+            runs.remove(0);
+        }
+        preferences.edit().putString(KEY_RUNS, gson.toJson(runs, RUNS_TYPE)).apply();
+    }
+
+    /**
+     * Derniers passages, du plus récent au plus ancien
+     */
+    public synchronized List<SyncRunStats> getRecentRuns() {
+        List<SyncRunStats> runs = readRuns();
+        List<SyncRunStats> recent = new ArrayList<>(runs.size());
+        for (int i = runs.size() - 1; i >= 0; i--) {
+            recent.add(runs.get(i));
+        }
+        return recent;
+    }
+
+    public synchronized void clear() {
+        preferences.edit().remove(KEY_RUNS).apply();
+    }
+
+    /**
+     * Export pour le support : appareil, bornes de l'histogramme, durée des requêtes à froid
+     * et à chaud (RequestMetrics), derniers passages et journal réseau (NetworkLog)
+     * L'export est partagé avec d'autres applications : le journal réseau n'y figure que sans
+     * corps ni paramètres d'URL (voir NetworkLog.exportSnapshot)
+     */
+    public String exportJson() {
+        Gson prettyGson = new GsonBuilder().setPrettyPrinting().create();
+
+        JsonObject export = new JsonObject();
+        export.addProperty("exported_at", System.currentTimeMillis());
+        export.addProperty("device", Build.MANUFACTURER + " " + Build.MODEL);
+        export.addProperty("sdk_int", Build.VERSION.SDK_INT);
+        export.add("latency_buckets_ms", prettyGson.toJsonTree(SyncRunStats.LATENCY_BUCKETS_MS));
+        export.add("http", prettyGson.toJsonTree(RequestMetrics.getInstance().snapshot()));
+        export.add("runs", prettyGson.toJsonTree(getRecentRuns(), RUNS_TYPE));
+        export.add("network_log", prettyGson.toJsonTree(NetworkLog.getInstance().exportSnapshot()));
+        return prettyGson.toJson(export);
+    }
+
+    private List<SyncRunStats> readRuns() {
+        String json = preferences.getString(KEY_RUNS, null);
+        if (json != null) {
+            try {
+                List<SyncRunStats> runs = gson.fromJson(json, RUNS_TYPE);
+                if (runs != null) {
+                    return runs;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Historique de synchronisation illisible, réinitialisé", e);
+            }
+        }
+        return new ArrayList<>();
+    }
+}
@@ -0,0 +1,210 @@
+package com.drogpulseai.sync;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.drogpulseai.database.AppDatabase;
+import com.drogpulseai.database.ProductEntity;
+import com.drogpulseai.database.converter.ExpenseConverter;
+import com.drogpulseai.database.converter.ProductConverter;
+import com.drogpulseai.database.dao.CartDao;
+import com.drogpulseai.database.dao.SyncOutboxDao;
+import com.drogpulseai.database.entity.CartEntity;
+import com.drogpulseai.database.entity.ContactEntity;
+import com.drogpulseai.database.entity.ExpenseEntity;
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+import com.drogpulseai.models.Expense;
+import com.drogpulseai.models.Product;
+import com.drogpulseai.repository.ContactRepository;
+import com.drogpulseai.repository.ProductRepository;
+
+/**
+ * Enregistrement local d'une opération envoyée avec succès
+ *
+ * Une entité créée hors ligne porte un ID temporaire négatif ; le serveur lui attribue son ID.
+ * Dans une seule transaction Room : l'opération est retirée de la file, la ligne locale passe
+ * à l'ID serveur, et toutes les références à l'ID temporaire sont réécrites (copies JSON des
+ * paniers en file, paniers enregistrés localement). Aucune opération ne peut donc partir
+ * avec un ID temporaire déjà remplacé.
+ *
+ * Si l'entité a été modifiée pendant l'envoi, la version locale est gardée et l'opération
+ * reste en file, rattachée à l'ID serveur : le prochain envoi est une mise à jour, pas une
+ * seconde création.
+ */
+public class TempIdRemapper {
+    private static final String TAG = "TempIdRemapper";
+
+    private final Context context;
+    private final AppDatabase database;
+    private final SyncOutboxDao outboxDao;
+    private final CartDao cartDao;
+
+    public TempIdRemapper(Context context) {
+        this.context = context.getApplicationContext();
+        this.database = AppDatabase.getInstance(context);
+        this.outboxDao = database.syncOutboxDao();
+        this.cartDao = database.cartDao();
+    }
+
+    /**
+     * Écritures locales propres à un type d'entité, dans la transaction du remplacement
+     */
+    private interface LocalWrite {
+        /**
+         * @param completed true si l'opération a été retirée de la file (pas de modification
+         *                  pendant l'envoi) : la version du serveur peut remplacer la version locale
+         */
+        void apply(boolean completed);
+    }
+
+    /**
+     * Retirer de la file une opération devenue sans objet (entité supprimée localement)
+     * @return true si l'opération a été retirée
+     */
+    public boolean complete(SyncOutboxEntity entry) {
+        return outboxDao.deleteIfUnchanged(entry.getOutboxId(), entry.getRevision()) > 0;
+    }
+
+    /**
+     * Enregistrer le produit renvoyé par le serveur (création ou mise à jour)
+     * @return true si l'opération a été retirée de la file
+     */
+    public boolean applyProduct(SyncOutboxEntity entry, Product serverProduct) {
+        int localId = entry.getEntityId();
+        int serverId = serverProduct.getId();
+
+        boolean completed = apply(entry, serverId, done -> {
+            ProductEntity local = database.productDao().findProductById(localId);
+            if (localId != serverId) {
+                database.productDao().deleteProductById(localId);
+            }
+
+            if (done || local == null) {
+                ProductEntity server = ProductConverter.fromProduct(serverProduct);
+                server.setDirty(false);
+                database.productDao().upsertProduct(server);
+            } else if (localId != serverId) {
+                local.setId(serverId);
+                database.productDao().upsertProduct(local);
+            }
+        });
+
+        ProductRepository.getInstance(context).onIdRemapped(localId, serverId);
+        return completed;
+    }
+
+    /**
+     * Enregistrer le contact envoyé (les champs locaux sont gardés, seul l'ID change)
+     * @return true si l'opération a été retirée de la file
+     */
+    public boolean applyContact(SyncOutboxEntity entry, int serverId) {
+        int localId = entry.getEntityId();
+
+        // Les écritures différées du contact doivent être en base avant de changer son ID
+        ContactRepository.flushPendingWrites(context);
+
+        boolean completed = apply(entry, serverId, done -> {
+            ContactEntity local = database.contactDao().findContactByServerId(localId);
+            if (local == null) {
+                return;
+            }
+            local.setId(serverId);
+            local.setSynced(done);
+            database.contactDao().update(local);
+        });
+
+        ContactRepository.getInstance(context).onIdRemapped(localId, serverId);
+        return completed;
+    }
+
+    /**
+     * Enregistrer le frais renvoyé par le serveur
+     * @return true si l'opération a été retirée de la file
+     */
+    public boolean applyExpense(SyncOutboxEntity entry, Expense serverExpense) {
+        int localId = entry.getEntityId();
+        int serverId = serverExpense.getId();
+
+        return apply(entry, serverId, done -> {
+            ExpenseEntity local = database.expenseDao().findExpenseById(localId);
+            if (localId != serverId) {
+                database.expenseDao().deleteExpenseById(localId);
+            }
+
+            if (done || local == null) {
+                database.expenseDao().upsertExpense(ExpenseConverter.toEntity(serverExpense));
+            } else if (localId != serverId) {
+                local.setId(serverId);
+                database.expenseDao().upsertExpense(local);
+            }
+        });
+    }
+
+    /**
+     * Enregistrer le panier créé sur le serveur
+     * @return true si l'opération a été retirée de la file
+     */
+    public boolean applyCart(SyncOutboxEntity entry, int serverId) {
+        int localId = entry.getEntityId();
+
+        return apply(entry, serverId, done -> {
+            CartEntity local = cartDao.findCartById(localId);
+            if (local == null || localId == serverId) {
+                return;
+            }
+            cartDao.deleteCartById(localId);
+            local.setId(serverId);
+            cartDao.upsertCart(local);
+        });
+    }
+
+    private boolean apply(SyncOutboxEntity entry, int serverId, LocalWrite write) {
+        String entityType = entry.getEntityType();
+        int localId = entry.getEntityId();
+
+        boolean completed = database.runInTransaction(() -> {
+            boolean done = outboxDao.deleteIfUnchanged(entry.getOutboxId(), entry.getRevision()) > 0;
+
+            write.apply(done);
+
+            if (localId != serverId) {
+                if (!done) {
+                    // Modifiée pendant l'envoi : la prochaine tentative met à jour l'entité créée
+                    outboxDao.remapEntityId(entityType, localId, serverId);
+                }
+                remapReferences(entityType, localId, serverId);
+            }
+            return done;
+        });
+
+        if (localId != serverId) {
+            Log.d(TAG, entityType + " " + localId + " -> " + serverId);
+        }
+        return completed;
+    }
+
+    /**
+     * Réécrire les références à l'ID temporaire (appelé dans la transaction)
+     */
+    private void remapReferences(String entityType, int localId, int serverId) {
+        // Paniers en file : contact_id et product_id de la copie JSON
+        for (SyncOutboxEntity cart : outboxDao.getPendingEntries(SyncOutboxEntity.TYPE_CART)) {
+            String payload = CartPayload.remap(cart.getPayload(), entityType, localId, serverId);
+            if (payload != null) {
+                outboxDao.updatePayload(cart.getOutboxId(), payload);
+            }
+        }
+
+        // Paniers enregistrés localement
+        if (SyncOutboxEntity.TYPE_CONTACT.equals(entityType)) {
+            cartDao.remapContactId(localId, serverId);
+        } else if (SyncOutboxEntity.TYPE_PRODUCT.equals(entityType)) {
+            for (CartEntity cart : cartDao.getLocalCarts()) {
+                String itemsJson = CartPayload.remapItems(cart.getItemsJson(), localId, serverId);
+                if (itemsJson != null) {
+                    cartDao.updateItemsJson(cart.getId(), itemsJson);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.drogpulseai.sync;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Envoi concurrent et borné d'une file d'éléments (un appel réseau par élément)
+ *
+ * Les éléments qui partagent une même clé de dépendance forment une "voie" : ils sont envoyés
+ * l'un après l'autre, dans l'ordre de la file, et un échec arrête le reste de la voie (les
+ * éléments suivants dépendent de celui qui a échoué). Les voies différentes avancent en
+ * parallèle, au plus maxParallel à la fois. Un élément sans clé est indépendant.
+ */
+public class UploadPipeline {
+
+    /**
+     * Envoi d'un élément ; appelé depuis un thread du pipeline
+     */
+    public interface Upload<T> {
+        /**
+         * @return true si l'élément a été envoyé (et enregistré localement)
+         */
+        boolean upload(T item) throws Exception;
+    }
+
+    /**
+     * Clé de dépendance d'un élément (null : élément indépendant)
+     */
+    public interface DependencyKey<T> {
+        Object keyOf(T item);
+    }
+
+    /**
+     * Progression : nombre d'éléments traités (réussis, en échec ou abandonnés) sur le total
+     */
+    public interface ProgressListener {
+        void onProgress(int done, int total);
+    }
+
+    private final int maxParallel;
+
+    public UploadPipeline(int maxParallel) {
+        this.maxParallel = Math.max(1, maxParallel);
+    }
+
+    /**
+     * Envoyer tous les éléments et attendre la fin des envois
+     * Si le thread appelant est interrompu, les envois en cours sont interrompus
+     * et les éléments restants comptés en échec
+     * @return les éléments non envoyés (en échec ou abandonnés), dans l'ordre de la file
+     */
+    public <T> List<T> run(List<T> items, DependencyKey<T> dependencyKey,
+                           Upload<T> upload, ProgressListener listener) {
+        List<List<Integer>> lanes = buildLanes(items, dependencyKey);
+        if (lanes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        int total = items.size();
+        AtomicInteger done = new AtomicInteger();
+        AtomicIntegerArray sent = new AtomicIntegerArray(total);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxParallel, lanes.size()));
+        try {
+            for (List<Integer> lane : lanes) {
+                executor.execute(() -> runLane(items, lane, upload, sent, done, listener));
+            }
+            executor.shutdown();
+
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Attendre la fin des voies
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        List<T> notSent = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            if (sent.get(i) == 0) {
+                notSent.add(items.get(i));
+            }
+        }
+        return notSent;
+    }
+
+    private static <T> void runLane(List<T> items, List<Integer> lane, Upload<T> upload,
+                                    AtomicIntegerArray sent, AtomicInteger done, ProgressListener listener) {
+        int total = items.size();
+
+        for (int i = 0; i < lane.size(); i++) {
+            int index = lane.get(i);
+            boolean success;
+            try {
+                success = !Thread.currentThread().isInterrupted() && upload.upload(items.get(index));
+            } catch (Exception e) {
+                success = false;
+            }
+
+            if (!success) {
+                // L'élément et ceux qui en dépendent restent à envoyer
+                report(listener, done.addAndGet(lane.size() - i), total);
+                return;
+            }
+
+            sent.set(index, 1);
+            report(listener, done.incrementAndGet(), total);
+        }
+    }
+
+    private static void report(ProgressListener listener, int done, int total) {
+        if (listener != null) {
+            listener.onProgress(done, total);
+        }
+    }
+
+    /**
+     * Regrouper les positions des éléments par clé de dépendance, en gardant l'ordre de la file
+     */
+    private static <T> List<List<Integer>> buildLanes(List<T> items, DependencyKey<T> dependencyKey) {
+        Map<Object, List<Integer>> keyed = new HashMap<>();
+        List<List<Integer>> lanes = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            Object key = dependencyKey != null ? dependencyKey.keyOf(items.get(i)) : null;
+            List<Integer> lane = key != null ? keyed.get(key) : null;
+
+            if (lane == null) {
+                lane = new ArrayList<>();
+                lanes.add(lane);
+                if (key != null) {
+                    keyed.put(key, lane);
+                }
+            }
+            lane.add(i);
+        }
+        return lanes;
+    }
+}
@@ -68,4 +68,31 @@ public class Config {
             return defaultUrl;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Lire une propriété entière de config.properties
+     */
+    public static int getIntProperty(String key, int defaultValue) {
+        if (!initialized || properties == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(properties.getProperty(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            Log.e(TAG, "Valeur entière invalide pour " + key + ": " + e.getMessage());
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Lire une propriété booléenne de config.properties
+     */
+    public static boolean getBooleanProperty(String key, boolean defaultValue) {
+        if (!initialized || properties == null) {
+            return defaultValue;
+        }
+
+        return Boolean.parseBoolean(properties.getProperty(key, String.valueOf(defaultValue)).trim());
+    }
+}
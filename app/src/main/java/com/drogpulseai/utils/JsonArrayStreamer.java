@@ -0,0 +1,72 @@
+package com.drogpulseai.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture en flux d'un tableau JSON, par lots de taille fixe
+ * Seul le lot courant est gardé en mémoire, quelle que soit la taille du tableau
+ */
+public final class JsonArrayStreamer {
+
+    /**
+     * Reçoit chaque lot d'éléments lus
+     */
+    public interface ChunkConsumer<T> {
+        void accept(List<T> chunk);
+    }
+
+    private JsonArrayStreamer() {
+    }
+
+    /**
+     * Lire un tableau JSON élément par élément et transmettre les éléments par lots
+     * Les éléments null sont ignorés ; une valeur null à la place du tableau donne 0 élément
+     * @return le nombre d'éléments transmis
+     */
+    public static <T> int stream(Gson gson, Reader source, Class<T> type, int chunkSize,
+                                 ChunkConsumer<T> consumer) throws IOException {
+        TypeAdapter<T> adapter = gson.getAdapter(type);
+        int count = 0;
+
+        try (JsonReader reader = new JsonReader(source)) {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return 0;
+            }
+
+            List<T> chunk = new ArrayList<>(chunkSize);
+            reader.beginArray();
+
+            while (reader.hasNext()) {
+                T element = adapter.read(reader);
+                if (element == null) {
+                    continue;
+                }
+
+                chunk.add(element);
+                if (chunk.size() == chunkSize) {
+                    consumer.accept(chunk);
+                    count += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+
+            reader.endArray();
+
+            if (!chunk.isEmpty()) {
+                consumer.accept(chunk);
+                count += chunk.size();
+            }
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,175 @@
+package com.drogpulseai.utils;
+
+import java.text.Normalizer;
+
+/**
+ * Normalisation des textes pour la recherche plein texte locale (tables FTS)
+ * Le même traitement est appliqué au texte indexé et à la saisie de l'utilisateur,
+ * ce qui rend la recherche insensible à la casse et aux accents, en français comme en arabe
+ */
+public final class SearchNormalizer {
+
+    // Indicatif du pays retiré des numéros de téléphone indexés (+212 / 00212)
+    private static final String COUNTRY_CODE = "212";
+
+    private SearchNormalizer() {
+    }
+
+    /**
+     * Normaliser un texte : minuscules, sans accents ni signes diacritiques arabes,
+     * variantes de lettres arabes unifiées, ponctuation remplacée par des espaces
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+
+        // Décomposer les caractères accentués puis retirer les marques combinantes
+        // (accents latins, harakat arabes)
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        boolean lastWasSpace = true;
+
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+
+            if (Character.getType(c) == Character.NON_SPACING_MARK || c == '\u0640') {
+                // Marque combinante ou tatweel arabe
+                continue;
+            }
+
+            c = foldArabic(c);
+
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+                lastWasSpace = false;
+            } else if (!lastWasSpace) {
+                sb.append(' ');
+                lastWasSpace = true;
+            }
+        }
+
+        int length = sb.length();
+        if (length > 0 && sb.charAt(length - 1) == ' ') {
+            sb.setLength(length - 1);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Construire le texte indexé à partir de plusieurs champs
+     */
+    public static String buildSearchText(String... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (String field : fields) {
+            String normalized = normalize(field);
+            if (!normalized.isEmpty()) {
+                if (sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(normalized);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Convertir une saisie utilisateur en expression MATCH FTS avec recherche par préfixe
+     * Exemple : "Dolip 500" devient "dolip* 500*" (tous les termes doivent correspondre)
+     * @return l'expression MATCH, ou null si la saisie ne contient aucun terme
+     */
+    public static String toFtsQuery(String query) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (String token : normalized.split(" ")) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(token).append('*');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Motif LIKE correspondant au premier terme de la saisie, utilisé pour classer
+     * en tête les résultats dont le texte indexé commence par ce terme
+     */
+    public static String toPrefixPattern(String query) {
+        String normalized = normalize(query);
+        int space = normalized.indexOf(' ');
+        String firstToken = space > 0 ? normalized.substring(0, space) : normalized;
+        return firstToken + "%";
+    }
+
+    /**
+     * Normaliser un numéro de téléphone : chiffres uniquement, sans indicatif pays ni zéro initial
+     * Exemple : "+212 6 12-34-56-78", "00212612345678" et "0612345678" donnent "612345678"
+     */
+    public static String normalizePhone(String phone) {
+        if (phone == null || phone.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+
+        String number = digits.toString();
+        if (number.startsWith("00" + COUNTRY_CODE)) {
+            number = number.substring(2 + COUNTRY_CODE.length());
+        } else if (number.startsWith(COUNTRY_CODE) && number.length() > COUNTRY_CODE.length()) {
+            number = number.substring(COUNTRY_CODE.length());
+        }
+
+        // Zéro du préfixe national (06..., 05...)
+        while (number.length() > 1 && number.charAt(0) == '0') {
+            number = number.substring(1);
+        }
+        return number;
+    }
+
+    /**
+     * Indiquer si la saisie ressemble à un numéro de téléphone (chiffres et séparateurs usuels)
+     */
+    public static boolean looksLikePhone(String query) {
+        if (query == null) {
+            return false;
+        }
+
+        int digitCount = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitCount++;
+            } else if (c != '+' && c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+                return false;
+            }
+        }
+        return digitCount >= 2;
+    }
+
+    /**
+     * Unifier les variantes orthographiques courantes des lettres arabes
+     */
+    private static char foldArabic(char c) {
+        // Les alifs avec hamza ou madda sont déjà réduits par la décomposition NFD
+        switch (c) {
+            case '\u0671': // alif wasla
+                return '\u0627'; // alif
+            case '\u0649': // alif maqsura
+                return '\u064A'; // ya
+            case '\u0629': // ta marbuta
+                return '\u0647'; // ha
+            default:
+                return c;
+        }
+    }
+}
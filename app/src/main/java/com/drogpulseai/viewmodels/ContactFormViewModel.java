@@ -14,6 +14,7 @@ import com.drogpulseai.models.Contact;
 import com.drogpulseai.models.User;
 import com.drogpulseai.repository.ContactRepository;
 import com.drogpulseai.sync.SyncManager;
+import com.drogpulseai.utils.AppExecutors;
 import com.drogpulseai.utils.NetworkUtils;
 import com.drogpulseai.utils.SessionManager;
 
@@ -59,7 +60,7 @@ public class ContactFormViewModel extends AndroidViewModel {
         super(application);
 
         // Initialize repository
-        repository = new ContactRepository(application);
+        repository = ContactRepository.getInstance(application);
 
         // Initialize API client
         apiService = ApiClient.getApiService();
@@ -103,15 +104,27 @@ public class ContactFormViewModel extends AndroidViewModel {
 
         isLoading.setValue(true);
 
-        // First try to get from local cache
-        Contact cachedContact = repository.getContactById(contactId);
-        if (cachedContact != null) {
-            contact.setValue(cachedContact);
-            isLoading.setValue(false);
-            return;
-        }
+        // First try to get from local cache (Room: off the main thread)
+        AppExecutors.getInstance().diskIO().execute(() -> {
+            Contact cachedContact = repository.getContactById(contactId);
+
+            AppExecutors.getInstance().mainThread().execute(() -> {
+                if (cachedContact != null) {
+                    contact.setValue(cachedContact);
+                    isLoading.setValue(false);
+                    return;
+                }
+
+                // Then get fresh data from API
+                fetchContactDetails();
+            });
+        });
+    }
 
-        // Then get fresh data from API
+    /**
+     * Get fresh contact details from API
+     */
+    private void fetchContactDetails() {
         apiService.getContactDetails(contactId).enqueue(new Callback<Contact>() {
             @Override
             public void onResponse(Call<Contact> call, Response<Contact> response) {
@@ -263,27 +276,35 @@ public class ContactFormViewModel extends AndroidViewModel {
      * Save contact locally for later synchronization
      */
     public void saveContactLocally(Contact contact) {
-        // Mark contact as dirty for future synchronization
-        contact.setDirty(true);
+        boolean createMode = isCreateMode();
 
-        // Timestamp for tracking last modification
-        contact.setLastUpdated(System.currentTimeMillis());
+        // Room reads and writes: off the main thread
+        AppExecutors.getInstance().diskIO().execute(() -> {
+            // Version before this edit: only the changed fields will be sent
+            Contact before = createMode ? null : repository.getContactById(contact.getId());
 
-        // For new contacts, generate a temporary negative ID
-        if (isCreateMode()) {
-            // Find the lowest local ID to avoid conflicts
-            int tempId = repository.getLowestLocalId() - 1;
-            contact.setId(tempId);
-        }
+            // Mark contact as dirty for future synchronization
+            contact.setDirty(true);
 
-        // Save to local repository
-        repository.insertOrUpdateContact(contact);
+            // Timestamp for tracking last modification
+            contact.setLastUpdated(System.currentTimeMillis());
 
-        // Register this contact for future synchronization
-        SyncManager.getInstance(getApplication()).addContactForSync(contact.getId());
+            // For new contacts, generate a temporary negative ID
+            if (createMode) {
+                // Find the lowest local ID to avoid conflicts
+                int tempId = repository.getLowestLocalId() - 1;
+                contact.setId(tempId);
+            }
 
-        // Mark operation as successful
-        operationSuccess.setValue(true);
+            // Save to local repository
+            repository.insertOrUpdateContact(contact);
+
+            // Register this contact for future synchronization
+            SyncManager.getInstance(getApplication()).addContactForSync(contact.getId(), before);
+
+            // Mark operation as successful
+            operationSuccess.postValue(true);
+        });
     }
 
     /**
@@ -9,12 +9,14 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 
 import com.drogpulseai.api.ApiClient;
 import com.drogpulseai.api.ApiService;
 import com.drogpulseai.models.Product;
 import com.drogpulseai.models.User;
 import com.drogpulseai.repository.ProductRepository;
+import com.drogpulseai.utils.AppExecutors;
 import com.drogpulseai.utils.FileUtils;
 import com.drogpulseai.utils.NetworkResult;
 import com.drogpulseai.utils.SessionManager;
@@ -66,7 +68,7 @@ public class ProductFormViewModel extends AndroidViewModel {
         super(application);
 
         // Initialize repository
-        repository = new ProductRepository(application);
+        repository = ProductRepository.getInstance(application);
 
         // Initialize API client
         apiService = ApiClient.getApiService();
@@ -110,15 +112,27 @@ public class ProductFormViewModel extends AndroidViewModel {
 
         isLoading.setValue(true);
 
-        // First try to get from local cache
-        Product cachedProduct = repository.getProductById(productId);
-        if (cachedProduct != null) {
-            product.setValue(cachedProduct);
-            photoUrl.setValue(cachedProduct.getPhotoUrl());
-            isLoading.setValue(false);
-        }
+        // First try to get from local cache (Room: off the main thread)
+        AppExecutors.getInstance().diskIO().execute(() -> {
+            Product cachedProduct = repository.getProductById(productId);
+
+            AppExecutors.getInstance().mainThread().execute(() -> {
+                if (cachedProduct != null) {
+                    product.setValue(cachedProduct);
+                    photoUrl.setValue(cachedProduct.getPhotoUrl());
+                    isLoading.setValue(false);
+                }
 
-        // Then get fresh data from API
+                // Then get fresh data from API (after the cache, so it is never overwritten by it)
+                fetchProductDetails();
+            });
+        });
+    }
+
+    /**
+     * Get fresh product details from API
+     */
+    private void fetchProductDetails() {
         apiService.getProductDetails(productId).enqueue(new Callback<Product>() {
             @Override
             public void onResponse(Call<Product> call, Response<Product> response) {
@@ -360,34 +374,37 @@ public class ProductFormViewModel extends AndroidViewModel {
      * @param product Le produit à sauvegarder
      */
     public void saveProductLocally(Product product) {
-        // Marquer le produit comme "dirty" pour la synchronisation future
-        product.setDirty(true);
+        boolean createMode = isCreateMode();
 
-        // Timestamp pour suivi de dernière modification
-        product.setLastUpdated(System.currentTimeMillis());
+        // Lectures et écritures Room : hors du thread principal
+        AppExecutors.getInstance().diskIO().execute(() -> {
+            // Version avant modification : seuls les champs changés seront envoyés
+            Product before = createMode ? null : repository.getProductById(product.getId());
 
-        // Sauvegarder en local via le repository
-        repository.insertOrUpdateProduct(product);
+            // Marquer le produit comme "dirty" pour la synchronisation future
+            product.setDirty(true);
 
-        // Si c'est une création, on génère un ID temporaire négatif
-        // (les IDs du serveur sont toujours positifs)
-        if (isCreateMode()) {
-            // Trouver l'ID local le plus bas pour éviter les conflits
-            int tempId = repository.getLowestLocalId() - 1;
-            product.setId(tempId);
-            repository.insertOrUpdateProduct(product);
-        }
+            // Timestamp pour suivi de dernière modification
+            product.setLastUpdated(System.currentTimeMillis());
 
-        // Si c'est une édition, on met à jour le produit dans le cache
-        if (!isCreateMode()) {
-            repository.insertOrUpdateProduct(product);
-        }
+            // Une création reçoit un ID temporaire négatif (les IDs du serveur sont toujours positifs),
+            // attribué avec l'ajout à la file
+            if (createMode) {
+                product.setId(0);
+            }
 
-        // Enregistrer ce produit pour synchronisation future
-        SyncManager.getInstance(getApplication()).addProductForSync(product.getId());
+            // Enregistrer le produit et l'ajouter à la file de synchronisation, ensemble
+            try {
+                SyncManager.getInstance(getApplication()).addProductForSync(product, before);
+            } catch (Exception e) {
+                Log.e(TAG, "Error saving product locally", e);
+                errorMessage.postValue("Erreur lors de l'enregistrement local du produit");
+                return;
+            }
 
-        // Marquer l'opération comme réussie
-        operationSuccess.setValue(true);
+            // Marquer l'opération comme réussie
+            operationSuccess.postValue(true);
+        });
     }
 
     /**
@@ -400,14 +417,14 @@ public class ProductFormViewModel extends AndroidViewModel {
     /**
      * Vérifier s'il y a des produits en attente de synchronisation
      */
-    public boolean hasPendingProducts() {
-        return SyncManager.getInstance(getApplication()).hasPendingProducts();
+    public LiveData<Boolean> hasPendingProducts() {
+        return Transformations.map(getPendingProductCount(), count -> count != null && count > 0);
     }
 
     /**
      * Obtenir le nombre de produits en attente de synchronisation
      */
-    public int getPendingProductCount() {
-        return SyncManager.getInstance(getApplication()).getPendingCount();
+    public LiveData<Integer> getPendingProductCount() {
+        return SyncManager.getInstance(getApplication()).getPendingProductCountLiveData();
     }
 }
\ No newline at end of file
@@ -1,4 +1,160 @@
 package com.drogpulseai.workers;
 
-public class BatchProductSyncWorker {
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.drogpulseai.api.ApiClient;
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+import com.drogpulseai.models.Product;
+import com.drogpulseai.repository.ProductRepository;
+import com.drogpulseai.sync.FieldDelta;
+import com.drogpulseai.sync.ProductBatchUploader;
+import com.drogpulseai.sync.SyncManager;
+import com.drogpulseai.sync.SyncRunStats;
+import com.drogpulseai.sync.SyncTelemetry;
+import com.drogpulseai.sync.TempIdRemapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Worker pour synchroniser les produits en attente par lots (un appel réseau par lot)
+ * Seuls les produits en échec restent dans la file de synchronisation
+ * Comme ProductSyncHandler, les mises à jour partent avec leurs seuls champs modifiés et leur
+ * version serveur de référence ; le passage est enregistré dans SyncTelemetry comme ceux de SyncWorker
+ */
+public class BatchProductSyncWorker extends Worker {
+    private static final String TAG = "BatchProductSyncWorker";
+
+    // Taille des lots (donnée d'entrée facultative)
+    public static final String KEY_CHUNK_SIZE = "chunk_size";
+    public static final int DEFAULT_CHUNK_SIZE = 50;
+
+    private final ProductRepository repository;
+    private final SyncManager syncManager;
+    private final TempIdRemapper remapper;
+
+    public BatchProductSyncWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+
+        repository = ProductRepository.getInstance(context);
+        syncManager = SyncManager.getInstance((android.app.Application) context.getApplicationContext());
+        remapper = new TempIdRemapper(context);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        // Mesures du passage (opérations, octets, latences), conservées pour le diagnostic
+        SyncRunStats run = SyncRunStats.start();
+
+        syncManager.beginProductSync();
+        try {
+            return syncDueProducts(run);
+        } finally {
+            run.finish();
+            if (run.getAttempted() > 0) {
+                SyncTelemetry.getInstance(getApplicationContext()).record(run);
+            }
+
+            // Planifier le passage suivant s'il reste des produits en file
+            syncManager.endProductSync();
+        }
+    }
+
+    private Result syncDueProducts(SyncRunStats run) {
+        Log.d(TAG, "Démarrage de la synchronisation des produits par lots");
+
+        // Relire la file : elle a pu changer depuis la planification du travail, et les
+        // produits en attente de leur délai de nouvelle tentative ne sont pas renvoyés
+        Map<Integer, SyncOutboxEntity> entries = new HashMap<>();
+        List<Product> products = new ArrayList<>();
+        Map<Integer, Map<String, Object>> patches = new HashMap<>();
+
+        for (int productId : syncManager.getDueProducts()) {
+            SyncOutboxEntity entry = syncManager.getPendingProduct(productId);
+            if (entry == null) {
+                continue;
+            }
+
+            Product product = repository.getProductById(productId);
+            if (product == null) {
+                // Produit supprimé localement : plus rien à envoyer
+                syncManager.completeSync(entry);
+                continue;
+            }
+
+            product.setDirty(false);
+
+            // Mise à jour dont les champs modifiés sont connus : envoi partiel
+            if (productId > 0 && entry.getChangedFields() != null) {
+                Set<String> fields = FieldDelta.split(entry.getChangedFields());
+                if (fields.isEmpty()) {
+                    // Enregistré sans changement : rien à envoyer
+                    remapper.applyProduct(entry, product);
+                    run.recordOperation(true);
+                    continue;
+                }
+
+                Map<String, Object> patch = FieldDelta.patch(product, fields, productId, entry.getBaseUpdatedAt());
+                if (patch != null) {
+                    patches.put(productId, patch);
+                }
+            }
+
+            entries.put(productId, entry);
+            products.add(product);
+        }
+
+        if (products.isEmpty()) {
+            Log.d(TAG, "Aucun produit à synchroniser");
+            return Result.success();
+        }
+
+        int chunkSize = getInputData().getInt(KEY_CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
+        ProductBatchUploader uploader = new ProductBatchUploader(ApiClient.getApiService(), chunkSize);
+
+        int[] failed = {0};
+        ProductBatchUploader.Callback callback = new ProductBatchUploader.Callback() {
+            @Override
+            public void onProductSynced(int clientId, Product serverProduct) {
+                run.recordOperation(true);
+                applyServerProduct(entries.get(clientId), clientId, serverProduct);
+            }
+
+            @Override
+            public void onProductFailed(int clientId, String reason) {
+                Log.w(TAG, "Échec de la synchronisation du produit " + clientId + ": " + reason);
+                run.recordOperation(false);
+                syncManager.recordSyncFailure(entries.get(clientId), reason);
+                failed[0]++;
+            }
+        };
+
+        // Les requêtes des lots sont rattachées au passage (octets, latences)
+        int synced = run.attach(() -> uploader.upload(products, patches, callback));
+
+        Log.d(TAG, synced + " produits synchronisés, " + failed[0] + " en échec");
+
+        // Les produits en échec sont restés en file, chacun avec son délai de nouvelle tentative
+        return Result.success();
+    }
+
+    /**
+     * Enregistrer localement le produit renvoyé par le serveur
+     * Un produit créé hors ligne change d'ID : l'ID temporaire est remplacé par l'ID serveur,
+     * références des paniers en file comprises (voir TempIdRemapper)
+     */
+    private void applyServerProduct(SyncOutboxEntity entry, int clientId, Product serverProduct) {
+        if (!remapper.applyProduct(entry, serverProduct)) {
+            Log.d(TAG, "Produit " + clientId + " modifié pendant l'envoi, conservé en file");
+        }
+    }
 }
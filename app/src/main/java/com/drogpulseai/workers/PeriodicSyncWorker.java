@@ -1,4 +1,295 @@
 package com.drogpulseai.workers;
 
-public class PeriodicSyncWorker {
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.drogpulseai.api.ApiClient;
+import com.drogpulseai.api.ApiService;
+import com.drogpulseai.database.AppDatabase;
+import com.drogpulseai.database.converter.CartConverter;
+import com.drogpulseai.database.converter.ExpenseConverter;
+import com.drogpulseai.database.dao.CartDao;
+import com.drogpulseai.database.entity.CartEntity;
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+import com.drogpulseai.models.Cart;
+import com.drogpulseai.models.Expense;
+import com.drogpulseai.models.Product;
+import com.drogpulseai.models.User;
+import com.drogpulseai.repository.ProductRepository;
+import com.drogpulseai.utils.NetworkResult;
+import com.drogpulseai.utils.SessionManager;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import retrofit2.Response;
+
+/**
+ * Synchronisation périodique incrémentale (serveur -> local)
+ * Pour chaque type (produits, frais, paniers), seuls les enregistrements modifiés depuis
+ * le dernier passage sont demandés au serveur (paramètre updated_since), puis enregistrés
+ * dans Room. Le repère est le updated_at le plus récent déjà reçu ; il n'avance qu'une fois
+ * les données enregistrées, un échec fait donc redemander les mêmes modifications.
+ *
+ * Le serveur renvoie les enregistrements dont updated_at >= updated_since : ceux qui
+ * partagent la seconde du repère sont reçus deux fois, ce qui est sans effet (upsert).
+ * Un serveur qui ignore le paramètre renvoie tout, ce qui reste correct.
+ *
+ * Les enregistrements modifiés localement et encore dans la file d'envoi (sync_outbox) ne sont
+ * pas écrasés : l'envoi les transmet, et un passage suivant rapporte la version serveur.
+ */
+public class PeriodicSyncWorker extends Worker {
+    private static final String TAG = "PeriodicSyncWorker";
+
+    // Nom du travail périodique unique
+    public static final String WORK_NAME = "periodic_delta_sync_work";
+    public static final int DEFAULT_INTERVAL_MINUTES = 60;
+
+    // Repères (updated_at le plus récent reçu), par type et par utilisateur
+    private static final String PREF_NAME = "periodic_sync";
+    private static final String KEY_PRODUCTS_SINCE = "products_updated_since_";
+    private static final String KEY_EXPENSES_SINCE = "expenses_updated_since_";
+    private static final String KEY_CARTS_SINCE = "carts_updated_since_";
+
+    private static final int CART_PAGE_SIZE = 100;
+
+    private final SharedPreferences preferences;
+    private final SessionManager sessionManager;
+    private final AppDatabase database;
+    private final Gson gson = new Gson();
+
+    public PeriodicSyncWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+
+        preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        sessionManager = new SessionManager(context);
+        database = AppDatabase.getInstance(context);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        User user = sessionManager.getUser();
+        if (!sessionManager.isLoggedIn() || user == null) {
+            Log.d(TAG, "Aucun utilisateur connecté, synchronisation ignorée");
+            return Result.success();
+        }
+
+        int userId = user.getId();
+        ApiService apiService = ApiClient.getApiService();
+
+        // Chaque type est indépendant : un échec n'empêche pas les autres d'avancer
+        boolean complete = pullProducts(apiService, userId);
+        complete &= pullExpenses(apiService, userId);
+        complete &= pullCarts(apiService, userId);
+
+        return complete ? Result.success() : Result.retry();
+    }
+
+    /**
+     * Produits modifiés depuis le dernier passage
+     * Les produits modifiés localement et pas encore envoyés ne sont pas écrasés
+     */
+    private boolean pullProducts(ApiService apiService, int userId) {
+        String key = KEY_PRODUCTS_SINCE + userId;
+        String since = preferences.getString(key, null);
+
+        try {
+            Response<List<Product>> response = apiService.getProductsUpdatedSince(userId, since).execute();
+            if (!response.isSuccessful() || response.body() == null) {
+                Log.w(TAG, "Produits : erreur serveur " + response.code());
+                return false;
+            }
+
+            List<Product> products = response.body();
+            int written = ProductRepository.getInstance(getApplicationContext())
+                    .applyServerChanges(userId, products);
+
+            saveMark(key, advanceMark(since, products, Product::getUpdatedAt));
+
+            Log.d(TAG, "Produits : " + products.size() + " modifiés, " + written + " enregistrés");
+            return true;
+        } catch (IOException e) {
+            Log.w(TAG, "Produits : erreur réseau", e);
+            return false;
+        } catch (Exception e) {
+            Log.e(TAG, "Produits : erreur lors de l'enregistrement", e);
+            return false;
+        }
+    }
+
+    /**
+     * Frais modifiés depuis le dernier passage
+     * Les frais modifiés localement et pas encore envoyés ne sont pas écrasés
+     */
+    private boolean pullExpenses(ApiService apiService, int userId) {
+        String key = KEY_EXPENSES_SINCE + userId;
+        String since = preferences.getString(key, null);
+
+        try {
+            Response<List<Expense>> response = apiService.getExpensesUpdatedSince(userId, since).execute();
+            if (!response.isSuccessful() || response.body() == null) {
+                Log.w(TAG, "Frais : erreur serveur " + response.code());
+                return false;
+            }
+
+            List<Expense> expenses = response.body();
+            if (!expenses.isEmpty()) {
+                database.runInTransaction(() -> {
+                    Set<Integer> pendingIds = pendingIds(SyncOutboxEntity.TYPE_EXPENSE);
+
+                    List<Expense> unchanged = new ArrayList<>(expenses.size());
+                    for (Expense expense : expenses) {
+                        if (!pendingIds.contains(expense.getId())) {
+                            unchanged.add(expense);
+                        }
+                    }
+                    database.expenseDao().upsertExpenses(ExpenseConverter.toEntityList(unchanged));
+                });
+            }
+
+            saveMark(key, advanceMark(since, expenses, Expense::getUpdatedAt));
+
+            Log.d(TAG, "Frais : " + expenses.size() + " modifiés");
+            return true;
+        } catch (IOException e) {
+            Log.w(TAG, "Frais : erreur réseau", e);
+            return false;
+        } catch (Exception e) {
+            Log.e(TAG, "Frais : erreur lors de l'enregistrement", e);
+            return false;
+        }
+    }
+
+    /**
+     * Paniers modifiés depuis le dernier passage (liste paginée côté serveur)
+     * Toutes les pages sont lues avant d'écrire, pour n'avancer le repère que sur un ensemble complet
+     * Les paniers encore dans la file d'envoi ne sont pas écrasés
+     */
+    @SuppressWarnings("unchecked")
+    private boolean pullCarts(ApiService apiService, int userId) {
+        String key = KEY_CARTS_SINCE + userId;
+        String since = preferences.getString(key, null);
+
+        try {
+            List<Cart> carts = new ArrayList<>();
+            int page = 1;
+            int totalPages = 1;
+
+            do {
+                Response<NetworkResult<Map<String, Object>>> response =
+                        apiService.getUserCartsUpdatedSince(userId, since, page, CART_PAGE_SIZE).execute();
+                if (!response.isSuccessful() || response.body() == null || !response.body().isSuccess()) {
+                    Log.w(TAG, "Paniers : erreur serveur " + response.code());
+                    return false;
+                }
+
+                Map<String, Object> data = response.body().getData();
+                if (data == null) {
+                    break;
+                }
+
+                List<Map<String, Object>> pageCarts = (List<Map<String, Object>>) data.get("carts");
+                if (pageCarts != null) {
+                    for (Map<String, Object> cartMap : pageCarts) {
+                        carts.add(gson.fromJson(gson.toJsonTree(cartMap), Cart.class));
+                    }
+                }
+
+                Map<String, Object> pagination = (Map<String, Object>) data.get("pagination");
+                if (pagination != null && pagination.get("total_pages") instanceof Number) {
+                    totalPages = ((Number) pagination.get("total_pages")).intValue();
+                }
+                page++;
+            } while (page <= totalPages);
+
+            if (!carts.isEmpty()) {
+                CartDao cartDao = database.cartDao();
+                database.runInTransaction(() -> {
+                    Set<Integer> pendingIds = pendingIds(SyncOutboxEntity.TYPE_CART);
+
+                    List<CartEntity> entities = new ArrayList<>(carts.size());
+                    for (Cart cart : carts) {
+                        if (pendingIds.contains(cart.getId())) {
+                            continue;
+                        }
+
+                        CartEntity entity = CartConverter.toEntity(cart);
+
+                        // La liste ne contient pas toujours les lignes : garder celles déjà connues
+                        if (entity.getItemsJson() == null) {
+                            CartEntity existing = cartDao.findCartById(cart.getId());
+                            if (existing != null) {
+                                entity.setItemsJson(existing.getItemsJson());
+                            }
+                        }
+                        entities.add(entity);
+                    }
+                    cartDao.upsertCarts(entities);
+                });
+            }
+
+            saveMark(key, advanceMark(since, carts, Cart::getUpdatedAt));
+
+            Log.d(TAG, "Paniers : " + carts.size() + " modifiés");
+            return true;
+        } catch (IOException e) {
+            Log.w(TAG, "Paniers : erreur réseau", e);
+            return false;
+        } catch (Exception e) {
+            Log.e(TAG, "Paniers : erreur lors de l'enregistrement", e);
+            return false;
+        }
+    }
+
+    private Set<Integer> pendingIds(String entityType) {
+        return new HashSet<>(database.syncOutboxDao().getPendingIds(entityType));
+    }
+
+    /**
+     * Enregistrer le nouveau repère (null : inchangé)
+     */
+    private void saveMark(String key, String mark) {
+        if (mark != null) {
+            preferences.edit().putString(key, mark).apply();
+        }
+    }
+
+    /**
+     * Repère après un passage : le updated_at le plus récent parmi le repère courant et les
+     * enregistrements reçus
+     * @return le nouveau repère, ou null s'il ne change pas
+     */
+    static <T> String advanceMark(String since, List<T> received, Function<T, String> updatedAtOf) {
+        String latest = since;
+        for (T item : received) {
+            latest = latestOf(latest, updatedAtOf.apply(item));
+        }
+        return latest != null && !latest.equals(since) ? latest : null;
+    }
+
+    /**
+     * Le plus récent de deux updated_at serveur ("yyyy-MM-dd HH:mm:ss" : l'ordre alphabétique
+     * est l'ordre chronologique)
+     */
+    static String latestOf(String current, String candidate) {
+        if (candidate == null || candidate.isEmpty()) {
+            return current;
+        }
+        if (current == null || candidate.compareTo(current) > 0) {
+            return candidate;
+        }
+        return current;
+    }
 }
@@ -0,0 +1,125 @@
+package com.drogpulseai.workers;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.drogpulseai.api.ApiClient;
+import com.drogpulseai.api.ApiService;
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+import com.drogpulseai.repository.ContactRepository;
+import com.drogpulseai.repository.ProductRepository;
+import com.drogpulseai.sync.CartSyncHandler;
+import com.drogpulseai.sync.ContactSyncHandler;
+import com.drogpulseai.sync.ExpenseSyncHandler;
+import com.drogpulseai.sync.ProductSyncHandler;
+import com.drogpulseai.sync.SyncEngine;
+import com.drogpulseai.sync.SyncManager;
+import com.drogpulseai.sync.SyncRunStats;
+import com.drogpulseai.sync.SyncTelemetry;
+import com.drogpulseai.sync.TempIdRemapper;
+import com.drogpulseai.sync.UploadPipeline;
+import com.drogpulseai.utils.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Worker pour synchroniser en arrière-plan toutes les opérations en file
+ * (contacts, produits, frais, paniers), dans l'ordre de leurs dépendances
+ */
+public class SyncWorker extends Worker {
+    private static final String TAG = "SyncWorker";
+
+    private static final int DEFAULT_MAX_PARALLEL_UPLOADS = 4;
+
+    private final ContactRepository contactRepository;
+    private final SyncManager syncManager;
+    private final List<SyncEngine.Handler> handlers = new ArrayList<>();
+
+    public SyncWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+
+        contactRepository = ContactRepository.getInstance(context);
+        syncManager = SyncManager.getInstance((android.app.Application) context.getApplicationContext());
+
+        ApiService apiService = ApiClient.getApiService();
+        TempIdRemapper remapper = new TempIdRemapper(context);
+
+        for (String entityType : syncManager.getSyncEntityTypes()) {
+            switch (entityType) {
+                case SyncOutboxEntity.TYPE_CONTACT:
+                    handlers.add(new ContactSyncHandler(contactRepository, apiService, remapper));
+                    break;
+                case SyncOutboxEntity.TYPE_PRODUCT:
+                    handlers.add(new ProductSyncHandler(
+                            ProductRepository.getInstance(context), apiService, remapper));
+                    break;
+                case SyncOutboxEntity.TYPE_EXPENSE:
+                    handlers.add(new ExpenseSyncHandler(apiService, remapper));
+                    break;
+                case SyncOutboxEntity.TYPE_CART:
+                    handlers.add(new CartSyncHandler(apiService, remapper));
+                    break;
+                default:
+                    Log.w(TAG, "Type d'entité non pris en charge: " + entityType);
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        // Mesures du passage (opérations, octets, latences), conservées pour le diagnostic
+        SyncRunStats run = SyncRunStats.start();
+
+        syncManager.beginSync();
+        try {
+            return syncDueEntries(run);
+        } finally {
+            // Les passages sans opération due ne prennent pas de place dans l'historique
+            run.finish();
+            if (run.getAttempted() > 0) {
+                SyncTelemetry.getInstance(getApplicationContext()).record(run);
+            }
+
+            // Planifier le passage suivant s'il reste des opérations en file
+            syncManager.endSync();
+        }
+    }
+
+    private Result syncDueEntries(SyncRunStats run) {
+        List<SyncEngine.Handler> instrumented = new ArrayList<>(handlers.size());
+        for (SyncEngine.Handler handler : handlers) {
+            instrumented.add(run.instrument(handler));
+        }
+
+        // Envois en parallèle, bornés par sync.max_parallel_uploads
+        SyncEngine engine = new SyncEngine(syncManager, new UploadPipeline(
+                Config.getIntProperty("sync.max_parallel_uploads", DEFAULT_MAX_PARALLEL_UPLOADS)), instrumented);
+
+        Log.d(TAG, "Démarrage de la synchronisation");
+
+        // Relire la file : seules les opérations encore en attente, et dont le délai de
+        // nouvelle tentative est écoulé, sont envoyées. Les entités créées hors ligne partent
+        // avant les opérations qui les référencent, dans ce même passage
+        List<SyncOutboxEntity> notSent = engine.run(
+                (done, total) -> setProgressAsync(SyncManager.progressData(done, total)));
+
+        // Point de durabilité : écrire les mises à jour locales des contacts avant de rendre la main
+        contactRepository.flush();
+
+        // Les opérations en échec restent en file avec leur propre délai de nouvelle tentative :
+        // le passage suivant est planifié à la première échéance, sans relancer tout le lot
+        if (!notSent.isEmpty()) {
+            Log.d(TAG, notSent.size() + " opérations n'ont pas pu être synchronisées");
+        } else {
+            Log.d(TAG, "Synchronisation terminée avec succès");
+        }
+
+        return Result.success();
+    }
+}
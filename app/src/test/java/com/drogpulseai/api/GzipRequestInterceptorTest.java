@@ -0,0 +1,217 @@
+package com.drogpulseai.api;
+
+import com.google.gson.Gson;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.Okio;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compression des requêtes contre un serveur HTTP local simulant carts/create.php sur un lien
+ * lent (corps de requête lus à environ 80 Ko/s)
+ */
+public class GzipRequestInterceptorTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private final Gson gson = new Gson();
+    private MockWebServer server;
+    private GzipRequestInterceptor interceptor;
+    private OkHttpClient client;
+
+    // Comportement du serveur simulé
+    private boolean advertiseGzip = true;
+    private boolean rejectGzip = false;
+
+    // Requêtes reçues : Content-Encoding et corps décompressé
+    private final List<String> encodings = new ArrayList<>();
+    private final List<String> bodies = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return handleCreate(request);
+            }
+
+            // Limite le débit de lecture des corps de requête
+            @Override
+            public MockResponse peek() {
+                return new MockResponse().throttleBody(4 * 1024, 50, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+
+        interceptor = new GzipRequestInterceptor(1024);
+        client = new OkHttpClient.Builder()
+                .addInterceptor(interceptor)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void largeCart_isGzippedOnceServerAdvertisesSupport() throws IOException {
+        String cart = cartJson(200);
+        RequestMetrics.Snapshot before = RequestMetrics.getInstance().snapshot();
+
+        // Premier envoi : support inconnu, corps non compressé
+        long start = System.nanoTime();
+        post(cart);
+        long plainMs = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(Boolean.TRUE, interceptor.getHostSupport(server.getHostName()));
+
+        start = System.nanoTime();
+        post(cart);
+        long gzipMs = (System.nanoTime() - start) / 1_000_000;
+
+        RequestMetrics.Snapshot after = RequestMetrics.getInstance().snapshot();
+        long original = after.gzipOriginalBytes - before.gzipOriginalBytes;
+        long sent = after.gzipSentBytes - before.gzipSentBytes;
+
+        assertEquals("", encodings.get(0));
+        assertEquals("gzip", encodings.get(1));
+        assertEquals(cart, bodies.get(0));
+        assertEquals(cart, bodies.get(1));
+        assertEquals(1, after.gzipRequests - before.gzipRequests);
+        assertEquals(cart.getBytes("UTF-8").length, original);
+        assertTrue("Compression insuffisante : " + sent + "/" + original, sent * 4 < original);
+        assertTrue("Envoi compressé plus lent : " + gzipMs + " ms contre " + plainMs + " ms", gzipMs < plainMs);
+
+        System.out.println("GzipRequestInterceptor : panier de " + original + " octets envoyé en "
+                + sent + " octets (ratio " + String.format("%.2f", (double) sent / original) + "), "
+                + plainMs + " ms sans compression, " + gzipMs + " ms avec");
+    }
+
+    @Test
+    public void smallBody_isSentUncompressed() throws IOException {
+        post(cartJson(1));
+        post(cartJson(1));
+
+        assertEquals("", encodings.get(1));
+    }
+
+    @Test
+    public void serverWithoutAdvertisement_neverReceivesGzip() throws IOException {
+        advertiseGzip = false;
+        String cart = cartJson(200);
+
+        post(cart);
+        post(cart);
+
+        assertEquals("", encodings.get(1));
+        assertNull(interceptor.getHostSupport(server.getHostName()));
+    }
+
+    @Test
+    public void rejectedGzip_isResentUncompressedAndNotCompressedAgain() throws IOException {
+        String cart = cartJson(200);
+        post(cart);
+
+        rejectGzip = true;
+        assertEquals(200, post(cart));
+        assertEquals(Boolean.FALSE, interceptor.getHostSupport(server.getHostName()));
+
+        post(cart);
+
+        // Envoi initial, envoi compressé refusé, nouvel envoi sans compression, puis sans compression
+        assertEquals(4, server.getRequestCount());
+        assertEquals("gzip", encodings.get(1));
+        assertEquals("", encodings.get(2));
+        assertEquals("", encodings.get(3));
+        assertEquals(cart, bodies.get(2));
+    }
+
+    @Test
+    public void acceptEncoding_isParsed() {
+        assertTrue(GzipRequestInterceptor.acceptsGzip("gzip"));
+        assertTrue(GzipRequestInterceptor.acceptsGzip("deflate, GZIP;q=0.8"));
+        assertFalse(GzipRequestInterceptor.acceptsGzip("gzip;q=0"));
+        assertFalse(GzipRequestInterceptor.acceptsGzip("identity"));
+        assertFalse(GzipRequestInterceptor.acceptsGzip(null));
+    }
+
+    private int post(String json) throws IOException {
+        Request request = new Request.Builder()
+                .url(server.url("/api/carts/create.php"))
+                .post(RequestBody.create(json, JSON))
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.code();
+        }
+    }
+
+    private MockResponse handleCreate(RecordedRequest request) {
+        String encoding = request.getHeader("Content-Encoding");
+        boolean gzipped = "gzip".equals(encoding);
+        encodings.add(encoding != null ? encoding : "");
+        bodies.add(gzipped ? gunzip(request.getBody()) : request.getBody().readUtf8());
+
+        if (gzipped && rejectGzip) {
+            return new MockResponse().setResponseCode(415);
+        }
+
+        MockResponse response = new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"success\":true,\"cart\":{\"id\":" + server.getRequestCount() + "}}");
+        if (advertiseGzip) {
+            response.setHeader("Accept-Encoding", "gzip");
+        }
+        return response;
+    }
+
+    private static String gunzip(Buffer body) {
+        try {
+            return Okio.buffer(Okio.source(new GZIPInputStream(body.inputStream()))).readUtf8();
+        } catch (IOException e) {
+            throw new AssertionError("Corps gzip invalide", e);
+        }
+    }
+
+    private String cartJson(int itemCount) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 1; i <= itemCount; i++) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("product_id", i);
+            item.put("quantity", 1 + i % 5);
+            item.put("price", 12.5 + i);
+            item.put("prix_min_vente", 10.0 + i);
+            item.put("notes", "Livraison avant midi");
+            items.add(item);
+        }
+        Map<String, Object> cart = new HashMap<>();
+        cart.put("user_id", 3);
+        cart.put("contact_id", 17);
+        cart.put("notes", "Commande hebdomadaire");
+        cart.put("idempotency_key", "8f14e45f-ceea-467f-a0e6-7c3c1f0b5d2a");
+        cart.put("items", items);
+        return gson.toJson(cart);
+    }
+}
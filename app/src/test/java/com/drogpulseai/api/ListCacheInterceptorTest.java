@@ -0,0 +1,175 @@
+package com.drogpulseai.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cache des listes contre un serveur HTTP local qui envoie les en-têtes par défaut des sessions
+ * PHP (no-store) avec un ETag, et répond 304 quand If-None-Match correspond à la version courante
+ */
+public class ListCacheInterceptorTest {
+
+    private static final String LAST_MODIFIED = "Mon, 12 Oct 2026 08:00:00 GMT";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private OkHttpClient client;
+
+    // Version courante de la liste côté serveur ; change quand la liste est modifiée
+    private int version = 1;
+    private boolean sendEtag = true;
+    private boolean sendLastModified = false;
+    private final List<RecordedRequest> requests = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                synchronized (requests) {
+                    requests.add(request);
+                }
+                return handleList(request);
+            }
+        });
+        server.start();
+
+        client = new OkHttpClient.Builder()
+                .cache(new Cache(folder.newFolder("http"), 1024 * 1024))
+                .addNetworkInterceptor(new ListCacheInterceptor())
+                .eventListenerFactory(RequestMetrics.eventListenerFactory())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void unchangedList_isRevalidatedWith304AndServedFromCache() throws IOException {
+        RequestMetrics.Snapshot before = RequestMetrics.getInstance().snapshot();
+
+        int fetches = 20;
+        for (int i = 0; i < fetches; i++) {
+            if (i == 10) {
+                version = 2; // La liste change une fois
+            }
+            assertEquals(listBody(version), get("products/list.php?user_id=3"));
+        }
+
+        RequestMetrics.Snapshot after = RequestMetrics.getInstance().snapshot();
+        long hits = after.cacheHits - before.cacheHits;
+        long misses = after.cacheMisses - before.cacheMisses;
+        long bytesSaved = after.cacheBytesSaved - before.cacheBytesSaved;
+
+        // Chaque requête part au serveur (revalidation), mais seules 2 téléchargent la liste
+        assertEquals(fetches, server.getRequestCount());
+        assertEquals(18, hits);
+        assertEquals(2, misses);
+        assertEquals(9L * listBody(1).length() + 9L * listBody(2).length(), bytesSaved);
+        assertEquals("\"v1\"", requests.get(1).getHeader("If-None-Match"));
+        assertEquals("\"v1\"", requests.get(10).getHeader("If-None-Match"));
+        assertEquals("\"v2\"", requests.get(11).getHeader("If-None-Match"));
+
+        System.out.println("ListCacheInterceptor : " + fetches + " requêtes, taux de hit "
+                + Math.round(100.0 * hits / (hits + misses)) + " %, " + bytesSaved + " octets économisés");
+    }
+
+    @Test
+    public void lastModified_isRevalidatedWithIfModifiedSince() throws IOException {
+        sendEtag = false;
+        sendLastModified = true;
+
+        get("contacts/list.php?user_id=3");
+        assertEquals(listBody(1), get("contacts/list.php?user_id=3"));
+
+        assertNull(requests.get(1).getHeader("If-None-Match"));
+        assertEquals(LAST_MODIFIED, requests.get(1).getHeader("If-Modified-Since"));
+    }
+
+    @Test
+    public void listWithoutValidator_isNotCached() throws IOException {
+        sendEtag = false;
+
+        get("expenses/list.php?user_id=3");
+        get("expenses/list.php?user_id=3");
+
+        assertEquals(2, server.getRequestCount());
+        assertNull(requests.get(1).getHeader("If-None-Match"));
+        assertNull(requests.get(1).getHeader("If-Modified-Since"));
+    }
+
+    @Test
+    public void otherEndpoints_keepServerCachePolicy() throws IOException {
+        get("products/details.php?id=5");
+        get("products/details.php?id=5");
+
+        assertNull(requests.get(1).getHeader("If-None-Match"));
+    }
+
+    private String get(String path) throws IOException {
+        Request request = new Request.Builder().url(server.url("/api/" + path)).build();
+        try (Response response = client.newCall(request).execute()) {
+            assertEquals(200, response.code());
+            return response.body().string();
+        }
+    }
+
+    private MockResponse handleList(RecordedRequest request) {
+        String etag = "\"v" + version + "\"";
+        if (sendEtag && etag.equals(request.getHeader("If-None-Match"))) {
+            return new MockResponse().setResponseCode(304).setHeader("ETag", etag);
+        }
+        if (sendLastModified && request.getHeader("If-Modified-Since") != null) {
+            return new MockResponse().setResponseCode(304);
+        }
+
+        MockResponse response = new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setHeader("Cache-Control", "no-store, no-cache, must-revalidate")
+                .setHeader("Pragma", "no-cache")
+                .setHeader("Expires", "Thu, 19 Nov 1981 08:52:00 GMT")
+                .setBody(listBody(version));
+        if (sendEtag) {
+            response.setHeader("ETag", etag);
+        }
+        if (sendLastModified) {
+            response.setHeader("Last-Modified", LAST_MODIFIED);
+        }
+        return response;
+    }
+
+    private static String listBody(int version) {
+        StringBuilder json = new StringBuilder("{\"success\":true,\"products\":[");
+        for (int i = 1; i <= 200; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i).append(",\"nom\":\"Produit ").append(i)
+                    .append("\",\"quantite\":").append(i * version).append('}');
+        }
+        return json.append("]}").toString();
+    }
+}
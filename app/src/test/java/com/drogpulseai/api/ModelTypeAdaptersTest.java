@@ -0,0 +1,217 @@
+package com.drogpulseai.api;
+
+import com.drogpulseai.models.Cart;
+import com.drogpulseai.models.CartDetailsResult;
+import com.drogpulseai.models.CartItem;
+import com.drogpulseai.models.Contact;
+import com.drogpulseai.models.Expense;
+import com.drogpulseai.models.Product;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Adaptateurs des modèles : tolérance aux types incorrects, sortie identique à la sérialisation
+ * par réflexion, et temps de lecture d'une liste de 10 000 produits
+ */
+public class ModelTypeAdaptersTest {
+
+    private static final Type PRODUCT_LIST = new TypeToken<List<Product>>(){}.getType();
+
+    private final Gson gson = ModelTypeAdapters.register(new GsonBuilder()).create();
+    private final Gson reflective = new Gson();
+
+    // Configuration de ApiClient avant ces adaptateurs : réflexion et chaînes tolérantes
+    private final Gson before = new GsonBuilder()
+            .setLenient()
+            .registerTypeAdapter(String.class, new TypeAdapter<String>() {
+                @Override
+                public String read(JsonReader reader) throws IOException {
+                    return ModelTypeAdapters.nextString(reader);
+                }
+
+                @Override
+                public void write(JsonWriter writer, String value) throws IOException {
+                    writer.value(value);
+                }
+            })
+            .create();
+
+    @Test
+    public void product_coercesNullsStringNumbersAndBadValues() {
+        Product product = gson.fromJson("{\"id\":\"12\",\"reference\":null,\"name\":42,"
+                + "\"label\":{\"fr\":\"x\"},\"quantity\":\"abc\",\"price\":\"19.5\","
+                + "\"prix_min_vente\":null,\"user_id\":3.0,\"extra\":[1,2,{\"a\":null}]}", Product.class);
+
+        assertEquals(12, product.getId());
+        assertEquals("", product.getReference());
+        assertEquals("42", product.getName());
+        assertEquals("", product.getLabel());
+        assertEquals(0, product.getQuantity());
+        assertEquals(19.5, product.getPrice(), 0);
+        assertEquals(0, product.getPrixMinVente(), 0);
+        assertEquals(3, product.getUserId());
+        // Champ absent : valeur du constructeur
+        assertNull(product.getBarcode());
+        assertFalse(product.isDirty());
+    }
+
+    @Test
+    public void contact_readsBooleanAndLongLeniently() {
+        Contact contact = gson.fromJson("{\"id\":5,\"nom\":\"Alaoui\",\"latitude\":\"33.57\","
+                + "\"last_updated\":\"1760000000000\",\"is_dirty\":\"1\"}", Contact.class);
+
+        assertEquals(5, contact.getId());
+        assertEquals(33.57, contact.getLatitude(), 0);
+        assertEquals(1760000000000L, contact.getLastUpdated());
+        assertTrue(contact.isDirty());
+        assertNull(gson.fromJson("null", Contact.class));
+    }
+
+    @Test
+    public void cart_readsItemsAndSkipsNonArray() {
+        Cart cart = gson.fromJson("{\"id\":7,\"status\":\"pending\",\"total_amount\":\"150.25\","
+                + "\"items\":[{\"product_id\":\"4\",\"quantity\":2,\"price\":10,\"product_name\":null}]}",
+                Cart.class);
+
+        assertEquals(7, cart.getId());
+        assertEquals(150.25, cart.getTotalAmount(), 0);
+        assertEquals(1, cart.getItems().size());
+        CartItem item = cart.getItems().get(0);
+        assertEquals(4, item.getProductId());
+        assertEquals(20.0, item.getTotalPrice(), 0);
+        assertEquals("", item.getProductName());
+
+        assertNull(gson.fromJson("{\"items\":\"\"}", Cart.class).getItems());
+    }
+
+    @Test
+    public void cartDetails_readsBothEnvelopes() {
+        CartDetailsResult nested = gson.fromJson("{\"success\":true,\"data\":{\"count\":1,"
+                + "\"cart\":{\"id\":9,\"items\":[{\"product_id\":4}]}}}", CartDetailsResult.class);
+        assertTrue(nested.isSuccess());
+        assertEquals(9, nested.getCart().getId());
+        assertEquals(1, nested.getCart().getItems().size());
+
+        CartDetailsResult flat = gson.fromJson("{\"success\":\"true\",\"data\":[],"
+                + "\"cart\":{\"id\":\"10\"}}", CartDetailsResult.class);
+        assertTrue(flat.isSuccess());
+        assertEquals(10, flat.getCart().getId());
+
+        CartDetailsResult error = gson.fromJson("{\"success\":false,\"message\":\"Panier introuvable\"}",
+                CartDetailsResult.class);
+        assertFalse(error.isSuccess());
+        assertEquals("Panier introuvable", error.getMessage());
+        assertNull(error.getCart());
+    }
+
+    @Test
+    public void write_matchesReflectiveOutput() {
+        Product product = sampleProduct(1);
+        product.setDescription(null);
+        assertEquals(reflective.toJson(product), gson.toJson(product));
+
+        Contact contact = new Contact("Alaoui", "Sara", "0600000000", null, "", 33.5, -7.6, 3);
+        assertEquals(reflective.toJson(contact), gson.toJson(contact));
+
+        Cart cart = new Cart();
+        cart.setId(-2);
+        cart.setStatus("pending");
+        cart.setItems(Collections.singletonList(new CartItem(product, 3)));
+        assertEquals(reflective.toJson(cart), gson.toJson(cart));
+        cart.setItems(null);
+        assertEquals(reflective.toJson(cart), gson.toJson(cart));
+
+        Expense expense = new Expense("carburant", 300.0, "2026-10-12", "Plein", null, 3);
+        assertEquals(reflective.toJson(expense), gson.toJson(expense));
+
+        cart.setItems(Collections.singletonList(new CartItem(product, 3)));
+        CartDetailsResult result = new CartDetailsResult(true, null, cart);
+        assertEquals(reflective.toJson(result), gson.toJson(result));
+        CartDetailsResult error = new CartDetailsResult(false, "Panier introuvable", null);
+        assertEquals(reflective.toJson(error), gson.toJson(error));
+    }
+
+    @Test
+    public void cartDetails_roundTrip() {
+        Cart cart = new Cart();
+        cart.setId(9);
+        cart.setItems(Collections.singletonList(new CartItem(sampleProduct(4), 2)));
+
+        CartDetailsResult read = gson.fromJson(gson.toJson(new CartDetailsResult(true, "ok", cart)),
+                CartDetailsResult.class);
+        assertTrue(read.isSuccess());
+        assertEquals("ok", read.getMessage());
+        assertEquals(9, read.getCart().getId());
+        assertEquals(4, read.getCart().getItems().get(0).getProductId());
+    }
+
+    @Test
+    public void parse10kProducts_benchmark() {
+        List<Product> source = new ArrayList<>();
+        for (int i = 1; i <= 10_000; i++) {
+            source.add(sampleProduct(i));
+        }
+        String json = reflective.toJson(source);
+
+        // Préchauffage du JIT pour les deux chemins
+        for (int i = 0; i < 10; i++) {
+            before.fromJson(json, PRODUCT_LIST);
+            gson.fromJson(json, PRODUCT_LIST);
+        }
+
+        int rounds = 20;
+        long reflectiveNs = 0;
+        long streamingNs = 0;
+        List<Product> parsed = null;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            before.fromJson(json, PRODUCT_LIST);
+            reflectiveNs += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            parsed = gson.fromJson(json, PRODUCT_LIST);
+            streamingNs += System.nanoTime() - start;
+        }
+
+        assertEquals(source.size(), parsed.size());
+        assertEquals(json, reflective.toJson(parsed));
+
+        System.out.println("ModelTypeAdapters : 10 000 produits (" + json.length() / 1024 + " Ko) lus en "
+                + String.format("%.1f", streamingNs / 1e6 / rounds) + " ms, contre "
+                + String.format("%.1f", reflectiveNs / 1e6 / rounds) + " ms par réflexion");
+    }
+
+    private static Product sampleProduct(int i) {
+        Product product = new Product();
+        product.setId(i);
+        product.setReference("REF-" + i);
+        product.setLabel("Laboratoire " + (i % 40));
+        product.setName("Produit " + i);
+        product.setDescription("Boîte de 30 comprimés, dosage " + (i % 7 + 1) * 100 + " mg");
+        product.setPhotoUrl("https://example.com/uploads/products/" + i + ".jpg");
+        product.setBarcode(String.valueOf(6110000000000L + i));
+        product.setQuantity(i % 250);
+        product.setPrice(10 + (i % 500) / 4.0);
+        product.setUserId(3);
+        product.setCreatedAt("2026-01-01 08:00:00");
+        product.setUpdatedAt("2026-10-12 09:30:00");
+        product.setCoutDeRevientUnitaire(7.5 + (i % 300) / 8.0);
+        product.setPrixMinVente(9 + (i % 400) / 5.0);
+        product.setPrixVenteConseille(12 + (i % 500) / 4.0);
+        return product;
+    }
+}
@@ -0,0 +1,79 @@
+package com.drogpulseai.api;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NetworkLogTest {
+
+    private final NetworkLog log = new NetworkLog();
+
+    @Test
+    public void disabledLog_neverSamples() {
+        log.setSamplePercent(100);
+
+        assertFalse(log.shouldSample());
+    }
+
+    @Test
+    public void samplePercent_boundsSampling() {
+        log.setEnabled(true);
+
+        log.setSamplePercent(0);
+        assertFalse(log.shouldSample());
+
+        log.setSamplePercent(250);
+        assertTrue(log.shouldSample());
+    }
+
+    @Test
+    public void ringBuffer_keepsMostRecentEntries() {
+        log.setMaxEntries(3);
+        for (int i = 1; i <= 5; i++) {
+            log.add(entry("/products/list.php?page=" + i));
+        }
+
+        List<NetworkLog.Entry> entries = log.snapshot();
+        assertEquals(3, entries.size());
+        assertEquals("/products/list.php?page=3", entries.get(0).url);
+        assertEquals("/products/list.php?page=5", entries.get(2).url);
+
+        log.setMaxEntries(1);
+        assertEquals(1, log.snapshot().size());
+    }
+
+    @Test
+    public void exportSnapshot_dropsBodiesAndQueryParameters() {
+        log.add(new NetworkLog.Entry(5, "POST", "/auth/login.php", 200, 80,
+                "{\"email\":\"a@b.ma\",\"password\":\"secret\"}", "{\"token\":\"t\"}", null));
+        log.add(entry("/contacts/search.php?user_id=1&query=Alaoui"));
+
+        List<NetworkLog.Entry> exported = log.exportSnapshot();
+
+        assertEquals(2, exported.size());
+        NetworkLog.Entry login = exported.get(0);
+        assertEquals("POST", login.method);
+        assertEquals("/auth/login.php", login.url);
+        assertEquals(200, login.code);
+        assertEquals(80, login.durationMs);
+        assertNull(login.requestBody);
+        assertNull(login.responseBody);
+        assertEquals("/contacts/search.php", exported.get(1).url);
+
+        // Le journal en mémoire n'est pas modifié
+        assertNotNull(log.snapshot().get(0).requestBody);
+    }
+
+    @Test
+    public void truncate_keepsShortBodiesAndMarksLongOnes() {
+        assertNull(NetworkLog.truncate(null, 4));
+        assertEquals("{\"a\"}", NetworkLog.truncate("{\"a\"}", 5));
+        assertEquals("abcd… (10 caractères)", NetworkLog.truncate("abcdefghij", 4));
+    }
+
+    private static NetworkLog.Entry entry(String url) {
+        return new NetworkLog.Entry(0, "GET", url, 200, 12, null, "{}", null);
+    }
+}
@@ -0,0 +1,72 @@
+package com.drogpulseai.sync;
+
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CartPayloadTest {
+
+    private static final String PAYLOAD =
+            "{\"contact_id\":-3,\"user_id\":7,\"items\":[{\"product_id\":-5,\"quantity\":2},"
+                    + "{\"product_id\":-5,\"quantity\":1},{\"product_id\":40,\"quantity\":1}]}";
+
+    @Test
+    public void temporaryRefs_listsLocalContactAndProductsOnce() {
+        List<SyncEngine.Ref> refs = CartPayload.temporaryRefs(PAYLOAD);
+
+        assertEquals(Arrays.asList(
+                new SyncEngine.Ref(SyncOutboxEntity.TYPE_CONTACT, -3),
+                new SyncEngine.Ref(SyncOutboxEntity.TYPE_PRODUCT, -5)), refs);
+    }
+
+    @Test
+    public void temporaryRefs_acceptsDoublesFromGsonMaps() {
+        List<SyncEngine.Ref> refs = CartPayload.temporaryRefs("{\"contact_id\":-3.0,\"items\":[]}");
+
+        assertEquals(1, refs.size());
+        assertEquals(-3, refs.get(0).entityId);
+    }
+
+    @Test
+    public void remap_rewritesEveryReferenceToTheTemporaryId() {
+        String remapped = CartPayload.remap(PAYLOAD, SyncOutboxEntity.TYPE_PRODUCT, -5, 512);
+
+        assertNotNull(remapped);
+        assertEquals(Arrays.asList(new SyncEngine.Ref(SyncOutboxEntity.TYPE_CONTACT, -3)),
+                CartPayload.temporaryRefs(remapped));
+        assertFalse(remapped.contains("-5"));
+        assertTrue(remapped.contains("\"product_id\":40"));
+    }
+
+    @Test
+    public void remap_keepsIdempotencyKey() {
+        String payload = "{\"contact_id\":-3,\"idempotency_key\":\"6f1c2d\",\"items\":[]}";
+
+        String remapped = CartPayload.remap(payload, SyncOutboxEntity.TYPE_CONTACT, -3, 21);
+
+        assertNotNull(remapped);
+        assertTrue(remapped.contains("\"" + CartPayload.KEY_IDEMPOTENCY_KEY + "\":\"6f1c2d\""));
+        assertTrue(remapped.contains("\"contact_id\":21"));
+    }
+
+    @Test
+    public void remap_ignoresOtherEntityTypesAndIds() {
+        assertNull(CartPayload.remap(PAYLOAD, SyncOutboxEntity.TYPE_CONTACT, -4, 9));
+        assertNull(CartPayload.remap(PAYLOAD, SyncOutboxEntity.TYPE_EXPENSE, -3, 9));
+        assertNull(CartPayload.remap(null, SyncOutboxEntity.TYPE_CONTACT, -3, 9));
+    }
+
+    @Test
+    public void remapItems_rewritesLocalCartItems() {
+        String items = "[{\"product_id\":-5,\"quantity\":2},{\"product_id\":8}]";
+
+        assertEquals("[{\"product_id\":77,\"quantity\":2},{\"product_id\":8}]",
+                CartPayload.remapItems(items, -5, 77));
+        assertNull(CartPayload.remapItems(items, -6, 77));
+    }
+}
@@ -0,0 +1,55 @@
+package com.drogpulseai.sync;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DebouncerTest {
+
+    private static final long WINDOW_MS = 100;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicInteger runs = new AtomicInteger();
+    private final Debouncer debouncer = new Debouncer(executor, WINDOW_MS, runs::incrementAndGet);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void flappingTriggers_runOnce() throws InterruptedException {
+        // Changements de réseau rapprochés (passage d'une antenne à l'autre)
+        for (int i = 0; i < 10; i++) {
+            debouncer.trigger();
+            Thread.sleep(WINDOW_MS / 5);
+        }
+        Thread.sleep(WINDOW_MS * 3);
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void separateBursts_runOncePerBurst() throws InterruptedException {
+        debouncer.trigger();
+        Thread.sleep(WINDOW_MS * 3);
+        debouncer.trigger();
+        Thread.sleep(WINDOW_MS * 3);
+
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void cancel_dropsPendingRun() throws InterruptedException {
+        debouncer.trigger();
+        debouncer.cancel();
+        Thread.sleep(WINDOW_MS * 3);
+
+        assertEquals(0, runs.get());
+    }
+}
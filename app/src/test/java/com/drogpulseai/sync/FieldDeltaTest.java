@@ -0,0 +1,86 @@
+package com.drogpulseai.sync;
+
+import com.drogpulseai.models.Product;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class FieldDeltaTest {
+
+    private static Product product(int quantity, double price, String description) {
+        Product product = new Product();
+        product.setId(12);
+        product.setUserId(7);
+        product.setReference("REF-12");
+        product.setName("Doliprane");
+        product.setQuantity(quantity);
+        product.setPrice(price);
+        product.setDescription(description);
+        product.setUpdatedAt("2024-05-01 10:00:00");
+        return product;
+    }
+
+    @Test
+    public void changedFields_listsOnlyModifiedFields() {
+        Product before = product(10, 25.5, "Boîte de 8");
+        Product after = product(4, 25.5, "Boîte de 8");
+        after.setUpdatedAt("2024-05-02 08:00:00");
+
+        assertEquals(Collections.singleton("quantity"), FieldDelta.changedFields(before, after));
+    }
+
+    @Test
+    public void changedFields_countsClearedFields() {
+        Set<String> fields = FieldDelta.changedFields(product(10, 25.5, "Boîte de 8"), product(10, 25.5, null));
+
+        assertEquals(Collections.singleton("description"), fields);
+    }
+
+    @Test
+    public void joinAndSplit_roundTrip() {
+        Set<String> fields = new HashSet<>(Arrays.asList("quantity", "price"));
+
+        assertEquals("price,quantity", FieldDelta.join(fields));
+        assertEquals(fields, FieldDelta.split(" price,,quantity "));
+        assertTrue(FieldDelta.split(null).isEmpty());
+    }
+
+    @Test
+    public void patch_sendsIdBaseAndChangedFieldsOnly() {
+        Map<String, Object> patch = FieldDelta.patch(product(4, 25.5, "Boîte de 8"),
+                new HashSet<>(Arrays.asList("quantity", "price")), 12, "2024-05-01 10:00:00");
+
+        assertNotNull(patch);
+        assertEquals(4, patch.size());
+        assertEquals(12, patch.get("id"));
+        assertEquals(4L, patch.get("quantity"));
+        assertEquals(25.5, patch.get("price"));
+        assertEquals("2024-05-01 10:00:00", patch.get(FieldDelta.BASE_UPDATED_AT));
+    }
+
+    @Test
+    public void patch_fallsBackToFullPayloadForClearedField() {
+        assertNull(FieldDelta.patch(product(4, 25.5, null), Collections.singleton("description"), 12, null));
+    }
+
+    @Test
+    public void rebase_keepsServerValuesForFieldsNotChangedLocally() {
+        Product server = product(10, 30.0, "Boîte de 16");
+        server.setUpdatedAt("2024-05-03 09:00:00");
+        Product local = product(4, 25.5, "Boîte de 8");
+
+        Product merged = FieldDelta.rebase(server, local, Collections.singleton("quantity"), Product.class);
+
+        assertEquals(4, merged.getQuantity());
+        assertEquals(30.0, merged.getPrice(), 0.0);
+        assertEquals("Boîte de 16", merged.getDescription());
+        assertEquals("2024-05-03 09:00:00", merged.getUpdatedAt());
+    }
+}
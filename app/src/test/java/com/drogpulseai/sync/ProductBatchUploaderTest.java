@@ -0,0 +1,213 @@
+package com.drogpulseai.sync;
+
+import com.drogpulseai.api.ApiService;
+import com.drogpulseai.models.Product;
+import com.drogpulseai.models.ProductBatchResult;
+import com.drogpulseai.utils.NetworkResult;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Envoi par lots contre un serveur HTTP local simulant products/batch_sync.php
+ */
+public class ProductBatchUploaderTest {
+
+    private static final int SERVER_ID_OFFSET = 10_000;
+
+    private final Gson gson = new Gson();
+    private MockWebServer server;
+    private ApiService apiService;
+
+    // IDs que le serveur simulé refuse
+    private final Set<Integer> rejectedIds = new HashSet<>();
+    // Numéro de requête (à partir de 1) à laquelle le serveur répond 500
+    private int failingRequest = -1;
+    private int requestCount = 0;
+    // Éléments reçus par le serveur simulé, par ID client
+    private final Map<Integer, JsonObject> received = new HashMap<>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return handleBatch(request);
+            }
+        });
+        server.start();
+
+        apiService = new Retrofit.Builder()
+                .baseUrl(server.url("/api/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(ApiService.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void upload500Products_remapsTempIdsAndReportsOnlyFailures() {
+        rejectedIds.add(-7);
+        rejectedIds.add(42);
+        List<Product> products = dirtyProducts(500);
+        RecordingCallback callback = new RecordingCallback();
+
+        long start = System.nanoTime();
+        int synced = new ProductBatchUploader(apiService, 50).upload(products, callback);
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        System.out.println("ProductBatchUploader : " + products.size() + " produits en " + elapsedMs
+                + " ms (" + (products.size() * 1000L / elapsedMs) + " produits/s, "
+                + server.getRequestCount() + " requêtes)");
+
+        assertEquals(10, server.getRequestCount());
+        assertEquals(498, synced);
+        assertEquals(498, callback.synced.size());
+        assertEquals(new HashSet<>(rejectedIds), callback.failed.keySet());
+
+        // Création hors ligne : l'ID temporaire est associé à l'ID serveur
+        assertEquals(SERVER_ID_OFFSET + 1, callback.synced.get(-1).getId());
+        // Mise à jour : l'ID ne change pas
+        assertEquals(1, callback.synced.get(1).getId());
+    }
+
+    @Test
+    public void serverErrorOnOneChunk_failsOnlyThatChunk() {
+        failingRequest = 2;
+        RecordingCallback callback = new RecordingCallback();
+
+        int synced = new ProductBatchUploader(apiService, 10).upload(dirtyProducts(30), callback);
+
+        assertEquals(3, server.getRequestCount());
+        assertEquals(20, synced);
+        assertEquals(10, callback.failed.size());
+    }
+
+    @Test
+    public void patchedUpdate_sendsOnlyChangedFieldsAndBaseVersion() {
+        List<Product> products = dirtyProducts(4);
+        Map<String, Object> patch = FieldDelta.patch(products.get(1), Collections.singleton("name"), 1,
+                "2026-10-01 10:00:00");
+        RecordingCallback callback = new RecordingCallback();
+
+        int synced = new ProductBatchUploader(apiService, 10)
+                .upload(products, Collections.singletonMap(1, patch), callback);
+
+        assertEquals(4, synced);
+
+        JsonObject partial = received.get(1);
+        assertEquals(new HashSet<>(Arrays.asList("id", "name", FieldDelta.BASE_UPDATED_AT)), partial.keySet());
+        assertEquals("Produit 2", partial.get("name").getAsString());
+        assertEquals("2026-10-01 10:00:00", partial.get(FieldDelta.BASE_UPDATED_AT).getAsString());
+
+        // Les autres produits partent entiers
+        assertEquals("REF-4", received.get(2).get("reference").getAsString());
+        assertEquals("REF-1", received.get(-1).get("reference").getAsString());
+    }
+
+    @Test
+    public void networkFailure_stopsAndFailsRemainingProducts() {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START);
+            }
+        });
+        RecordingCallback callback = new RecordingCallback();
+
+        int synced = new ProductBatchUploader(apiService, 10).upload(dirtyProducts(30), callback);
+
+        assertEquals(0, synced);
+        assertEquals(30, callback.failed.size());
+        assertTrue(server.getRequestCount() <= 2);
+    }
+
+    private MockResponse handleBatch(RecordedRequest request) {
+        requestCount++;
+        if (requestCount == failingRequest) {
+            return new MockResponse().setResponseCode(500);
+        }
+
+        JsonObject body = gson.fromJson(request.getBody().readUtf8(), JsonObject.class);
+        List<ProductBatchResult> results = new ArrayList<>();
+
+        for (JsonElement element : body.getAsJsonArray("products")) {
+            Product sent = gson.fromJson(element, Product.class);
+            int clientId = sent.getId();
+            received.put(clientId, element.getAsJsonObject());
+
+            if (rejectedIds.contains(clientId)) {
+                results.add(new ProductBatchResult(clientId, false, "Référence déjà utilisée", null));
+                continue;
+            }
+
+            Product saved = gson.fromJson(element, Product.class);
+            saved.setId(clientId < 0 ? SERVER_ID_OFFSET - clientId : clientId);
+            results.add(new ProductBatchResult(clientId, true, null, saved));
+        }
+
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(gson.toJson(NetworkResult.success(results)));
+    }
+
+    /**
+     * Moitié de créations hors ligne (IDs négatifs), moitié de mises à jour
+     */
+    private static List<Product> dirtyProducts(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Product product = new Product();
+            product.setId(i % 2 == 0 ? i / 2 : -(i / 2 + 1));
+            product.setName("Produit " + i);
+            product.setReference("REF-" + i);
+            product.setUserId(1);
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static class RecordingCallback implements ProductBatchUploader.Callback {
+        final Map<Integer, Product> synced = new HashMap<>();
+        final Map<Integer, String> failed = new HashMap<>();
+
+        @Override
+        public void onProductSynced(int clientId, Product serverProduct) {
+            synced.put(clientId, serverProduct);
+        }
+
+        @Override
+        public void onProductFailed(int clientId, String reason) {
+            failed.put(clientId, reason);
+        }
+    }
+}
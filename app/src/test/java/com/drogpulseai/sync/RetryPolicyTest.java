@@ -0,0 +1,49 @@
+package com.drogpulseai.sync;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class RetryPolicyTest {
+
+    private static final long BASE_MS = 30_000;
+    private static final long MAX_MS = 6 * 60 * 60_000L;
+
+    private final RetryPolicy policy = new RetryPolicy(8, BASE_MS, MAX_MS, new Random(42));
+
+    @Test
+    public void delay_growsExponentially_withinJitterBounds() {
+        for (int attempt = 1; attempt <= 8; attempt++) {
+            long ceiling = Math.min(MAX_MS, BASE_MS << (attempt - 1));
+            long delay = policy.delayMs(attempt);
+
+            assertTrue("échec " + attempt + " : " + delay, delay >= ceiling / 2);
+            assertTrue("échec " + attempt + " : " + delay, delay <= ceiling);
+        }
+    }
+
+    @Test
+    public void delay_isCappedForManyFailures() {
+        assertTrue(policy.delayMs(1_000) <= MAX_MS);
+        assertTrue(policy.delayMs(1_000) >= MAX_MS / 2);
+    }
+
+    @Test
+    public void jitter_spreadsRetriesOfSimultaneousFailures() {
+        Set<Long> delays = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            delays.add(policy.delayMs(3));
+        }
+        assertTrue(delays.size() > 10);
+    }
+
+    @Test
+    public void deadLetter_afterMaxAttempts() {
+        assertFalse(policy.isExhausted(7));
+        assertTrue(policy.isExhausted(8));
+    }
+}
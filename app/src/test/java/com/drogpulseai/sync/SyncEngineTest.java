@@ -0,0 +1,223 @@
+package com.drogpulseai.sync;
+
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SyncEngineTest {
+
+    private static final String CART_PAYLOAD =
+            "{\"contact_id\":-1,\"user_id\":7,\"items\":[{\"product_id\":-2,\"quantity\":3},"
+                    + "{\"product_id\":15,\"quantity\":1}]}";
+
+    private final FakeOutbox outbox = new FakeOutbox();
+    private final List<String> pushed = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> failing = new HashSet<>();
+
+    // Le serveur attribue 100 + |ID temporaire| ; les références des paniers sont réécrites
+    // comme le fait TempIdRemapper
+    private final SyncEngine engine = new SyncEngine(outbox, new UploadPipeline(4), Arrays.asList(
+            new FakeHandler(SyncOutboxEntity.TYPE_CONTACT),
+            new FakeHandler(SyncOutboxEntity.TYPE_PRODUCT),
+            new FakeHandler(SyncOutboxEntity.TYPE_CART)));
+
+    @Test
+    public void cart_isSentAfterItsParents_withServerIds_inOnePass() {
+        SyncOutboxEntity cart = outbox.add(SyncOutboxEntity.TYPE_CART, -1, CART_PAYLOAD);
+        outbox.add(SyncOutboxEntity.TYPE_CONTACT, -1, null);
+        outbox.add(SyncOutboxEntity.TYPE_PRODUCT, -2, null);
+
+        List<SyncOutboxEntity> notSent = engine.run(null);
+
+        assertTrue(notSent.isEmpty());
+        assertEquals(3, pushed.size());
+        assertEquals("cart -1", pushed.get(2));
+        assertTrue(outbox.entries.isEmpty());
+
+        // Le panier est parti avec les IDs serveur de son contact et de son produit
+        assertTrue(outbox.sentPayloads.get(cart.getOutboxId()).contains("\"contact_id\":101"));
+        assertTrue(outbox.sentPayloads.get(cart.getOutboxId()).contains("\"product_id\":102"));
+        assertTrue(outbox.sentPayloads.get(cart.getOutboxId()).contains("\"product_id\":15"));
+    }
+
+    @Test
+    public void failedParent_holdsChild_withoutCountingFailure() {
+        SyncOutboxEntity contact = outbox.add(SyncOutboxEntity.TYPE_CONTACT, -1, null);
+        SyncOutboxEntity cart = outbox.add(SyncOutboxEntity.TYPE_CART, -1, CART_PAYLOAD);
+        outbox.add(SyncOutboxEntity.TYPE_PRODUCT, -2, null);
+        failing.add("contact -1");
+
+        List<SyncOutboxEntity> notSent = engine.run(null);
+
+        assertEquals(2, notSent.size());
+        assertFalse(pushed.contains("cart -1"));
+        assertEquals(1, contact.getAttemptCount());
+        assertEquals(0, cart.getAttemptCount());
+        assertEquals(contact.getNextAttemptAt(), cart.getNextAttemptAt());
+    }
+
+    @Test
+    public void parentWaitingForRetry_defersChild() {
+        SyncOutboxEntity contact = outbox.add(SyncOutboxEntity.TYPE_CONTACT, -1, null);
+        contact.setNextAttemptAt(Long.MAX_VALUE / 2);
+        SyncOutboxEntity cart = outbox.add(SyncOutboxEntity.TYPE_CART, -1, CART_PAYLOAD);
+        outbox.add(SyncOutboxEntity.TYPE_PRODUCT, -2, null);
+
+        engine.run(null);
+
+        assertEquals(Collections.singletonList("product -2"), pushed);
+        assertEquals(contact.getNextAttemptAt(), cart.getNextAttemptAt());
+        assertEquals(0, cart.getAttemptCount());
+    }
+
+    @Test
+    public void deadLetterParent_abandonsChild() {
+        SyncOutboxEntity contact = outbox.add(SyncOutboxEntity.TYPE_CONTACT, -1, null);
+        contact.setDeadLetter(true);
+        SyncOutboxEntity cart = outbox.add(SyncOutboxEntity.TYPE_CART, -1, CART_PAYLOAD);
+
+        engine.run(null);
+
+        assertTrue(pushed.isEmpty());
+        assertTrue(cart.isDeadLetter());
+    }
+
+    @Test
+    public void progress_coversEveryEntry() {
+        outbox.add(SyncOutboxEntity.TYPE_CART, -1, CART_PAYLOAD);
+        outbox.add(SyncOutboxEntity.TYPE_CONTACT, -1, null);
+        outbox.add(SyncOutboxEntity.TYPE_PRODUCT, -2, null);
+        outbox.add(SyncOutboxEntity.TYPE_PRODUCT, 20, null);
+
+        int[] last = new int[2];
+        engine.run((done, total) -> {
+            synchronized (last) {
+                last[0] = Math.max(last[0], done);
+                last[1] = total;
+            }
+        });
+
+        assertEquals(4, last[0]);
+        assertEquals(4, last[1]);
+    }
+
+    private class FakeHandler implements SyncEngine.Handler {
+        private final String entityType;
+
+        FakeHandler(String entityType) {
+            this.entityType = entityType;
+        }
+
+        @Override
+        public String getEntityType() {
+            return entityType;
+        }
+
+        @Override
+        public List<SyncEngine.Ref> parentsOf(SyncOutboxEntity entry) {
+            return SyncOutboxEntity.TYPE_CART.equals(entityType)
+                    ? CartPayload.temporaryRefs(entry.getPayload())
+                    : Collections.emptyList();
+        }
+
+        @Override
+        public Object laneKey(SyncOutboxEntity entry) {
+            return null;
+        }
+
+        @Override
+        public boolean push(SyncOutboxEntity entry) {
+            String key = entityType + " " + entry.getEntityId();
+            pushed.add(key);
+            if (failing.contains(key)) {
+                return false;
+            }
+            outbox.complete(entry, 100 - entry.getEntityId());
+            return true;
+        }
+    }
+
+    private static class FakeOutbox implements SyncEngine.Outbox {
+        final Map<Long, SyncOutboxEntity> entries = new LinkedHashMap<>();
+        final Map<Long, String> sentPayloads = new LinkedHashMap<>();
+        private long nextOutboxId = 1;
+
+        synchronized SyncOutboxEntity add(String entityType, int entityId, String payload) {
+            SyncOutboxEntity entry = new SyncOutboxEntity(entityType, entityId, SyncOutboxEntity.OP_UPSERT, payload);
+            entry.setOutboxId(nextOutboxId++);
+            entries.put(entry.getOutboxId(), entry);
+            return entry;
+        }
+
+        synchronized void complete(SyncOutboxEntity entry, int serverId) {
+            sentPayloads.put(entry.getOutboxId(), entry.getPayload());
+            entries.remove(entry.getOutboxId());
+            if (entry.getEntityId() < 0) {
+                for (SyncOutboxEntity other : entries.values()) {
+                    String payload = CartPayload.remap(other.getPayload(), entry.getEntityType(),
+                            entry.getEntityId(), serverId);
+                    if (payload != null) {
+                        other.setPayload(payload);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public synchronized List<SyncOutboxEntity> getDueEntries(String entityType) {
+            long now = System.currentTimeMillis();
+            List<SyncOutboxEntity> due = new ArrayList<>();
+            for (SyncOutboxEntity entry : entries.values()) {
+                if (entry.getEntityType().equals(entityType) && !entry.isDeadLetter()
+                        && entry.getNextAttemptAt() <= now) {
+                    due.add(entry);
+                }
+            }
+            return due;
+        }
+
+        @Override
+        public synchronized SyncOutboxEntity findPending(String entityType, int entityId) {
+            for (SyncOutboxEntity entry : entries.values()) {
+                if (entry.getEntityType().equals(entityType) && entry.getEntityId() == entityId) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public synchronized SyncOutboxEntity reloadPending(SyncOutboxEntity entry) {
+            return entries.get(entry.getOutboxId());
+        }
+
+        @Override
+        public synchronized void recordSyncFailure(SyncOutboxEntity entry, String error) {
+            entry.setAttemptCount(entry.getAttemptCount() + 1);
+            entry.setNextAttemptAt(System.currentTimeMillis() + 60_000);
+            entry.setLastError(error);
+        }
+
+        @Override
+        public synchronized void deferSync(SyncOutboxEntity entry, long nextAttemptAt) {
+            entry.setNextAttemptAt(nextAttemptAt);
+        }
+
+        @Override
+        public synchronized void abandonSync(SyncOutboxEntity entry, String error) {
+            entry.setDeadLetter(true);
+            entry.setLastError(error);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.drogpulseai.sync;
+
+import com.drogpulseai.database.entity.SyncOutboxEntity;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SyncRunStatsTest {
+
+    @Test
+    public void recordRequest_fillsHistogramAndByteCounters() {
+        SyncRunStats run = SyncRunStats.start();
+
+        run.recordRequest(40, 300, 1200, false);
+        run.recordRequest(100, 50, 0, false);
+        run.recordRequest(12_000, 0, 0, true);
+
+        int[] histogram = run.getLatencyHistogram();
+        assertEquals(1, histogram[0]);
+        assertEquals(1, histogram[1]);
+        assertEquals(1, histogram[SyncRunStats.LATENCY_BUCKETS_MS.length]);
+        assertEquals(3, run.getRequests());
+        assertEquals(1, run.getFailedRequests());
+        assertEquals(350, run.getBytesSent());
+        assertEquals(1200, run.getBytesReceived());
+    }
+
+    @Test
+    public void instrument_countsOperationsAndBindsRunDuringPush() throws Exception {
+        SyncRunStats run = SyncRunStats.start();
+        SyncRunStats[] seen = new SyncRunStats[1];
+
+        SyncEngine.Handler handler = run.instrument(new SyncEngine.Handler() {
+            @Override
+            public String getEntityType() {
+                return SyncOutboxEntity.TYPE_PRODUCT;
+            }
+
+            @Override
+            public List<SyncEngine.Ref> parentsOf(SyncOutboxEntity entry) {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public Object laneKey(SyncOutboxEntity entry) {
+                return null;
+            }
+
+            @Override
+            public boolean push(SyncOutboxEntity entry) throws Exception {
+                seen[0] = SyncRunStats.current();
+                if (entry.getEntityId() == 3) {
+                    throw new Exception("réseau indisponible");
+                }
+                return entry.getEntityId() > 0;
+            }
+        });
+
+        assertTrue(handler.push(entry(1)));
+        assertFalse(handler.push(entry(-2)));
+        try {
+            handler.push(entry(3));
+            fail();
+        } catch (Exception expected) {
+            // compté comme un échec
+        }
+
+        assertSame(run, seen[0]);
+        assertNull(SyncRunStats.current());
+        assertEquals(3, run.getAttempted());
+        assertEquals(1, run.getSucceeded());
+    }
+
+    @Test
+    public void attach_bindsRunOnlyDuringAction() {
+        SyncRunStats outer = SyncRunStats.start();
+        SyncRunStats run = SyncRunStats.start();
+
+        SyncRunStats seen = outer.attach(() -> run.attach(SyncRunStats::current));
+
+        assertSame(run, seen);
+        assertNull(SyncRunStats.current());
+        // Les opérations restent comptées par l'appelant
+        assertEquals(0, run.getAttempted());
+    }
+
+    @Test
+    public void json_roundTripKeepsCounters() {
+        SyncRunStats run = SyncRunStats.start();
+        run.recordOperation(true);
+        run.recordRequest(600, 10, 20, false);
+        run.finish();
+
+        Gson gson = new Gson();
+        SyncRunStats copy = gson.fromJson(gson.toJson(run), SyncRunStats.class);
+
+        assertEquals(run.getStartedAt(), copy.getStartedAt());
+        assertEquals(1, copy.getSucceeded());
+        assertEquals(1, copy.getLatencyHistogram()[3]);
+        assertEquals(20, copy.getBytesReceived());
+    }
+
+    private static SyncOutboxEntity entry(int entityId) {
+        return new SyncOutboxEntity(SyncOutboxEntity.TYPE_PRODUCT, entityId, SyncOutboxEntity.OP_UPSERT, null);
+    }
+}
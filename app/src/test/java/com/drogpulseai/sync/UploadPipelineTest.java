@@ -0,0 +1,110 @@
+package com.drogpulseai.sync;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Envois concurrents bornés : limite de parallélisme, ordre des éléments dépendants,
+ * progression et éléments restant en file après un échec
+ */
+public class UploadPipelineTest {
+
+    private static final int ROUND_TRIP_MS = 20;
+
+    @Test
+    public void parallelUploads_neverExceedCap_andBeatSequentialTime() {
+        List<Integer> ids = ids(60);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        long start = System.nanoTime();
+        List<Integer> failed = new UploadPipeline(4).run(ids, null, id -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            Thread.sleep(ROUND_TRIP_MS);
+            inFlight.decrementAndGet();
+            return true;
+        }, null);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("UploadPipeline : " + ids.size() + " envois en " + elapsedMs
+                + " ms (séquentiel : ~" + ids.size() * ROUND_TRIP_MS + " ms)");
+
+        assertTrue(failed.isEmpty());
+        assertEquals(4, maxInFlight.get());
+        assertTrue(elapsedMs < ids.size() * ROUND_TRIP_MS);
+    }
+
+    @Test
+    public void dependentItems_areUploadedInQueueOrder() {
+        List<Integer> ids = ids(40);
+        List<Integer> sameKeyOrder = Collections.synchronizedList(new ArrayList<>());
+
+        List<Integer> failed = new UploadPipeline(8).run(ids, id -> id % 2 == 0 ? "REF-PAIR" : null, id -> {
+            if (id % 2 == 0) {
+                sameKeyOrder.add(id);
+            }
+            Thread.sleep(1);
+            return true;
+        }, null);
+
+        assertTrue(failed.isEmpty());
+        List<Integer> expected = new ArrayList<>();
+        for (int id : ids) {
+            if (id % 2 == 0) {
+                expected.add(id);
+            }
+        }
+        assertEquals(expected, sameKeyOrder);
+    }
+
+    @Test
+    public void failure_keepsItemAndItsDependentsInQueue() {
+        List<Integer> ids = ids(10);
+        List<Integer> uploaded = Collections.synchronizedList(new ArrayList<>());
+
+        // 1, 4, 7, 10 dépendent les uns des autres ; 4 échoue
+        List<Integer> failed = new UploadPipeline(3).run(ids, id -> id % 3 == 1 ? "lane" : null, id -> {
+            if (id == 4) {
+                throw new IllegalStateException("Erreur serveur");
+            }
+            uploaded.add(id);
+            return true;
+        }, null);
+
+        assertEquals(Arrays.asList(4, 7, 10), failed);
+        assertFalse(uploaded.contains(7));
+        assertFalse(uploaded.contains(10));
+        assertEquals(7, uploaded.size());
+    }
+
+    @Test
+    public void progress_reachesTotal() {
+        List<Integer> ids = ids(25);
+        AtomicInteger lastDone = new AtomicInteger();
+        AtomicInteger reportedTotal = new AtomicInteger();
+
+        new UploadPipeline(4).run(ids, null, id -> id != 5, (done, total) -> {
+            lastDone.accumulateAndGet(done, Math::max);
+            reportedTotal.set(total);
+        });
+
+        assertEquals(25, lastDone.get());
+        assertEquals(25, reportedTotal.get());
+    }
+
+    private static List<Integer> ids(int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            ids.add(i);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,52 @@
+package com.drogpulseai.workers;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class PeriodicSyncWorkerTest {
+
+    private static final Function<String, String> SELF = updatedAt -> updatedAt;
+
+    @Test
+    public void latestOf_keepsMostRecentAndIgnoresMissingValues() {
+        assertEquals("2026-10-02 08:00:00", PeriodicSyncWorker.latestOf(null, "2026-10-02 08:00:00"));
+        assertEquals("2026-10-02 08:00:00",
+                PeriodicSyncWorker.latestOf("2026-10-02 08:00:00", "2026-10-01 23:59:59"));
+        assertEquals("2026-10-02 08:00:01",
+                PeriodicSyncWorker.latestOf("2026-10-02 08:00:00", "2026-10-02 08:00:01"));
+        assertEquals("2026-10-02 08:00:00", PeriodicSyncWorker.latestOf("2026-10-02 08:00:00", null));
+        assertEquals("2026-10-02 08:00:00", PeriodicSyncWorker.latestOf("2026-10-02 08:00:00", ""));
+        assertNull(PeriodicSyncWorker.latestOf(null, null));
+    }
+
+    @Test
+    public void advanceMark_firstPassTakesMostRecentReceived() {
+        List<String> received = Arrays.asList("2026-10-01 10:00:00", null, "2026-10-03 09:30:00", "2026-10-02 12:00:00");
+
+        assertEquals("2026-10-03 09:30:00", PeriodicSyncWorker.advanceMark(null, received, SELF));
+    }
+
+    @Test
+    public void advanceMark_unchangedWhenNothingNewer() {
+        String since = "2026-10-03 09:30:00";
+
+        // Rien reçu, ou seulement les enregistrements de la seconde du repère (reçus deux fois)
+        assertNull(PeriodicSyncWorker.advanceMark(since, Collections.emptyList(), SELF));
+        assertNull(PeriodicSyncWorker.advanceMark(since, Arrays.asList(since, "2026-10-01 10:00:00"), SELF));
+        assertNull(PeriodicSyncWorker.advanceMark(null, Collections.singletonList(null), SELF));
+    }
+
+    @Test
+    public void advanceMark_neverMovesBackwards() {
+        String since = "2026-10-03 09:30:00";
+
+        assertEquals("2026-10-03 09:30:01",
+                PeriodicSyncWorker.advanceMark(since, Arrays.asList("2026-09-30 00:00:00", "2026-10-03 09:30:01"), SELF));
+    }
+}